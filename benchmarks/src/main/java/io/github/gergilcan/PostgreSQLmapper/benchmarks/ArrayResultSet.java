@@ -0,0 +1,253 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+
+import org.postgresql.util.PGobject;
+
+/**
+ * An in-memory, forward-only {@link ResultSet} over rows of the values PgJDBC
+ * returns from {@code getObject} ({@code Long}, {@code String},
+ * {@link Timestamp}, {@link PGobject}, ...). The text form PgJDBC would return
+ * from {@code getString} is computed once up front, so reading a cell costs an
+ * array access. {@link #beforeFirst()} rewinds the cursor, letting benchmarks
+ * map the same table on every invocation; {@link #close()} does nothing.
+ */
+final class ArrayResultSet extends UnsupportedResultSet {
+
+  private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+      .appendPattern("yyyy-MM-dd HH:mm:ss")
+      .appendFraction(ChronoField.NANO_OF_SECOND, 0, 6, true)
+      .toFormatter();
+
+  private final ArrayResultSetMetaData metaData;
+  private final Object[][] rows;
+  private final String[][] text;
+  private int row = -1;
+  private boolean wasNull;
+
+  /**
+   * @param metaData The columns
+   * @param rows     The cells, one array per row, as returned by
+   *                 {@code getObject}
+   */
+  ArrayResultSet(ArrayResultSetMetaData metaData, Object[][] rows) {
+    this.metaData = metaData;
+    this.rows = rows;
+    this.text = new String[rows.length][];
+    for (int r = 0; r < rows.length; r++) {
+      text[r] = new String[rows[r].length];
+      for (int c = 0; c < rows[r].length; c++) {
+        text[r][c] = text(rows[r][c], metaData.column(c + 1).typeName());
+      }
+    }
+  }
+
+  int rowCount() {
+    return rows.length;
+  }
+
+  /**
+   * Formats a value the way PostgreSQL sends it in the text protocol
+   */
+  private static String text(Object value, String typeName) {
+    if (value == null) {
+      return null;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value ? "t" : "f";
+    } else if (value instanceof Timestamp) {
+      if ("timestamptz".equals(typeName)) {
+        return TIMESTAMP.format(((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC)) + "+00";
+      }
+      return TIMESTAMP.format(((Timestamp) value).toLocalDateTime());
+    } else if (value instanceof PGobject) {
+      return ((PGobject) value).getValue();
+    }
+    return value.toString();
+  }
+
+  private Object value(int columnIndex) {
+    Object value = rows[row][columnIndex - 1];
+    wasNull = value == null;
+    return value;
+  }
+
+  @Override
+  public boolean next() {
+    if (row < rows.length) {
+      row++;
+    }
+    return row < rows.length;
+  }
+
+  @Override
+  public void beforeFirst() {
+    row = -1;
+  }
+
+  @Override
+  public void close() {
+    // Fixtures are reused across invocations
+  }
+
+  @Override
+  public boolean isClosed() {
+    return false;
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() {
+    return metaData;
+  }
+
+  @Override
+  public boolean wasNull() {
+    return wasNull;
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+      if (metaData.getColumnName(i).equals(columnLabel)) {
+        return i;
+      }
+    }
+    throw new SQLException("No column " + columnLabel);
+  }
+
+  @Override
+  public Object getObject(int columnIndex) {
+    return value(columnIndex);
+  }
+
+  @Override
+  public Object getObject(String columnLabel) throws SQLException {
+    return getObject(findColumn(columnLabel));
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    Object value = value(columnIndex);
+    if (value == null || type.isInstance(value)) {
+      return type.cast(value);
+    } else if (type == LocalDate.class && value instanceof Date) {
+      return type.cast(((Date) value).toLocalDate());
+    } else if (type == LocalDateTime.class && value instanceof Timestamp) {
+      return type.cast(((Timestamp) value).toLocalDateTime());
+    } else if (type == OffsetDateTime.class && value instanceof Timestamp) {
+      return type.cast(((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC));
+    } else if (type == String.class) {
+      return type.cast(text[row][columnIndex - 1]);
+    }
+    throw unsupported();
+  }
+
+  @Override
+  public String getString(int columnIndex) {
+    value(columnIndex);
+    return text[row][columnIndex - 1];
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    return getString(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte[] getBytes(int columnIndex) {
+    String value = getString(columnIndex);
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) {
+    Object value = value(columnIndex);
+    return value != null && (Boolean) value;
+  }
+
+  @Override
+  public short getShort(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : ((Number) value).shortValue();
+  }
+
+  @Override
+  public int getInt(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : ((Number) value).intValue();
+  }
+
+  @Override
+  public long getLong(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  @Override
+  public float getFloat(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : ((Number) value).floatValue();
+  }
+
+  @Override
+  public double getDouble(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : ((Number) value).doubleValue();
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) {
+    return (BigDecimal) value(columnIndex);
+  }
+
+  @Override
+  public Date getDate(int columnIndex) {
+    return (Date) value(columnIndex);
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex) {
+    return (Timestamp) value(columnIndex);
+  }
+
+  @Override
+  public int getType() {
+    return TYPE_FORWARD_ONLY;
+  }
+
+  @Override
+  public int getFetchSize() {
+    // Like PgJDBC without a cursor: every row is fetched at once
+    return 0;
+  }
+
+  @Override
+  public int getConcurrency() {
+    return CONCUR_READ_ONLY;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw unsupported();
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) {
+    return type.isInstance(this);
+  }
+}
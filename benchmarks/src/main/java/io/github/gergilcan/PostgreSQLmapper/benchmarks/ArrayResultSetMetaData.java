@@ -0,0 +1,148 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The metadata of an {@link ArrayResultSet}: column names, JDBC types and
+ * PostgreSQL type names as PgJDBC reports them.
+ */
+final class ArrayResultSetMetaData implements ResultSetMetaData {
+
+  /**
+   * @param name     The column name
+   * @param type     The {@link java.sql.Types} constant PgJDBC reports
+   * @param typeName The PostgreSQL type name
+   */
+  record Column(String name, int type, String typeName) {
+  }
+
+  private final Column[] columns;
+
+  ArrayResultSetMetaData(List<Column> columns) {
+    this.columns = columns.toArray(new Column[0]);
+  }
+
+  Column column(int column) {
+    return columns[column - 1];
+  }
+
+  @Override
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return columns[column - 1].name();
+  }
+
+  @Override
+  public String getColumnLabel(int column) {
+    return columns[column - 1].name();
+  }
+
+  @Override
+  public int getColumnType(int column) {
+    return columns[column - 1].type();
+  }
+
+  @Override
+  public String getColumnTypeName(int column) {
+    return columns[column - 1].typeName();
+  }
+
+  @Override
+  public boolean isAutoIncrement(int column) {
+    return false;
+  }
+
+  @Override
+  public boolean isCaseSensitive(int column) {
+    return true;
+  }
+
+  @Override
+  public boolean isSearchable(int column) {
+    return true;
+  }
+
+  @Override
+  public boolean isCurrency(int column) {
+    return false;
+  }
+
+  @Override
+  public int isNullable(int column) {
+    return columnNullable;
+  }
+
+  @Override
+  public boolean isSigned(int column) {
+    return true;
+  }
+
+  @Override
+  public int getColumnDisplaySize(int column) {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public String getSchemaName(int column) {
+    return "";
+  }
+
+  @Override
+  public int getPrecision(int column) {
+    return 0;
+  }
+
+  @Override
+  public int getScale(int column) {
+    return 0;
+  }
+
+  @Override
+  public String getTableName(int column) {
+    return "";
+  }
+
+  @Override
+  public String getCatalogName(int column) {
+    return "";
+  }
+
+  @Override
+  public boolean isReadOnly(int column) {
+    return true;
+  }
+
+  @Override
+  public boolean isWritable(int column) {
+    return false;
+  }
+
+  @Override
+  public boolean isDefinitelyWritable(int column) {
+    return false;
+  }
+
+  @Override
+  public String getColumnClassName(int column) {
+    return Object.class.getName();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw UnsupportedResultSet.unsupported();
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) {
+    return type.isInstance(this);
+  }
+}
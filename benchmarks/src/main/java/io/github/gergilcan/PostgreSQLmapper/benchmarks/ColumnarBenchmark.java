@@ -0,0 +1,71 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.ColumnarBatch;
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * Summing the balance of active customers: {@link PostgresEntityMapper#mapColumnar}
+ * against mapping an array of entities and summing their properties.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.customers(rows);
+  }
+
+  @Benchmark
+  public double columnar() throws SQLException {
+    table.beforeFirst();
+    ColumnarBatch batch = mapper.mapColumnar(table);
+    double[] balances = ((ColumnarBatch.DoubleColumn) batch.column("balance")).values();
+    boolean[] active = ((ColumnarBatch.BooleanColumn) batch.column("active")).values();
+    double total = 0;
+    for (int row = 0; row < batch.rowCount(); row++) {
+      if (active[row]) {
+        total += balances[row];
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double entityArray() throws SQLException {
+    table.beforeFirst();
+    double total = 0;
+    for (CustomerRow customer : mapper.map(table, CustomerRow[].class)) {
+      if (customer.isActive()) {
+        total += customer.getBalance();
+      }
+    }
+    return total;
+  }
+}
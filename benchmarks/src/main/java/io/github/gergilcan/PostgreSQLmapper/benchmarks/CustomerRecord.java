@@ -0,0 +1,8 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.time.LocalDateTime;
+
+/** The record of {@link Fixtures#customers}. */
+public record CustomerRecord(long id, String name, String email, int age, double balance, boolean active,
+    LocalDateTime createdAt) {
+}
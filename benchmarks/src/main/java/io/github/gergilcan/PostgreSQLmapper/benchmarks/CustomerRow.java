@@ -0,0 +1,17 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/** The entity of {@link Fixtures#customers}. */
+@Data
+public class CustomerRow {
+  private long id;
+  private String name;
+  private String email;
+  private int age;
+  private double balance;
+  private boolean active;
+  private LocalDateTime createdAt;
+}
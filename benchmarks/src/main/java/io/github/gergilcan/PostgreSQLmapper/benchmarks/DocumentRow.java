@@ -0,0 +1,28 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/** The entity of {@link Fixtures#documents}. */
+@Data
+public class DocumentRow {
+  private long id;
+  private Document document;
+
+  @Data
+  public static class Document {
+    private String title;
+    private Map<String, String> attributes;
+    private List<Item> items;
+  }
+
+  @Data
+  public static class Item {
+    private String sku;
+    private int quantity;
+    private BigDecimal price;
+  }
+}
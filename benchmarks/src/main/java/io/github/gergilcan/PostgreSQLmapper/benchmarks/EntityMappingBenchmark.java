@@ -0,0 +1,86 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * {@link PostgresEntityMapper#map} of the orders table into entities (single
+ * row, array, streamed one row at a time, one reused instance) and into row
+ * maps.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityMappingBenchmark {
+
+  @Param({ "1", "100", "10000" })
+  public int rows;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.orders(rows);
+  }
+
+  @Benchmark
+  public OrderRow entity() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, OrderRow.class);
+  }
+
+  @Benchmark
+  public OrderRow[] array() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, OrderRow[].class);
+  }
+
+  @Benchmark
+  public void stream(Blackhole blackhole) throws SQLException {
+    table.beforeFirst();
+    try (Stream<OrderRow> stream = mapper.stream(table, OrderRow.class)) {
+      stream.forEach(blackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public long forEach(Blackhole blackhole) throws SQLException {
+    table.beforeFirst();
+    return mapper.forEach(table, OrderRow.class, blackhole::consume);
+  }
+
+  @Benchmark
+  public List<?> list() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, List.class);
+  }
+
+  @Benchmark
+  public Map<?, ?> map() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, Map.class);
+  }
+}
@@ -0,0 +1,16 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+import lombok.Data;
+
+/** The entity of {@link Fixtures#events}. */
+@Data
+public class EventRow {
+  private long id;
+  private Instant occurredAt;
+  private OffsetDateTime receivedAt;
+  private LocalDateTime localTime;
+}
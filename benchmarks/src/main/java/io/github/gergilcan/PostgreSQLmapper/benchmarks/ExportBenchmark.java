@@ -0,0 +1,69 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * Exporting the customers table: an Arrow IPC stream and the NDJSON and CSV
+ * streams written to a discarding stream against the JSON array of
+ * {@link PostgresEntityMapper#writeValueAsString}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.customers(rows);
+  }
+
+  @Benchmark
+  public long arrow() throws SQLException {
+    table.beforeFirst();
+    return mapper.writeArrow(table, OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public long ndjson() throws SQLException {
+    table.beforeFirst();
+    return mapper.writeNdjson(table, OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public long csv() throws SQLException {
+    table.beforeFirst();
+    return mapper.writeCsv(table, OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public String jsonString() throws SQLException {
+    table.beforeFirst();
+    return mapper.writeValueAsString(table);
+  }
+}
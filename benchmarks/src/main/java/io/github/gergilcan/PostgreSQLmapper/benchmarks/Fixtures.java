@@ -0,0 +1,174 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.postgresql.util.PGobject;
+
+import io.github.gergilcan.PostgreSQLmapper.benchmarks.ArrayResultSetMetaData.Column;
+
+/**
+ * Builds the tables the benchmarks map. Values are pseudo-random but seeded,
+ * so every run maps the same data.
+ */
+final class Fixtures {
+
+  private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+  private Fixtures() {
+  }
+
+  /**
+   * A table matching {@link OrderRow}: numbers, text, numeric, timestamps, a
+   * date, a uuid and a jsonb document
+   */
+  static ArrayResultSet orders(int rowCount) throws SQLException {
+    List<Column> columns = List.of(
+        new Column("id", Types.BIGINT, "int8"),
+        new Column("customer_name", Types.VARCHAR, "text"),
+        new Column("quantity", Types.INTEGER, "int4"),
+        new Column("score", Types.DOUBLE, "float8"),
+        new Column("paid", Types.BIT, "bool"),
+        new Column("amount", Types.NUMERIC, "numeric"),
+        new Column("created_at", Types.TIMESTAMP, "timestamptz"),
+        new Column("updated_at", Types.TIMESTAMP, "timestamp"),
+        new Column("delivery_date", Types.DATE, "date"),
+        new Column("reference", Types.OTHER, "uuid"),
+        new Column("details", Types.OTHER, "jsonb"));
+    Random random = new Random(42);
+    Object[][] rows = new Object[rowCount][];
+    for (int i = 0; i < rowCount; i++) {
+      Instant created = EPOCH.plusSeconds(random.nextInt(31_536_000)).plusNanos(random.nextInt(1_000_000) * 1000L);
+      rows[i] = new Object[] {
+          (long) i,
+          "customer " + random.nextInt(10_000),
+          random.nextInt(100),
+          random.nextDouble() * 100,
+          random.nextBoolean(),
+          BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+          Timestamp.from(created),
+          Timestamp.from(created.plusSeconds(3600)),
+          Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365))),
+          new UUID(random.nextLong(), random.nextLong()),
+          json("jsonb", "{\"channel\":\"web\",\"tags\":[\"priority\",\"gift\"],\"notes\":{\"floor\":"
+              + random.nextInt(10) + ",\"door\":\"B\"}}") };
+    }
+    return new ArrayResultSet(new ArrayResultSetMetaData(columns), rows);
+  }
+
+  /**
+   * A table of {@code columnCount} columns cycling through int8, text,
+   * float8, bool and timestamptz, for row maps and serialization
+   */
+  static ArrayResultSet wide(int rowCount, int columnCount) throws SQLException {
+    String[][] types = { { "int8", "BIGINT" }, { "text", "VARCHAR" }, { "float8", "DOUBLE" }, { "bool", "BIT" },
+        { "timestamptz", "TIMESTAMP" } };
+    int[] jdbcTypes = { Types.BIGINT, Types.VARCHAR, Types.DOUBLE, Types.BIT, Types.TIMESTAMP };
+    List<Column> columns = new ArrayList<>(columnCount);
+    for (int c = 0; c < columnCount; c++) {
+      columns.add(new Column(types[c % types.length][0] + "_" + c, jdbcTypes[c % types.length],
+          types[c % types.length][0]));
+    }
+    Random random = new Random(42);
+    Object[][] rows = new Object[rowCount][columnCount];
+    for (int i = 0; i < rowCount; i++) {
+      for (int c = 0; c < columnCount; c++) {
+        switch (c % types.length) {
+          case 0 -> rows[i][c] = random.nextLong();
+          case 1 -> rows[i][c] = "value " + random.nextInt(1_000_000);
+          case 2 -> rows[i][c] = random.nextDouble();
+          case 3 -> rows[i][c] = random.nextBoolean();
+          default -> rows[i][c] = Timestamp.from(EPOCH.plusSeconds(random.nextInt(31_536_000)));
+        }
+      }
+    }
+    return new ArrayResultSet(new ArrayResultSetMetaData(columns), rows);
+  }
+
+  /**
+   * A table matching {@link DocumentRow}: an id and a jsonb document with
+   * {@code attributeCount} attributes and as many line items
+   */
+  static ArrayResultSet documents(int rowCount, int attributeCount) throws SQLException {
+    List<Column> columns = List.of(
+        new Column("id", Types.BIGINT, "int8"),
+        new Column("document", Types.OTHER, "jsonb"));
+    Random random = new Random(42);
+    Object[][] rows = new Object[rowCount][];
+    for (int i = 0; i < rowCount; i++) {
+      StringBuilder document = new StringBuilder("{\"title\":\"document ").append(i).append("\",\"attributes\":{");
+      for (int a = 0; a < attributeCount; a++) {
+        document.append(a == 0 ? "" : ",").append("\"key").append(a).append("\":\"value ")
+            .append(random.nextInt(1000)).append('"');
+      }
+      document.append("},\"items\":[");
+      for (int a = 0; a < attributeCount; a++) {
+        document.append(a == 0 ? "" : ",").append("{\"sku\":\"SKU-").append(random.nextInt(100_000))
+            .append("\",\"quantity\":").append(random.nextInt(10)).append(",\"price\":")
+            .append(random.nextInt(10_000) / 100.0).append('}');
+      }
+      document.append("]}");
+      rows[i] = new Object[] { (long) i, json("jsonb", document.toString()) };
+    }
+    return new ArrayResultSet(new ArrayResultSetMetaData(columns), rows);
+  }
+
+  /**
+   * A table matching {@link EventRow}: timestamptz and timestamp columns
+   */
+  static ArrayResultSet events(int rowCount) throws SQLException {
+    List<Column> columns = List.of(
+        new Column("id", Types.BIGINT, "int8"),
+        new Column("occurred_at", Types.TIMESTAMP, "timestamptz"),
+        new Column("received_at", Types.TIMESTAMP, "timestamptz"),
+        new Column("local_time", Types.TIMESTAMP, "timestamp"));
+    Random random = new Random(42);
+    Object[][] rows = new Object[rowCount][];
+    for (int i = 0; i < rowCount; i++) {
+      Instant occurred = EPOCH.plusSeconds(random.nextInt(31_536_000)).plusNanos(random.nextInt(1_000_000) * 1000L);
+      rows[i] = new Object[] { (long) i, Timestamp.from(occurred), Timestamp.from(occurred.plusMillis(250)),
+          Timestamp.from(occurred) };
+    }
+    return new ArrayResultSet(new ArrayResultSetMetaData(columns), rows);
+  }
+
+  /**
+   * A table matching {@link CustomerRow} and {@link CustomerRecord}: plain
+   * columns that Spring's row mappers can read too
+   */
+  static ArrayResultSet customers(int rowCount) throws SQLException {
+    List<Column> columns = List.of(
+        new Column("id", Types.BIGINT, "int8"),
+        new Column("name", Types.VARCHAR, "text"),
+        new Column("email", Types.VARCHAR, "varchar"),
+        new Column("age", Types.INTEGER, "int4"),
+        new Column("balance", Types.DOUBLE, "float8"),
+        new Column("active", Types.BIT, "bool"),
+        new Column("created_at", Types.TIMESTAMP, "timestamp"));
+    Random random = new Random(42);
+    Object[][] rows = new Object[rowCount][];
+    for (int i = 0; i < rowCount; i++) {
+      int customer = random.nextInt(100_000);
+      rows[i] = new Object[] { (long) i, "customer " + customer, "customer" + customer + "@example.com",
+          18 + random.nextInt(70), random.nextDouble() * 10_000, random.nextBoolean(),
+          Timestamp.from(EPOCH.plusSeconds(random.nextInt(31_536_000))) };
+    }
+    return new ArrayResultSet(new ArrayResultSetMetaData(columns), rows);
+  }
+
+  private static PGobject json(String type, String value) throws SQLException {
+    PGobject json = new PGobject();
+    json.setType(type);
+    json.setValue(value);
+    return json;
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.LongIndex;
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * Loading the customers table indexed by id: {@link PostgresEntityMapper#indexByLong}
+ * against mapping an array and copying it into a {@code HashMap<Long, ?>}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.customers(rows);
+  }
+
+  @Benchmark
+  public LongIndex<CustomerRow> indexByLong() throws SQLException {
+    table.beforeFirst();
+    return mapper.indexByLong(table, CustomerRow.class, "id");
+  }
+
+  @Benchmark
+  public Map<Long, CustomerRow> arrayIntoHashMap() throws SQLException {
+    table.beforeFirst();
+    CustomerRow[] customers = mapper.map(table, CustomerRow[].class);
+    Map<Long, CustomerRow> index = new HashMap<>();
+    for (CustomerRow customer : customers) {
+      index.put(customer.getId(), customer);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,59 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * jsonb decoding: documents of growing size bound to a typed property and
+ * read into row maps.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonbBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  @Param({ "2", "16", "64" })
+  public int attributes;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.documents(rows, attributes);
+  }
+
+  @Benchmark
+  public DocumentRow[] typed() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, DocumentRow[].class);
+  }
+
+  @Benchmark
+  public List<?> untyped() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, List.class);
+  }
+}
@@ -0,0 +1,34 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Data;
+
+/** The entity of {@link Fixtures#orders}. */
+@Data
+public class OrderRow {
+  private long id;
+  private String customerName;
+  private int quantity;
+  private double score;
+  private boolean paid;
+  private BigDecimal amount;
+  private Instant createdAt;
+  private LocalDateTime updatedAt;
+  private LocalDate deliveryDate;
+  private UUID reference;
+  private Details details;
+
+  @Data
+  public static class Details {
+    private String channel;
+    private List<String> tags;
+    private Map<String, Object> notes;
+  }
+}
@@ -0,0 +1,65 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * Row maps ({@code List} and streamed {@code Map} targets) across row counts
+ * and column widths.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  @Param({ "5", "20", "60" })
+  public int columns;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.wide(rows, columns);
+  }
+
+  @Benchmark
+  public List<?> list() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, List.class);
+  }
+
+  @Benchmark
+  @SuppressWarnings("rawtypes")
+  public void stream(Blackhole blackhole) throws SQLException {
+    table.beforeFirst();
+    try (Stream<Map> stream = mapper.stream(table, Map.class)) {
+      stream.forEach(blackhole::consume);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * {@code ResultSetSerializer} writing the wide table and the orders table
+ * (numeric, timestamps, uuid and raw jsonb) as JSON.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  @Param({ "5", "20", "60" })
+  public int columns;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet wide;
+  private ArrayResultSet orders;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    wide = Fixtures.wide(rows, columns);
+    orders = Fixtures.orders(rows);
+  }
+
+  @Benchmark
+  public String wide() throws SQLException {
+    wide.beforeFirst();
+    return mapper.writeValueAsString(wide);
+  }
+
+  @Benchmark
+  public String orders() throws SQLException {
+    orders.beforeFirst();
+    return mapper.writeValueAsString(orders);
+  }
+}
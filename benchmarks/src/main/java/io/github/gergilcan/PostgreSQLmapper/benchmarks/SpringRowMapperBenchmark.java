@@ -0,0 +1,91 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.DataClassRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresResultSetExtractor;
+
+/**
+ * The Spring JDBC adapters of {@link PostgresEntityMapper} against Spring's
+ * {@link BeanPropertyRowMapper} (beans) and {@link DataClassRowMapper}
+ * (records), all extracting the customers table the way
+ * {@code JdbcTemplate.query} does. Row mappers are created once, as an
+ * application would keep them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpringRowMapperBenchmark {
+
+  @Param({ "1", "100", "10000" })
+  public int rows;
+
+  private ArrayResultSet table;
+  private RowMapper<CustomerRow> beanPropertyRowMapper;
+  private RowMapper<CustomerRecord> dataClassRowMapper;
+  private RowMapper<CustomerRow> beanRowMapper;
+  private RowMapper<CustomerRecord> recordRowMapper;
+  private PostgresResultSetExtractor<CustomerRow> extractor;
+
+  @Setup
+  public void setUp() throws SQLException {
+    table = Fixtures.customers(rows);
+    PostgresEntityMapper mapper = new PostgresEntityMapper();
+    beanPropertyRowMapper = new BeanPropertyRowMapper<>(CustomerRow.class);
+    dataClassRowMapper = new DataClassRowMapper<>(CustomerRecord.class);
+    beanRowMapper = mapper.rowMapper(CustomerRow.class);
+    recordRowMapper = mapper.rowMapper(CustomerRecord.class);
+    extractor = mapper.resultSetExtractor(CustomerRow.class);
+  }
+
+  @Benchmark
+  public List<CustomerRow> springBeanPropertyRowMapper() throws SQLException {
+    table.beforeFirst();
+    return new RowMapperResultSetExtractor<>(beanPropertyRowMapper).extractData(table);
+  }
+
+  @Benchmark
+  public List<CustomerRecord> springDataClassRowMapper() throws SQLException {
+    table.beforeFirst();
+    return new RowMapperResultSetExtractor<>(dataClassRowMapper).extractData(table);
+  }
+
+  @Benchmark
+  public List<CustomerRow> rowMapper() throws SQLException {
+    table.beforeFirst();
+    return new RowMapperResultSetExtractor<>(beanRowMapper).extractData(table);
+  }
+
+  @Benchmark
+  public List<CustomerRecord> recordRowMapper() throws SQLException {
+    table.beforeFirst();
+    return new RowMapperResultSetExtractor<>(recordRowMapper).extractData(table);
+  }
+
+  @Benchmark
+  public List<CustomerRow> resultSetExtractor() throws SQLException {
+    table.beforeFirst();
+    return extractor.extractData(table);
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.gergilcan.PostgreSQLmapper.benchmarks;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.gergilcan.PostgreSQLmapper.core.PgDateTimeParser;
+import io.github.gergilcan.PostgreSQLmapper.core.PostgresEntityMapper;
+
+/**
+ * timestamp / timestamptz decoding, through the mapper and through
+ * {@link PgDateTimeParser} on its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimestampBenchmark {
+
+  @Param({ "100", "10000" })
+  public int rows;
+
+  private PostgresEntityMapper mapper;
+  private ArrayResultSet table;
+  private String text;
+
+  @Setup
+  public void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper();
+    table = Fixtures.events(rows);
+    table.next();
+    text = table.getString(2);
+    table.beforeFirst();
+  }
+
+  @Benchmark
+  public EventRow[] entities() throws SQLException {
+    table.beforeFirst();
+    return mapper.map(table, EventRow[].class);
+  }
+
+  @Benchmark
+  public Instant parseInstant() {
+    return PgDateTimeParser.parseInstant(text);
+  }
+
+  @Benchmark
+  public OffsetDateTime parseOffsetDateTime() {
+    return PgDateTimeParser.parseOffsetDateTime(text);
+  }
+}
@@ -0,0 +1,448 @@
+package io.github.gergilcan.PostgreSQLmapper.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates an {@code EntityRowMapper} for every class annotated with
+ * {@code @MappedEntity}, and registers the generated mappers in
+ * {@code META-INF/services} so the library picks them up at runtime.
+ * <p>
+ * Properties are found the way the library's reflective introspection finds
+ * them (fields, setters, record components, {@code @JsonProperty} /
+ * {@code @JsonAlias} / {@code @JsonIgnore}), except that the generated code can
+ * only use members it can access from the entity's package: private fields
+ * need a setter. Lombok setters and constructors are assumed from the Lombok
+ * annotations, as Lombok may run after this processor.
+ */
+@SupportedAnnotationTypes(EntityRowMapperProcessor.MAPPED_ENTITY)
+public class EntityRowMapperProcessor extends AbstractProcessor {
+
+  static final String MAPPED_ENTITY = "io.github.gergilcan.PostgreSQLmapper.core.MappedEntity";
+  static final String SERVICE_FILE = "META-INF/services/io.github.gergilcan.PostgreSQLmapper.core.EntityRowMapper";
+
+  private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+  private static final String JSON_ALIAS = "com.fasterxml.jackson.annotation.JsonAlias";
+  private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+  /** Annotations whose semantics only Jackson itself can honour, as in the library. */
+  private static final Set<String> JACKSON_ONLY = Set.of(
+      "com.fasterxml.jackson.databind.annotation.JsonDeserialize",
+      "com.fasterxml.jackson.annotation.JsonCreator",
+      "com.fasterxml.jackson.annotation.JsonTypeInfo",
+      "com.fasterxml.jackson.annotation.JsonUnwrapped",
+      "com.fasterxml.jackson.annotation.JsonAnySetter",
+      "com.fasterxml.jackson.annotation.JsonFormat");
+
+  private final Set<String> generated = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element instanceof TypeElement) {
+          generate((TypeElement) element);
+        }
+      }
+    }
+    if (roundEnv.processingOver() && !generated.isEmpty()) {
+      writeServiceFile();
+    }
+    return true;
+  }
+
+  private void generate(TypeElement type) {
+    try {
+      List<MappedProperty> properties = describe(type);
+      if (properties == null) {
+        return;
+      }
+      RowMapperWriter writer = new RowMapperWriter(processingEnv, type, properties,
+          type.getKind() == ElementKind.RECORD || properties.stream()
+              .anyMatch(property -> property.access() == MappedProperty.Access.CONSTRUCTOR));
+      writer.write();
+      generated.add(writer.qualifiedName());
+    } catch (IOException e) {
+      error(type, "Failed to write the row mapper: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return The properties of the entity, or {@code null} if it cannot be
+   *         mapped (an error has been reported)
+   */
+  private List<MappedProperty> describe(TypeElement type) {
+    if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.RECORD) {
+      error(type, "@MappedEntity only applies to classes and records");
+      return null;
+    }
+    for (TypeElement t = type; t != null; t = enclosingType(t)) {
+      if (t.getModifiers().contains(Modifier.PRIVATE)
+          || (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)
+              && t.getKind() != ElementKind.RECORD)) {
+        error(type, "@MappedEntity classes must not be private or inner (non-static) classes");
+        return null;
+      }
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(type, "@MappedEntity classes must not be abstract");
+      return null;
+    }
+    String jacksonOnly = jacksonOnlyAnnotation(type);
+    if (jacksonOnly != null) {
+      error(type, "@" + simpleName(jacksonOnly) + " is only supported by Jackson; remove @MappedEntity");
+      return null;
+    }
+    if (type.getKind() == ElementKind.RECORD) {
+      return describeRecord(type);
+    }
+    return describeClass(type);
+  }
+
+  private List<MappedProperty> describeRecord(TypeElement type) {
+    List<MappedProperty> properties = new ArrayList<>();
+    for (RecordComponentElement component : type.getRecordComponents()) {
+      VariableElement field = field(type, component.getSimpleName().toString());
+      if (jacksonOnlyAnnotation(component) != null || (field != null && jacksonOnlyAnnotation(field) != null)) {
+        error(component, "Jackson only annotations are not supported by generated mappers");
+        return null;
+      }
+      String name = component.getSimpleName().toString();
+      properties.add(new MappedProperty(propertyName(name, component, field), aliases(name, component, field),
+          component.asType(), MappedProperty.Access.CONSTRUCTOR, null));
+    }
+    return properties;
+  }
+
+  private List<MappedProperty> describeClass(TypeElement type) {
+    List<VariableElement> fields = new ArrayList<>();
+    Map<String, ExecutableElement> setters = new LinkedHashMap<>();
+    for (TypeElement t = type; t != null; t = superclass(t)) {
+      for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+        if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+          if (jacksonOnlyAnnotation(field) != null) {
+            error(field, "Jackson only annotations are not supported by generated mappers");
+            return null;
+          }
+          fields.add(field);
+        }
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+        String name = method.getSimpleName().toString();
+        if (!method.getModifiers().contains(Modifier.STATIC) && method.getParameters().size() == 1
+            && name.length() > 3 && name.startsWith("set")) {
+          setters.putIfAbsent(name, method);
+        }
+      }
+    }
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (jacksonOnlyAnnotation(constructor) != null) {
+        error(constructor, "Jackson only annotations are not supported by generated mappers");
+        return null;
+      }
+    }
+
+    if (hasNoArgsConstructor(type)) {
+      return describeBean(type, fields, setters);
+    }
+    if (hasAllArgsConstructor(type, fields)) {
+      List<MappedProperty> properties = new ArrayList<>();
+      for (VariableElement field : fields) {
+        if (field.getEnclosingElement().equals(type)) {
+          String name = field.getSimpleName().toString();
+          properties.add(new MappedProperty(propertyName(name, field), aliases(name, field), field.asType(),
+              MappedProperty.Access.CONSTRUCTOR, null));
+        }
+      }
+      return properties;
+    }
+    error(type, "@MappedEntity classes need an accessible no-args constructor or a constructor taking every "
+        + "field in declaration order");
+    return null;
+  }
+
+  private List<MappedProperty> describeBean(TypeElement type, List<VariableElement> fields,
+      Map<String, ExecutableElement> setters) {
+    boolean lombokSetters = hasAnnotation(type, "lombok.Data") || hasAnnotation(type, "lombok.Setter");
+    List<MappedProperty> properties = new ArrayList<>();
+    for (VariableElement field : fields) {
+      String name = field.getSimpleName().toString();
+      String setterName = setterName(field);
+      ExecutableElement setter = setters.remove(setterName);
+      if (hasAnnotation(field, JSON_IGNORE) || (setter != null && hasAnnotation(setter, JSON_IGNORE))) {
+        continue;
+      }
+      if (setter != null && jacksonOnlyAnnotation(setter) != null) {
+        error(setter, "Jackson only annotations are not supported by generated mappers");
+        return null;
+      }
+      boolean isFinal = field.getModifiers().contains(Modifier.FINAL);
+      MappedProperty property;
+      if (setter != null && accessible(setter, type)) {
+        property = new MappedProperty(propertyName(name, field, setter), aliases(name, field, setter),
+            setter.getParameters().get(0).asType(), MappedProperty.Access.SETTER, setterName);
+      } else if (setter == null && !isFinal && field.getEnclosingElement().equals(type)
+          && (lombokSetters || hasAnnotation(field, "lombok.Setter"))) {
+        property = new MappedProperty(propertyName(name, field), aliases(name, field), field.asType(),
+            MappedProperty.Access.SETTER, setterName);
+      } else if (!isFinal && accessible(field, type)) {
+        property = new MappedProperty(propertyName(name, field), aliases(name, field), field.asType(),
+            MappedProperty.Access.FIELD, name);
+      } else {
+        if (!isFinal) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+              "Field " + name + " has no accessible setter and is not mapped by the generated mapper", field);
+        }
+        continue;
+      }
+      properties.add(property);
+    }
+    // Setters without a backing field still describe a property
+    for (ExecutableElement setter : setters.values()) {
+      if (hasAnnotation(setter, JSON_IGNORE) || !setter.getModifiers().contains(Modifier.PUBLIC)) {
+        continue;
+      }
+      if (jacksonOnlyAnnotation(setter) != null) {
+        error(setter, "Jackson only annotations are not supported by generated mappers");
+        return null;
+      }
+      String name = decapitalize(setter.getSimpleName().toString().substring(3));
+      properties.add(new MappedProperty(propertyName(name, setter), aliases(name, setter),
+          setter.getParameters().get(0).asType(), MappedProperty.Access.SETTER, setter.getSimpleName().toString()));
+    }
+    return properties;
+  }
+
+  private boolean hasNoArgsConstructor(TypeElement type) {
+    List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+    for (ExecutableElement constructor : constructors) {
+      if (constructor.getParameters().isEmpty()) {
+        return !constructor.getModifiers().contains(Modifier.PRIVATE);
+      }
+    }
+    if (hasAnnotation(type, "lombok.NoArgsConstructor")) {
+      return true;
+    }
+    boolean lombokConstructor = hasAnnotation(type, "lombok.AllArgsConstructor")
+        || hasAnnotation(type, "lombok.RequiredArgsConstructor") || hasAnnotation(type, "lombok.Value");
+    // Without explicit constructors javac adds a default one, and @Data a no-args one when there are no final fields
+    return constructors.isEmpty() && !lombokConstructor
+        && (!hasAnnotation(type, "lombok.Data") || ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+            .noneMatch(field -> field.getModifiers().contains(Modifier.FINAL)
+                && !field.getModifiers().contains(Modifier.STATIC)));
+  }
+
+  private boolean hasAllArgsConstructor(TypeElement type, List<VariableElement> fields) {
+    List<TypeMirror> fieldTypes = new ArrayList<>();
+    for (VariableElement field : fields) {
+      if (field.getEnclosingElement().equals(type)) {
+        fieldTypes.add(processingEnv.getTypeUtils().erasure(field.asType()));
+      }
+    }
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getModifiers().contains(Modifier.PRIVATE)
+          || constructor.getParameters().size() != fieldTypes.size()) {
+        continue;
+      }
+      boolean matches = true;
+      for (int i = 0; i < fieldTypes.size() && matches; i++) {
+        matches = processingEnv.getTypeUtils().isSameType(fieldTypes.get(i),
+            processingEnv.getTypeUtils().erasure(constructor.getParameters().get(i).asType()));
+      }
+      if (matches) {
+        return true;
+      }
+    }
+    return hasAnnotation(type, "lombok.AllArgsConstructor") || hasAnnotation(type, "lombok.Value");
+  }
+
+  /** Lombok drops the "is" prefix of primitive boolean fields. */
+  private static String setterName(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    if (field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+        && Character.isUpperCase(name.charAt(2))) {
+      return "set" + name.substring(2);
+    }
+    return "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Checks that the generated mapper, in the entity's package, can use a member
+   */
+  private boolean accessible(Element member, TypeElement entity) {
+    if (member.getModifiers().contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    if (member.getModifiers().contains(Modifier.PUBLIC)) {
+      return true;
+    }
+    PackageElement memberPackage = processingEnv.getElementUtils().getPackageOf(member);
+    return memberPackage.equals(processingEnv.getElementUtils().getPackageOf(entity));
+  }
+
+  private String propertyName(String name, Element... elements) {
+    for (Element element : elements) {
+      if (element == null) {
+        continue;
+      }
+      AnnotationValue value = annotationValue(element, JSON_PROPERTY);
+      if (value != null && value.getValue() instanceof String && !((String) value.getValue()).isEmpty()) {
+        return (String) value.getValue();
+      }
+    }
+    return name;
+  }
+
+  private List<String> aliases(String name, Element... elements) {
+    List<String> aliases = new ArrayList<>(2);
+    aliases.add(name);
+    for (Element element : elements) {
+      if (element == null) {
+        continue;
+      }
+      AnnotationValue value = annotationValue(element, JSON_ALIAS);
+      if (value != null && value.getValue() instanceof List) {
+        for (Object alias : (List<?>) value.getValue()) {
+          aliases.add((String) ((AnnotationValue) alias).getValue());
+        }
+      }
+    }
+    return aliases;
+  }
+
+  private AnnotationValue annotationValue(Element element, String annotation) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+            : mirror.getElementValues().entrySet()) {
+          if (entry.getKey().getSimpleName().contentEquals("value")) {
+            return entry.getValue();
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean hasAnnotation(Element element, String annotation) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String jacksonOnlyAnnotation(Element element) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+      if (JACKSON_ONLY.contains(name)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  private static VariableElement field(TypeElement type, String name) {
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      if (field.getSimpleName().contentEquals(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  private static TypeElement superclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+    return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+  }
+
+  private static TypeElement enclosingType(TypeElement type) {
+    Element enclosing = type.getEnclosingElement();
+    return enclosing instanceof TypeElement ? (TypeElement) enclosing : null;
+  }
+
+  private static String simpleName(String qualifiedName) {
+    return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+  }
+
+  private static String decapitalize(String name) {
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /**
+   * Writes the service file listing every generated mapper, keeping the
+   * entries of a previous (incremental) compilation whose mapper still exists
+   */
+  private void writeServiceFile() {
+    Set<String> entries = new TreeSet<>(generated);
+    try {
+      FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (Reader reader = existing.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+          // Mappers of renamed or deleted entities are gone and would break the ServiceLoader
+          if (!line.isBlank() && processingEnv.getElementUtils().getTypeElement(line.trim()) != null) {
+            entries.add(line.trim());
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // No previous service file
+    }
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (Writer writer = file.openWriter()) {
+        for (String entry : entries) {
+          writer.write(entry);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Failed to write " + SERVICE_FILE + ": " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package io.github.gergilcan.PostgreSQLmapper.processor;
+
+import java.util.List;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A property of a {@code @MappedEntity} as seen by the processor: its column
+ * names, its type and how the generated code writes it.
+ */
+final class MappedProperty {
+
+  /** How the generated code writes the property. */
+  enum Access {
+    SETTER, FIELD, CONSTRUCTOR
+  }
+
+  private final String name;
+  private final List<String> aliases;
+  private final TypeMirror type;
+  private final Access access;
+  private final String member;
+
+  /**
+   * @param name    The property name ({@code @JsonProperty} name if present)
+   * @param aliases The field name and {@code @JsonAlias} names
+   * @param type    The property type
+   * @param access  How the property is written
+   * @param member  The setter or field name, unused for constructor arguments
+   */
+  MappedProperty(String name, List<String> aliases, TypeMirror type, Access access, String member) {
+    this.name = name;
+    this.aliases = aliases;
+    this.type = type;
+    this.access = access;
+    this.member = member;
+  }
+
+  String name() {
+    return name;
+  }
+
+  List<String> aliases() {
+    return aliases;
+  }
+
+  TypeMirror type() {
+    return type;
+  }
+
+  Access access() {
+    return access;
+  }
+
+  String member() {
+    return member;
+  }
+}
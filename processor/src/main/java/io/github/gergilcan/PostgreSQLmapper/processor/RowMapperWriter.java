@@ -0,0 +1,342 @@
+package io.github.gergilcan.PostgreSQLmapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+/**
+ * Writes the source of the {@code EntityRowMapper} of one entity. Every name in
+ * the generated code is fully qualified, so it never clashes with the entity's
+ * own imports.
+ */
+final class RowMapperWriter {
+
+  private static final String ROW_MAPPER = "io.github.gergilcan.PostgreSQLmapper.core.EntityRowMapper";
+
+  private final ProcessingEnvironment processingEnv;
+  private final TypeElement type;
+  private final List<MappedProperty> properties;
+  private final boolean constructor;
+  private final String packageName;
+  private final String simpleName;
+
+  /**
+   * @param processingEnv The processing environment
+   * @param type          The entity
+   * @param properties    The mapped properties, in constructor order if
+   *                      {@code constructor}
+   * @param constructor   Whether the entity is built through its all-args
+   *                      constructor instead of setters
+   */
+  RowMapperWriter(ProcessingEnvironment processingEnv, TypeElement type, List<MappedProperty> properties,
+      boolean constructor) {
+    this.processingEnv = processingEnv;
+    this.type = type;
+    this.properties = properties;
+    this.constructor = constructor;
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+    this.packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String nested = type.getSimpleName().toString();
+    for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement;
+        enclosing = enclosing.getEnclosingElement()) {
+      nested = enclosing.getSimpleName() + "_" + nested;
+    }
+    this.simpleName = nested + "_EntityRowMapper";
+  }
+
+  /**
+   * @return The qualified name of the generated mapper
+   */
+  String qualifiedName() {
+    return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+  }
+
+  void write() throws IOException {
+    String entity = type.getQualifiedName().toString();
+    StringBuilder out = new StringBuilder(4096);
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    out.append("@javax.annotation.processing.Generated(\"")
+        .append(EntityRowMapperProcessor.class.getName()).append("\")\n")
+        .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+        .append("public final class ").append(simpleName).append(" implements ").append(ROW_MAPPER)
+        .append('<').append(entity).append("> {\n\n");
+
+    out.append("  private static final java.util.List<").append(ROW_MAPPER).append(".Property> PROPERTIES = ")
+        .append("java.util.List.of(");
+    for (int i = 0; i < properties.size(); i++) {
+      MappedProperty property = properties.get(i);
+      out.append(i == 0 ? "\n" : ",\n").append("      new ").append(ROW_MAPPER).append(".Property(")
+          .append(literal(property.name())).append(", java.util.List.of(")
+          .append(property.aliases().stream().map(RowMapperWriter::literal).collect(Collectors.joining(", ")))
+          .append("), ").append(typeLiteral(property.type())).append(')');
+    }
+    out.append(");\n\n");
+
+    out.append("  @Override\n  public java.lang.Class<").append(entity).append("> type() {\n")
+        .append("    return ").append(entity).append(".class;\n  }\n\n");
+    out.append("  @Override\n  public java.util.List<").append(ROW_MAPPER).append(".Property> properties() {\n")
+        .append("    return PROPERTIES;\n  }\n\n");
+
+    writeMapRow(out, entity);
+    writeCreate(out, entity);
+    out.append("}\n");
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName(), type).openWriter()) {
+      writer.write(out.toString());
+    }
+  }
+
+  private void writeMapRow(StringBuilder out, String entity) {
+    out.append("  @Override\n  public ").append(entity).append(" mapRow(java.sql.ResultSet resultSet, int[] columns, ")
+        .append(ROW_MAPPER).append(".Values values)\n      throws java.sql.SQLException {\n");
+    if (constructor) {
+      for (int i = 0; i < properties.size(); i++) {
+        TypeMirror propertyType = properties.get(i).type();
+        out.append("    ").append(typeName(propertyType)).append(" p").append(i).append(" = ")
+            .append(defaultValue(propertyType)).append(";\n");
+      }
+    } else {
+      out.append("    ").append(entity).append(" entity = new ").append(entity).append("();\n");
+    }
+    out.append("    int column;\n");
+    for (int i = 0; i < properties.size(); i++) {
+      MappedProperty property = properties.get(i);
+      String getter = directGetter(property.type());
+      out.append("    column = columns[").append(i).append("];\n");
+      if (getter != null) {
+        String valueType = property.type().getKind().isPrimitive() ? typeName(property.type())
+            : getter.equals("getString") ? "java.lang.String" : unboxedName(property.type());
+        out.append("    if (column > 0) {\n")
+            .append("      ").append(valueType).append(" value = resultSet.").append(getter).append("(column);\n")
+            .append(valueType.equals("java.lang.String") ? "      if (value != null) {\n"
+                : "      if (!resultSet.wasNull()) {\n")
+            .append("        ").append(assignment(i, property, "value")).append(";\n")
+            .append("      }\n")
+            .append("    } else if (column < 0) {\n");
+      } else {
+        out.append("    if (column != 0) {\n");
+      }
+      out.append("      java.lang.Object value = values.read(resultSet, ").append(i).append(");\n")
+          .append("      if (value != null) {\n")
+          .append("        ").append(assignment(i, property, cast(property.type(), "value"))).append(";\n")
+          .append("      }\n")
+          .append("    }\n");
+    }
+    if (constructor) {
+      out.append("    return new ").append(entity).append('(');
+      for (int i = 0; i < properties.size(); i++) {
+        out.append(i == 0 ? "p" : ", p").append(i);
+      }
+      out.append(");\n");
+    } else {
+      out.append("    return entity;\n");
+    }
+    out.append("  }\n\n");
+  }
+
+  private void writeCreate(StringBuilder out, String entity) {
+    out.append("  @Override\n  public ").append(entity).append(" create(java.lang.Object[] values) {\n");
+    if (constructor) {
+      out.append("    return new ").append(entity).append('(');
+      for (int i = 0; i < properties.size(); i++) {
+        TypeMirror propertyType = properties.get(i).type();
+        String value = "values[" + i + "]";
+        out.append(i == 0 ? "\n        " : ",\n        ");
+        if (propertyType.getKind().isPrimitive()) {
+          out.append(value).append(" != null ? ").append(cast(propertyType, value)).append(" : ")
+              .append(defaultValue(propertyType));
+        } else {
+          out.append(cast(propertyType, value));
+        }
+      }
+      out.append(");\n");
+    } else {
+      out.append("    ").append(entity).append(" entity = new ").append(entity).append("();\n");
+      for (int i = 0; i < properties.size(); i++) {
+        MappedProperty property = properties.get(i);
+        String value = "values[" + i + "]";
+        out.append("    if (").append(value).append(" != null) {\n")
+            .append("      ").append(assignment(i, property, cast(property.type(), value))).append(";\n")
+            .append("    }\n");
+      }
+      out.append("    return entity;\n");
+    }
+    out.append("  }\n");
+  }
+
+  private String assignment(int index, MappedProperty property, String value) {
+    switch (property.access()) {
+      case SETTER:
+        return "entity." + property.member() + "(" + value + ")";
+      case FIELD:
+        return "entity." + property.member() + " = " + value;
+      default:
+        return "p" + index + " = " + value;
+    }
+  }
+
+  /**
+   * @return The ResultSet getter reading the property type directly, or
+   *         {@code null} if the value is always read through the bindings
+   */
+  private String directGetter(TypeMirror propertyType) {
+    TypeKind kind = propertyType.getKind();
+    if (kind == TypeKind.DECLARED) {
+      if (isType(propertyType, "java.lang.String")) {
+        return "getString";
+      }
+      try {
+        kind = processingEnv.getTypeUtils().unboxedType(propertyType).getKind();
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    switch (kind) {
+      case INT:
+        return "getInt";
+      case LONG:
+        return "getLong";
+      case DOUBLE:
+        return "getDouble";
+      case FLOAT:
+        return "getFloat";
+      case SHORT:
+        return "getShort";
+      case BOOLEAN:
+        return "getBoolean";
+      default:
+        return null;
+    }
+  }
+
+  private String unboxedName(TypeMirror propertyType) {
+    return processingEnv.getTypeUtils().unboxedType(propertyType).toString();
+  }
+
+  private String cast(TypeMirror propertyType, String value) {
+    if (propertyType.getKind().isPrimitive()) {
+      TypeElement boxed = processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils()
+          .getPrimitiveType(propertyType.getKind()));
+      return "(" + boxed.getQualifiedName() + ") " + value;
+    }
+    return "(" + typeName(propertyType) + ") " + value;
+  }
+
+  /**
+   * @return A {@code java.lang.reflect.Type} expression for the property type
+   */
+  private String typeLiteral(TypeMirror propertyType) {
+    String name = typeName(propertyType);
+    if (name.indexOf('<') < 0) {
+      return name + ".class";
+    }
+    return "new com.fasterxml.jackson.core.type.TypeReference<" + name + ">() {\n      }.getType()";
+  }
+
+  /**
+   * Renders a type for the generated source; type variables are replaced by
+   * their erasure as the mapper is not generic
+   */
+  private String typeName(TypeMirror mirror) {
+    switch (mirror.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case CHAR:
+      case FLOAT:
+      case DOUBLE:
+        return mirror.getKind().name().toLowerCase(Locale.ROOT);
+      case ARRAY:
+        return typeName(((ArrayType) mirror).getComponentType()) + "[]";
+      case TYPEVAR:
+        return typeName(processingEnv.getTypeUtils().erasure(mirror));
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) mirror;
+        if (wildcard.getExtendsBound() != null) {
+          return "? extends " + typeName(wildcard.getExtendsBound());
+        }
+        return wildcard.getSuperBound() != null ? "? super " + typeName(wildcard.getSuperBound()) : "?";
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) mirror;
+        String name = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        if (declared.getTypeArguments().isEmpty()) {
+          return name;
+        }
+        return name + declared.getTypeArguments().stream().map(this::typeName)
+            .collect(Collectors.joining(", ", "<", ">"));
+      default:
+        return processingEnv.getTypeUtils().erasure(mirror).toString();
+    }
+  }
+
+  private static String defaultValue(TypeMirror propertyType) {
+    switch (propertyType.getKind()) {
+      case BOOLEAN:
+        return "false";
+      case BYTE:
+        return "(byte) 0";
+      case SHORT:
+        return "(short) 0";
+      case CHAR:
+        return "'\\0'";
+      case INT:
+        return "0";
+      case LONG:
+        return "0L";
+      case FLOAT:
+        return "0F";
+      case DOUBLE:
+        return "0D";
+      default:
+        return "null";
+    }
+  }
+
+  private static boolean isType(TypeMirror mirror, String qualifiedName) {
+    return mirror.getKind() == TypeKind.DECLARED
+        && ((TypeElement) ((DeclaredType) mirror).asElement()).getQualifiedName().contentEquals(qualifiedName);
+  }
+
+  /**
+   * Quotes a string for the generated source. Control characters get escape
+   * sequences, not Unicode escapes, which javac translates before it reads the
+   * literal: an escaped line feed would end it.
+   */
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\').append(c);
+      } else if (c == '\n') {
+        literal.append("\\n");
+      } else if (c == '\r') {
+        literal.append("\\r");
+      } else if (c == '\t') {
+        literal.append("\\t");
+      } else if (c < 0x20) {
+        // Three digits, so a following digit is not read as part of the escape
+        literal.append(String.format("\\%03o", (int) c));
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.append('"').toString();
+  }
+}
@@ -0,0 +1,274 @@
+package io.github.gergilcan.PostgreSQLmapper.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Row mapper generation")
+class EntityRowMapperProcessorTest {
+
+  /** Minimal copies of the library types the generated code is compiled against. */
+  private static final Map<String, String> LIBRARY = Map.of(
+      "io/github/gergilcan/PostgreSQLmapper/core/MappedEntity.java",
+      "package io.github.gergilcan.PostgreSQLmapper.core;\n"
+          + "@java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE)\n"
+          + "public @interface MappedEntity {}\n",
+      "io/github/gergilcan/PostgreSQLmapper/core/EntityRowMapper.java",
+      "package io.github.gergilcan.PostgreSQLmapper.core;\n"
+          + "public interface EntityRowMapper<T> {\n"
+          + "  record Property(String name, java.util.List<String> aliases, java.lang.reflect.Type type) {}\n"
+          + "  interface Values { Object read(java.sql.ResultSet rs, int property) throws java.sql.SQLException; }\n"
+          + "  Class<T> type();\n"
+          + "  java.util.List<Property> properties();\n"
+          + "  T mapRow(java.sql.ResultSet rs, int[] columns, Values values) throws java.sql.SQLException;\n"
+          + "  T create(Object[] values);\n"
+          + "}\n");
+
+  private static final String ACCOUNT = "package sample;\n"
+      + "import com.fasterxml.jackson.annotation.*;\n"
+      + "import io.github.gergilcan.PostgreSQLmapper.core.MappedEntity;\n"
+      + "@MappedEntity\n"
+      + "public class Account {\n"
+      + "  private long id;\n"
+      + "  @JsonProperty(\"user_name\") @JsonAlias(\"login\") private String name;\n"
+      + "  java.util.List<String> tags;\n"
+      + "  private Integer score;\n"
+      + "  @JsonIgnore private String secret;\n"
+      + "  private transient String cache;\n"
+      + "  public long getId() { return id; }\n"
+      + "  public void setId(long id) { this.id = id; }\n"
+      + "  public String getName() { return name; }\n"
+      + "  public void setName(String name) { this.name = name; }\n"
+      + "  public Integer getScore() { return score; }\n"
+      + "  public void setScore(Integer score) { this.score = score; }\n"
+      + "  public void setSecret(String secret) { this.secret = secret; }\n"
+      + "}\n";
+
+  private static final String POINT = "package sample;\n"
+      + "public class Outer {\n"
+      + "  @io.github.gergilcan.PostgreSQLmapper.core.MappedEntity\n"
+      + "  public record Point(int x, double y, java.util.Map<String, Object> data) {}\n"
+      + "}\n";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("Generates a setter based mapper and its service entry")
+  void generatesBeanMapper() throws Exception {
+    Compilation compilation = compile(Map.of("sample/Account.java", ACCOUNT));
+    assertTrue(compilation.success, compilation.messages());
+
+    String services = Files.readString(directory.resolve("classes").resolve(EntityRowMapperProcessor.SERVICE_FILE));
+    assertEquals("sample.Account_EntityRowMapper\n", services);
+
+    Object mapper = compilation.mapper("sample.Account_EntityRowMapper");
+    List<?> properties = (List<?>) mapper.getClass().getMethod("properties").invoke(mapper);
+    assertEquals(List.of("id", "user_name", "tags", "score"), properties.stream().map(p -> invoke(p, "name"))
+        .collect(Collectors.toList()));
+    assertEquals(List.of("name", "login"), invoke(properties.get(1), "aliases"));
+    assertEquals("java.util.List<java.lang.String>", ((Type) invoke(properties.get(2), "type")).getTypeName());
+
+    Object account = mapper.getClass().getMethod("create", Object[].class)
+        .invoke(mapper, (Object) new Object[] { 7L, "ada", List.of("a"), null });
+    assertEquals(7L, invoke(account, "getId"));
+    assertEquals("ada", invoke(account, "getName"));
+    assertEquals(null, invoke(account, "getScore"));
+  }
+
+  @Test
+  @DisplayName("Reads typed columns directly and the others through the library")
+  void mapsRows() throws Exception {
+    Compilation compilation = compile(Map.of("sample/Account.java", ACCOUNT));
+    assertTrue(compilation.success, compilation.messages());
+    Object mapper = compilation.mapper("sample.Account_EntityRowMapper");
+
+    Object[] row = { 42L, "grace" };
+    ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getLong":
+              return row[(Integer) args[0] - 1];
+            case "getString":
+              return row[(Integer) args[0] - 1];
+            case "wasNull":
+              return false;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    Class<?> values = compilation.loader.loadClass("io.github.gergilcan.PostgreSQLmapper.core.EntityRowMapper$Values");
+    Object reader = Proxy.newProxyInstance(compilation.loader, new Class<?>[] { values },
+        (proxy, method, args) -> (Integer) args[1] == 2 ? List.of("x") : null);
+
+    Method mapRow = Arrays.stream(mapper.getClass().getMethods())
+        .filter(method -> method.getName().equals("mapRow") && method.getReturnType().getName().equals("sample.Account"))
+        .findFirst().orElseThrow();
+    Object account = mapRow.invoke(mapper, resultSet, new int[] { 1, 2, -3, -4 }, reader);
+    assertEquals(42L, invoke(account, "getId"));
+    assertEquals("grace", invoke(account, "getName"));
+    Field tags = account.getClass().getDeclaredField("tags");
+    tags.setAccessible(true);
+    assertEquals(List.of("x"), tags.get(account));
+    assertEquals(null, invoke(account, "getScore"));
+  }
+
+  @Test
+  @DisplayName("Builds records through their canonical constructor")
+  void generatesRecordMapper() throws Exception {
+    Compilation compilation = compile(Map.of("sample/Outer.java", POINT));
+    assertTrue(compilation.success, compilation.messages());
+
+    Object mapper = compilation.mapper("sample.Outer_Point_EntityRowMapper");
+    Object point = mapper.getClass().getMethod("create", Object[].class)
+        .invoke(mapper, (Object) new Object[] { null, 2.5, Map.of("k", 1) });
+    assertEquals(0, invoke(point, "x"));
+    assertEquals(2.5, invoke(point, "y"));
+    assertEquals(Map.of("k", 1), invoke(point, "data"));
+  }
+
+  @Test
+  @DisplayName("Rejects entities only Jackson can build")
+  void rejectsJacksonOnlyAnnotations() throws Exception {
+    String source = "package sample;\n"
+        + "@io.github.gergilcan.PostgreSQLmapper.core.MappedEntity\n"
+        + "public class Created {\n"
+        + "  private final String name;\n"
+        + "  @com.fasterxml.jackson.annotation.JsonCreator\n"
+        + "  public Created(String name) { this.name = name; }\n"
+        + "}\n";
+
+    Compilation compilation = compile(Map.of("sample/Created.java", source));
+    assertFalse(compilation.success);
+    assertTrue(compilation.messages().contains("only supported by Jackson")
+        || compilation.messages().contains("Jackson only annotations"), compilation.messages());
+  }
+
+  @Test
+  @DisplayName("Writes source that compiles under any locale and with control characters in names")
+  void escapesNamesIndependentlyOfLocale() throws Exception {
+    String source = "package sample;\n"
+        + "@io.github.gergilcan.PostgreSQLmapper.core.MappedEntity\n"
+        + "public record Cell(@com.fasterxml.jackson.annotation.JsonProperty(\"a\\tb\\nc\\u00012\") int value) {}\n";
+    Locale locale = Locale.getDefault();
+    Compilation compilation;
+    try {
+      // Lower-cases INT to a dotless i
+      Locale.setDefault(Locale.forLanguageTag("tr"));
+      compilation = compile(Map.of("sample/Cell.java", source));
+    } finally {
+      Locale.setDefault(locale);
+    }
+    assertTrue(compilation.success, compilation.messages());
+
+    Object mapper = compilation.mapper("sample.Cell_EntityRowMapper");
+    List<?> properties = (List<?>) mapper.getClass().getMethod("properties").invoke(mapper);
+    assertEquals("a\tb\nc\u00012", invoke(properties.get(0), "name"));
+  }
+
+  @Test
+  @DisplayName("Drops the service entries of mappers that no longer exist")
+  void prunesStaleServiceEntries() throws Exception {
+    String ledger = "package sample;\n"
+        + "@io.github.gergilcan.PostgreSQLmapper.core.MappedEntity\n"
+        + "public record Ledger(long id) {}\n";
+    assertTrue(compile(Map.of("sample/Account.java", ACCOUNT, "sample/Ledger.java", ledger)).success);
+    // The entity was deleted, and the build removed the classes generated for it
+    Files.delete(directory.resolve("classes/sample/Ledger.class"));
+    Files.delete(directory.resolve("classes/sample/Ledger_EntityRowMapper.class"));
+
+    Compilation compilation = compile(Map.of("sample/Outer.java", POINT));
+    assertTrue(compilation.success, compilation.messages());
+
+    String services = Files.readString(directory.resolve("classes").resolve(EntityRowMapperProcessor.SERVICE_FILE));
+    assertEquals("sample.Account_EntityRowMapper\nsample.Outer_Point_EntityRowMapper\n", services);
+  }
+
+  private Compilation compile(Map<String, String> sources) throws IOException {
+    Path sourceDirectory = directory.resolve("src");
+    Path classes = Files.createDirectories(directory.resolve("classes"));
+    Path generated = Files.createDirectories(directory.resolve("generated"));
+    List<File> files = new ArrayList<>();
+    for (Map<String, String> group : List.of(LIBRARY, sources)) {
+      for (Map.Entry<String, String> source : group.entrySet()) {
+        Path file = sourceDirectory.resolve(source.getKey());
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source.getValue());
+        files.add(file.toFile());
+      }
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+          List.of("-d", classes.toString(), "-s", generated.toString(), "-classpath",
+              System.getProperty("java.class.path") + File.pathSeparator + classes),
+          null, fileManager.getJavaFileObjectsFromFiles(files));
+      task.setProcessors(List.of(new EntityRowMapperProcessor()));
+      boolean success = task.call();
+      return new Compilation(success, diagnostics.getDiagnostics(),
+          new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader()));
+    }
+  }
+
+  private static Object invoke(Object target, String method) {
+    try {
+      Method accessor = target.getClass().getMethod(method);
+      accessor.setAccessible(true);
+      return accessor.invoke(target);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Compilation {
+    private final boolean success;
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+    private final ClassLoader loader;
+
+    private Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics,
+        ClassLoader loader) {
+      this.success = success;
+      this.diagnostics = diagnostics;
+      this.loader = loader;
+    }
+
+    private String messages() {
+      return diagnostics.stream().map(diagnostic -> diagnostic.getMessage(null)).collect(Collectors.joining("\n"));
+    }
+
+    private Object mapper(String name) throws ReflectiveOperationException {
+      return loader.loadClass(name).getConstructor().newInstance();
+    }
+  }
+}
@@ -0,0 +1,457 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import org.postgresql.util.PGobject;
+
+/**
+ * Writes a ResultSet as an Apache Arrow IPC stream: a schema, then one record
+ * batch per {@code batchSize} rows, so readers such as pyarrow
+ * ({@code pyarrow.ipc.open_stream}) get typed columns without parsing.
+ * <p>
+ * Column types follow the codecs of the mapper: {@code int2} / {@code int4} /
+ * {@code int8} as signed integers, {@code float4} / {@code float8} as floating
+ * point, {@code bool}, text types and enums as utf8, {@code numeric(p, s)} as
+ * a 128 bit decimal (unconstrained numeric as utf8, as its precision is not
+ * known), {@code bytea} as binary, {@code uuid} as the {@code arrow.uuid}
+ * extension over a 16 byte fixed size binary, json / jsonb as the
+ * {@code arrow.json} extension over utf8, {@code date} as days,
+ * {@code timestamp} as microseconds without time zone, {@code timestamptz} as
+ * microseconds in UTC, and one dimensional arrays of those as lists. Columns
+ * with a registered codec and any other type are written as their text.
+ * <p>
+ * Requires {@code org.apache.arrow:arrow-vector} and an allocator
+ * ({@code arrow-memory-unsafe} or {@code arrow-memory-netty}) on the
+ * classpath; Arrow needs {@code --add-opens=java.base/java.nio=ALL-UNNAMED}.
+ */
+final class ArrowResultSetWriter {
+
+  private static final String EXTENSION_NAME = "ARROW:extension:name";
+  private static final String EXTENSION_METADATA = "ARROW:extension:metadata";
+
+  /**
+   * Writes the column of the current row into the vector of the batch
+   */
+  @FunctionalInterface
+  private interface ColumnWriter {
+    void write(ResultSet rs, int column, FieldVector vector, int row) throws SQLException;
+  }
+
+  /**
+   * Writes one non-null value, as read by a codec or found in an array
+   */
+  @FunctionalInterface
+  private interface ValueWriter {
+    void write(FieldVector vector, int index, Object value) throws SQLException;
+  }
+
+  /**
+   * The Arrow type of a PostgreSQL type and how its values are written
+   */
+  private record Scalar(ArrowType type, String extension, ValueWriter values, ColumnWriter column) {
+  }
+
+  private static final Scalar INT16 = new Scalar(new ArrowType.Int(16, true), null,
+      (vector, index, value) -> ((SmallIntVector) vector).setSafe(index, ((Number) value).shortValue()),
+      (rs, column, vector, row) -> {
+        short value = rs.getShort(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((SmallIntVector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar INT32 = new Scalar(new ArrowType.Int(32, true), null,
+      (vector, index, value) -> ((IntVector) vector).setSafe(index, ((Number) value).intValue()),
+      (rs, column, vector, row) -> {
+        int value = rs.getInt(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((IntVector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar INT64 = new Scalar(new ArrowType.Int(64, true), null,
+      (vector, index, value) -> ((BigIntVector) vector).setSafe(index, ((Number) value).longValue()),
+      (rs, column, vector, row) -> {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((BigIntVector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar FLOAT32 = new Scalar(new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE), null,
+      (vector, index, value) -> ((Float4Vector) vector).setSafe(index, ((Number) value).floatValue()),
+      (rs, column, vector, row) -> {
+        float value = rs.getFloat(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((Float4Vector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar FLOAT64 = new Scalar(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), null,
+      (vector, index, value) -> ((Float8Vector) vector).setSafe(index, ((Number) value).doubleValue()),
+      (rs, column, vector, row) -> {
+        double value = rs.getDouble(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((Float8Vector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar BOOL = new Scalar(ArrowType.Bool.INSTANCE, null,
+      (vector, index, value) -> ((BitVector) vector).setSafe(index, (Boolean) value ? 1 : 0),
+      (rs, column, vector, row) -> {
+        boolean value = rs.getBoolean(column);
+        if (rs.wasNull()) {
+          vector.setNull(row);
+        } else {
+          ((BitVector) vector).setSafe(row, value ? 1 : 0);
+        }
+      });
+
+  private static final ValueWriter TEXT_VALUE = (vector, index, value) -> ((VarCharVector) vector).setSafe(index,
+      (value instanceof PGobject ? ((PGobject) value).getValue() : value.toString())
+          .getBytes(StandardCharsets.UTF_8));
+
+  private static final ColumnWriter TEXT_COLUMN = (rs, column, vector, row) -> {
+    String value = rs.getString(column);
+    if (value == null) {
+      vector.setNull(row);
+    } else {
+      ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+    }
+  };
+
+  private static final Scalar TEXT = new Scalar(ArrowType.Utf8.INSTANCE, null, TEXT_VALUE, TEXT_COLUMN);
+
+  private static final Scalar JSON = new Scalar(ArrowType.Utf8.INSTANCE, "arrow.json", TEXT_VALUE, TEXT_COLUMN);
+
+  private static final Scalar BINARY = new Scalar(ArrowType.Binary.INSTANCE, null,
+      (vector, index, value) -> ((VarBinaryVector) vector).setSafe(index, (byte[]) value),
+      (rs, column, vector, row) -> {
+        byte[] value = rs.getBytes(column);
+        if (value == null) {
+          vector.setNull(row);
+        } else {
+          ((VarBinaryVector) vector).setSafe(row, value);
+        }
+      });
+
+  private static final Scalar UUID_BYTES = scalar(new ArrowType.FixedSizeBinary(16), "arrow.uuid", PgCodecs.UUID,
+      (vector, index, value) -> {
+        UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString());
+        byte[] bytes = new byte[16];
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+          bytes[i] = (byte) (most >>> (56 - 8 * i));
+          bytes[8 + i] = (byte) (least >>> (56 - 8 * i));
+        }
+        ((FixedSizeBinaryVector) vector).setSafe(index, bytes);
+      });
+
+  private static final Scalar DATE = scalar(new ArrowType.Date(DateUnit.DAY), null, PgCodecs.DATE,
+      (vector, index, value) -> {
+        LocalDate date = value instanceof Date ? ((Date) value).toLocalDate() : (LocalDate) value;
+        ((DateDayVector) vector).setSafe(index, (int) date.toEpochDay());
+      });
+
+  private static final Scalar TIMESTAMP = scalar(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null), null,
+      PgCodecs.TIMESTAMP, (vector, index, value) -> {
+        LocalDateTime dateTime = value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime()
+            : (LocalDateTime) value;
+        ((TimeStampMicroVector) vector).setSafe(index, micros(dateTime.toInstant(ZoneOffset.UTC)));
+      });
+
+  private static final Scalar TIMESTAMPTZ = scalar(new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC"), null,
+      PgCodecs.INSTANT, (vector, index, value) -> {
+        Instant instant;
+        if (value instanceof Timestamp) {
+          instant = ((Timestamp) value).toInstant();
+        } else if (value instanceof OffsetDateTime) {
+          instant = ((OffsetDateTime) value).toInstant();
+        } else {
+          instant = (Instant) value;
+        }
+        ((TimeStampMicroTZVector) vector).setSafe(index, micros(instant));
+      });
+
+  private final Schema schema;
+  private final ColumnWriter[] writers;
+  private long bytesWritten;
+
+  /**
+   * @param shape    The columns of the ResultSet
+   * @param metaData Its metadata, for the precision and scale of numeric
+   *                 columns
+   * @param codecs   The codecs of the mapper; columns with a registered codec
+   *                 are written as text
+   */
+  ArrowResultSetWriter(ColumnShape shape, ResultSetMetaData metaData, PgCodecRegistry codecs) throws SQLException {
+    List<Field> fields = new ArrayList<>(shape.columnCount());
+    this.writers = new ColumnWriter[shape.columnCount()];
+    for (int i = 0; i < shape.columnCount(); i++) {
+      String typeName = shape.typeName(i);
+      Scalar scalar;
+      if (codecs.findRegistered(shape, i) != null) {
+        scalar = TEXT;
+      } else if ("numeric".equals(typeName)) {
+        scalar = decimal(metaData.getPrecision(i + 1), metaData.getScale(i + 1));
+      } else {
+        scalar = scalarFor(typeName, shape.type(i));
+      }
+      if (scalar == null && typeName != null && typeName.startsWith("_")) {
+        // Array elements are values of the getArray() Java array; numeric ones as text
+        Scalar element = scalarFor(typeName.substring(1), Types.OTHER);
+        Field item = new Field("item", fieldType(element), null);
+        fields.add(new Field(shape.name(i), FieldType.nullable(ArrowType.List.INSTANCE), List.of(item)));
+        writers[i] = list(element.values());
+      } else {
+        if (scalar == null) {
+          scalar = TEXT;
+        }
+        fields.add(new Field(shape.name(i), fieldType(scalar), null));
+        writers[i] = scalar.column();
+      }
+    }
+    this.schema = new Schema(fields);
+  }
+
+  /**
+   * @return The schema of the stream
+   */
+  Schema schema() {
+    return schema;
+  }
+
+  /**
+   * @return The size of the stream written by {@link #write}
+   */
+  long bytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Writes the schema and the remaining rows of the ResultSet
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param out       The stream to write to; it is not closed nor flushed
+   * @param batchSize The maximum number of rows per record batch
+   * @return The number of rows written
+   */
+  long write(ResultSet resultSet, OutputStream out, int batchSize) throws SQLException, IOException {
+    long rows = 0;
+    try (BufferAllocator allocator = new RootAllocator();
+        VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+      // Not closed: that would close the caller's stream
+      ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out);
+      writer.start();
+      List<FieldVector> vectors = root.getFieldVectors();
+      int count;
+      do {
+        root.allocateNew();
+        count = 0;
+        while (count < batchSize && resultSet.next()) {
+          for (int i = 0; i < writers.length; i++) {
+            writers[i].write(resultSet, i + 1, vectors.get(i), count);
+          }
+          count++;
+        }
+        if (count > 0) {
+          root.setRowCount(count);
+          writer.writeBatch();
+          rows += count;
+        }
+      } while (count == batchSize);
+      writer.end();
+      bytesWritten = writer.bytesWritten();
+    }
+    return rows;
+  }
+
+  private static Scalar scalarFor(String typeName, int type) {
+    if (typeName != null) {
+      switch (typeName) {
+        case "int2":
+          return INT16;
+        case "int4":
+          return INT32;
+        case "int8":
+          return INT64;
+        case "float4":
+          return FLOAT32;
+        case "float8":
+          return FLOAT64;
+        case "bool":
+          return BOOL;
+        case "text":
+        case "varchar":
+        case "bpchar":
+        case "name":
+          return TEXT;
+        case "json":
+        case "jsonb":
+          return JSON;
+        case "bytea":
+          return BINARY;
+        case "uuid":
+          return UUID_BYTES;
+        case "date":
+          return DATE;
+        case "timestamp":
+          return TIMESTAMP;
+        case "timestamptz":
+          return TIMESTAMPTZ;
+        default:
+          if (typeName.startsWith("_")) {
+            return null;
+          }
+      }
+    }
+    switch (type) {
+      case Types.SMALLINT:
+        return INT16;
+      case Types.INTEGER:
+        return INT32;
+      case Types.BIGINT:
+        return INT64;
+      case Types.REAL:
+        return FLOAT32;
+      case Types.DOUBLE:
+        return FLOAT64;
+      case Types.BOOLEAN:
+        return BOOL;
+      case Types.ARRAY:
+        return null;
+      default:
+        return TEXT;
+    }
+  }
+
+  /**
+   * {@code numeric(p, s)} as a decimal; unconstrained (precision 0) or wider
+   * than 38 digits as text
+   */
+  private static Scalar decimal(int precision, int scale) {
+    if (precision <= 0 || precision > 38) {
+      return TEXT;
+    }
+    return new Scalar(new ArrowType.Decimal(precision, scale, 128), null,
+        (vector, index, value) -> ((DecimalVector) vector).setSafe(index,
+            ((BigDecimal) value).setScale(scale, RoundingMode.UNNECESSARY)),
+        (rs, column, vector, row) -> {
+          BigDecimal value = rs.getBigDecimal(column);
+          if (value == null) {
+            vector.setNull(row);
+          } else {
+            ((DecimalVector) vector).setSafe(row, value.setScale(scale, RoundingMode.UNNECESSARY));
+          }
+        });
+  }
+
+  /**
+   * Scalar whose column is read by a codec of the mapper
+   */
+  private static Scalar scalar(ArrowType type, String extension, PgCodec codec, ValueWriter values) {
+    return new Scalar(type, extension, values, (rs, column, vector, row) -> {
+      Object value = codec.read(rs, column);
+      if (value == null) {
+        vector.setNull(row);
+      } else {
+        values.write(vector, row, value);
+      }
+    });
+  }
+
+  private static ColumnWriter list(ValueWriter values) {
+    return (rs, column, vector, row) -> {
+      Array array = rs.getArray(column);
+      ListVector list = (ListVector) vector;
+      if (array == null) {
+        list.setNull(row);
+        return;
+      }
+      Object[] elements = (Object[]) array.getArray();
+      FieldVector items = list.getDataVector();
+      int offset = list.startNewValue(row);
+      for (int i = 0; i < elements.length; i++) {
+        Object element = elements[i];
+        if (element == null) {
+          items.setNull(offset + i);
+        } else if (element instanceof Object[]) {
+          throw new SQLException("Multidimensional arrays cannot be written as Arrow lists");
+        } else {
+          values.write(items, offset + i, element);
+        }
+      }
+      list.endValue(row, elements.length);
+    };
+  }
+
+  private static FieldType fieldType(Scalar scalar) {
+    if (scalar.extension() == null) {
+      return FieldType.nullable(scalar.type());
+    }
+    return new FieldType(true, scalar.type(), null,
+        Map.of(EXTENSION_NAME, scalar.extension(), EXTENSION_METADATA, ""));
+  }
+
+  private static long micros(Instant instant) {
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+  }
+}
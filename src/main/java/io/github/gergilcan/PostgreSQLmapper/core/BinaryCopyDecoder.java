@@ -0,0 +1,355 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.postgresql.PGStatement;
+import org.postgresql.util.PGobject;
+
+/**
+ * Decodes the tuples of a {@code COPY ... TO STDOUT (FORMAT binary)} stream
+ * into rows of driver values, the same values {@code getObject} returns for
+ * each column (see {@link MappingPlan#decode(Object[])}): {@code int2} /
+ * {@code int4} as Integer, {@code numeric} as BigDecimal, {@code date} as
+ * LocalDate, {@code timestamp} as LocalDateTime, {@code timestamptz} as
+ * Timestamp, arrays as Java arrays of the element type. json / jsonb
+ * documents are kept as their UTF-8 bytes so they are parsed once, straight
+ * into the property type.
+ * <p>
+ * The binary format carries no column metadata, so the decoders are chosen
+ * from the {@link ColumnShape}. Columns the driver reports as text (e.g.
+ * enums) are decoded as text. A registered codec gets the value of a text-like
+ * column as a String, of a json / jsonb column as a PGobject and of another
+ * built-in type as the built-in decoder produces it; a codec on a type without
+ * a binary decoder (composite, geometric, extension types) is rejected before
+ * the stream is read. Other types without a binary decoder are passed on as
+ * their raw bytes; cast them to text in the COPY query to map them.
+ */
+final class BinaryCopyDecoder implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Decodes one non-null field
+   */
+  @FunctionalInterface
+  interface FieldDecoder {
+    Object decode(DataInputStream in, int length) throws IOException;
+  }
+
+  private static final FieldDecoder RAW = BinaryCopyDecoder::readBytes;
+  private static final FieldDecoder TEXT = (in, length) -> new String(readBytes(in, length), StandardCharsets.UTF_8);
+  private static final FieldDecoder JSONB = (in, length) -> {
+    int version = in.readUnsignedByte();
+    if (version != 1) {
+      throw new IOException("Unsupported jsonb binary version " + version);
+    }
+    return readBytes(in, length - 1);
+  };
+  private static final FieldDecoder TIMESTAMP = (in, length) -> {
+    long micros = in.readLong();
+    if (micros == Long.MAX_VALUE) {
+      return LocalDateTime.MAX;
+    } else if (micros == Long.MIN_VALUE) {
+      return LocalDateTime.MIN;
+    }
+    return LocalDateTime.ofEpochSecond(epochSecond(micros), nanos(micros), ZoneOffset.UTC);
+  };
+  private static final FieldDecoder TIMESTAMPTZ = (in, length) -> {
+    long micros = in.readLong();
+    if (micros == Long.MAX_VALUE) {
+      return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
+    } else if (micros == Long.MIN_VALUE) {
+      return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+    }
+    return Timestamp.from(Instant.ofEpochSecond(epochSecond(micros), nanos(micros)));
+  };
+  private static final FieldDecoder DATE = (in, length) -> {
+    int days = in.readInt();
+    if (days == Integer.MAX_VALUE) {
+      return LocalDate.MAX;
+    } else if (days == Integer.MIN_VALUE) {
+      return LocalDate.MIN;
+    }
+    return LocalDate.ofEpochDay((long) days + PgBinaryFormat.PG_EPOCH_DAYS);
+  };
+
+  /** Decoders and Java types of the built-in types, by type OID. */
+  private static final Map<Integer, FieldDecoder> DECODERS = new HashMap<>();
+  private static final Map<Integer, Class<?>> JAVA_TYPES = new HashMap<>();
+
+  static {
+    register("bool", Boolean.class, (in, length) -> in.readByte() != 0);
+    register("bytea", byte[].class, RAW);
+    register("name", String.class, TEXT);
+    register("int8", Long.class, (in, length) -> in.readLong());
+    register("int2", Integer.class, (in, length) -> (int) in.readShort());
+    register("int4", Integer.class, (in, length) -> in.readInt());
+    register("text", String.class, TEXT);
+    register("oid", Long.class, (in, length) -> in.readInt() & 0xFFFF_FFFFL);
+    register("json", byte[].class, RAW);
+    register("float4", Float.class, (in, length) -> in.readFloat());
+    register("float8", Double.class, (in, length) -> in.readDouble());
+    register("bpchar", String.class, TEXT);
+    register("varchar", String.class, TEXT);
+    register("date", LocalDate.class, DATE);
+    register("timestamp", LocalDateTime.class, TIMESTAMP);
+    register("timestamptz", Timestamp.class, TIMESTAMPTZ);
+    register("numeric", Number.class, BinaryCopyDecoder::readNumeric);
+    register("uuid", UUID.class, (in, length) -> new UUID(in.readLong(), in.readLong()));
+    register("jsonb", byte[].class, JSONB);
+  }
+
+  private static void register(String typeName, Class<?> javaType, FieldDecoder decoder) {
+    int oid = PgBinaryFormat.oid(typeName);
+    DECODERS.put(oid, decoder);
+    JAVA_TYPES.put(oid, javaType);
+  }
+
+  private final DataInputStream in;
+  private final FieldDecoder[] decoders;
+  private boolean headerRead;
+  private boolean done;
+
+  /**
+   * @param in       The binary COPY stream, starting with its header
+   * @param decoders The decoders of the columns, see {@link #decoders}
+   */
+  BinaryCopyDecoder(InputStream in, FieldDecoder[] decoders) {
+    this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    this.decoders = decoders;
+  }
+
+  /**
+   * Chooses the decoder of every column
+   *
+   * @param shape  The columns of the copied query, in order
+   * @param codecs The codecs of the mapper, to find columns with a registered
+   *               codec
+   * @return The decoders, by 0-based column
+   * @throws SQLException If a column has a registered codec but its type has
+   *                      no binary decoder
+   */
+  static FieldDecoder[] decoders(ColumnShape shape, PgCodecRegistry codecs) throws SQLException {
+    FieldDecoder[] decoders = new FieldDecoder[shape.columnCount()];
+    for (int i = 0; i < decoders.length; i++) {
+      decoders[i] = decoderFor(shape, i, codecs);
+    }
+    return decoders;
+  }
+
+  private static FieldDecoder decoderFor(ColumnShape shape, int index, PgCodecRegistry codecs) throws SQLException {
+    String typeName = shape.typeName(index);
+    FieldDecoder builtIn = builtIn(typeName);
+    boolean text = builtIn == TEXT || isTextType(shape.type(index)) || "citext".equals(typeName);
+    if (codecs.findRegistered(shape, index) == null) {
+      if (text) {
+        return TEXT;
+      }
+      return builtIn != null ? builtIn : RAW;
+    }
+    // The codec decodes what getObject would return for the column
+    if (text) {
+      return TEXT;
+    } else if ("json".equals(typeName)) {
+      return (in, length) -> pgObject(typeName, readBytes(in, length));
+    } else if ("jsonb".equals(typeName)) {
+      return (in, length) -> pgObject(typeName, (byte[]) JSONB.decode(in, length));
+    } else if (builtIn != null) {
+      return builtIn;
+    }
+    throw new SQLException("Column " + shape.name(index) + " of type " + typeName
+        + " has a registered codec but no binary COPY decoder; cast it to text in the query");
+  }
+
+  /**
+   * @return The decoder of a built-in type, or {@code null}
+   */
+  private static FieldDecoder builtIn(String typeName) {
+    if (typeName == null) {
+      return null;
+    }
+    int oid = PgBinaryFormat.oid(typeName);
+    if (oid != 0) {
+      return DECODERS.get(oid);
+    }
+    return typeName.startsWith("_") ? BinaryCopyDecoder::readArray : null;
+  }
+
+  /** Enums and other types the driver reports as text are sent as text. */
+  private static boolean isTextType(int jdbcType) {
+    return jdbcType == Types.VARCHAR || jdbcType == Types.CHAR || jdbcType == Types.LONGVARCHAR;
+  }
+
+  private static PGobject pgObject(String typeName, byte[] utf8) throws IOException {
+    PGobject value = new PGobject();
+    value.setType(typeName);
+    try {
+      value.setValue(new String(utf8, StandardCharsets.UTF_8));
+    } catch (SQLException e) {
+      throw new IOException(e);
+    }
+    return value;
+  }
+
+  /**
+   * Decodes the next tuple
+   *
+   * @return The driver values of the tuple indexed by 0-based column, or
+   *         {@code null} once the trailer has been read
+   * @throws IOException If the stream is not a valid binary COPY stream
+   */
+  Object[] next() throws IOException {
+    if (done) {
+      return null;
+    }
+    if (!headerRead) {
+      readHeader();
+      headerRead = true;
+    }
+    short fieldCount;
+    try {
+      fieldCount = in.readShort();
+    } catch (EOFException e) {
+      throw new IOException("Binary COPY stream ended without trailer", e);
+    }
+    if (fieldCount == -1) {
+      done = true;
+      return null;
+    }
+    if (fieldCount != decoders.length) {
+      throw new IOException("Expected " + decoders.length + " fields per tuple but got " + fieldCount);
+    }
+    Object[] values = new Object[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      int length = in.readInt();
+      if (length >= 0) {
+        values[i] = decoders[i].decode(in, length);
+      }
+    }
+    return values;
+  }
+
+  private void readHeader() throws IOException {
+    byte[] signature = new byte[PgBinaryFormat.SIGNATURE.length];
+    in.readFully(signature);
+    for (int i = 0; i < PgBinaryFormat.SIGNATURE.length; i++) {
+      if (signature[i] != PgBinaryFormat.SIGNATURE[i]) {
+        throw new IOException("Not a binary COPY stream");
+      }
+    }
+    in.readInt(); // flags, only bit 16 (OIDs included) was ever defined and is not supported
+    int extensionLength = in.readInt();
+    in.skipNBytes(extensionLength);
+  }
+
+  @Override
+  public void close() throws IOException {
+    done = true;
+    in.close();
+  }
+
+  private static Object readArray(DataInputStream in, int length) throws IOException {
+    int dimensions = in.readInt();
+    in.readInt(); // has nulls flag
+    int elementOid = in.readInt();
+    FieldDecoder decoder = DECODERS.getOrDefault(elementOid, RAW);
+    Class<?> elementType = JAVA_TYPES.getOrDefault(elementOid, byte[].class);
+    if (dimensions == 0) {
+      return Array.newInstance(elementType, 0);
+    }
+    int[] sizes = new int[dimensions];
+    for (int i = 0; i < dimensions; i++) {
+      sizes[i] = in.readInt();
+      in.readInt(); // lower bound
+    }
+    Object[] array = (Object[]) Array.newInstance(elementType, sizes);
+    readElements(in, array, dimensions - 1, decoder);
+    return array;
+  }
+
+  /** Fills a (possibly nested) array in row-major order, the order elements are sent in. */
+  private static void readElements(DataInputStream in, Object[] array, int depth, FieldDecoder decoder)
+      throws IOException {
+    for (int i = 0; i < array.length; i++) {
+      if (depth > 0) {
+        readElements(in, (Object[]) array[i], depth - 1, decoder);
+      } else {
+        int length = in.readInt();
+        array[i] = length < 0 ? null : decoder.decode(in, length);
+      }
+    }
+  }
+
+  /**
+   * Decodes {@code numeric}: base 10000 digits with a weight, a sign and a
+   * display scale. NaN and the infinities decode to the Double constants, as
+   * PgJDBC does.
+   */
+  private static Object readNumeric(DataInputStream in, int length) throws IOException {
+    int digitCount = in.readShort();
+    int weight = in.readShort();
+    int sign = in.readUnsignedShort();
+    int scale = in.readUnsignedShort();
+    if (sign == PgBinaryFormat.NUMERIC_NAN) {
+      return Double.NaN;
+    } else if (sign == PgBinaryFormat.NUMERIC_PINF) {
+      return Double.POSITIVE_INFINITY;
+    } else if (sign == PgBinaryFormat.NUMERIC_NINF) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    BigDecimal value;
+    if (digitCount <= 4) {
+      long unscaled = 0;
+      for (int i = 0; i < digitCount; i++) {
+        unscaled = unscaled * 10_000 + in.readShort();
+      }
+      value = BigDecimal.valueOf(unscaled, -4 * (weight - digitCount + 1));
+    } else {
+      BigInteger unscaled = BigInteger.ZERO;
+      BigInteger base = BigInteger.valueOf(10_000);
+      for (int i = 0; i < digitCount; i++) {
+        unscaled = unscaled.multiply(base).add(BigInteger.valueOf(in.readShort()));
+      }
+      value = new BigDecimal(unscaled, -4 * (weight - digitCount + 1));
+    }
+    if (sign == PgBinaryFormat.NUMERIC_NEGATIVE) {
+      value = value.negate();
+    }
+    // Trailing zero digit groups are not sent, the display scale restores them
+    return value.setScale(scale, RoundingMode.DOWN);
+  }
+
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static long epochSecond(long micros) {
+    return Math.floorDiv(micros, 1_000_000L) + PgBinaryFormat.PG_EPOCH_SECONDS;
+  }
+
+  private static int nanos(long micros) {
+    return (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+  }
+}
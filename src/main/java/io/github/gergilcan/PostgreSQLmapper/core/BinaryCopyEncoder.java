@@ -0,0 +1,462 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encodes entities as the tuples of a {@code COPY ... FROM STDIN (FORMAT binary)}
+ * stream, the reverse of {@link BinaryCopyDecoder}.
+ * <p>
+ * The columns of the target table are resolved to properties once, with the
+ * same name matching the read side uses ({@link EntityDescriptor#find}), and
+ * each column gets an encoder chosen from its type: integers, floats, bool,
+ * text (enums are written by name), uuid, numeric, bytea, json / jsonb
+ * (written with the mapper, a String is taken as JSON text), date, timestamp,
+ * timestamptz and one dimensional arrays of those. Columns without a matching
+ * readable property are left out of the copy so the table defaults apply.
+ * Variable length fields are encoded into a reused scratch buffer to learn
+ * their length, so an encoder is not thread safe.
+ */
+final class BinaryCopyEncoder {
+
+  /**
+   * Encodes one non-null value without its length prefix
+   */
+  @FunctionalInterface
+  interface FieldEncoder {
+    void encode(Object value, DataOutputStream out) throws IOException;
+  }
+
+  private final PropertyDescriptor[] properties;
+  private final FieldEncoder[] encoders;
+  /** Length of each field, or {@code -1} for variable length fields. */
+  private final int[] lengths;
+  private final String[] columnNames;
+  private final ObjectMapper mapper;
+  private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+  private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+
+  /**
+   * @param entity The descriptor of the copied entity type
+   * @param shape  The columns of the target table
+   * @param mapper The ObjectMapper used for json / jsonb columns and value
+   *               conversions
+   * @throws SQLException If a copied column has a type without binary encoder
+   */
+  BinaryCopyEncoder(EntityDescriptor<?> entity, ColumnShape shape, ObjectMapper mapper) throws SQLException {
+    this.mapper = mapper;
+    List<Integer> columns = new ArrayList<>();
+    for (int i = 0; i < shape.columnCount(); i++) {
+      PropertyDescriptor property = entity.find(shape.name(i));
+      if (property != null && property.readable()) {
+        columns.add(i);
+      }
+    }
+    if (columns.isEmpty()) {
+      throw new SQLException("No column matches a readable property of " + entity.type().getName());
+    }
+    this.properties = new PropertyDescriptor[columns.size()];
+    this.encoders = new FieldEncoder[columns.size()];
+    this.lengths = new int[columns.size()];
+    this.columnNames = new String[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      int column = columns.get(i);
+      String typeName = shape.typeName(column);
+      properties[i] = entity.find(shape.name(column));
+      columnNames[i] = shape.name(column);
+      if (shape.type(column) == Types.VARCHAR && PgBinaryFormat.oid(typeName) == 0) {
+        // Enums and other text-like types are sent as their label
+        typeName = "text";
+      }
+      encoders[i] = encoderFor(typeName);
+      lengths[i] = fixedLength(typeName);
+      if (encoders[i] == null) {
+        throw new SQLException("Column " + shape.name(column) + " of type " + typeName
+            + " has no binary COPY encoder; leave it out of the copy or load it as text");
+      }
+    }
+  }
+
+  /**
+   * @return The names of the copied columns, in tuple order
+   */
+  String[] columnNames() {
+    return columnNames;
+  }
+
+  void writeHeader(DataOutputStream out) throws IOException {
+    out.write(PgBinaryFormat.SIGNATURE);
+    out.writeInt(0); // flags
+    out.writeInt(0); // header extension length
+  }
+
+  /**
+   * Writes one entity as a tuple
+   *
+   * @param entity The entity, not {@code null}
+   * @param out    The COPY stream
+   * @throws IOException  If the stream cannot be written
+   * @throws SQLException If a property cannot be read or encoded
+   */
+  void write(Object entity, DataOutputStream out) throws IOException, SQLException {
+    out.writeShort(properties.length);
+    for (int i = 0; i < properties.length; i++) {
+      Object value;
+      try {
+        value = properties[i].read(entity);
+      } catch (Throwable e) {
+        throw new SQLException("Failed to read property " + properties[i].name(), e);
+      }
+      try {
+        writeField(value, encoders[i], lengths[i], out);
+      } catch (RuntimeException e) {
+        throw new SQLException("Failed to encode property " + properties[i].name() + " for column "
+            + columnNames[i], e);
+      }
+    }
+  }
+
+  void writeTrailer(DataOutputStream out) throws IOException {
+    out.writeShort(-1);
+  }
+
+  private void writeField(Object value, FieldEncoder encoder, int length, DataOutputStream out)
+      throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else if (length >= 0) {
+      out.writeInt(length);
+      encoder.encode(value, out);
+    } else {
+      scratch.reset();
+      encoder.encode(value, scratchOut);
+      out.writeInt(scratch.size());
+      scratch.writeTo(out);
+    }
+  }
+
+  private static int fixedLength(String typeName) {
+    switch (typeName) {
+      case "bool":
+        return 1;
+      case "int2":
+        return 2;
+      case "int4":
+      case "float4":
+      case "date":
+        return 4;
+      case "int8":
+      case "float8":
+      case "timestamp":
+      case "timestamptz":
+        return 8;
+      case "uuid":
+        return 16;
+      default:
+        return -1;
+    }
+  }
+
+  private FieldEncoder encoderFor(String typeName) {
+    if (typeName == null) {
+      return null;
+    }
+    switch (typeName) {
+      case "bool":
+        return (value, out) -> out.writeBoolean(convert(value, Boolean.class));
+      case "int2":
+        return (value, out) -> out.writeShort(convert(value, Short.class));
+      case "int4":
+        return (value, out) -> out.writeInt(convert(value, Integer.class));
+      case "int8":
+        return (value, out) -> out.writeLong(convert(value, Long.class));
+      case "float4":
+        return (value, out) -> out.writeFloat(convert(value, Float.class));
+      case "float8":
+        return (value, out) -> out.writeDouble(convert(value, Double.class));
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+        return (value, out) -> out.write(text(value).getBytes(StandardCharsets.UTF_8));
+      case "bytea":
+        return (value, out) -> out.write(convert(value, byte[].class));
+      case "uuid":
+        return (value, out) -> {
+          UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString());
+          out.writeLong(uuid.getMostSignificantBits());
+          out.writeLong(uuid.getLeastSignificantBits());
+        };
+      case "numeric":
+        return BinaryCopyEncoder::writeNumeric;
+      case "json":
+        return (value, out) -> out.write(json(value));
+      case "jsonb":
+        return (value, out) -> {
+          out.writeByte(1); // jsonb binary format version
+          out.write(json(value));
+        };
+      case "date":
+        return (value, out) -> out.writeInt(days(value));
+      case "timestamp":
+        return (value, out) -> out.writeLong(localMicros(value));
+      case "timestamptz":
+        return (value, out) -> out.writeLong(instantMicros(value));
+      default:
+        if (typeName.startsWith("_")) {
+          String elementType = typeName.substring(1);
+          FieldEncoder element = encoderFor(elementType);
+          int oid = PgBinaryFormat.oid(elementType);
+          return element == null || oid == 0 ? null : arrayEncoder(oid, element, fixedLength(elementType));
+        }
+        return null;
+    }
+  }
+
+  /**
+   * Encodes a one dimensional array (Java array or Collection), with its own
+   * scratch buffer for variable length elements
+   */
+  private FieldEncoder arrayEncoder(int elementOid, FieldEncoder element, int elementLength) {
+    ByteArrayOutputStream elementScratch = new ByteArrayOutputStream(64);
+    DataOutputStream elementOut = new DataOutputStream(elementScratch);
+    return (value, out) -> {
+      List<Object> elements = elements(value);
+      boolean hasNulls = elements.contains(null);
+      out.writeInt(elements.isEmpty() ? 0 : 1); // dimensions
+      out.writeInt(hasNulls ? 1 : 0);
+      out.writeInt(elementOid);
+      if (elements.isEmpty()) {
+        return;
+      }
+      out.writeInt(elements.size());
+      out.writeInt(1); // lower bound
+      for (Object item : elements) {
+        if (item == null) {
+          out.writeInt(-1);
+        } else if (elementLength >= 0) {
+          out.writeInt(elementLength);
+          element.encode(item, out);
+        } else {
+          elementScratch.reset();
+          element.encode(item, elementOut);
+          out.writeInt(elementScratch.size());
+          elementScratch.writeTo(out);
+        }
+      }
+    };
+  }
+
+  private static List<Object> elements(Object value) {
+    if (value instanceof Collection) {
+      return new ArrayList<>((Collection<?>) value);
+    }
+    if (!value.getClass().isArray()) {
+      throw new IllegalArgumentException("Expected an array or Collection but got " + value.getClass().getName());
+    }
+    int length = Array.getLength(value);
+    List<Object> elements = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      elements.add(Array.get(value, i));
+    }
+    return elements;
+  }
+
+  private <V> V convert(Object value, Class<V> type) {
+    if (type.isInstance(value)) {
+      return type.cast(value);
+    }
+    if (value instanceof Number && Number.class.isAssignableFrom(type)) {
+      Number number = (Number) value;
+      Object converted;
+      if (type == Long.class) {
+        converted = number.longValue();
+      } else if (type == Integer.class) {
+        converted = number.intValue();
+      } else if (type == Short.class) {
+        converted = number.shortValue();
+      } else if (type == Double.class) {
+        converted = number.doubleValue();
+      } else {
+        converted = number.floatValue();
+      }
+      return type.cast(converted);
+    }
+    return mapper.convertValue(value, type);
+  }
+
+  private String text(Object value) {
+    if (value instanceof String) {
+      return (String) value;
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+        || value instanceof UUID || value instanceof Character) {
+      return value.toString();
+    }
+    return mapper.convertValue(value, String.class);
+  }
+
+  /** A String is taken as JSON text, as the read side hands out jsonb as text. */
+  private byte[] json(Object value) throws IOException {
+    if (value instanceof String) {
+      return ((String) value).getBytes(StandardCharsets.UTF_8);
+    }
+    return mapper.writeValueAsBytes(value);
+  }
+
+  private static int days(Object value) {
+    LocalDate date;
+    if (value instanceof LocalDate) {
+      date = (LocalDate) value;
+    } else if (value instanceof Date) {
+      date = ((Date) value).toLocalDate();
+    } else if (value instanceof LocalDateTime) {
+      date = ((LocalDateTime) value).toLocalDate();
+    } else {
+      date = PgDateTimeParser.parseLocalDate(value.toString());
+    }
+    if (date.equals(LocalDate.MAX)) {
+      return Integer.MAX_VALUE;
+    } else if (date.equals(LocalDate.MIN)) {
+      return Integer.MIN_VALUE;
+    }
+    return Math.toIntExact(date.toEpochDay() - PgBinaryFormat.PG_EPOCH_DAYS);
+  }
+
+  private static long localMicros(Object value) {
+    LocalDateTime dateTime;
+    if (value instanceof LocalDateTime) {
+      dateTime = (LocalDateTime) value;
+    } else if (value instanceof Timestamp) {
+      dateTime = ((Timestamp) value).toLocalDateTime();
+    } else if (value instanceof LocalDate) {
+      dateTime = ((LocalDate) value).atStartOfDay();
+    } else {
+      dateTime = PgDateTimeParser.parseLocalDateTime(value.toString());
+    }
+    if (dateTime.equals(LocalDateTime.MAX)) {
+      return Long.MAX_VALUE;
+    } else if (dateTime.equals(LocalDateTime.MIN)) {
+      return Long.MIN_VALUE;
+    }
+    return micros(dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano());
+  }
+
+  /** LocalDateTime values are taken in the JVM time zone, as PgJDBC does. */
+  private static long instantMicros(Object value) {
+    Instant instant;
+    if (value instanceof Instant) {
+      instant = (Instant) value;
+    } else if (value instanceof OffsetDateTime) {
+      OffsetDateTime dateTime = (OffsetDateTime) value;
+      instant = dateTime.equals(OffsetDateTime.MAX) ? Instant.MAX
+          : dateTime.equals(OffsetDateTime.MIN) ? Instant.MIN : dateTime.toInstant();
+    } else if (value instanceof ZonedDateTime) {
+      instant = ((ZonedDateTime) value).toInstant();
+    } else if (value instanceof Timestamp) {
+      instant = ((Timestamp) value).toInstant();
+    } else if (value instanceof LocalDateTime) {
+      instant = ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+    } else {
+      instant = PgDateTimeParser.parseInstant(value.toString());
+    }
+    if (instant.equals(Instant.MAX)) {
+      return Long.MAX_VALUE;
+    } else if (instant.equals(Instant.MIN)) {
+      return Long.MIN_VALUE;
+    }
+    return micros(instant.getEpochSecond(), instant.getNano());
+  }
+
+  private static long micros(long epochSecond, int nano) {
+    return Math.addExact(Math.multiplyExact(epochSecond - PgBinaryFormat.PG_EPOCH_SECONDS, 1_000_000L),
+        nano / 1_000);
+  }
+
+  /**
+   * Encodes {@code numeric} as base 10000 digits: the value is split into
+   * groups of four decimal digits around the decimal point, leading and
+   * trailing zero groups are dropped and the weight is the position of the
+   * first group relative to the point. NaN and the infinities of Double /
+   * Float values map to the numeric special values.
+   */
+  private static void writeNumeric(Object value, DataOutputStream out) throws IOException {
+    if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      if (Double.isNaN(number) || Double.isInfinite(number)) {
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(Double.isNaN(number) ? PgBinaryFormat.NUMERIC_NAN
+            : number > 0 ? PgBinaryFormat.NUMERIC_PINF : PgBinaryFormat.NUMERIC_NINF);
+        out.writeShort(0);
+        return;
+      }
+    }
+    BigDecimal decimal = decimal(value);
+    int scale = Math.max(decimal.scale(), 0);
+    BigInteger unscaled = decimal.unscaledValue().abs();
+    if (decimal.scale() < 0) {
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(-decimal.scale()));
+    }
+    // Align the fraction on a group boundary, so groups split at the point
+    int fractionGroups = (scale + 3) / 4;
+    unscaled = unscaled.multiply(BigInteger.TEN.pow(fractionGroups * 4 - scale));
+
+    List<Short> groups = new ArrayList<>();
+    BigInteger base = BigInteger.valueOf(10_000);
+    while (unscaled.signum() > 0) {
+      BigInteger[] division = unscaled.divideAndRemainder(base);
+      groups.add(division[1].shortValue());
+      unscaled = division[0];
+    }
+    // groups holds the least significant group first
+    int weight = groups.size() - 1 - fractionGroups;
+    int first = 0;
+    while (first < groups.size() && groups.get(first) == 0) {
+      first++;
+    }
+    out.writeShort(groups.size() - first);
+    out.writeShort(groups.isEmpty() ? 0 : weight);
+    out.writeShort(decimal.signum() < 0 ? PgBinaryFormat.NUMERIC_NEGATIVE : PgBinaryFormat.NUMERIC_POSITIVE);
+    out.writeShort(scale);
+    for (int i = groups.size() - 1; i >= first; i--) {
+      out.writeShort(groups.get(i));
+    }
+  }
+
+  private static BigDecimal decimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      return BigDecimal.valueOf(((Number) value).doubleValue());
+    } else if (value instanceof Number) {
+      return BigDecimal.valueOf(((Number) value).longValue());
+    }
+    return new BigDecimal(value.toString());
+  }
+}
@@ -0,0 +1,70 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily maps the tuples of a binary COPY stream one per {@link #next()},
+ * resolving columns to properties exactly like {@link DirectResultSetMapper}
+ * does for a ResultSet with the same columns.
+ * <p>
+ * Closing the reader closes the underlying stream; for a running
+ * {@code COPY ... TO STDOUT} that cancels the copy if it has not completed.
+ *
+ * @param <T> The type of the mapped rows
+ */
+public final class BinaryCopyReader<T> implements Iterator<T>, AutoCloseable {
+
+  private final BinaryCopyDecoder decoder;
+  private final MappingPlan<T> plan;
+  private Object[] pending;
+  private boolean done;
+
+  BinaryCopyReader(BinaryCopyDecoder decoder, MappingPlan<T> plan) {
+    this.decoder = decoder;
+    this.plan = plan;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (pending == null && !done) {
+      try {
+        pending = decoder.next();
+      } catch (IOException e) {
+        throw new ResultSetMappingException("Failed to read binary COPY stream", e);
+      }
+      done = pending == null;
+    }
+    return pending != null;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Object[] values = pending;
+    pending = null;
+    try {
+      return plan.decode(values);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map binary COPY tuple", e);
+    }
+  }
+
+  /**
+   * Closes the underlying stream
+   */
+  @Override
+  public void close() {
+    done = true;
+    pending = null;
+    try {
+      decoder.close();
+    } catch (IOException e) {
+      throw new ResultSetMappingException("Failed to close binary COPY stream", e);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, thread-safe cache of the per-shape objects of a mapper (mapping
+ * plans, flyweight row mappers, table binders). When the bound is reached an
+ * arbitrary entry is evicted, which keeps the read path lock-free and is
+ * enough for the usual case of a handful of queries per entity.
+ * <p>
+ * Values are loaded outside of the map, so a slow load (a plan compilation, a
+ * table lookup on the database) never holds a lock other keys need. Two
+ * threads missing the same key may both load it; the first value stored wins.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class BoundedCache<K, V> {
+
+  /**
+   * Creates the value of a missing key
+   */
+  @FunctionalInterface
+  interface Loader<K, V> {
+    V load(K key) throws SQLException;
+  }
+
+  private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+  private final int maxEntries;
+
+  BoundedCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the cached value of a key, loading it if needed
+   *
+   * @param key    The key
+   * @param loader Creates the value on a miss
+   * @return The value
+   * @throws SQLException If the value cannot be loaded
+   */
+  V get(K key, Loader<? super K, ? extends V> loader) throws SQLException {
+    V value = entries.get(key);
+    if (value != null) {
+      return value;
+    }
+    value = loader.load(key);
+    evictIfFull();
+    V existing = entries.putIfAbsent(key, value);
+    return existing != null ? existing : value;
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private void evictIfFull() {
+    Iterator<K> keys = entries.keySet().iterator();
+    while (entries.size() >= maxEntries && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
@@ -0,0 +1,585 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Binds one column of the current row to one entity property. Bindings are
+ * chosen once per column when a {@link MappingPlan} is compiled: numeric and
+ * boolean columns feeding primitive (or boxed) properties use the typed JDBC
+ * getter plus {@code wasNull()} and a setter adapted to the primitive type, so
+ * no wrapper object is allocated per cell. json / jsonb columns are parsed once,
+ * straight into the property type.
+ */
+abstract class ColumnBinding {
+
+  /** 1-based JDBC column index. */
+  protected final int column;
+  protected final PropertyDescriptor property;
+
+  ColumnBinding(int column, PropertyDescriptor property) {
+    this.column = column;
+    this.property = property;
+  }
+
+  PropertyDescriptor property() {
+    return property;
+  }
+
+  int column() {
+    return column;
+  }
+
+  /**
+   * Writes the column value of the current row into the target; SQL NULL leaves
+   * the property untouched
+   */
+  void bind(ResultSet resultSet, Object target) throws Throwable {
+    Object value = read(resultSet);
+    // Nulls are skipped so primitives keep their default and initializers are preserved
+    if (value != null) {
+      property.write(target, value);
+    }
+  }
+
+  /**
+   * Writes the column value of the current row into an entity reused across
+   * rows; SQL NULL writes {@code reset} so nothing is left over from the
+   * previous row
+   *
+   * @param reset The value the property has on a new instance
+   */
+  void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+    Object value = read(resultSet);
+    property.write(target, value != null ? value : reset);
+  }
+
+  /**
+   * Reads the column value of the current row converted to the property type,
+   * used for constructor arguments
+   *
+   * @return The converted value, {@code null} for SQL NULL
+   */
+  Object read(ResultSet resultSet) throws SQLException {
+    return convert(extract(resultSet));
+  }
+
+  /**
+   * Reads the column value of the current row doing as little work as possible
+   * (no json parsing, no conversion), so the row can be handed over to
+   * {@link #convert(Object)} on another thread
+   *
+   * @return The raw value, {@code null} for SQL NULL
+   */
+  abstract Object extract(ResultSet resultSet) throws SQLException;
+
+  /**
+   * Converts a value returned by {@link #extract(ResultSet)} to the property
+   * type. Bindings are shared by every thread using the plan, so this must not
+   * touch mutable state.
+   *
+   * @param value The raw value, possibly {@code null}
+   * @return The converted value, possibly {@code null}
+   */
+  abstract Object convert(Object value) throws SQLException;
+
+  /**
+   * Converts a driver value (as returned by {@code getObject}, or decoded from
+   * a binary COPY stream) to the property type. For most bindings the raw value
+   * already is the driver value.
+   *
+   * @param value The driver value, possibly {@code null}
+   * @return The converted value, possibly {@code null}
+   */
+  Object decode(Object value) throws SQLException {
+    return convert(value);
+  }
+
+  /**
+   * Chooses the binding for a column
+   *
+   * @param column      The 1-based column index
+   * @param shape       The shape of the scanned ResultSet
+   * @param property    The target property
+   * @param codecs      The codecs used for columns without a primitive path
+   * @param mapper      The ObjectMapper used for conversions
+   * @return The binding
+   */
+  static ColumnBinding of(int column, ColumnShape shape, PropertyDescriptor property, PgCodecRegistry codecs,
+      ObjectMapper mapper) {
+    int index = column - 1;
+    PgCodec registered = codecs.findRegistered(shape, index);
+    if (registered != null) {
+      return new ObjectBinding(column, property, registered, mapper);
+    }
+    int jdbcType = shape.type(index);
+    String typeName = shape.typeName(index);
+    Class<?> rawType = property.rawType();
+    Class<?> primitiveType = rawType.isPrimitive() ? rawType : unboxed(rawType);
+    boolean setter = property.creatorIndex() < 0;
+    if (primitiveType != null && readsAs(jdbcType, typeName, primitiveType)) {
+      if (primitiveType == int.class) {
+        return new IntBinding(column, property, setter);
+      } else if (primitiveType == long.class) {
+        return new LongBinding(column, property, setter);
+      } else if (primitiveType == double.class) {
+        return new DoubleBinding(column, property, setter);
+      } else if (primitiveType == float.class) {
+        return new FloatBinding(column, property, setter);
+      } else if (primitiveType == short.class) {
+        return new ShortBinding(column, property, setter);
+      } else if (primitiveType == boolean.class) {
+        return new BooleanBinding(column, property, setter);
+      }
+    }
+    PgCodec temporal = temporalCodec(rawType);
+    if (temporal != null && ("timestamptz".equals(typeName) || "timestamp".equals(typeName))) {
+      // Keeps the offset the LocalDateTime codecs would drop
+      return new ObjectBinding(column, property, temporal, mapper);
+    }
+    if (codecs.isJson(shape, index)) {
+      return new JsonBinding(column, property, codecs.jsonReader(property.type()), shape.isRawText(index));
+    }
+    PgCodec codec = codecs.resolve(shape, index);
+    if (codec == codecs.generic()) {
+      return new UntypedBinding(column, property, codecs, mapper);
+    }
+    return new ObjectBinding(column, property, codec, mapper);
+  }
+
+  /**
+   * Checks whether a numeric column can be read as a primitive of the given type
+   * without losing information
+   */
+  private static boolean readsAs(int jdbcType, String typeName, Class<?> primitiveType) {
+    if (primitiveType == int.class) {
+      return jdbcType == Types.INTEGER || jdbcType == Types.SMALLINT;
+    } else if (primitiveType == long.class) {
+      return jdbcType == Types.BIGINT || jdbcType == Types.INTEGER || jdbcType == Types.SMALLINT;
+    } else if (primitiveType == double.class) {
+      return jdbcType == Types.DOUBLE || jdbcType == Types.REAL || jdbcType == Types.INTEGER
+          || jdbcType == Types.SMALLINT;
+    } else if (primitiveType == float.class) {
+      return jdbcType == Types.REAL || jdbcType == Types.SMALLINT;
+    } else if (primitiveType == short.class) {
+      return jdbcType == Types.SMALLINT;
+    } else if (primitiveType == boolean.class) {
+      // PgJDBC reports bool as BIT; bit(n) columns keep the generic path
+      return jdbcType == Types.BOOLEAN || (jdbcType == Types.BIT && "bool".equals(typeName));
+    }
+    return false;
+  }
+
+  /**
+   * @return The codec reading timestamps as the given zone aware type, or
+   *         {@code null} for other types
+   */
+  static PgCodec temporalCodec(Class<?> type) {
+    if (type == OffsetDateTime.class) {
+      return PgCodecs.OFFSET_DATE_TIME;
+    } else if (type == Instant.class) {
+      return PgCodecs.INSTANT;
+    }
+    return null;
+  }
+
+  static Class<?> unboxed(Class<?> type) {
+    if (type == Integer.class) {
+      return int.class;
+    } else if (type == Long.class) {
+      return long.class;
+    } else if (type == Double.class) {
+      return double.class;
+    } else if (type == Float.class) {
+      return float.class;
+    } else if (type == Short.class) {
+      return short.class;
+    } else if (type == Boolean.class) {
+      return boolean.class;
+    }
+    return null;
+  }
+
+  /**
+   * Generic binding: reads the column with its codec, then converts it to the
+   * property type
+   */
+  static final class ObjectBinding extends ColumnBinding {
+    private final PgCodec codec;
+    private final ObjectMapper mapper;
+
+    ObjectBinding(int column, PropertyDescriptor property, PgCodec codec, ObjectMapper mapper) {
+      super(column, property);
+      this.codec = codec;
+      this.mapper = mapper;
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return codec.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) {
+      return property.convert(value, mapper);
+    }
+
+    @Override
+    Object decode(Object value) throws SQLException {
+      return value == null ? null : property.convert(codec.decode(value), mapper);
+    }
+  }
+
+  /**
+   * Parses json / jsonb text with an {@link ObjectReader} for the property type,
+   * instead of building a Map / List tree and converting it a second time.
+   * PgJDBC text format values are parsed from their raw bytes.
+   */
+  static final class JsonBinding extends ColumnBinding {
+    private final ObjectReader reader;
+    private final boolean rawBytes;
+
+    JsonBinding(int column, PropertyDescriptor property, ObjectReader reader, boolean rawBytes) {
+      super(column, property);
+      this.reader = reader;
+      this.rawBytes = rawBytes;
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return rawBytes ? resultSet.getBytes(column) : resultSet.getString(column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
+        if (property.rawType() == String.class) {
+          return new String(bytes, StandardCharsets.UTF_8);
+        }
+        try {
+          return reader.readValue(bytes);
+        } catch (IOException e) {
+          throw jsonError(e);
+        }
+      }
+      if (value instanceof PGobject) {
+        return parse(((PGobject) value).getValue());
+      }
+      return parse((String) value);
+    }
+
+    /**
+     * Parses a value returned by {@link #extract(ResultSet)} into an existing
+     * instance of the property type: beans keep their identity and get the
+     * properties present in the document, collections and maps get its elements
+     * appended
+     *
+     * @param value   The raw value, not {@code null}
+     * @param current The instance to update
+     * @return The updated instance
+     */
+    Object update(Object value, Object current) throws SQLException {
+      ObjectReader updating = reader.withValueToUpdate(current);
+      try {
+        if (value instanceof byte[]) {
+          return updating.readValue((byte[]) value);
+        }
+        return updating.readValue(value instanceof PGobject ? ((PGobject) value).getValue() : (String) value);
+      } catch (IOException e) {
+        throw jsonError(e);
+      }
+    }
+
+    Object parse(String text) throws SQLException {
+      if (text == null || property.rawType() == String.class) {
+        return text;
+      }
+      try {
+        return reader.readValue(text);
+      } catch (IOException e) {
+        throw jsonError(e);
+      }
+    }
+
+    private SQLException jsonError(IOException e) {
+      return new SQLException("Failed to parse json column " + column + " as " + property.type(), e);
+    }
+  }
+
+  /**
+   * Binding for columns without type information: values are read with
+   * {@code getObject}; json / jsonb {@link PGobject}s are parsed straight into
+   * the property type, timestamps feeding {@link Instant} / {@link OffsetDateTime}
+   * properties keep their offset and anything else is normalized then converted.
+   */
+  static final class UntypedBinding extends ColumnBinding {
+    private final PgValueReader generic;
+    private final PgCodec temporal;
+    private final JsonBinding json;
+    private final ObjectMapper mapper;
+
+    UntypedBinding(int column, PropertyDescriptor property, PgCodecRegistry codecs, ObjectMapper mapper) {
+      super(column, property);
+      this.generic = codecs.generic();
+      this.temporal = temporalCodec(property.rawType());
+      this.json = new JsonBinding(column, property, codecs.jsonReader(property.type()), false);
+      this.mapper = mapper;
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return resultSet.getObject(column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      if (value instanceof PGobject) {
+        PGobject pgObject = (PGobject) value;
+        if (pgObject.getValue() != null && ("jsonb".equals(pgObject.getType()) || "json".equals(pgObject.getType()))) {
+          return json.parse(pgObject.getValue());
+        }
+      }
+      if (temporal != null && (value instanceof PGobject || value instanceof String || value instanceof Timestamp
+          || value instanceof OffsetDateTime)) {
+        return temporal.decode(value);
+      }
+      return property.convert(generic.decode(value), mapper);
+    }
+  }
+
+  static final class IntBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    IntBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(int.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      int value = resultSet.getInt(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      int value = resultSet.getInt(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return PgCodecs.INT.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      return value == null ? null : PgCodecs.INT.decode(value);
+    }
+  }
+
+  static final class LongBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    LongBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(long.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      long value = resultSet.getLong(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      long value = resultSet.getLong(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return PgCodecs.LONG.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      return value == null ? null : PgCodecs.LONG.decode(value);
+    }
+  }
+
+  static final class DoubleBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    DoubleBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(double.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      double value = resultSet.getDouble(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      double value = resultSet.getDouble(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return PgCodecs.DOUBLE.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      return value == null ? null : PgCodecs.DOUBLE.decode(value);
+    }
+  }
+
+  static final class FloatBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    FloatBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(float.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      float value = resultSet.getFloat(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      float value = resultSet.getFloat(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return PgCodecs.FLOAT.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      return value == null ? null : PgCodecs.FLOAT.decode(value);
+    }
+  }
+
+  static final class ShortBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    ShortBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(short.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      short value = resultSet.getShort(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      short value = resultSet.getShort(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      short value = resultSet.getShort(column);
+      return resultSet.wasNull() ? null : value;
+    }
+
+    @Override
+    Object convert(Object value) {
+      return value == null ? null : ((Number) value).shortValue();
+    }
+  }
+
+  static final class BooleanBinding extends ColumnBinding {
+    private final MethodHandle writer;
+
+    BooleanBinding(int column, PropertyDescriptor property, boolean setter) {
+      super(column, property);
+      this.writer = setter ? property.writer(boolean.class) : null;
+    }
+
+    @Override
+    void bind(ResultSet resultSet, Object target) throws Throwable {
+      boolean value = resultSet.getBoolean(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      }
+    }
+
+    @Override
+    void rebind(ResultSet resultSet, Object target, Object reset) throws Throwable {
+      boolean value = resultSet.getBoolean(column);
+      if (!resultSet.wasNull()) {
+        writer.invokeExact(target, value);
+      } else {
+        property.write(target, reset);
+      }
+    }
+
+    @Override
+    Object extract(ResultSet resultSet) throws SQLException {
+      return PgCodecs.BOOLEAN.read(resultSet, column);
+    }
+
+    @Override
+    Object convert(Object value) throws SQLException {
+      return value == null ? null : PgCodecs.BOOLEAN.decode(value);
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.postgresql.PGResultSetMetaData;
+import org.postgresql.jdbc.PgResultSet;
+
+/**
+ * The column layout of a ResultSet (names, JDBC types, PostgreSQL type names
+ * and, for PgJDBC result sets, type OIDs), read once per scan from its metadata. Two result sets with the same
+ * shape can share a compiled {@link MappingPlan}.
+ */
+final class ColumnShape {
+
+  private final String[] names;
+  private final int[] types;
+  private final String[] typeNames;
+  private final int[] oids;
+  private final boolean[] textFormat;
+  private final int hash;
+
+  ColumnShape(String[] names, int[] types, String[] typeNames, int[] oids, boolean[] textFormat) {
+    this.names = names;
+    this.types = types;
+    this.typeNames = typeNames;
+    this.oids = oids;
+    this.textFormat = textFormat;
+    this.hash = 31 * (31 * Arrays.hashCode(names) + Arrays.hashCode(types)) + Arrays.hashCode(typeNames);
+  }
+
+  /**
+   * Reads the column layout of the given ResultSet
+   *
+   * @param resultSet The ResultSet being scanned
+   * @return The shape of the ResultSet
+   * @throws SQLException If there is an error accessing the metadata
+   */
+  static ColumnShape from(ResultSet resultSet) throws SQLException {
+    PgResultSet pgResultSet = resultSet.isWrapperFor(PgResultSet.class) ? resultSet.unwrap(PgResultSet.class) : null;
+    return from(resultSet.getMetaData(), pgResultSet);
+  }
+
+  /**
+   * Reads the column layout from metadata alone, e.g. from a described but not
+   * executed statement; type OIDs are then unknown
+   *
+   * @param metaData    The metadata
+   * @param pgResultSet The PgJDBC ResultSet the metadata belongs to, or
+   *                    {@code null}
+   * @return The shape described by the metadata
+   * @throws SQLException If there is an error accessing the metadata
+   */
+  static ColumnShape from(ResultSetMetaData metaData, PgResultSet pgResultSet) throws SQLException {
+    int columnCount = metaData.getColumnCount();
+    String[] names = new String[columnCount];
+    int[] types = new int[columnCount];
+    String[] typeNames = new String[columnCount];
+    int[] oids = new int[columnCount];
+    boolean[] textFormat = new boolean[columnCount];
+    PGResultSetMetaData pgMetaData = pgResultSet != null && metaData.isWrapperFor(PGResultSetMetaData.class)
+        ? metaData.unwrap(PGResultSetMetaData.class)
+        : null;
+    for (int i = 1; i <= columnCount; i++) {
+      names[i - 1] = metaData.getColumnName(i);
+      types[i - 1] = metaData.getColumnType(i);
+      typeNames[i - 1] = metaData.getColumnTypeName(i);
+      oids[i - 1] = pgResultSet == null ? 0 : pgResultSet.getColumnOID(i);
+      textFormat[i - 1] = pgMetaData != null && pgMetaData.getFormat(i) == 0;
+    }
+    return new ColumnShape(names, types, typeNames, oids, textFormat);
+  }
+
+  /**
+   * Builds a shape from column names and PostgreSQL type names only, e.g. for
+   * a recorded binary COPY file; JDBC types are derived from the type names
+   *
+   * @param names     The column names
+   * @param typeNames The PostgreSQL type names ({@code int4}, {@code jsonb},
+   *                  {@code _text}, ...)
+   * @return The shape
+   */
+  static ColumnShape of(String[] names, String[] typeNames) {
+    if (names.length != typeNames.length) {
+      throw new IllegalArgumentException("Expected one type name per column");
+    }
+    int[] types = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      types[i] = jdbcType(typeNames[i]);
+    }
+    return new ColumnShape(names.clone(), types, typeNames.clone(), new int[names.length], new boolean[names.length]);
+  }
+
+  /**
+   * @param indexes The 0-based indexes of the columns to keep, in order
+   * @return The shape of only the given columns
+   */
+  ColumnShape select(int[] indexes) {
+    String[] selectedNames = new String[indexes.length];
+    int[] selectedTypes = new int[indexes.length];
+    String[] selectedTypeNames = new String[indexes.length];
+    int[] selectedOids = new int[indexes.length];
+    boolean[] selectedTextFormat = new boolean[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      selectedNames[i] = names[indexes[i]];
+      selectedTypes[i] = types[indexes[i]];
+      selectedTypeNames[i] = typeNames[indexes[i]];
+      selectedOids[i] = oids[indexes[i]];
+      selectedTextFormat[i] = textFormat[indexes[i]];
+    }
+    return new ColumnShape(selectedNames, selectedTypes, selectedTypeNames, selectedOids, selectedTextFormat);
+  }
+
+  /**
+   * @param newNames One name per column, {@code null} for columns that should
+   *                 not resolve to any property
+   * @return The same columns under other names
+   */
+  ColumnShape rename(String[] newNames) {
+    if (newNames.length != names.length) {
+      throw new IllegalArgumentException("Expected one name per column");
+    }
+    return new ColumnShape(newNames, types, typeNames, oids, textFormat);
+  }
+
+  private static int jdbcType(String typeName) {
+    if (typeName.startsWith("_")) {
+      return Types.ARRAY;
+    }
+    switch (typeName) {
+      case "int2":
+        return Types.SMALLINT;
+      case "int4":
+        return Types.INTEGER;
+      case "int8":
+        return Types.BIGINT;
+      case "float4":
+        return Types.REAL;
+      case "float8":
+        return Types.DOUBLE;
+      case "bool":
+        return Types.BIT;
+      case "numeric":
+        return Types.NUMERIC;
+      case "text":
+      case "varchar":
+        return Types.VARCHAR;
+      case "bpchar":
+        return Types.CHAR;
+      case "date":
+        return Types.DATE;
+      case "timestamp":
+        return Types.TIMESTAMP;
+      case "timestamptz":
+        return Types.TIMESTAMP_WITH_TIMEZONE;
+      case "bytea":
+        return Types.BINARY;
+      default:
+        return Types.OTHER;
+    }
+  }
+
+  int columnCount() {
+    return names.length;
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return The column name
+   */
+  String name(int index) {
+    return names[index];
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return The {@link java.sql.Types} constant of the column
+   */
+  int type(int index) {
+    return types[index];
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return The PostgreSQL type name of the column (e.g. {@code int4},
+   *         {@code jsonb}), possibly {@code null}
+   */
+  String typeName(int index) {
+    return typeNames[index];
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return The PostgreSQL type OID of the column, {@code 0} when unknown
+   */
+  int oid(int index) {
+    return oids[index];
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return {@code true} when the column is known to be transferred by PgJDBC in
+   *         text format, so {@code getBytes} returns the raw UTF-8 text of the
+   *         value without decoding it into a String
+   */
+  boolean isRawText(int index) {
+    return textFormat[index];
+  }
+
+  String[] names() {
+    return names;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof ColumnShape)) {
+      return false;
+    }
+    ColumnShape that = (ColumnShape) other;
+    return hash == that.hash && Arrays.equals(names, that.names) && Arrays.equals(types, that.types)
+        && Arrays.equals(typeNames, that.typeNames) && Arrays.equals(oids, that.oids)
+        && Arrays.equals(textFormat, that.textFormat);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
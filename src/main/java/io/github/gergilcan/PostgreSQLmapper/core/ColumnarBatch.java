@@ -0,0 +1,610 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows of a ResultSet stored column by column, for scans and aggregations
+ * that never need one object per row. Integer, floating point and boolean
+ * columns are kept in primitive arrays with a null bitmap, text columns are
+ * dictionary encoded (an {@code int} code per row into the distinct values)
+ * and every other column keeps the values its codec reads.
+ * <p>
+ * Arrays returned by the columns are the batch storage, trimmed to
+ * {@link #rowCount()}, and are not copied: read them, do not modify them. A
+ * batch is immutable once built and safe to share.
+ *
+ * @see DirectResultSetMapper#mapColumnar(ResultSet, int)
+ */
+public final class ColumnarBatch {
+
+  private final Column[] columns;
+  private final int rowCount;
+
+  ColumnarBatch(Column[] columns, int rowCount) {
+    this.columns = columns;
+    this.rowCount = rowCount;
+    for (Column column : columns) {
+      column.trim(rowCount);
+    }
+  }
+
+  /**
+   * Creates the empty column builders of a scan, one per column of the shape,
+   * picked by the codec reading the column
+   */
+  static Column[] columns(ColumnShape shape, PgCodecRegistry codecs, int capacity) {
+    Column[] columns = new Column[shape.columnCount()];
+    for (int i = 0; i < columns.length; i++) {
+      String name = shape.name(i);
+      PgCodec codec = codecs.resolve(shape, i);
+      if (codec == PgCodecs.INT) {
+        columns[i] = new IntColumn(name, capacity);
+      } else if (codec == PgCodecs.LONG) {
+        columns[i] = new LongColumn(name, capacity);
+      } else if (codec == PgCodecs.DOUBLE || codec == PgCodecs.FLOAT) {
+        columns[i] = new DoubleColumn(name, capacity);
+      } else if (codec == PgCodecs.BOOLEAN) {
+        columns[i] = new BooleanColumn(name, capacity);
+      } else if (codec == PgCodecs.STRING) {
+        columns[i] = new StringColumn(name, capacity);
+      } else {
+        columns[i] = new ObjectColumn(name, capacity, codec);
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * @return The number of rows
+   */
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return The number of columns
+   */
+  public int columnCount() {
+    return columns.length;
+  }
+
+  /**
+   * @param index The 0-based column index
+   * @return The column
+   */
+  public Column column(int index) {
+    return columns[index];
+  }
+
+  /**
+   * @param name The column name, the first one for repeated names
+   * @return The column
+   * @throws IllegalArgumentException If there is no such column
+   */
+  public Column column(String name) {
+    for (Column column : columns) {
+      if (column.name.equals(name)) {
+        return column;
+      }
+    }
+    throw new IllegalArgumentException("No column " + name);
+  }
+
+  /**
+   * @return The columns, in ResultSet order
+   */
+  public List<Column> columns() {
+    return List.of(columns);
+  }
+
+  /**
+   * One column of the batch. Rows are 0-based; a NULL row holds {@code 0},
+   * {@code false} or {@code null} in the value arrays, tell them apart with
+   * {@link #isNull(int)}.
+   */
+  public abstract static sealed class Column
+      permits IntColumn, LongColumn, DoubleColumn, BooleanColumn, StringColumn, ObjectColumn {
+
+    private final String name;
+    /** One bit per row, allocated with the first NULL. */
+    private long[] nulls;
+    private int nullCount;
+
+    Column(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return The column name
+     */
+    public String name() {
+      return name;
+    }
+
+    /**
+     * @param row The 0-based row
+     * @return {@code true} if the row is NULL in this column
+     */
+    public boolean isNull(int row) {
+      return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return The number of NULL rows
+     */
+    public int nullCount() {
+      return nullCount;
+    }
+
+    /**
+     * @return The value of the row, boxed, or {@code null}
+     */
+    public abstract Object getObject(int row);
+
+    /**
+     * Reads the column of the current row into the given row
+     */
+    abstract void read(ResultSet resultSet, int column, int row) throws SQLException;
+
+    /**
+     * Shrinks the storage to the number of rows read
+     */
+    abstract void trim(int rows);
+
+    /**
+     * @return The capacity of the value storage
+     */
+    abstract int capacity();
+
+    /**
+     * @return The capacity to grow a full storage of the given capacity to
+     */
+    static int grown(int capacity) {
+      return capacity + (capacity >> 1) + 1;
+    }
+
+    final void setNull(int row) {
+      int word = row >>> 6;
+      if (nulls == null) {
+        nulls = new long[Math.max(word + 1, (capacity() + 63) >>> 6)];
+      } else if (word >= nulls.length) {
+        nulls = Arrays.copyOf(nulls, Math.max(word + 1, (capacity() + 63) >>> 6));
+      }
+      nulls[word] |= 1L << row;
+      nullCount++;
+    }
+
+    /**
+     * Sizes the bitmap to the rows read: it was sized to the storage capacity of
+     * the first NULL, which the storage may have outgrown since
+     */
+    final void trimNulls(int rows) {
+      int words = (rows + 63) >>> 6;
+      if (nulls != null && nulls.length != words) {
+        nulls = Arrays.copyOf(nulls, words);
+      }
+    }
+  }
+
+  /**
+   * {@code int2} and {@code int4} columns
+   */
+  public static final class IntColumn extends Column {
+    private int[] values;
+
+    IntColumn(String name, int capacity) {
+      super(name);
+      this.values = new int[capacity];
+    }
+
+    /**
+     * @return The value of the row, {@code 0} if NULL
+     */
+    public int get(int row) {
+      return values[row];
+    }
+
+    /**
+     * @return The values, one per row; not a copy
+     */
+    public int[] values() {
+      return values;
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grown(row));
+      }
+      int value = resultSet.getInt(column);
+      if (resultSet.wasNull()) {
+        setNull(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < values.length) {
+        values = Arrays.copyOf(values, rows);
+      }
+      trimNulls(rows);
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+  }
+
+  /**
+   * {@code int8} columns
+   */
+  public static final class LongColumn extends Column {
+    private long[] values;
+
+    LongColumn(String name, int capacity) {
+      super(name);
+      this.values = new long[capacity];
+    }
+
+    /**
+     * @return The value of the row, {@code 0} if NULL
+     */
+    public long get(int row) {
+      return values[row];
+    }
+
+    /**
+     * @return The values, one per row; not a copy
+     */
+    public long[] values() {
+      return values;
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grown(row));
+      }
+      long value = resultSet.getLong(column);
+      if (resultSet.wasNull()) {
+        setNull(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < values.length) {
+        values = Arrays.copyOf(values, rows);
+      }
+      trimNulls(rows);
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+  }
+
+  /**
+   * {@code float4} and {@code float8} columns
+   */
+  public static final class DoubleColumn extends Column {
+    private double[] values;
+
+    DoubleColumn(String name, int capacity) {
+      super(name);
+      this.values = new double[capacity];
+    }
+
+    /**
+     * @return The value of the row, {@code 0} if NULL
+     */
+    public double get(int row) {
+      return values[row];
+    }
+
+    /**
+     * @return The values, one per row; not a copy
+     */
+    public double[] values() {
+      return values;
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grown(row));
+      }
+      double value = resultSet.getDouble(column);
+      if (resultSet.wasNull()) {
+        setNull(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < values.length) {
+        values = Arrays.copyOf(values, rows);
+      }
+      trimNulls(rows);
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+  }
+
+  /**
+   * {@code bool} columns
+   */
+  public static final class BooleanColumn extends Column {
+    private boolean[] values;
+
+    BooleanColumn(String name, int capacity) {
+      super(name);
+      this.values = new boolean[capacity];
+    }
+
+    /**
+     * @return The value of the row, {@code false} if NULL
+     */
+    public boolean get(int row) {
+      return values[row];
+    }
+
+    /**
+     * @return The values, one per row; not a copy
+     */
+    public boolean[] values() {
+      return values;
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grown(row));
+      }
+      boolean value = resultSet.getBoolean(column);
+      if (resultSet.wasNull()) {
+        setNull(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < values.length) {
+        values = Arrays.copyOf(values, rows);
+      }
+      trimNulls(rows);
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+  }
+
+  /**
+   * Text columns ({@code text}, {@code varchar}, {@code bpchar}, enums),
+   * dictionary encoded: each row holds the code of its value in
+   * {@link #dictionary()}, in order of first appearance; NULL rows hold
+   * {@code -1}. A column found to be mostly distinct values (more than half
+   * of its rows past the first few hundred) stops looking values up: from
+   * there on each row gets a new code, and the dictionary may repeat values.
+   */
+  public static final class StringColumn extends Column {
+    /** Past this many distinct values a mostly distinct column is no longer encoded. */
+    private static final int MIN_DICTIONARY_CHECK = 256;
+
+    private int[] codes;
+    private String[] values = new String[16];
+    private int size;
+    /**
+     * Open addressing table of code + 1 by value hash while reading, dropped by
+     * {@link #trim}.
+     */
+    private int[] slots = new int[IndexTables.capacity(16, 16)];
+    private List<String> dictionary;
+
+    StringColumn(String name, int capacity) {
+      super(name);
+      this.codes = new int[capacity];
+    }
+
+    /**
+     * @return The value of the row, or {@code null}
+     */
+    public String get(int row) {
+      int code = codes[row];
+      return code < 0 ? null : values[code];
+    }
+
+    /**
+     * @return The dictionary code of the row, {@code -1} if NULL
+     */
+    public int code(int row) {
+      return codes[row];
+    }
+
+    /**
+     * @return The codes, one per row; not a copy
+     */
+    public int[] codes() {
+      return codes;
+    }
+
+    /**
+     * @return The distinct values, indexed by code
+     */
+    public List<String> dictionary() {
+      return dictionary;
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return get(row);
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == codes.length) {
+        codes = Arrays.copyOf(codes, grown(row));
+      }
+      String value = resultSet.getString(column);
+      if (value == null) {
+        setNull(row);
+        codes[row] = -1;
+      } else {
+        codes[row] = encode(value, row);
+      }
+    }
+
+    private int encode(String value, int row) {
+      if (slots == null) {
+        return append(value);
+      }
+      int mask = slots.length - 1;
+      int bucket = IndexTables.bucket(value.hashCode(), mask);
+      int slot;
+      while ((slot = slots[bucket]) != 0) {
+        if (values[slot - 1].equals(value)) {
+          return slot - 1;
+        }
+        bucket = (bucket + 1) & mask;
+      }
+      int code = append(value);
+      slots[bucket] = size;
+      if (size > IndexTables.resizeAt(slots.length)) {
+        if (size >= MIN_DICTIONARY_CHECK && size > (row + 1) / 2) {
+          slots = null;
+        } else {
+          rehash();
+        }
+      }
+      return code;
+    }
+
+    private int append(String value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grown(size));
+      }
+      values[size] = value;
+      return size++;
+    }
+
+    private void rehash() {
+      slots = new int[slots.length << 1];
+      int mask = slots.length - 1;
+      for (int code = 0; code < size; code++) {
+        int bucket = IndexTables.bucket(values[code].hashCode(), mask);
+        while (slots[bucket] != 0) {
+          bucket = (bucket + 1) & mask;
+        }
+        slots[bucket] = code + 1;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < codes.length) {
+        codes = Arrays.copyOf(codes, rows);
+      }
+      trimNulls(rows);
+      values = Arrays.copyOf(values, size);
+      dictionary = Collections.unmodifiableList(Arrays.asList(values));
+      slots = null;
+    }
+
+    @Override
+    int capacity() {
+      return codes.length;
+    }
+  }
+
+  /**
+   * Any other column, holding the values read by its codec (e.g.
+   * {@code BigDecimal} for {@code numeric}, {@code UUID}, dates and times)
+   */
+  public static final class ObjectColumn extends Column {
+    private final PgCodec codec;
+    private Object[] values;
+
+    ObjectColumn(String name, int capacity, PgCodec codec) {
+      super(name);
+      this.codec = codec;
+      this.values = new Object[capacity];
+    }
+
+    /**
+     * @return The value of the row, or {@code null}
+     */
+    public Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return values[row];
+    }
+
+    @Override
+    void read(ResultSet resultSet, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grown(row));
+      }
+      Object value = codec.read(resultSet, column);
+      if (value == null) {
+        setNull(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void trim(int rows) {
+      if (rows < values.length) {
+        values = Arrays.copyOf(values, rows);
+      }
+      trimNulls(rows);
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Plan for target types that cannot be bound directly (see
+ * {@link EntityDescriptor#introspect}): the row is collected into a Map and
+ * handed to Jackson's {@code convertValue}.
+ *
+ * @param <T> The target type
+ */
+final class ConvertValueMappingPlan<T> implements MappingPlan<T> {
+
+  private final Class<T> targetType;
+  private final RowMapPlan rowPlan;
+  private final ObjectMapper mapper;
+
+  ConvertValueMappingPlan(Class<T> targetType, RowMapPlan rowPlan, ObjectMapper mapper) {
+    this.targetType = targetType;
+    this.rowPlan = rowPlan;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public T mapRow(ResultSet resultSet) throws SQLException {
+    return convert(rowPlan.mapRow(resultSet));
+  }
+
+  @Override
+  public Object[] extract(ResultSet resultSet) throws SQLException {
+    return rowPlan.extract(resultSet);
+  }
+
+  @Override
+  public T map(Object[] values) throws SQLException {
+    return convert(rowPlan.map(values));
+  }
+
+  @Override
+  public T map(Object[] values, ScanMetrics scan) throws SQLException {
+    return convert(rowPlan.map(values, scan));
+  }
+
+  @Override
+  public T decode(Object[] values) throws SQLException {
+    return convert(rowPlan.decode(values));
+  }
+
+  private T convert(Map<String, Object> row) throws SQLException {
+    try {
+      return mapper.convertValue(row, targetType);
+    } catch (IllegalArgumentException e) {
+      throw new SQLException("Failed to convert ResultSet to " + targetType.getName(), e);
+    }
+  }
+}
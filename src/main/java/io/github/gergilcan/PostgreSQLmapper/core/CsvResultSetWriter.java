@@ -0,0 +1,158 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Writes the rows of a ResultSet as RFC 4180 CSV: a header of column names,
+ * CRLF line endings, and fields holding a comma, a quote or a line break
+ * quoted with their quotes doubled. NULL is an empty field and the empty
+ * string a quoted empty field ({@code ""}), as {@code COPY ... CSV} writes
+ * them.
+ * <p>
+ * Integers are written from the typed getters without a String per value and
+ * booleans as {@code true} / {@code false}; every other column is the text
+ * PostgreSQL sends for it.
+ */
+final class CsvResultSetWriter {
+
+  private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+  private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+  /** Kinds of column, chosen once before the first row */
+  private static final int TEXT = 0;
+  private static final int INT = 1;
+  private static final int LONG = 2;
+  private static final int BOOLEAN = 3;
+
+  private final ColumnShape shape;
+  private final int[] kinds;
+
+  CsvResultSetWriter(ColumnShape shape) {
+    this.shape = shape;
+    this.kinds = new int[shape.columnCount()];
+    for (int i = 0; i < kinds.length; i++) {
+      kinds[i] = kindOf(shape, i);
+    }
+  }
+
+  /**
+   * Writes the header and the remaining rows
+   *
+   * @return The number of rows written
+   */
+  long write(ResultSet rs, ExportOutput out) throws SQLException, IOException {
+    for (int i = 0; i < kinds.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      writeField(shape.name(i), out);
+    }
+    endRecord(out);
+
+    long rows = 0;
+    while (rs.next()) {
+      for (int i = 0; i < kinds.length; i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        writeValue(rs, i + 1, kinds[i], out);
+      }
+      endRecord(out);
+      rows++;
+      if (out.flushDue()) {
+        out.flush();
+      }
+    }
+    return rows;
+  }
+
+  private static void writeValue(ResultSet rs, int column, int kind, ExportOutput out)
+      throws SQLException, IOException {
+    switch (kind) {
+      case INT: {
+        int value = rs.getInt(column);
+        if (!rs.wasNull()) {
+          out.writeLong(value);
+        }
+        break;
+      }
+      case LONG: {
+        long value = rs.getLong(column);
+        if (!rs.wasNull()) {
+          out.writeLong(value);
+        }
+        break;
+      }
+      case BOOLEAN: {
+        boolean value = rs.getBoolean(column);
+        if (!rs.wasNull()) {
+          out.write(value ? TRUE : FALSE);
+        }
+        break;
+      }
+      default: {
+        String value = rs.getString(column);
+        if (value != null) {
+          writeField(value, out);
+        }
+      }
+    }
+  }
+
+  private static void writeField(String value, ExportOutput out) throws IOException {
+    if (value.isEmpty()) {
+      out.write('"');
+      out.write('"');
+      return;
+    }
+    if (!needsQuotes(value)) {
+      out.writeUtf8(value, 0, value.length());
+      return;
+    }
+    out.write('"');
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) == '"') {
+        // Up to and including the quote, which the next segment repeats
+        out.writeUtf8(value, start, i + 1);
+        start = i;
+      }
+    }
+    out.writeUtf8(value, start, value.length());
+    out.write('"');
+  }
+
+  private static boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void endRecord(ExportOutput out) throws IOException {
+    out.write('\r');
+    out.write('\n');
+  }
+
+  private static int kindOf(ColumnShape shape, int index) {
+    switch (shape.type(index)) {
+      case Types.INTEGER:
+      case Types.SMALLINT:
+        return INT;
+      case Types.BIGINT:
+        return LONG;
+      case Types.BOOLEAN:
+        return BOOLEAN;
+      case Types.BIT:
+        return "bool".equals(shape.typeName(index)) ? BOOLEAN : TEXT;
+      default:
+        return TEXT;
+    }
+  }
+}
@@ -1,19 +1,38 @@
 package io.github.gergilcan.PostgreSQLmapper.core;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.sql.Date;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeParseException;
+import java.sql.Types;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyInputStream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -22,10 +41,60 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * without the intermediate string representation.
  * This improves performance by eliminating the unnecessary
  * serialization/deserialization steps.
+ * <p>
+ * Entity targets are bound through a {@link MappingPlan} compiled once per
+ * (column shape, target type) and cached, so each row is written straight into
+ * the entity without an intermediate row Map.
+ * <p>
+ * With {@link #setParallelMapping(ParallelMappingOptions)} array and
+ * {@code List} targets are converted by a pool of workers while the calling
+ * thread keeps reading the ResultSet.
+ * <p>
+ * Entity types with an {@link EntityRowMapper}, generated at compile time for
+ * {@link MappedEntity} classes, are mapped by that mapper without reflection;
+ * other entities can get one emitted at runtime, see
+ * {@link #setBytecodeMappers(boolean)}.
+ * <p>
+ * The write side, resolving table columns to properties the same way, is
+ * {@link EntityWriter}.
  */
 public class DirectResultSetMapper {
+  private static final Log LOG = LogFactory.getLog(DirectResultSetMapper.class);
+
+  /** Buffer between the Arrow writer and the output stream. */
+  private static final int ARROW_BUFFER_SIZE = 64 * 1024;
+  /** Default number of plans kept per mapper. */
+  static final int DEFAULT_MAX_PLANS = 256;
+  /** Initial rows of the columns of a batch when the ResultSet does not tell. */
+  private static final int COLUMNAR_CAPACITY = 256;
+  /** Default number of rows per Arrow record batch. */
+  public static final int DEFAULT_ARROW_BATCH_SIZE = 8192;
+  /** Default longest time between flushes of a streamed NDJSON or CSV export. */
+  public static final Duration DEFAULT_EXPORT_FLUSH_INTERVAL = Duration.ofMillis(200);
+  private static final boolean ARROW_PRESENT = isPresent("org.apache.arrow.vector.VectorSchemaRoot")
+      && isPresent("org.apache.arrow.memory.RootAllocator");
 
   private final ObjectMapper mapper;
+  private final PgCodecRegistry codecs;
+  /** Compiled plans, by (target type, column shape); package-private for the tests. */
+  final BoundedCache<PlanKey, MappingPlan<?>> planCache;
+  private volatile ParallelMappingOptions parallelOptions;
+  private volatile boolean bytecodeMappers;
+  private volatile MappingMetrics metrics = MappingMetrics.NONE;
+  private volatile long exportFlushNanos = DEFAULT_EXPORT_FLUSH_INTERVAL.toNanos();
+  /** Row mappers of {@link #forEach}, by (entity type, column shape). */
+  private final BoundedCache<List<Object>, FlyweightRowMapper<?>> flyweights;
+  /** Generated (or hand written) row mappers, by entity type. */
+  private final Map<Class<?>, EntityRowMapper<?>> rowMappers = new ConcurrentHashMap<>();
+  private final ClassValue<Optional<EntityDescriptor<?>>> descriptors = new ClassValue<>() {
+    @Override
+    protected Optional<EntityDescriptor<?>> computeValue(Class<?> type) {
+      return Optional.ofNullable(EntityDescriptor.introspect(type, mapper.getTypeFactory()));
+    }
+  };
+
+  private record PlanKey(Class<?> targetType, ColumnShape shape) {
+  }
 
   /**
    * Creates a new DirectResultSetMapper using the provided ObjectMapper
@@ -33,7 +102,139 @@ public class DirectResultSetMapper {
    * @param mapper The ObjectMapper to use for complex object conversion
    */
   public DirectResultSetMapper(ObjectMapper mapper) {
+    this(mapper, DEFAULT_MAX_PLANS);
+  }
+
+  /**
+   * Creates a new DirectResultSetMapper using the provided ObjectMapper
+   *
+   * @param mapper   The ObjectMapper to use for complex object conversion
+   * @param maxPlans The maximum number of compiled mapping plans kept, one per
+   *                 (column shape, target type) pair; it also bounds the
+   *                 {@link #forEach} row mappers
+   */
+  public DirectResultSetMapper(ObjectMapper mapper, int maxPlans) {
     this.mapper = mapper;
+    this.codecs = new PgCodecRegistry(mapper);
+    this.planCache = new BoundedCache<>(maxPlans);
+    this.flyweights = new BoundedCache<>(maxPlans);
+    loadRowMappers();
+  }
+
+  /**
+   * Registers the row mappers found by the {@link ServiceLoader}, skipping
+   * providers that fail to load, such as the stale entry of a deleted entity
+   */
+  @SuppressWarnings("rawtypes")
+  private void loadRowMappers() {
+    Iterator<EntityRowMapper> providers = ServiceLoader.load(EntityRowMapper.class).iterator();
+    while (true) {
+      try {
+        if (!providers.hasNext()) {
+          return;
+        }
+        EntityRowMapper<?> rowMapper = providers.next();
+        rowMappers.put(rowMapper.type(), rowMapper);
+      } catch (ServiceConfigurationError e) {
+        LOG.warn("Skipping a row mapper that cannot be loaded", e);
+      }
+    }
+  }
+
+  /**
+   * Registers a codec for every column whose PostgreSQL type name matches, taking
+   * precedence over the built-in codecs
+   *
+   * @param typeName The PostgreSQL type name as reported by the driver (e.g.
+   *                 {@code citext} or the name of an enum type)
+   * @param codec    The codec
+   */
+  public void registerCodec(String typeName, PgCodec codec) {
+    codecs.register(typeName, codec);
+    // Plans capture the codecs of their columns
+    planCache.clear();
+    flyweights.clear();
+  }
+
+  /**
+   * Registers a codec for every column of the given PostgreSQL type OID, taking
+   * precedence over codecs registered by name. OIDs are only known for PgJDBC
+   * result sets.
+   *
+   * @param oid   The type OID
+   * @param codec The codec
+   */
+  public void registerCodec(int oid, PgCodec codec) {
+    codecs.register(oid, codec);
+    planCache.clear();
+    flyweights.clear();
+  }
+
+  /**
+   * Registers a row mapper used for its entity type instead of the reflective
+   * mapping plan. Mappers generated for {@link MappedEntity} classes are
+   * registered automatically through {@link ServiceLoader}.
+   *
+   * @param rowMapper The row mapper
+   */
+  public void registerRowMapper(EntityRowMapper<?> rowMapper) {
+    rowMappers.put(rowMapper.type(), rowMapper);
+    planCache.clear();
+  }
+
+  /**
+   * Enables runtime generated row mappers: entities without a registered
+   * {@link EntityRowMapper} get one emitted as a hidden class per column shape,
+   * falling back to the reflective plan when the entity's members cannot be
+   * reached from generated code. The classes live as long as their cached plan.
+   *
+   * @param enabled Whether to generate row mappers
+   */
+  public void setBytecodeMappers(boolean enabled) {
+    this.bytecodeMappers = enabled;
+    planCache.clear();
+  }
+
+  /**
+   * Sets where measurements of the mapping work are reported. With enabled
+   * metrics, array, {@code List}, {@code Map}, single entity and
+   * {@link #forEach} mappings time each phase of every row and report the
+   * totals once per ResultSet; parallel mappings report rows and duration only.
+   *
+   * @param metrics The metrics, {@link MappingMetrics#NONE} to disable
+   */
+  public void setMetrics(MappingMetrics metrics) {
+    this.metrics = metrics == null ? MappingMetrics.NONE : metrics;
+  }
+
+  /**
+   * Enables the parallel mapping mode for array and {@code List} targets, see
+   * {@link ParallelMappingOptions}
+   *
+   * @param options The parallel settings, or {@code null} to map on the calling
+   *                thread only
+   */
+  public void setParallelMapping(ParallelMappingOptions options) {
+    this.parallelOptions = options;
+  }
+
+  /**
+   * Sets the longest time between flushes of a streamed NDJSON or CSV export,
+   * so a client sees rows of a slow query as they come; the first row is
+   * always flushed at once
+   *
+   * @param interval The interval, {@link Duration#ZERO} to flush only after
+   *                 the first row and at the end
+   */
+  public void setExportFlushInterval(Duration interval) {
+    if (interval == null || interval.isNegative()) {
+      throw new IllegalArgumentException("Export flush interval must not be negative");
+    }
+    this.exportFlushNanos = interval.toNanos();
+  }
+
+  long exportFlushNanos() {
+    return exportFlushNanos;
   }
 
   /**
@@ -46,56 +247,705 @@ public class DirectResultSetMapper {
    * @return An object of the target type
    * @throws SQLException If there is an error accessing the ResultSet
    */
-  @SuppressWarnings("unchecked")
   public <T> T mapResultSet(ResultSet resultSet, Class<T> targetType) throws SQLException {
     if (resultSet == null) {
       return null;
     }
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return mapResultSet(resultSet, targetType, null);
+    }
+    event.begin();
+    event.operation = "map";
+    try {
+      return mapResultSet(resultSet, targetType, event);
+    } finally {
+      event.commit();
+    }
+  }
 
+  /**
+   * @param event The recording event to fill in, {@code null} when disabled
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T mapResultSet(ResultSet resultSet, Class<T> targetType, ResultSetMappingEvent event)
+      throws SQLException {
     // For array type, we're expecting multiple rows
     if (targetType.isArray()) {
-      return (T) convertToArray(resultSet, targetType.getComponentType());
+      return (T) convertToArray(resultSet, targetType.getComponentType(), event);
     }
 
     // For List type, we're expecting multiple rows
     if (List.class.isAssignableFrom(targetType)) {
-      return (T) convertToList(resultSet);
+      return (T) convertToList(resultSet, event);
     }
 
     // For Map or a single entity, we're expecting a single row
     if (Map.class.isAssignableFrom(targetType)) {
-      return (T) convertToMap(resultSet);
+      return (T) convertToMap(resultSet, event);
     }
 
     // For a specific entity type, we're expecting a single row
-    if (resultSet.next()) {
-      String[] columnNames = columnNamesFrom(resultSet.getMetaData());
-      Map<String, Object> rowMap = extractRowValues(resultSet, columnNames);
-      try {
-        // Convert the map to the target entity type
-        return mapper.convertValue(rowMap, targetType);
-      } catch (Exception e) {
-        throw new SQLException("Failed to convert ResultSet to " + targetType.getName(), e);
+    MappingPlan<T> plan = planFor(ColumnShape.from(resultSet), targetType, event);
+    MappingMetrics metrics = this.metrics;
+    T row = null;
+    if (metrics.enabled()) {
+      List<T> rows = mapRowsTimed(resultSet, plan, targetType, metrics, 1);
+      row = rows.isEmpty() ? null : rows.get(0);
+    } else if (resultSet.next()) {
+      row = plan.mapRow(resultSet);
+    }
+    if (event != null) {
+      event.rows = row == null ? 0 : 1;
+    }
+    return row;
+  }
+
+  /**
+   * Maps every remaining row to the row type, like an array target but without
+   * the copy into an array
+   *
+   * @param <T>       The row type (an entity class or {@code Map})
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param rowType   The class of each row
+   * @return The rows
+   * @throws SQLException If there is an error accessing the ResultSet or
+   *                      mapping a row
+   */
+  public <T> List<T> mapAll(ResultSet resultSet, Class<T> rowType) throws SQLException {
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return mapRows(resultSet, planFor(resultSet, rowType), rowType);
+    }
+    event.begin();
+    event.operation = "map";
+    try {
+      List<T> rows = mapRows(resultSet, planFor(ColumnShape.from(resultSet), rowType, event), rowType);
+      event.rows = rows.size();
+      return rows;
+    } finally {
+      event.commit();
+    }
+  }
+
+  /**
+   * Maps every remaining row and indexes it by the value of an integer column,
+   * without an intermediate array or boxed keys. A key repeated by several
+   * rows keeps the last one.
+   *
+   * @param <T>        The entity type
+   * @param resultSet  The ResultSet, positioned before its first row
+   * @param targetType The class of each row
+   * @param keyColumn  The name of an {@code int8}, {@code int4} or
+   *                   {@code int2} column without NULLs
+   * @return The index
+   * @throws SQLException If there is an error accessing the ResultSet, the key
+   *                      column is missing, not an integer or NULL
+   */
+  public <T> LongIndex<T> indexByLong(ResultSet resultSet, Class<T> targetType, String keyColumn)
+      throws SQLException {
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return indexByLong(resultSet, targetType, keyColumn, null);
+    }
+    event.begin();
+    event.operation = "index";
+    try {
+      return indexByLong(resultSet, targetType, keyColumn, event);
+    } finally {
+      event.commit();
+    }
+  }
+
+  private <T> LongIndex<T> indexByLong(ResultSet resultSet, Class<T> targetType, String keyColumn,
+      ResultSetMappingEvent event) throws SQLException {
+    ColumnShape shape = ColumnShape.from(resultSet);
+    int column = keyColumn(shape, keyColumn);
+    int type = shape.type(column - 1);
+    if (type != Types.BIGINT && type != Types.INTEGER && type != Types.SMALLINT) {
+      throw new SQLException("Key column " + keyColumn + " is not an integer column");
+    }
+    MappingPlan<T> plan = planFor(shape, targetType, event);
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    LongIndex<T> index = new LongIndex<>(expectedRows(resultSet));
+    long rows = 0;
+    while (resultSet.next()) {
+      long key = resultSet.getLong(column);
+      if (key == 0 && resultSet.wasNull()) {
+        throw new SQLException("NULL key in column " + keyColumn);
+      }
+      index.put(key, plan.mapRow(resultSet));
+      rows++;
+    }
+    finishScan(event, metrics, start, targetType, rows);
+    return index;
+  }
+
+  /**
+   * {@link #indexByLong} for a {@code uuid} key column
+   *
+   * @param <T>        The entity type
+   * @param resultSet  The ResultSet, positioned before its first row
+   * @param targetType The class of each row
+   * @param keyColumn  The name of a {@code uuid} column without NULLs
+   * @return The index
+   * @throws SQLException If there is an error accessing the ResultSet, the key
+   *                      column is missing or NULL
+   */
+  public <T> UuidIndex<T> indexByUuid(ResultSet resultSet, Class<T> targetType, String keyColumn)
+      throws SQLException {
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return indexByUuid(resultSet, targetType, keyColumn, null);
+    }
+    event.begin();
+    event.operation = "index";
+    try {
+      return indexByUuid(resultSet, targetType, keyColumn, event);
+    } finally {
+      event.commit();
+    }
+  }
+
+  private <T> UuidIndex<T> indexByUuid(ResultSet resultSet, Class<T> targetType, String keyColumn,
+      ResultSetMappingEvent event) throws SQLException {
+    ColumnShape shape = ColumnShape.from(resultSet);
+    int column = keyColumn(shape, keyColumn);
+    MappingPlan<T> plan = planFor(shape, targetType, event);
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    UuidIndex<T> index = new UuidIndex<>(expectedRows(resultSet));
+    long rows = 0;
+    while (resultSet.next()) {
+      Object key = resultSet.getObject(column);
+      if (key == null) {
+        throw new SQLException("NULL key in column " + keyColumn);
       }
+      index.put(key instanceof UUID uuid ? uuid : UUID.fromString(key.toString()), plan.mapRow(resultSet));
+      rows++;
     }
+    finishScan(event, metrics, start, targetType, rows);
+    return index;
+  }
 
-    return null;
+  /**
+   * Reads every remaining row into a {@link ColumnarBatch}: integer, floating
+   * point and boolean columns become primitive arrays with a null bitmap, text
+   * columns are dictionary encoded, other columns keep their decoded values.
+   * No object is created per row, except for the values of the last kind.
+   *
+   * @param resultSet The ResultSet, positioned before its first row; it is not
+   *                  closed
+   * @return The batch
+   * @throws SQLException If there is an error accessing the ResultSet
+   */
+  public ColumnarBatch mapColumnar(ResultSet resultSet) throws SQLException {
+    return mapColumnar(resultSet, Integer.MAX_VALUE);
   }
 
-  private <T> T[] convertToArray(ResultSet resultSet, Class<T> targetType) throws SQLException {
-    List<T> list = new ArrayList<>();
+  /**
+   * {@link #mapColumnar(ResultSet)} reading at most {@code maxRows} rows, so
+   * a large result can be scanned in batches of bounded size: call it again
+   * until it returns an empty batch
+   *
+   * @param resultSet The ResultSet; it is not closed
+   * @param maxRows   The maximum number of rows of the batch
+   * @return The batch of the next rows, empty once the ResultSet is exhausted
+   * @throws SQLException If there is an error accessing the ResultSet
+   */
+  public ColumnarBatch mapColumnar(ResultSet resultSet, int maxRows) throws SQLException {
+    if (maxRows <= 0) {
+      throw new IllegalArgumentException("maxRows must be positive");
+    }
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return mapColumnar(resultSet, maxRows, null);
+    }
+    event.begin();
+    event.operation = "columnar";
     try {
-      String[] columnNames = columnNamesFrom(resultSet.getMetaData());
+      return mapColumnar(resultSet, maxRows, event);
+    } finally {
+      event.commit();
+    }
+  }
+
+  private ColumnarBatch mapColumnar(ResultSet resultSet, int maxRows, ResultSetMappingEvent event)
+      throws SQLException {
+    ColumnShape shape = ColumnShape.from(resultSet);
+    if (event != null) {
+      event.targetType = ColumnarBatch.class;
+      event.columns = shape.columnCount();
+    }
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    ColumnarBatch.Column[] columns = ColumnarBatch.columns(shape, codecs,
+        Math.min(Math.max(expectedRows(resultSet), COLUMNAR_CAPACITY), maxRows));
+    int rows = 0;
+    while (rows < maxRows && resultSet.next()) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].read(resultSet, i + 1, rows);
+      }
+      rows++;
+    }
+    finishScan(event, metrics, start, ColumnarBatch.class, rows);
+    return new ColumnarBatch(columns, rows);
+  }
+
+  /**
+   * Writes the remaining rows as an Apache Arrow IPC stream, one record batch
+   * per {@code batchSize} rows, see {@link ArrowResultSetWriter} for the type
+   * mapping. Needs {@code org.apache.arrow:arrow-vector} and an Arrow
+   * allocator on the classpath.
+   *
+   * @param resultSet The ResultSet, positioned before its first row; it is not
+   *                  closed
+   * @param out       The stream to write to; it is flushed, not closed
+   * @param batchSize The maximum number of rows per record batch
+   * @return The number of rows written
+   * @throws SQLException If there is an error accessing the ResultSet
+   * @throws IOException  If the stream cannot be written
+   */
+  public long writeArrow(ResultSet resultSet, OutputStream out, int batchSize) throws SQLException, IOException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    if (!ARROW_PRESENT) {
+      throw new IllegalStateException("Arrow export needs org.apache.arrow:arrow-vector and arrow-memory-unsafe "
+          + "(or arrow-memory-netty) on the classpath");
+    }
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    SerializationEvent event = new SerializationEvent();
+    event.begin();
+    ColumnShape shape = ColumnShape.from(resultSet);
+    ArrowResultSetWriter writer = new ArrowResultSetWriter(shape, resultSet.getMetaData(), codecs);
+    BufferedOutputStream buffered = new BufferedOutputStream(out, ARROW_BUFFER_SIZE);
+    long rows = writer.write(resultSet, buffered, batchSize);
+    buffered.flush();
+    if (start != 0) {
+      metrics.recordSerialization(rows, System.nanoTime() - start);
+      metrics.recordSerializedBytes(writer.bytesWritten());
+    }
+    if (event.shouldCommit()) {
+      event.format = "arrow";
+      event.rows = rows;
+      event.columns = shape.columnCount();
+      event.commit();
+    }
+    return rows;
+  }
+
+  /**
+   * Writes the remaining rows as RFC 4180 CSV with a header row, see
+   * {@link CsvResultSetWriter}. Rows go out through a pooled buffer, flushed
+   * after the first row and then once per export flush interval, so memory
+   * stays constant whatever the number of rows.
+   *
+   * @param resultSet The ResultSet, positioned before its first row; it is not
+   *                  closed
+   * @param out       The stream to write to; it is flushed, not closed
+   * @return The number of rows written
+   * @throws SQLException If there is an error accessing the ResultSet
+   * @throws IOException  If the stream cannot be written
+   */
+  public long writeCsv(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+    try (ExportOutput output = ExportOutput.of(out, exportFlushNanos)) {
+      return writeCsv(resultSet, output);
+    }
+  }
+
+  /**
+   * {@link #writeCsv(ResultSet, OutputStream)} to a channel, e.g. a file or
+   * socket channel
+   *
+   * @param resultSet The ResultSet, positioned before its first row; it is not
+   *                  closed
+   * @param channel   The channel to write to; it is not closed
+   * @return The number of rows written
+   * @throws SQLException If there is an error accessing the ResultSet
+   * @throws IOException  If the channel cannot be written
+   */
+  public long writeCsv(ResultSet resultSet, WritableByteChannel channel) throws SQLException, IOException {
+    try (ExportOutput output = ExportOutput.of(channel, exportFlushNanos)) {
+      return writeCsv(resultSet, output);
+    }
+  }
+
+  private long writeCsv(ResultSet resultSet, ExportOutput output) throws SQLException, IOException {
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    SerializationEvent event = new SerializationEvent();
+    event.begin();
+    ColumnShape shape = ColumnShape.from(resultSet);
+    long rows = new CsvResultSetWriter(shape).write(resultSet, output);
+    output.flush();
+    if (start != 0) {
+      metrics.recordSerialization(rows, System.nanoTime() - start);
+      metrics.recordSerializedBytes(output.bytesWritten());
+    }
+    if (event.shouldCommit()) {
+      event.format = "csv";
+      event.rows = rows;
+      event.columns = shape.columnCount();
+      event.commit();
+    }
+    return rows;
+  }
+
+  private static boolean isPresent(String className) {
+    try {
+      Class.forName(className, false, DirectResultSetMapper.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static int keyColumn(ColumnShape shape, String keyColumn) throws SQLException {
+    for (int i = 0; i < shape.columnCount(); i++) {
+      if (keyColumn.equals(shape.name(i))) {
+        return i + 1;
+      }
+    }
+    throw new SQLException("No key column " + keyColumn);
+  }
+
+  /**
+   * @return The number of rows of a scrollable ResultSet, otherwise the fetch
+   *         size as a lower bound
+   */
+  private static int expectedRows(ResultSet resultSet) throws SQLException {
+    if (resultSet.getType() != ResultSet.TYPE_FORWARD_ONLY && resultSet.isBeforeFirst() && resultSet.last()) {
+      int rows = resultSet.getRow();
+      resultSet.beforeFirst();
+      return rows;
+    }
+    return Math.max(resultSet.getFetchSize(), 0);
+  }
+
+  private static void finishScan(ResultSetMappingEvent event, MappingMetrics metrics, long start,
+      Class<?> targetType, long rows) {
+    if (start != 0) {
+      metrics.recordMapping(targetType, rows, System.nanoTime() - start);
+    }
+    if (event != null) {
+      event.rows = rows;
+    }
+  }
+
+  /**
+   * Maps every remaining row and hands it to the consumer. Entities written
+   * through setters or fields are mapped into one instance reused for every
+   * row (nested json beans, collections and maps included), so the consumer
+   * must not keep it past its call; other targets get a new object per row.
+   *
+   * @param <T>        The row type
+   * @param resultSet  The ResultSet, positioned before its first row; it is not
+   *                   closed
+   * @param targetType The class of each row
+   * @param consumer   Called once per row
+   * @return The number of rows
+   * @throws SQLException If there is an error accessing the ResultSet or
+   *                      mapping a row
+   */
+  public <T> long forEach(ResultSet resultSet, Class<T> targetType, Consumer<? super T> consumer)
+      throws SQLException {
+    ResultSetMappingEvent event = new ResultSetMappingEvent();
+    if (!event.isEnabled()) {
+      return forEach(resultSet, targetType, consumer, null);
+    }
+    event.begin();
+    event.operation = "forEach";
+    try {
+      long rows = forEach(resultSet, targetType, consumer, event);
+      event.rows = rows;
+      return rows;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> long forEach(ResultSet resultSet, Class<T> targetType, Consumer<? super T> consumer,
+      ResultSetMappingEvent event) throws SQLException {
+    ColumnShape shape = ColumnShape.from(resultSet);
+    Optional<EntityDescriptor<?>> entity = Map.class.isAssignableFrom(targetType) ? Optional.empty()
+        : descriptors.get(targetType);
+    MappingMetrics metrics = this.metrics;
+    ScanMetrics scan = metrics.enabled() ? new ScanMetrics() : null;
+    long count = 0;
+    if (event != null) {
+      event.targetType = targetType;
+      event.columns = shape.columnCount();
+    }
+    if (entity.isPresent() && !entity.get().usesCreator()) {
+      FlyweightRowMapper<T> rowMapper = flyweightFor((EntityDescriptor<T>) entity.get(), shape, event);
+      T target = rowMapper.newTarget();
+      if (scan != null) {
+        return forEachTimed(resultSet, rs -> {
+          rowMapper.mapRow(rs, target);
+          return target;
+        }, consumer, scan, metrics, targetType);
+      }
       while (resultSet.next()) {
-        Map<String, Object> row = extractRowValues(resultSet, columnNames);
-        T item = mapper.convertValue(row, targetType);
-        list.add(item);
+        rowMapper.mapRow(resultSet, target);
+        consumer.accept(target);
+        count++;
+      }
+      return count;
+    }
+    MappingPlan<T> plan = planFor(shape, targetType, event);
+    if (scan != null) {
+      return forEachTimed(resultSet, rs -> plan.map(plan.extract(rs), scan), consumer, scan, metrics, targetType);
+    }
+    while (resultSet.next()) {
+      consumer.accept(plan.mapRow(resultSet));
+      count++;
+    }
+    return count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> FlyweightRowMapper<T> flyweightFor(EntityDescriptor<T> entity, ColumnShape shape,
+      ResultSetMappingEvent event) throws SQLException {
+    return (FlyweightRowMapper<T>) flyweights.get(List.of(entity.type(), shape), key -> {
+      if (event != null) {
+        event.planCompiled = true;
+      }
+      return new FlyweightRowMapper<>(entity, shape, codecs, mapper);
+    });
+  }
+
+  @FunctionalInterface
+  private interface RowFunction<T> {
+    T apply(ResultSet resultSet) throws SQLException;
+  }
+
+  /**
+   * {@link #forEach} loop timing fetch and mapping, leaving the consumer out
+   */
+  private static <T> long forEachTimed(ResultSet resultSet, RowFunction<T> rowFunction, Consumer<? super T> consumer,
+      ScanMetrics scan, MappingMetrics metrics, Class<T> targetType) throws SQLException {
+    long count = 0;
+    while (true) {
+      long start = System.nanoTime();
+      boolean more = resultSet.next();
+      long fetched = System.nanoTime();
+      scan.add(MappingPhase.FETCH, fetched - start);
+      if (!more) {
+        break;
+      }
+      T row = rowFunction.apply(resultSet);
+      scan.add(MappingPhase.BIND, System.nanoTime() - fetched);
+      scan.row();
+      consumer.accept(row);
+      count++;
+    }
+    scan.finish(metrics, targetType);
+    return count;
+  }
+
+  /**
+   * Returns an iterator mapping one row of the ResultSet per {@code next()}
+   * call. Map targets produce one column name to value Map per row, any other
+   * type is mapped as an entity.
+   *
+   * @param <T>        The row type
+   * @param resultSet  The ResultSet to map, positioned before its first row
+   * @param targetType The class of each row
+   * @return A lazy iterator; closing it closes the ResultSet
+   * @throws SQLException If there is an error accessing the ResultSet metadata
+   */
+  public <T> ResultSetIterator<T> iterate(ResultSet resultSet, Class<T> targetType) throws SQLException {
+    return new ResultSetIterator<>(resultSet, planFor(resultSet, targetType));
+  }
+
+  /**
+   * Returns an iterator folding the rows of a join into root entities with
+   * their nested collections, one root per {@code next()} call; the rows of a
+   * root must be consecutive
+   *
+   * @param <T>       The root entity type
+   * @param resultSet The joined ResultSet, positioned before its first row
+   * @param mapping   The levels of the graph
+   * @return A lazy iterator; closing it closes the ResultSet
+   * @throws SQLException If there is an error accessing the ResultSet metadata
+   *                      or a key column is missing
+   */
+  public <T> JoinedRowIterator<T> iterateJoined(ResultSet resultSet, JoinMapping<T> mapping) throws SQLException {
+    return new JoinedRowIterator<>(resultSet, new JoinPlan<>(mapping, ColumnShape.from(resultSet), this));
+  }
+
+  /**
+   * Stream flavour of {@link #iterateJoined(ResultSet, JoinMapping)}; closing
+   * the stream closes the ResultSet
+   *
+   * @param <T>       The root entity type
+   * @param resultSet The joined ResultSet, positioned before its first row
+   * @param mapping   The levels of the graph
+   * @return A lazy, closeable Stream of root entities
+   * @throws SQLException If there is an error accessing the ResultSet metadata
+   *                      or a key column is missing
+   */
+  public <T> Stream<T> streamJoined(ResultSet resultSet, JoinMapping<T> mapping) throws SQLException {
+    JoinedRowIterator<T> iterator = iterateJoined(resultSet, mapping);
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Returns a sequential Stream lazily mapping the rows of the ResultSet, see
+   * {@link #iterate(ResultSet, Class)}. The stream should be closed (e.g. with
+   * try-with-resources), which closes the ResultSet.
+   *
+   * @param <T>        The row type
+   * @param resultSet  The ResultSet to map, positioned before its first row
+   * @param targetType The class of each row
+   * @return A lazy, closeable Stream
+   * @throws SQLException If there is an error accessing the ResultSet metadata
+   */
+  public <T> Stream<T> stream(ResultSet resultSet, Class<T> targetType) throws SQLException {
+    ResultSetIterator<T> iterator = iterate(resultSet, targetType);
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Runs {@code COPY (query) TO STDOUT (FORMAT binary)} through PgJDBC's
+   * {@link CopyManager} and returns a reader mapping the copied tuples lazily.
+   * The query is described first to learn its columns, which are then resolved
+   * to properties like the columns of a ResultSet; this is much cheaper than
+   * row by row ResultSet access for bulk extracts.
+   *
+   * @param <T>        The row type
+   * @param connection A PgJDBC connection
+   * @param query      The query to copy, without parameters
+   * @param targetType The class of each row (an entity class or {@code Map})
+   * @return A lazy reader; it must be closed (or fully consumed) before the
+   *         connection is used again
+   * @throws SQLException If the query cannot be described or the copy started
+   */
+  public <T> BinaryCopyReader<T> copyOut(Connection connection, String query, Class<T> targetType)
+      throws SQLException {
+    ColumnShape shape;
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      ResultSetMetaData metaData = statement.getMetaData();
+      if (metaData == null) {
+        throw new SQLException("Query does not return rows: " + query);
+      }
+      shape = ColumnShape.from(metaData, null);
+    }
+    // Resolved before the copy starts, so an unsupported column leaves the connection usable
+    BinaryCopyDecoder.FieldDecoder[] decoders = BinaryCopyDecoder.decoders(shape, codecs);
+    MappingPlan<T> plan = planFor(shape, targetType);
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    InputStream in = new PGCopyInputStream(copyManager.copyOut("COPY (" + query + ") TO STDOUT (FORMAT binary)"));
+    return new BinaryCopyReader<>(new BinaryCopyDecoder(in, decoders), plan);
+  }
+
+  /**
+   * Maps a binary COPY stream obtained elsewhere, e.g. a file recorded with
+   * {@code COPY ... TO '/path' (FORMAT binary)}. The format carries no
+   * metadata, so the columns are given explicitly.
+   *
+   * @param <T>         The row type
+   * @param in          The stream, starting with the binary COPY header
+   * @param columnNames The column names, in order
+   * @param typeNames   The PostgreSQL type name of each column ({@code int4},
+   *                    {@code jsonb}, {@code _text}, ...)
+   * @param targetType  The class of each row (an entity class or {@code Map})
+   * @return A lazy reader; closing it closes the stream
+   * @throws SQLException If the mapping plan cannot be compiled
+   */
+  public <T> BinaryCopyReader<T> readBinaryCopy(InputStream in, String[] columnNames, String[] typeNames,
+      Class<T> targetType) throws SQLException {
+    ColumnShape shape = ColumnShape.of(columnNames, typeNames);
+    return new BinaryCopyReader<>(new BinaryCopyDecoder(in, BinaryCopyDecoder.decoders(shape, codecs)),
+        planFor(shape, targetType));
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> EntityDescriptor<T> entityDescriptor(Class<T> entityType) throws SQLException {
+    return (EntityDescriptor<T>) descriptors.get(entityType)
+        .orElseThrow(() -> new SQLException("Cannot introspect the properties of " + entityType.getName()));
+  }
+
+  /**
+   * Returns the compiled mapping plan for the shape of the given ResultSet,
+   * compiling and caching it on first use; Map rows get a row map plan
+   */
+  <T> MappingPlan<T> planFor(ResultSet resultSet, Class<T> targetType) throws SQLException {
+    return planFor(ColumnShape.from(resultSet), targetType, null);
+  }
+
+  <T> MappingPlan<T> planFor(ColumnShape shape, Class<T> targetType) throws SQLException {
+    return planFor(shape, targetType, null);
+  }
+
+  /**
+   * @param event The recording event told the columns and whether the plan was
+   *              compiled, or {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  private <T> MappingPlan<T> planFor(ColumnShape shape, Class<T> targetType, ResultSetMappingEvent event)
+      throws SQLException {
+    if (event != null) {
+      event.targetType = targetType;
+      event.columns = shape.columnCount();
+    }
+    if (Map.class.isAssignableFrom(targetType)) {
+      return (MappingPlan<T>) new RowMapPlan(shape, codecs);
+    }
+    return (MappingPlan<T>) planCache.get(new PlanKey(targetType, shape), key -> {
+      if (event != null) {
+        event.planCompiled = true;
+      }
+      return compilePlan(key.targetType(), key.shape());
+    });
+  }
+
+  private MappingPlan<?> compilePlan(Class<?> targetType, ColumnShape shape) throws PlanCompilationException {
+    try {
+      return compile(targetType, shape);
+    } catch (RuntimeException e) {
+      throw new PlanCompilationException(targetType, shape, e);
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private MappingPlan<?> compile(Class<?> targetType, ColumnShape shape) {
+    EntityRowMapper<?> rowMapper = rowMappers.get(targetType);
+    if (rowMapper != null) {
+      return new GeneratedMappingPlan<>(rowMapper, shape, codecs, mapper);
+    }
+    Optional<EntityDescriptor<?>> entity = descriptors.get(targetType);
+    if (entity.isPresent()) {
+      MappingPlan<?> generated = bytecodeMappers ? GeneratedMappingPlan.generate(entity.get(), shape, codecs, mapper)
+          : null;
+      return generated != null ? generated : new PropertyMappingPlan(entity.get(), shape, codecs, mapper);
+    }
+    return new ConvertValueMappingPlan<>(targetType, new RowMapPlan(shape, codecs), mapper);
+  }
+
+  private <T> T[] convertToArray(ResultSet resultSet, Class<T> targetType, ResultSetMappingEvent event)
+      throws SQLException {
+    try {
+      MappingPlan<T> plan = planFor(ColumnShape.from(resultSet), targetType, event);
+      List<T> list = mapRows(resultSet, plan, targetType);
+      if (event != null) {
+        event.rows = list.size();
       }
 
       // Convert list to array
       @SuppressWarnings("unchecked")
       T[] array = (T[]) java.lang.reflect.Array.newInstance(targetType, list.size());
       return list.toArray(array);
+    } catch (PlanCompilationException e) {
+      throw e;
     } catch (Exception e) {
       throw new SQLException("Failed to convert ResultSet to " + targetType.getName() + " array", e);
     }
@@ -105,124 +955,102 @@ public class DirectResultSetMapper {
    * Converts a ResultSet to a List of Maps, where each Map represents a row
    * 
    * @param resultSet The ResultSet to convert
+   * @param event     The recording event, or {@code null}
    * @return A List of Maps, where each Map contains column name to value mappings
    * @throws SQLException If there is an error accessing the ResultSet
    */
-  private List<Map<String, Object>> convertToList(ResultSet resultSet) throws SQLException {
-    List<Map<String, Object>> results = new ArrayList<>();
-
-    String[] columnNames = columnNamesFrom(resultSet.getMetaData());
-    while (resultSet.next()) {
-      Map<String, Object> row = extractRowValues(resultSet, columnNames);
-      results.add(row);
+  private List<Map<String, Object>> convertToList(ResultSet resultSet, ResultSetMappingEvent event)
+      throws SQLException {
+    List<Map<String, Object>> rows = mapRows(resultSet, rowMapPlan(resultSet, event), Map.class);
+    if (event != null) {
+      event.rows = rows.size();
     }
-
-    return results;
+    return rows;
   }
 
   /**
-   * Converts a ResultSet to a Map, assuming the ResultSet has a single row
-   * 
-   * @param resultSet The ResultSet to convert
-   * @return A Map containing column name to value mappings
-   * @throws SQLException If there is an error accessing the ResultSet
+   * Maps every remaining row with the given plan, in parallel when enabled
    */
-  private Map<String, Object> convertToMap(ResultSet resultSet) throws SQLException {
-    if (resultSet.next()) {
-      String[] columnNames = columnNamesFrom(resultSet.getMetaData());
-      return extractRowValues(resultSet, columnNames);
+  private <T> List<T> mapRows(ResultSet resultSet, MappingPlan<T> plan, Class<?> rowType) throws SQLException {
+    ParallelMappingOptions options = parallelOptions;
+    MappingMetrics metrics = this.metrics;
+    if (options != null) {
+      if (!metrics.enabled()) {
+        return ParallelRowMapper.mapAll(resultSet, plan, options);
+      }
+      long start = System.nanoTime();
+      List<T> results = ParallelRowMapper.mapAll(resultSet, plan, options);
+      metrics.recordMapping(rowType, results.size(), System.nanoTime() - start);
+      return results;
     }
-    return new HashMap<>();
-  }
-
-  private static String[] columnNamesFrom(ResultSetMetaData metaData) throws SQLException {
-    int columnCount = metaData.getColumnCount();
-    String[] names = new String[columnCount];
-    for (int i = 1; i <= columnCount; i++) {
-      names[i - 1] = metaData.getColumnName(i);
+    if (metrics.enabled()) {
+      return mapRowsTimed(resultSet, plan, rowType, metrics, Integer.MAX_VALUE);
+    }
+    List<T> results = new ArrayList<>();
+    while (resultSet.next()) {
+      results.add(plan.mapRow(resultSet));
     }
-    return names;
+    return results;
   }
 
   /**
-   * Extracts values from the current row of a ResultSet into a Map
-   *
-   * @param resultSet   The ResultSet to extract values from
-   * @param columnNames Column names from {@link #columnNamesFrom(ResultSetMetaData)}; reused across
-   *                    rows for the same ResultSet
-   * @return A Map containing column name to value mappings
-   * @throws SQLException If there is an error accessing the ResultSet
+   * Maps up to {@code limit} rows in two steps ({@link MappingPlan#extract} then
+   * {@link MappingPlan#map(Object[], ScanMetrics)}), timing each phase, and
+   * reports the scan
    */
-  private Map<String, Object> extractRowValues(ResultSet resultSet, String[] columnNames) throws SQLException {
-    int columnCount = columnNames.length;
-    Map<String, Object> row = new HashMap<>((int) (columnCount / 0.75f) + 1);
-
-    for (int i = 0; i < columnCount; i++) {
-      String columnName = columnNames[i];
-      int jdbcColumn = i + 1;
-      Object value = resultSet.getObject(jdbcColumn);
-
-      // Handle PostgreSQL specific types if needed
-      if (value instanceof org.postgresql.jdbc.PgArray) {
-        try {
-          value = ((org.postgresql.jdbc.PgArray) value).getArray();
-        } catch (SQLException e) {
-          // If we can't get the array, use the original value
-        }
-      } else if (value instanceof org.postgresql.util.PGobject) {
-        org.postgresql.util.PGobject pgObject = (org.postgresql.util.PGobject) value;
-        String pgValue = pgObject.getValue();
-
-        if (pgValue != null) {
-          if ("json".equals(pgObject.getType()) || "jsonb".equals(pgObject.getType())) {
-            try {
-              // Parse JSON string to Java object
-              value = mapper.readValue(pgValue, Object.class);
-            } catch (IOException e) {
-              // If we can't parse the JSON, use the original string value
-              value = pgValue;
-            }
-          } else if ("date".equals(pgObject.getType())) {
-            value = LocalDate.parse(pgValue);
-          } else if ("timestamp".equals(pgObject.getType()) || "timestamptz".equals(pgObject.getType())) {
-            value = parsePgTimestampText(pgValue);
-          } else {
-            value = pgValue;
-          }
-        }
-      } else if (value instanceof Timestamp) {
-        value = ((Timestamp) value).toLocalDateTime();
-      } else if (value instanceof OffsetDateTime) {
-        value = ((OffsetDateTime) value).toLocalDateTime();
-      } else if (value instanceof Date) {
-        value = ((Date) value).toLocalDate();
+  private static <T> List<T> mapRowsTimed(ResultSet resultSet, MappingPlan<T> plan, Class<?> rowType,
+      MappingMetrics metrics, int limit) throws SQLException {
+    ScanMetrics scan = new ScanMetrics();
+    List<T> results = new ArrayList<>();
+    long time = System.nanoTime();
+    while (results.size() < limit) {
+      boolean more = resultSet.next();
+      long fetched = System.nanoTime();
+      scan.add(MappingPhase.FETCH, fetched - time);
+      if (!more) {
+        break;
       }
-
-      row.put(columnName, value);
+      Object[] values = plan.extract(resultSet);
+      long extracted = System.nanoTime();
+      scan.add(MappingPhase.EXTRACT, extracted - fetched);
+      results.add(plan.map(values, scan));
+      time = System.nanoTime();
+      scan.add(MappingPhase.BIND, time - extracted);
+      scan.row();
     }
+    scan.finish(metrics, rowType);
+    return results;
+  }
 
-    return row;
+  private RowMapPlan rowMapPlan(ResultSet resultSet, ResultSetMappingEvent event) throws SQLException {
+    ColumnShape shape = ColumnShape.from(resultSet);
+    if (event != null) {
+      event.targetType = Map.class;
+      event.columns = shape.columnCount();
+    }
+    return new RowMapPlan(shape, codecs);
   }
 
   /**
-   * Parses PostgreSQL {@code timestamp} / {@code timestamptz} text as {@link LocalDateTime}
-   * (instant-based values use the offset then drop the zone).
+   * Converts a ResultSet to a Map, assuming the ResultSet has a single row
+   * 
+   * @param resultSet The ResultSet to convert
+   * @param event     The recording event, or {@code null}
+   * @return A Map containing column name to value mappings
+   * @throws SQLException If there is an error accessing the ResultSet
    */
-  private static LocalDateTime parsePgTimestampText(String pgValue) {
-    String s = pgValue.trim();
-    String normalized = s.length() > 10 && s.charAt(10) == ' '
-        ? s.substring(0, 10) + 'T' + s.substring(11)
-        : s;
-    try {
-      return OffsetDateTime.parse(normalized).toLocalDateTime();
-    } catch (DateTimeParseException ignored) {
-      // not an offset datetime
+  private Map<String, Object> convertToMap(ResultSet resultSet, ResultSetMappingEvent event) throws SQLException {
+    MappingMetrics metrics = this.metrics;
+    Map<String, Object> row = null;
+    if (metrics.enabled()) {
+      List<Map<String, Object>> rows = mapRowsTimed(resultSet, rowMapPlan(resultSet, event), Map.class, metrics, 1);
+      row = rows.isEmpty() ? null : rows.get(0);
+    } else if (resultSet.next()) {
+      row = rowMapPlan(resultSet, event).mapRow(resultSet);
     }
-    try {
-      return LocalDateTime.parse(normalized);
-    } catch (DateTimeParseException ignored) {
-      // not ISO local
+    if (event != null) {
+      event.rows = row == null ? 0 : 1;
     }
-    return Timestamp.valueOf(s).toLocalDateTime();
+    return row == null ? new HashMap<>() : row;
   }
 }
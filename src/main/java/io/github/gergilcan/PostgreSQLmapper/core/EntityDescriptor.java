@@ -0,0 +1,460 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Describes how to build an entity from column values: how it is instantiated
+ * (no-args constructor, record canonical constructor or Lombok style all-args
+ * constructor) and which property each column name resolves to.
+ * <p>
+ * Column names are matched against the property name, {@code @JsonProperty} /
+ * {@code @JsonAlias} names and the snake_case form of the property name, then
+ * case-insensitively ignoring underscores.
+ * <p>
+ * Entities relying on Jackson features that are not reproduced here (custom
+ * deserializers, creators, polymorphic types, ...) are not described and keep
+ * using Jackson's {@code convertValue}.
+ */
+final class EntityDescriptor<T> {
+
+  /** Annotations whose semantics only Jackson itself can honour. */
+  private static final List<Class<? extends Annotation>> JACKSON_ONLY = List.of(
+      JsonDeserialize.class, JsonCreator.class, JsonTypeInfo.class, JsonUnwrapped.class,
+      JsonAnySetter.class, JsonFormat.class);
+
+  private final Class<T> type;
+  /** The direct handle of the constructor used, for bytecode generation. */
+  private final MethodHandle constructor;
+  private final MethodHandle instantiator;
+  private final MethodHandle creator;
+  private final int creatorArity;
+  private final List<PropertyDescriptor> properties;
+  private final Map<String, PropertyDescriptor> byName = new HashMap<>();
+  private final Map<String, PropertyDescriptor> byRelaxedName = new HashMap<>();
+
+  private EntityDescriptor(Class<T> type, MethodHandle constructor, MethodHandle instantiator, MethodHandle creator,
+      int creatorArity, List<PropertyDescriptor> properties) {
+    this.type = type;
+    this.constructor = constructor;
+    this.instantiator = instantiator;
+    this.creator = creator;
+    this.creatorArity = creatorArity;
+    this.properties = properties;
+    for (PropertyDescriptor property : properties) {
+      byName.putIfAbsent(property.name(), property);
+      for (String alias : property.aliases()) {
+        byName.putIfAbsent(alias, property);
+      }
+      byName.putIfAbsent(toSnakeCase(property.name()), property);
+    }
+    for (PropertyDescriptor property : properties) {
+      byRelaxedName.putIfAbsent(relaxed(property.name()), property);
+      for (String alias : property.aliases()) {
+        byRelaxedName.putIfAbsent(relaxed(alias), property);
+      }
+    }
+  }
+
+  /**
+   * Describes the properties of a type whose instances are built elsewhere
+   * (e.g. by an {@link EntityRowMapper}), only to resolve column names
+   *
+   * @param <T>        The entity type
+   * @param type       The entity class
+   * @param properties The properties
+   * @return A descriptor supporting {@link #find(String)} only
+   */
+  static <T> EntityDescriptor<T> of(Class<T> type, List<PropertyDescriptor> properties) {
+    return new EntityDescriptor<>(type, null, null, null, 0, properties);
+  }
+
+  Class<T> type() {
+    return type;
+  }
+
+  List<PropertyDescriptor> properties() {
+    return properties;
+  }
+
+  /**
+   * @return The direct handle of the no-args constructor, or of the constructor
+   *         taking every property when {@link #usesCreator()}
+   */
+  MethodHandle constructor() {
+    return constructor;
+  }
+
+  /**
+   * @return {@code true} when the entity is built through a constructor taking
+   *         all of its properties
+   */
+  boolean usesCreator() {
+    return creator != null;
+  }
+
+  int creatorArity() {
+    return creatorArity;
+  }
+
+  /**
+   * Resolves the property a column should be written to
+   *
+   * @param columnName The ResultSet column name
+   * @return The property or {@code null} if the column is not mapped
+   */
+  PropertyDescriptor find(String columnName) {
+    if (columnName == null) {
+      return null;
+    }
+    PropertyDescriptor property = byName.get(columnName);
+    return property != null ? property : byRelaxedName.get(relaxed(columnName));
+  }
+
+  /**
+   * Creates an empty instance, only valid when {@link #usesCreator()} is false
+   */
+  Object newInstance() throws Throwable {
+    return instantiator.invokeExact();
+  }
+
+  /**
+   * Creates an instance through the all-args constructor
+   *
+   * @param arguments The constructor arguments, indexed by
+   *                  {@link PropertyDescriptor#creatorIndex()}
+   */
+  Object create(Object[] arguments) throws Throwable {
+    return creator.invokeExact(arguments);
+  }
+
+  /**
+   * Introspects the given type
+   *
+   * @param <T>         The entity type
+   * @param type        The entity class
+   * @param typeFactory The factory used to resolve generic property types
+   * @return The descriptor, or {@code null} if the type has to be mapped by
+   *         Jackson
+   */
+  static <T> EntityDescriptor<T> introspect(Class<T> type, TypeFactory typeFactory) {
+    if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isEnum()
+        || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java.")
+        || hasJacksonOnlyAnnotation(type)) {
+      return null;
+    }
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      if (type.isRecord()) {
+        return introspectRecord(type, typeFactory, lookup);
+      }
+      List<Field> fields = instanceFields(type);
+      for (Field field : fields) {
+        if (hasJacksonOnlyAnnotation(field)) {
+          return null;
+        }
+      }
+      Constructor<?>[] constructors = type.getDeclaredConstructors();
+      for (Constructor<?> constructor : constructors) {
+        if (hasJacksonOnlyAnnotation(constructor)) {
+          return null;
+        }
+      }
+      for (Constructor<?> constructor : constructors) {
+        if (constructor.getParameterCount() == 0) {
+          return introspectBean(type, typeFactory, lookup, constructor, fields);
+        }
+      }
+      return introspectAllArgs(type, typeFactory, lookup, fields);
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      // Not accessible from here (e.g. a package in a named module): let Jackson deal with it
+      return null;
+    }
+  }
+
+  private static <T> EntityDescriptor<T> introspectRecord(Class<T> type, TypeFactory typeFactory,
+      MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException {
+    // Component annotations are propagated to the private fields backing them
+    RecordComponent[] components = type.getRecordComponents();
+    Class<?>[] parameterTypes = new Class<?>[components.length];
+    List<PropertyDescriptor> properties = new ArrayList<>(components.length);
+    for (int i = 0; i < components.length; i++) {
+      RecordComponent component = components[i];
+      Field field = backingField(type, component);
+      if (hasJacksonOnlyAnnotation(component) || (field != null && hasJacksonOnlyAnnotation(field))) {
+        return null;
+      }
+      parameterTypes[i] = component.getType();
+      properties.add(new PropertyDescriptor(
+          propertyName(component.getName(), component, field),
+          aliases(component.getName(), component, field),
+          typeFactory.constructType(component.getGenericType()),
+          null, lookup.unreflect(component.getAccessor()), i));
+    }
+    MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+    return new EntityDescriptor<>(type, constructor, null, spreader(constructor), components.length, properties);
+  }
+
+  private static <T> EntityDescriptor<T> introspectBean(Class<T> type, TypeFactory typeFactory,
+      MethodHandles.Lookup lookup, Constructor<?> constructor, List<Field> fields) throws IllegalAccessException {
+    MethodHandle noArgs = lookup.unreflectConstructor(constructor);
+    MethodHandle instantiator = noArgs.asType(MethodType.methodType(Object.class));
+
+    Map<String, Method> setters = new LinkedHashMap<>();
+    Map<String, Method> getters = new HashMap<>();
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+          continue;
+        }
+        if (method.getParameterCount() == 1 && method.getName().length() > 3 && method.getName().startsWith("set")) {
+          setters.putIfAbsent(method.getName(), method);
+        } else if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+          getters.putIfAbsent(method.getName(), method);
+        }
+      }
+    }
+
+    List<PropertyDescriptor> properties = new ArrayList<>();
+    for (Field field : fields) {
+      if (field.isAnnotationPresent(JsonIgnore.class)) {
+        continue;
+      }
+      Method setter = findSetter(setters, field);
+      MethodHandle writer;
+      Type genericType;
+      if (setter != null) {
+        setters.remove(setter.getName());
+        if (setter.isAnnotationPresent(JsonIgnore.class)) {
+          continue;
+        }
+        if (hasJacksonOnlyAnnotation(setter)) {
+          return null;
+        }
+        writer = lookup.unreflect(setter);
+        genericType = setter.getGenericParameterTypes()[0];
+      } else if (!Modifier.isFinal(field.getModifiers())) {
+        writer = lookup.unreflectSetter(field);
+        genericType = field.getGenericType();
+      } else {
+        continue;
+      }
+      Method getter = findGetter(getters, field.getName(), field.getType());
+      properties.add(new PropertyDescriptor(
+          propertyName(field.getName(), field, setter),
+          aliases(field.getName(), field, setter),
+          typeFactory.constructType(genericType),
+          writer, getter != null ? lookup.unreflect(getter) : lookup.unreflectGetter(field), -1));
+    }
+    // Setters without a backing field still describe a property
+    for (Method setter : setters.values()) {
+      if (setter.isAnnotationPresent(JsonIgnore.class)) {
+        continue;
+      }
+      if (hasJacksonOnlyAnnotation(setter)) {
+        return null;
+      }
+      if (!Modifier.isPublic(setter.getModifiers())) {
+        continue;
+      }
+      String name = decapitalize(setter.getName().substring(3));
+      Method getter = findGetter(getters, name, setter.getParameterTypes()[0]);
+      properties.add(new PropertyDescriptor(
+          propertyName(name, setter),
+          aliases(name, setter),
+          typeFactory.constructType(setter.getGenericParameterTypes()[0]),
+          lookup.unreflect(setter), getter != null && Modifier.isPublic(getter.getModifiers())
+              ? lookup.unreflect(getter)
+              : null,
+          -1));
+    }
+    return new EntityDescriptor<>(type, noArgs, instantiator, null, 0, properties);
+  }
+
+  /**
+   * Supports classes that only expose a constructor taking every declared field
+   * in declaration order, which is what Lombok's {@code @AllArgsConstructor} and
+   * {@code @Value} generate.
+   */
+  private static <T> EntityDescriptor<T> introspectAllArgs(Class<T> type, TypeFactory typeFactory,
+      MethodHandles.Lookup lookup, List<Field> fields) throws IllegalAccessException {
+    List<Field> ownFields = new ArrayList<>();
+    for (Field field : fields) {
+      if (field.getDeclaringClass() == type) {
+        ownFields.add(field);
+      }
+    }
+    Class<?>[] parameterTypes = new Class<?>[ownFields.size()];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      parameterTypes[i] = ownFields.get(i).getType();
+    }
+    for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+      if (!Arrays.equals(constructor.getParameterTypes(), parameterTypes)) {
+        continue;
+      }
+      List<PropertyDescriptor> properties = new ArrayList<>(parameterTypes.length);
+      for (int i = 0; i < parameterTypes.length; i++) {
+        Field field = ownFields.get(i);
+        properties.add(new PropertyDescriptor(
+            propertyName(field.getName(), field),
+            aliases(field.getName(), field),
+            typeFactory.constructType(field.getGenericType()),
+            null, lookup.unreflectGetter(field), i));
+      }
+      MethodHandle allArgs = lookup.unreflectConstructor(constructor);
+      return new EntityDescriptor<>(type, allArgs, null, spreader(allArgs), parameterTypes.length, properties);
+    }
+    return null;
+  }
+
+  private static Field backingField(Class<?> type, RecordComponent component) {
+    try {
+      return type.getDeclaredField(component.getName());
+    } catch (NoSuchFieldException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle spreader(MethodHandle constructor) {
+    int arity = constructor.type().parameterCount();
+    return constructor.asSpreader(Object[].class, arity)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+  }
+
+  private static List<Field> instanceFields(Class<?> type) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  private static Method findSetter(Map<String, Method> setters, Field field) {
+    String name = field.getName();
+    Method setter = setters.get("set" + capitalize(name));
+    if (setter == null && field.getType() == boolean.class && name.length() > 2 && name.startsWith("is")
+        && Character.isUpperCase(name.charAt(2))) {
+      // Lombok drops the "is" prefix of primitive boolean fields
+      setter = setters.get("set" + name.substring(2));
+    }
+    if (setter != null && !setter.getParameterTypes()[0].isAssignableFrom(field.getType())) {
+      return null;
+    }
+    return setter;
+  }
+
+  /**
+   * Finds the getter of a property: {@code getName()}, {@code isName()} for
+   * booleans, or the field name itself for Lombok's {@code isActive} booleans
+   */
+  private static Method findGetter(Map<String, Method> getters, String name, Class<?> type) {
+    Method getter = getters.get("get" + capitalize(name));
+    if (getter == null && (type == boolean.class || type == Boolean.class)) {
+      getter = getters.get("is" + capitalize(name));
+      if (getter == null && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+        getter = getters.get(name);
+      }
+    }
+    return getter != null && getter.getReturnType() == type ? getter : null;
+  }
+
+  private static boolean hasJacksonOnlyAnnotation(AnnotatedElement element) {
+    for (Class<? extends Annotation> annotation : JACKSON_ONLY) {
+      if (element.isAnnotationPresent(annotation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String propertyName(String name, AnnotatedElement... elements) {
+    for (AnnotatedElement element : elements) {
+      if (element == null) {
+        continue;
+      }
+      JsonProperty jsonProperty = element.getAnnotation(JsonProperty.class);
+      if (jsonProperty != null && !jsonProperty.value().isEmpty()) {
+        return jsonProperty.value();
+      }
+    }
+    return name;
+  }
+
+  private static List<String> aliases(String name, AnnotatedElement... elements) {
+    List<String> aliases = new ArrayList<>(2);
+    aliases.add(name);
+    for (AnnotatedElement element : elements) {
+      if (element == null) {
+        continue;
+      }
+      JsonAlias jsonAlias = element.getAnnotation(JsonAlias.class);
+      if (jsonAlias != null) {
+        aliases.addAll(Arrays.asList(jsonAlias.value()));
+      }
+    }
+    return aliases;
+  }
+
+  private static String capitalize(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static String decapitalize(String name) {
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Converts a camelCase property name into its snake_case column form
+   */
+  static String toSnakeCase(String name) {
+    StringBuilder sb = new StringBuilder(name.length() + 4);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c)) {
+        if (i > 0) {
+          sb.append('_');
+        }
+        sb.append(Character.toLowerCase(c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static String relaxed(String name) {
+    return name.replace("_", "").toLowerCase(Locale.ROOT);
+  }
+}
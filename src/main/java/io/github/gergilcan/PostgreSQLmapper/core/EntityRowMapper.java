@@ -0,0 +1,85 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A mapper for one entity type generated at compile time for
+ * {@link MappedEntity} classes, or written by hand. Implementations are found
+ * with {@link java.util.ServiceLoader} (the processor writes the
+ * {@code META-INF/services} entry) or registered with
+ * {@link DirectResultSetMapper#registerRowMapper(EntityRowMapper)}.
+ * <p>
+ * The mapper only holds the straight-line construction code. Column resolution
+ * stays in the library: per column shape it matches the columns to
+ * {@link #properties()} with the same rules as reflective entities and passes
+ * the result to {@link #mapRow} as an array indexed by property.
+ *
+ * @param <T> The entity type
+ */
+public interface EntityRowMapper<T> {
+
+  /**
+   * A property of the entity
+   *
+   * @param name    The property name ({@code @JsonProperty} name if present)
+   * @param aliases Further column names, the field name and {@code @JsonAlias}
+   *                names
+   * @param type    The full generic type of the property
+   */
+  record Property(String name, List<String> aliases, Type type) {
+  }
+
+  /**
+   * Reads a property value through the library's column bindings (codecs, json
+   * parsing and conversions)
+   */
+  @FunctionalInterface
+  interface Values {
+
+    /**
+     * @param resultSet The ResultSet positioned on a row
+     * @param property  The property index
+     * @return The value converted to the property type, {@code null} for SQL
+     *         NULL
+     * @throws SQLException If the value cannot be read or converted
+     */
+    Object read(ResultSet resultSet, int property) throws SQLException;
+  }
+
+  /**
+   * @return The entity class
+   */
+  Class<T> type();
+
+  /**
+   * @return The properties of the entity; their indexes are used by
+   *         {@link #mapRow} and {@link #create}
+   */
+  List<Property> properties();
+
+  /**
+   * Maps the current row
+   *
+   * @param resultSet The ResultSet positioned on a row
+   * @param columns   Per property: the 1-based column to read with the typed
+   *                  getter of the property type, a negative column to read
+   *                  through {@code values}, or {@code 0} if no column maps to
+   *                  it
+   * @param values    Reads properties that are not read directly
+   * @return The entity; SQL NULL leaves properties at their default
+   * @throws SQLException If the row cannot be read
+   */
+  T mapRow(ResultSet resultSet, int[] columns, Values values) throws SQLException;
+
+  /**
+   * Builds an entity from converted property values
+   *
+   * @param values The values indexed by property, {@code null} for absent or
+   *               SQL NULL values
+   * @return The entity
+   */
+  T create(Object[] values);
+}
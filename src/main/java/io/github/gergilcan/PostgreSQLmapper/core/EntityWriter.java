@@ -0,0 +1,321 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes entities to PostgreSQL, the counterpart of
+ * {@link DirectResultSetMapper}: table columns are resolved to properties the
+ * same way result columns are, so a class that reads a table also writes it.
+ * A {@link StatementBinder} binds entities as statement parameters,
+ * {@link #insert} / {@link #upsert} write collections as multi-row
+ * {@code VALUES} statements and {@link #copyIn} streams them with binary
+ * {@code COPY}.
+ */
+public class EntityWriter {
+
+  /** Buffer between the tuple encoder and the COPY protocol messages. */
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  /** Default number of table binders kept per writer. */
+  static final int DEFAULT_MAX_BINDERS = 256;
+  /** Default number of rows per multi-row INSERT statement. */
+  public static final int DEFAULT_WRITE_BATCH_SIZE = 500;
+
+  private final ObjectMapper mapper;
+  private volatile int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+  /** Binders of described tables, by (table, entity type, conflict columns). */
+  private final BoundedCache<List<Object>, StatementBinder<?>> tableBinders;
+  private final ClassValue<Optional<EntityDescriptor<?>>> descriptors = new ClassValue<>() {
+    @Override
+    protected Optional<EntityDescriptor<?>> computeValue(Class<?> type) {
+      return Optional.ofNullable(EntityDescriptor.introspect(type, mapper.getTypeFactory()));
+    }
+  };
+
+  /**
+   * Creates a new EntityWriter using the provided ObjectMapper
+   *
+   * @param mapper The ObjectMapper to use for json / jsonb values
+   */
+  public EntityWriter(ObjectMapper mapper) {
+    this(mapper, DEFAULT_MAX_BINDERS);
+  }
+
+  /**
+   * Creates a new EntityWriter using the provided ObjectMapper
+   *
+   * @param mapper     The ObjectMapper to use for json / jsonb values
+   * @param maxBinders The maximum number of table binders kept, one per
+   *                   (table, entity type, conflict columns)
+   */
+  public EntityWriter(ObjectMapper mapper, int maxBinders) {
+    this.mapper = mapper;
+    this.tableBinders = new BoundedCache<>(maxBinders);
+  }
+
+  /**
+   * Sets the maximum number of rows written by one multi-row INSERT statement
+   * of {@link #insert} and {@link #upsert}; it is lowered further when the
+   * rows would exceed the bind parameter limit of a statement
+   *
+   * @param rows The rows per statement, at least 1
+   */
+  public void setWriteBatchSize(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("Write batch size must be at least 1");
+    }
+    this.writeBatchSize = rows;
+  }
+
+  /**
+   * Writes entities into a table with {@code COPY table (columns) FROM STDIN
+   * (FORMAT binary)} through PgJDBC's {@link CopyManager}. The table is
+   * described first and its columns are resolved to properties like the
+   * columns of a ResultSet, so a table that maps to the entity is written
+   * from it; columns without a readable property, and serial / identity
+   * columns, are left to their defaults.
+   * Tuples are encoded as the iterator is consumed and streamed through a
+   * bounded buffer, so the rows need not fit in memory.
+   *
+   * @param <T>        The entity type
+   * @param connection A PgJDBC connection
+   * @param table      The target table, as written in SQL (e.g.
+   *                   {@code sales.orders})
+   * @param entityType The entity class
+   * @param rows       The entities to write, none {@code null}
+   * @return The number of rows copied
+   * @throws SQLException If the table cannot be described, a value cannot be
+   *                      encoded or the copy fails; the copy is then cancelled
+   */
+  public <T> long copyIn(Connection connection, String table, Class<T> entityType, Iterator<? extends T> rows)
+      throws SQLException {
+    ColumnShape shape;
+    try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + table)) {
+      ResultSetMetaData metaData = statement.getMetaData();
+      shape = ColumnShape.from(metaData, null);
+      shape = shape.select(writableColumns(metaData, shape, List.of()));
+    }
+    BinaryCopyEncoder encoder = new BinaryCopyEncoder(entityDescriptor(entityType), shape, mapper);
+    StringBuilder sql = new StringBuilder("COPY ").append(table).append(" (");
+    String[] columns = encoder.columnNames();
+    for (int i = 0; i < columns.length; i++) {
+      sql.append(i == 0 ? "\"" : ", \"").append(columns[i].replace("\"", "\"\"")).append('"');
+    }
+    sql.append(") FROM STDIN (FORMAT binary)");
+
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    CopyIn copyIn = copyManager.copyIn(sql.toString());
+    try {
+      PGCopyOutputStream out = new PGCopyOutputStream(copyIn, COPY_BUFFER_SIZE);
+      writeTuples(encoder, new DataOutputStream(out), rows);
+      out.flush();
+      return copyIn.endCopy();
+    } catch (IOException e) {
+      throw new SQLException("Failed to copy into " + table, e);
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  /**
+   * Returns the binder of an entity for the columns of a table. The table is
+   * described once (the binder is cached per table and entity type) and its
+   * columns are resolved to properties like the columns of a ResultSet;
+   * columns without a readable property, and serial / identity columns, are
+   * left to the database.
+   *
+   * @param <T>        The entity type
+   * @param connection A connection to describe the table with
+   * @param table      The table, as written in SQL (e.g. {@code sales.orders})
+   * @param entityType The entity class
+   * @return The binder, binding {@link StatementBinder#columnNames()} in order
+   * @throws SQLException If the table cannot be described or no column matches
+   */
+  public <T> StatementBinder<T> binder(Connection connection, String table, Class<T> entityType)
+      throws SQLException {
+    return tableBinder(connection, table, entityType, new String[0]);
+  }
+
+  /**
+   * Returns a binder of the given columns, in order, for statements written by
+   * hand. Without table metadata the parameter types are inferred from the
+   * property types: Maps, JsonNodes and other objects are bound as jsonb,
+   * collections and arrays as PostgreSQL arrays, enums as untyped text.
+   *
+   * @param <T>         The entity type
+   * @param entityType  The entity class
+   * @param columnNames The column names, resolved to properties like result
+   *                    columns
+   * @return The binder
+   * @throws SQLException If a column has no readable property
+   */
+  public <T> StatementBinder<T> binder(Class<T> entityType, String... columnNames) throws SQLException {
+    EntityDescriptor<T> entity = entityDescriptor(entityType);
+    String[] typeNames = new String[columnNames.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      PropertyDescriptor property = entity.find(columnNames[i]);
+      if (property == null) {
+        throw new SQLException("Column " + columnNames[i] + " matches no property of " + entityType.getName());
+      }
+      typeNames[i] = StatementBinder.typeNameOf(property.type());
+    }
+    return new StatementBinder<>(entity, ColumnShape.of(columnNames, typeNames), mapper);
+  }
+
+  /**
+   * Inserts entities with multi-row {@code INSERT ... VALUES} statements of up
+   * to {@link #setWriteBatchSize(int)} rows each, binding the columns of
+   * {@link #binder(Connection, String, Class)}
+   *
+   * @param <T>        The entity type
+   * @param connection The connection; statements run in its current
+   *                   transaction
+   * @param table      The table, as written in SQL
+   * @param entityType The entity class
+   * @param rows       The entities, none {@code null}
+   * @return The number of inserted rows
+   * @throws SQLException If the table cannot be described or a statement fails
+   */
+  public <T> long insert(Connection connection, String table, Class<T> entityType, Iterator<? extends T> rows)
+      throws SQLException {
+    StatementBinder<T> binder = binder(connection, table, entityType);
+    return new MultiRowInsert<>(table, binder, "", writeBatchSize).execute(connection, rows);
+  }
+
+  /**
+   * Inserts or updates entities with multi-row {@code INSERT ... ON CONFLICT
+   * (conflictColumns) DO UPDATE} statements, updating every other bound column.
+   * The conflict columns are bound even if they are serial / identity columns.
+   *
+   * @param <T>             The entity type
+   * @param connection      The connection
+   * @param table           The table, as written in SQL
+   * @param entityType      The entity class
+   * @param rows            The entities, none {@code null}; one statement must
+   *                        not contain the same key twice
+   * @param conflictColumns The columns of the primary key or unique constraint
+   * @return The number of inserted or updated rows
+   * @throws SQLException If the table cannot be described or a statement fails
+   */
+  public <T> long upsert(Connection connection, String table, Class<T> entityType, Iterator<? extends T> rows,
+      String... conflictColumns) throws SQLException {
+    if (conflictColumns.length == 0) {
+      throw new SQLException("Upsert needs at least one conflict column");
+    }
+    StatementBinder<T> binder = tableBinder(connection, table, entityType, conflictColumns);
+    String onConflict = MultiRowInsert.upsertClause(binder.columnNames(), conflictColumns);
+    return new MultiRowInsert<>(table, binder, onConflict, writeBatchSize).execute(connection, rows);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> StatementBinder<T> tableBinder(Connection connection, String table, Class<T> entityType,
+      String[] conflictColumns) throws SQLException {
+    List<Object> key = List.of(table, entityType, List.of(conflictColumns));
+    return (StatementBinder<T>) tableBinders.get(key, missing -> {
+      EntityDescriptor<T> entity = entityDescriptor(entityType);
+      ColumnShape shape;
+      List<Integer> columns = new ArrayList<>();
+      try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + table)) {
+        ResultSetMetaData metaData = statement.getMetaData();
+        shape = ColumnShape.from(metaData, null);
+        for (int i : writableColumns(metaData, shape, List.of(conflictColumns))) {
+          PropertyDescriptor property = entity.find(shape.name(i));
+          if (property != null && property.readable()) {
+            columns.add(i);
+          }
+        }
+      }
+      if (columns.isEmpty()) {
+        throw new SQLException("No column of " + table + " matches a readable property of " + entityType.getName());
+      }
+      return new StatementBinder<>(entity, shape.select(columns.stream().mapToInt(Integer::intValue).toArray()),
+          mapper);
+    });
+  }
+
+  /**
+   * @param keep Columns written even if generated, e.g. the conflict key of an
+   *             upsert
+   * @return The 0-based columns of a described table that are not serial or
+   *         identity columns, which are left to the database
+   */
+  private static int[] writableColumns(ResultSetMetaData metaData, ColumnShape shape, List<String> keep)
+      throws SQLException {
+    int[] columns = new int[shape.columnCount()];
+    int count = 0;
+    for (int i = 0; i < shape.columnCount(); i++) {
+      if (!metaData.isAutoIncrement(i + 1) || keep.contains(shape.name(i))) {
+        columns[count++] = i;
+      }
+    }
+    return Arrays.copyOf(columns, count);
+  }
+
+  /**
+   * Writes entities as a binary COPY stream without a connection, e.g. to a
+   * file loaded later with {@code COPY table FROM '/path' (FORMAT binary)}.
+   * Only the given columns are written, in order.
+   *
+   * @param <T>         The entity type
+   * @param out         The stream to write to; it is flushed, not closed
+   * @param columnNames The column names, in order
+   * @param typeNames   The PostgreSQL type name of each column ({@code int4},
+   *                    {@code jsonb}, {@code _text}, ...)
+   * @param entityType  The entity class
+   * @param rows        The entities to write, none {@code null}
+   * @return The number of rows written
+   * @throws SQLException If a column has no matching property or a value cannot
+   *                      be encoded
+   * @throws IOException  If the stream cannot be written
+   */
+  public <T> long writeBinaryCopy(OutputStream out, String[] columnNames, String[] typeNames, Class<T> entityType,
+      Iterator<? extends T> rows) throws SQLException, IOException {
+    ColumnShape shape = ColumnShape.of(columnNames, typeNames);
+    BinaryCopyEncoder encoder = new BinaryCopyEncoder(entityDescriptor(entityType), shape, mapper);
+    if (encoder.columnNames().length != columnNames.length) {
+      throw new SQLException("Not every column matches a readable property of " + entityType.getName());
+    }
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, COPY_BUFFER_SIZE));
+    long count = writeTuples(encoder, data, rows);
+    data.flush();
+    return count;
+  }
+
+  private static long writeTuples(BinaryCopyEncoder encoder, DataOutputStream out, Iterator<?> rows)
+      throws IOException, SQLException {
+    encoder.writeHeader(out);
+    long count = 0;
+    while (rows.hasNext()) {
+      encoder.write(rows.next(), out);
+      count++;
+    }
+    encoder.writeTrailer(out);
+    return count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> EntityDescriptor<T> entityDescriptor(Class<T> entityType) throws SQLException {
+    return (EntityDescriptor<T>) descriptors.get(entityType)
+        .orElseThrow(() -> new SQLException("Cannot introspect the properties of " + entityType.getName()));
+  }
+}
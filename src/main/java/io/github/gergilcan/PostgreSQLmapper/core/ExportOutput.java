@@ -0,0 +1,204 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The buffered output of a streamed export (NDJSON, CSV) to an OutputStream
+ * or a channel. The buffer comes from a small shared pool and goes back on
+ * {@link #close()}, so repeated exports do not allocate it again; closing
+ * flushes the target but does not close it.
+ * <p>
+ * The target is flushed after the first row, for a fast time to first byte,
+ * then whenever {@link #flushDue()} finds the flush interval elapsed, so a
+ * slow query still reaches the client in pieces. Not thread safe.
+ */
+final class ExportOutput extends OutputStream {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+  private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(16);
+  private static final byte[] DIGITS = "0123456789".getBytes();
+
+  private final OutputStream out;
+  private final WritableByteChannel channel;
+  private final long flushIntervalNanos;
+  private byte[] buffer;
+  private int position;
+  private long drained;
+  private long rows;
+  private long lastFlush;
+
+  private ExportOutput(OutputStream out, WritableByteChannel channel, long flushIntervalNanos) {
+    this.out = out;
+    this.channel = channel;
+    this.flushIntervalNanos = flushIntervalNanos;
+    byte[] pooled = POOL.poll();
+    this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    this.lastFlush = System.nanoTime();
+  }
+
+  static ExportOutput of(OutputStream out, long flushIntervalNanos) {
+    return new ExportOutput(out, null, flushIntervalNanos);
+  }
+
+  static ExportOutput of(WritableByteChannel channel, long flushIntervalNanos) {
+    return new ExportOutput(null, channel, flushIntervalNanos);
+  }
+
+  /**
+   * Counts a written row
+   *
+   * @return {@code true} if the target should be flushed now: after the first
+   *         row and then once per flush interval
+   */
+  boolean flushDue() {
+    if (++rows == 1) {
+      return true;
+    }
+    return flushIntervalNanos > 0 && System.nanoTime() - lastFlush >= flushIntervalNanos;
+  }
+
+  /**
+   * @return The number of bytes written so far
+   */
+  long bytesWritten() {
+    return drained + position;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (position == buffer.length) {
+      drain();
+    }
+    buffer[position++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (length > buffer.length - position) {
+      drain();
+      if (length >= buffer.length) {
+        writeTarget(bytes, offset, length);
+        drained += length;
+        return;
+      }
+    }
+    System.arraycopy(bytes, offset, buffer, position, length);
+    position += length;
+  }
+
+  /**
+   * Writes the decimal digits of a value, without allocating
+   */
+  void writeLong(long value) throws IOException {
+    if (buffer.length - position < 20) {
+      drain();
+    }
+    if (value == Long.MIN_VALUE) {
+      write(Long.toString(value).getBytes());
+      return;
+    }
+    if (value < 0) {
+      buffer[position++] = '-';
+      value = -value;
+    }
+    int end = position + digits(value);
+    int index = end;
+    do {
+      buffer[--index] = DIGITS[(int) (value % 10)];
+      value /= 10;
+    } while (value != 0);
+    position = end;
+  }
+
+  /**
+   * Writes the UTF-8 encoding of the characters of a String
+   */
+  void writeUtf8(String text, int start, int end) throws IOException {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (buffer.length - position < 4) {
+        drain();
+      }
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, as String.getBytes does
+        buffer[position++] = '?';
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  /**
+   * Writes the buffered bytes and flushes the target
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+    if (out != null) {
+      out.flush();
+    }
+    lastFlush = System.nanoTime();
+  }
+
+  /**
+   * Flushes and returns the buffer to the pool; the target stays open
+   */
+  @Override
+  public void close() throws IOException {
+    if (buffer == null) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      POOL.offer(buffer);
+      buffer = null;
+    }
+  }
+
+  private void drain() throws IOException {
+    if (position > 0) {
+      writeTarget(buffer, 0, position);
+      drained += position;
+      position = 0;
+    }
+  }
+
+  private void writeTarget(byte[] bytes, int offset, int length) throws IOException {
+    if (out != null) {
+      out.write(bytes, offset, length);
+      return;
+    }
+    ByteBuffer view = ByteBuffer.wrap(bytes, offset, length);
+    while (view.hasRemaining()) {
+      channel.write(view);
+    }
+  }
+
+  private static int digits(long value) {
+    int digits = 1;
+    while (value >= 10) {
+      value /= 10;
+      digits++;
+    }
+    return digits;
+  }
+}
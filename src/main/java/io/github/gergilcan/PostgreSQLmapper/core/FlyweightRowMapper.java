@@ -0,0 +1,211 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maps rows into a single entity instance that is reset and rebound in place
+ * for every row, for consumers that look at each row once and do not keep it.
+ * Only entities written through setters or fields qualify; see
+ * {@link DirectResultSetMapper#forEach}.
+ * <p>
+ * A SQL NULL writes the value the property has on a new instance. Immutable
+ * values (strings, numbers, dates, enums) are shared; mutable ones
+ * (collections, maps, beans, arrays) are read from a fresh instance on every
+ * reset, so a row never sees a default another row or thread changed. json /
+ * jsonb columns bound to a bean, a collection or a map are parsed into the
+ * instance left by the previous row: beans are first reset the same way,
+ * collections and maps are cleared.
+ * <p>
+ * The target is passed in, so one instance serves every scan of its column
+ * shape, from any thread.
+ *
+ * @param <T> The entity type
+ */
+final class FlyweightRowMapper<T> {
+
+  /** Stands for a mutable reset value, read from a new instance every time. */
+  private static final Object FRESH = new Object();
+  private static final Set<Class<?>> IMMUTABLE = Set.of(String.class, Boolean.class, Character.class,
+      Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class,
+      BigDecimal.class, UUID.class, LocalDate.class, LocalTime.class, LocalDateTime.class, OffsetTime.class,
+      OffsetDateTime.class, ZonedDateTime.class, Instant.class, Duration.class, Period.class);
+
+  private final EntityDescriptor<T> entity;
+  private final ColumnBinding[] bindings;
+  /** Per binding, the property value of a new instance, or {@link #FRESH}. */
+  private final Object[] resets;
+  /** Per binding, how to reuse the nested value, or {@code null}. */
+  private final Nested[] nested;
+
+  /**
+   * Resets the properties of a nested bean to the values of a new instance
+   */
+  private static final class Nested {
+    private final EntityDescriptor<?> entity;
+    private final PropertyDescriptor[] properties;
+    private final Object[] resets;
+
+    Nested(EntityDescriptor<?> entity) throws Throwable {
+      this.entity = entity;
+      Object prototype = entity.newInstance();
+      this.properties = entity.properties().toArray(PropertyDescriptor[]::new);
+      this.resets = new Object[properties.length];
+      for (int i = 0; i < properties.length; i++) {
+        resets[i] = resetValue(properties[i], prototype);
+      }
+    }
+
+    void reset(Object target) throws Throwable {
+      Object prototype = null;
+      for (int i = 0; i < properties.length; i++) {
+        Object reset = resets[i];
+        if (reset == FRESH) {
+          if (prototype == null) {
+            prototype = entity.newInstance();
+          }
+          reset = properties[i].read(prototype);
+        }
+        properties[i].write(target, reset);
+      }
+    }
+  }
+
+  FlyweightRowMapper(EntityDescriptor<T> entity, ColumnShape shape, PgCodecRegistry codecs, ObjectMapper mapper)
+      throws SQLException {
+    if (entity.usesCreator()) {
+      throw new IllegalArgumentException(entity.type().getName() + " is built through its constructor");
+    }
+    this.entity = entity;
+    this.bindings = PropertyMappingPlan.bindings(entity, shape, codecs, mapper);
+    this.resets = new Object[bindings.length];
+    this.nested = new Nested[bindings.length];
+    try {
+      Object prototype = entity.newInstance();
+      for (int i = 0; i < bindings.length; i++) {
+        PropertyDescriptor property = bindings[i].property();
+        resets[i] = resetValue(property, prototype);
+        if (bindings[i] instanceof ColumnBinding.JsonBinding && property.readable() && isBean(property.rawType())) {
+          EntityDescriptor<?> nestedEntity = EntityDescriptor.introspect(property.rawType(),
+              mapper.getTypeFactory());
+          if (nestedEntity != null && !nestedEntity.usesCreator() && !nestedEntity.properties().isEmpty()) {
+            nested[i] = new Nested(nestedEntity);
+          }
+        }
+      }
+    } catch (Throwable e) {
+      throw new SQLException("Failed to instantiate " + entity.type().getName(), e);
+    }
+  }
+
+  /**
+   * @return A new instance to pass to every {@link #mapRow} call
+   */
+  T newTarget() throws SQLException {
+    try {
+      return entity.type().cast(entity.newInstance());
+    } catch (Throwable e) {
+      throw new SQLException("Failed to instantiate " + entity.type().getName(), e);
+    }
+  }
+
+  /**
+   * Rebinds every mapped property of the target from the current row
+   *
+   * @param resultSet The ResultSet, already moved to a row with {@code next()}
+   * @param target    The instance returned by {@link #newTarget()}
+   */
+  void mapRow(ResultSet resultSet, T target) throws SQLException {
+    try {
+      for (int i = 0; i < bindings.length; i++) {
+        ColumnBinding binding = bindings[i];
+        if (binding instanceof ColumnBinding.JsonBinding json && binding.property().readable()) {
+          rebindJson(json, resultSet, target, i);
+        } else if (resets[i] == FRESH) {
+          Object value = binding.read(resultSet);
+          binding.property().write(target, value != null ? value : freshReset(i));
+        } else {
+          binding.rebind(resultSet, target, resets[i]);
+        }
+      }
+    } catch (SQLException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new SQLException("Failed to convert ResultSet to " + entity.type().getName(), e);
+    }
+  }
+
+  private void rebindJson(ColumnBinding.JsonBinding binding, ResultSet resultSet, Object target, int index)
+      throws Throwable {
+    PropertyDescriptor property = binding.property();
+    Object raw = binding.extract(resultSet);
+    if (raw == null) {
+      property.write(target, resets[index] == FRESH ? freshReset(index) : resets[index]);
+      return;
+    }
+    Object current = property.read(target);
+    if (current == null) {
+      property.write(target, binding.convert(raw));
+      return;
+    }
+    try {
+      if (current instanceof Collection<?> collection) {
+        collection.clear();
+      } else if (current instanceof Map<?, ?> map) {
+        map.clear();
+      } else if (nested[index] != null) {
+        nested[index].reset(current);
+      } else {
+        property.write(target, binding.convert(raw));
+        return;
+      }
+    } catch (UnsupportedOperationException e) {
+      // Immutable collection
+      property.write(target, binding.convert(raw));
+      return;
+    }
+    Object updated = binding.update(raw, current);
+    if (updated != current) {
+      property.write(target, updated);
+    }
+  }
+
+  /**
+   * @return The property value of binding {@code index} on a new instance
+   */
+  private Object freshReset(int index) throws Throwable {
+    return bindings[index].property().read(entity.newInstance());
+  }
+
+  private static boolean isBean(Class<?> type) {
+    return !type.isArray() && !type.isPrimitive() && !type.isEnum() && !type.getName().startsWith("java.")
+        && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type);
+  }
+
+  private static Object resetValue(PropertyDescriptor property, Object prototype) throws Throwable {
+    if (property.readable()) {
+      Object value = property.read(prototype);
+      return value == null || value instanceof Enum<?> || IMMUTABLE.contains(value.getClass()) ? value : FRESH;
+    }
+    Class<?> rawType = property.rawType();
+    return rawType.isPrimitive() ? Array.get(Array.newInstance(rawType, 1), 0) : null;
+  }
+}
@@ -0,0 +1,156 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Plan delegating row construction to an {@link EntityRowMapper}, typically
+ * generated at compile time. Columns are resolved to the mapper's properties
+ * with the rules of {@link EntityDescriptor#find}, and each mapped column gets
+ * the {@link ColumnBinding} the reflective plan would use. Columns whose
+ * binding is a plain typed getter (numbers and booleans into primitives or
+ * their wrappers, text into Strings) are read by the generated code itself;
+ * the others are read through the binding, so codecs, json parsing and
+ * conversions behave exactly as in {@link PropertyMappingPlan}.
+ * <p>
+ * The same plan runs the hidden classes {@link RowMapperClassGenerator} emits
+ * at runtime for reflectively described entities.
+ *
+ * @param <T> The target type
+ */
+final class GeneratedMappingPlan<T> implements MappingPlan<T>, EntityRowMapper.Values {
+
+  private final EntityRowMapper<T> rowMapper;
+  /** Per property: direct column, negative bound column or 0, see {@link EntityRowMapper#mapRow}. */
+  private final int[] columns;
+  /** Per property, {@code null} for unmapped properties. */
+  private final ColumnBinding[] bindings;
+  private final int columnCount;
+
+  GeneratedMappingPlan(EntityRowMapper<T> rowMapper, ColumnShape shape, PgCodecRegistry codecs,
+      ObjectMapper mapper) {
+    this(EntityDescriptor.of(rowMapper.type(), descriptors(rowMapper, mapper)), shape, codecs, mapper,
+        columns -> rowMapper);
+  }
+
+  /**
+   * @param rowMappers Creates the row mapper for the resolved columns, may
+   *                   return {@code null}
+   */
+  private GeneratedMappingPlan(EntityDescriptor<T> entity, ColumnShape shape, PgCodecRegistry codecs,
+      ObjectMapper mapper, Function<int[], EntityRowMapper<T>> rowMappers) {
+    this.columnCount = shape.columnCount();
+    List<PropertyDescriptor> properties = entity.properties();
+    this.columns = new int[properties.size()];
+    this.bindings = new ColumnBinding[properties.size()];
+    for (int i = 0; i < columnCount; i++) {
+      PropertyDescriptor property = entity.find(shape.name(i));
+      if (property == null) {
+        continue;
+      }
+      // A later column resolving to the same property replaces the earlier one
+      int index = properties.indexOf(property);
+      bindings[index] = ColumnBinding.of(i + 1, shape, property, codecs, mapper);
+      columns[index] = readsDirectly(bindings[index], shape, i, codecs) ? i + 1 : -(i + 1);
+    }
+    this.rowMapper = rowMappers.apply(columns.clone());
+  }
+
+  /**
+   * Compiles a plan whose row mapper is a hidden class generated for the
+   * column shape, see {@link RowMapperClassGenerator}
+   *
+   * @return The plan, or {@code null} if no class can be generated for the
+   *         entity
+   */
+  static <T> GeneratedMappingPlan<T> generate(EntityDescriptor<T> entity, ColumnShape shape, PgCodecRegistry codecs,
+      ObjectMapper mapper) {
+    GeneratedMappingPlan<T> plan = new GeneratedMappingPlan<>(entity, shape, codecs, mapper,
+        columns -> RowMapperClassGenerator.generate(entity, columns));
+    return plan.rowMapper != null ? plan : null;
+  }
+
+  private static List<PropertyDescriptor> descriptors(EntityRowMapper<?> rowMapper, ObjectMapper mapper) {
+    List<EntityRowMapper.Property> generated = rowMapper.properties();
+    List<PropertyDescriptor> properties = new ArrayList<>(generated.size());
+    for (int i = 0; i < generated.size(); i++) {
+      EntityRowMapper.Property property = generated.get(i);
+      // Bindings read values only, the generated code writes them
+      properties.add(new PropertyDescriptor(property.name(), property.aliases(),
+          mapper.getTypeFactory().constructType(property.type()), null, null, i));
+    }
+    return properties;
+  }
+
+  private static boolean readsDirectly(ColumnBinding binding, ColumnShape shape, int index, PgCodecRegistry codecs) {
+    if (binding instanceof ColumnBinding.IntBinding || binding instanceof ColumnBinding.LongBinding
+        || binding instanceof ColumnBinding.DoubleBinding || binding instanceof ColumnBinding.FloatBinding
+        || binding instanceof ColumnBinding.ShortBinding || binding instanceof ColumnBinding.BooleanBinding) {
+      return true;
+    }
+    if (binding.property().rawType() != String.class || codecs.findRegistered(shape, index) != null) {
+      return false;
+    }
+    String typeName = shape.typeName(index);
+    return "text".equals(typeName) || "varchar".equals(typeName) || "bpchar".equals(typeName)
+        || "name".equals(typeName);
+  }
+
+  @Override
+  public Object read(ResultSet resultSet, int property) throws SQLException {
+    return bindings[property].read(resultSet);
+  }
+
+  @Override
+  public T mapRow(ResultSet resultSet) throws SQLException {
+    try {
+      return rowMapper.mapRow(resultSet, columns, this);
+    } catch (SQLException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw new SQLException("Failed to convert ResultSet to " + rowMapper.type().getName(), e);
+    }
+  }
+
+  @Override
+  public Object[] extract(ResultSet resultSet) throws SQLException {
+    Object[] values = new Object[columnCount];
+    for (ColumnBinding binding : bindings) {
+      if (binding != null) {
+        values[binding.column() - 1] = binding.extract(resultSet);
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public T map(Object[] values) throws SQLException {
+    return build(values, false);
+  }
+
+  @Override
+  public T decode(Object[] values) throws SQLException {
+    return build(values, true);
+  }
+
+  private T build(Object[] values, boolean driverValues) throws SQLException {
+    Object[] properties = new Object[bindings.length];
+    for (int i = 0; i < bindings.length; i++) {
+      ColumnBinding binding = bindings[i];
+      if (binding != null) {
+        Object raw = values[binding.column() - 1];
+        properties[i] = driverValues ? binding.decode(raw) : binding.convert(raw);
+      }
+    }
+    try {
+      return rowMapper.create(properties);
+    } catch (RuntimeException e) {
+      throw new SQLException("Failed to convert row to " + rowMapper.type().getName(), e);
+    }
+  }
+}
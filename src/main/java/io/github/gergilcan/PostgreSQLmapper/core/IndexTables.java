@@ -0,0 +1,39 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+/**
+ * Sizing and hashing shared by the open addressing tables of
+ * {@link LongIndex}, {@link UuidIndex} and the text dictionaries of
+ * {@link ColumnarBatch}
+ */
+final class IndexTables {
+
+  /** Tables are grown past 3/4 full. */
+  private static final int LOAD_PERCENT = 75;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private IndexTables() {
+  }
+
+  /**
+   * @return The power of two capacity holding the expected keys without growing
+   */
+  static int capacity(int expectedSize, int minCapacity) {
+    long needed = Math.max(expectedSize, 0) * 100L / LOAD_PERCENT + 1;
+    if (needed >= MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Math.max(Integer.highestOneBit((int) needed - 1) << 1, minCapacity);
+  }
+
+  static int resizeAt(int capacity) {
+    return capacity == MAX_CAPACITY ? Integer.MAX_VALUE : (int) (capacity * (long) LOAD_PERCENT / 100);
+  }
+
+  /**
+   * Spreads sequential ids over the table (Fibonacci hashing)
+   */
+  static int bucket(long key, int mask) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+}
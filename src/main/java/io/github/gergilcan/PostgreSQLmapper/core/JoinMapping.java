@@ -0,0 +1,102 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how the rows of a join are folded into object graphs: the entity
+ * of each level, the key columns telling its instances apart and the
+ * collection properties its children are added to. For example, orders
+ * joined with their items and the options of each item:
+ *
+ * <pre>
+ * JoinMapping&lt;Order&gt; orders = JoinMapping.of(Order.class, "id")
+ *     .withCollection("items", JoinMapping.of(OrderItem.class, "item_id").withPrefix("item_")
+ *         .withCollection("options", JoinMapping.of(ItemOption.class, "option_id").withPrefix("option_")));
+ * </pre>
+ * <p>
+ * The columns of a child level are selected by their prefix, which is removed
+ * before they are resolved to properties ({@code item_name} binds
+ * {@code OrderItem.name}); the root gets the columns no prefix claims. Key
+ * columns are named as in the ResultSet. A child whose key columns are all
+ * NULL (an outer join without a match) is skipped.
+ * <p>
+ * Instances are immutable; the {@code with*} methods return a copy.
+ *
+ * @param <T> The entity type of the level
+ */
+public final class JoinMapping<T> {
+
+  /**
+   * A collection property and the level filling it
+   */
+  record Child(String property, JoinMapping<?> mapping) {
+  }
+
+  private final Class<T> type;
+  private final String[] keyColumns;
+  private final String prefix;
+  private final List<Child> children;
+
+  private JoinMapping(Class<T> type, String[] keyColumns, String prefix, List<Child> children) {
+    this.type = type;
+    this.keyColumns = keyColumns;
+    this.prefix = prefix;
+    this.children = children;
+  }
+
+  /**
+   * @param <T>        The entity type
+   * @param type       The entity class, a bean or a record
+   * @param keyColumns The columns identifying an instance, at least one
+   * @return A level without prefix nor children
+   */
+  public static <T> JoinMapping<T> of(Class<T> type, String... keyColumns) {
+    if (keyColumns.length == 0) {
+      throw new IllegalArgumentException("At least one key column is required for " + type.getName());
+    }
+    return new JoinMapping<>(type, keyColumns.clone(), "", List.of());
+  }
+
+  /**
+   * @param columnPrefix The prefix of the columns of this level, required for
+   *                     child levels
+   * @return A copy of this level reading the prefixed columns
+   */
+  public JoinMapping<T> withPrefix(String columnPrefix) {
+    return new JoinMapping<>(type, keyColumns, columnPrefix == null ? "" : columnPrefix, children);
+  }
+
+  /**
+   * @param property The name of a {@code List}, {@code Set} or
+   *                 {@code Collection} property of this level's entity
+   * @param child    The level whose instances are added to it; must have a
+   *                 prefix
+   * @return A copy of this level with the collection added
+   */
+  public JoinMapping<T> withCollection(String property, JoinMapping<?> child) {
+    if (child.prefix.isEmpty()) {
+      throw new IllegalArgumentException("The level of " + property + " needs a column prefix");
+    }
+    List<Child> withChild = new ArrayList<>(children);
+    withChild.add(new Child(property, child));
+    return new JoinMapping<>(type, keyColumns, prefix, Collections.unmodifiableList(withChild));
+  }
+
+  Class<T> type() {
+    return type;
+  }
+
+  String[] keyColumns() {
+    return keyColumns;
+  }
+
+  String prefix() {
+    return prefix;
+  }
+
+  List<Child> children() {
+    return children;
+  }
+}
@@ -0,0 +1,248 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link JoinMapping} compiled for the column shape of a ResultSet: every
+ * level gets the mapping plan of its own columns (the others are hidden from
+ * it), the indexes of its key columns and the collection properties its
+ * children go to.
+ * <p>
+ * Rows are folded into the graph of the current root instance: each instance
+ * keeps its children by key, so a child repeated by the cross product of
+ * sibling collections is added once. Only the graph of the current root is
+ * held; it is complete as soon as a row with another root key is read.
+ *
+ * @param <T> The root entity type
+ */
+final class JoinPlan<T> {
+
+  private static final class Level {
+    private final String name;
+    private final MappingPlan<?> plan;
+    private final EntityDescriptor<?> entity;
+    /** 1-based indexes of the key columns. */
+    private final int[] keyColumns;
+    private final PropertyDescriptor[] collections;
+    private final boolean[] sets;
+    private final Level[] children;
+
+    Level(JoinMapping<?> mapping, ColumnShape shape, JoinMapping<?>[] owners, DirectResultSetMapper mapper)
+        throws SQLException {
+      this.name = mapping.type().getName();
+      String[] names = new String[shape.columnCount()];
+      for (int i = 0; i < names.length; i++) {
+        names[i] = owners[i] == mapping ? shape.name(i).substring(mapping.prefix().length()) : null;
+      }
+      this.entity = mapper.entityDescriptor(mapping.type());
+      this.plan = mapper.planFor(shape.rename(names), mapping.type());
+      this.keyColumns = new int[mapping.keyColumns().length];
+      for (int k = 0; k < keyColumns.length; k++) {
+        keyColumns[k] = Arrays.asList(shape.names()).indexOf(mapping.keyColumns()[k]) + 1;
+        if (keyColumns[k] == 0) {
+          throw new SQLException("No key column " + mapping.keyColumns()[k] + " for " + name);
+        }
+      }
+      List<JoinMapping.Child> childMappings = mapping.children();
+      this.collections = new PropertyDescriptor[childMappings.size()];
+      this.sets = new boolean[childMappings.size()];
+      this.children = new Level[childMappings.size()];
+      for (int c = 0; c < children.length; c++) {
+        JoinMapping.Child child = childMappings.get(c);
+        collections[c] = collectionProperty(child);
+        sets[c] = !collections[c].rawType().isAssignableFrom(ArrayList.class);
+        children[c] = new Level(child.mapping(), shape, owners, mapper);
+      }
+      if (entity.usesCreator() && children.length > 0) {
+        for (PropertyDescriptor property : entity.properties()) {
+          if (!property.readable()) {
+            throw new IllegalArgumentException("Cannot read " + property.name() + " of " + name
+                + " to rebuild it with its collections");
+          }
+        }
+      }
+    }
+
+    private PropertyDescriptor collectionProperty(JoinMapping.Child child) {
+      for (PropertyDescriptor property : entity.properties()) {
+        if (property.name().equals(child.property())) {
+          Class<?> rawType = property.rawType();
+          if (!rawType.isAssignableFrom(ArrayList.class) && !rawType.isAssignableFrom(LinkedHashSet.class)) {
+            throw new IllegalArgumentException(name + "." + child.property() + " is not a List, Set or Collection");
+          }
+          Class<?> elementType = property.type().getContentType().getRawClass();
+          if (!elementType.isAssignableFrom(child.mapping().type())) {
+            throw new IllegalArgumentException(name + "." + child.property() + " cannot hold "
+                + child.mapping().type().getName());
+          }
+          return property;
+        }
+      }
+      throw new IllegalArgumentException(name + " has no property " + child.property());
+    }
+
+    /**
+     * @return The key of the current row at this level, {@code null} when all
+     *         key columns are NULL
+     */
+    Object key(ResultSet resultSet) throws SQLException {
+      if (keyColumns.length == 1) {
+        return resultSet.getObject(keyColumns[0]);
+      }
+      Object[] values = new Object[keyColumns.length];
+      boolean present = false;
+      for (int k = 0; k < keyColumns.length; k++) {
+        values[k] = resultSet.getObject(keyColumns[k]);
+        present |= values[k] != null;
+      }
+      return present ? Arrays.asList(values) : null;
+    }
+
+    /**
+     * Maps the current row into a new instance with empty collections
+     */
+    @SuppressWarnings("unchecked")
+    Node start(ResultSet resultSet) throws SQLException {
+      Object value = plan.mapRow(resultSet);
+      Collection<Object>[] values = new Collection[collections.length];
+      if (values.length == 0) {
+        return new Node(value, values);
+      }
+      try {
+        for (int c = 0; c < values.length; c++) {
+          values[c] = sets[c] ? new LinkedHashSet<>() : new ArrayList<>();
+        }
+        if (entity.usesCreator()) {
+          // Records and the like: rebuild the instance around the collections
+          Object[] arguments = new Object[entity.creatorArity()];
+          for (PropertyDescriptor property : entity.properties()) {
+            arguments[property.creatorIndex()] = property.read(value);
+          }
+          for (int c = 0; c < values.length; c++) {
+            arguments[collections[c].creatorIndex()] = values[c];
+          }
+          value = entity.create(arguments);
+        } else {
+          for (int c = 0; c < values.length; c++) {
+            collections[c].write(value, values[c]);
+          }
+        }
+      } catch (Throwable e) {
+        throw new SQLException("Failed to convert ResultSet to " + name, e);
+      }
+      return new Node(value, values);
+    }
+
+    /**
+     * Adds the children of the current row to the instance, recursively
+     */
+    @SuppressWarnings("unchecked")
+    void attach(Node node, ResultSet resultSet) throws SQLException {
+      for (int c = 0; c < children.length; c++) {
+        Level child = children[c];
+        Object key = child.key(resultSet);
+        if (key == null) {
+          continue;
+        }
+        if (node.children == null) {
+          node.children = new Map[children.length];
+        }
+        if (node.children[c] == null) {
+          node.children[c] = new HashMap<>();
+        }
+        Node childNode = node.children[c].get(key);
+        if (childNode == null) {
+          childNode = child.start(resultSet);
+          node.children[c].put(key, childNode);
+          node.collections[c].add(childNode.value);
+        }
+        child.attach(childNode, resultSet);
+      }
+    }
+  }
+
+  /**
+   * An instance of the graph and the children already added to it, by key
+   */
+  static final class Node {
+    private final Object value;
+    private final Collection<Object>[] collections;
+    private Map<Object, Node>[] children;
+
+    Node(Object value, Collection<Object>[] collections) {
+      this.value = value;
+      this.collections = collections;
+    }
+  }
+
+  private final Level root;
+
+  JoinPlan(JoinMapping<T> mapping, ColumnShape shape, DirectResultSetMapper mapper) throws SQLException {
+    List<JoinMapping<?>> levels = new ArrayList<>();
+    collect(mapping, levels, new IdentityHashMap<>());
+    // Each column belongs to the level with the longest prefix it starts with
+    JoinMapping<?>[] owners = new JoinMapping<?>[shape.columnCount()];
+    for (int i = 0; i < owners.length; i++) {
+      for (JoinMapping<?> level : levels) {
+        if (shape.name(i).startsWith(level.prefix())
+            && (owners[i] == null || level.prefix().length() > owners[i].prefix().length())) {
+          owners[i] = level;
+        }
+      }
+    }
+    this.root = new Level(mapping, shape, owners, mapper);
+  }
+
+  private static void collect(JoinMapping<?> mapping, List<JoinMapping<?>> levels,
+      Map<JoinMapping<?>, Boolean> seen) {
+    if (seen.put(mapping, Boolean.TRUE) != null) {
+      throw new IllegalArgumentException("A join level is used twice: " + mapping.type().getName());
+    }
+    levels.add(mapping);
+    for (JoinMapping.Child child : mapping.children()) {
+      collect(child.mapping(), levels, seen);
+    }
+  }
+
+  /**
+   * @return The root key of the current row
+   * @throws SQLException If it is NULL
+   */
+  Object rootKey(ResultSet resultSet) throws SQLException {
+    Object key = root.key(resultSet);
+    if (key == null) {
+      throw new SQLException("NULL key for " + root.name);
+    }
+    return key;
+  }
+
+  /**
+   * Starts the graph of a new root instance from the current row
+   */
+  Node start(ResultSet resultSet) throws SQLException {
+    Node node = root.start(resultSet);
+    root.attach(node, resultSet);
+    return node;
+  }
+
+  /**
+   * Adds the children of the current row, which has the root key of the graph
+   */
+  void add(Node graph, ResultSet resultSet) throws SQLException {
+    root.attach(graph, resultSet);
+  }
+
+  @SuppressWarnings("unchecked")
+  T value(Node graph) {
+    return (T) graph.value;
+  }
+}
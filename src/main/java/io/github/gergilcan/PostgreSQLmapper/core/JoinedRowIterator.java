@@ -0,0 +1,89 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily folds the rows of a join into root instances with their nested
+ * collections, see {@link JoinMapping}. Rows of one root must be consecutive
+ * (order the query by the root key); a root is returned once a row of the
+ * next one, or the end of the ResultSet, is read, so only one graph is held
+ * at a time.
+ * <p>
+ * Closing the iterator closes the underlying ResultSet.
+ *
+ * @param <T> The root entity type
+ */
+public final class JoinedRowIterator<T> implements Iterator<T>, AutoCloseable {
+
+  private final ResultSet resultSet;
+  private final JoinPlan<T> plan;
+  private JoinPlan.Node current;
+  private Object currentKey;
+  private T pending;
+  private boolean done;
+
+  JoinedRowIterator(ResultSet resultSet, JoinPlan<T> plan) {
+    this.resultSet = resultSet;
+    this.plan = plan;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (pending != null) {
+      return true;
+    }
+    try {
+      while (!done) {
+        if (!resultSet.next()) {
+          done = true;
+          pending = current == null ? null : plan.value(current);
+          current = null;
+          break;
+        }
+        Object key = plan.rootKey(resultSet);
+        if (current != null && key.equals(currentKey)) {
+          plan.add(current, resultSet);
+          continue;
+        }
+        T finished = current == null ? null : plan.value(current);
+        current = plan.start(resultSet);
+        currentKey = key;
+        if (finished != null) {
+          pending = finished;
+          break;
+        }
+      }
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map joined ResultSet rows", e);
+    }
+    return pending != null;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    T next = pending;
+    pending = null;
+    return next;
+  }
+
+  /**
+   * Closes the underlying ResultSet
+   */
+  @Override
+  public void close() {
+    done = true;
+    current = null;
+    pending = null;
+    try {
+      resultSet.close();
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to close ResultSet", e);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Entities indexed by a {@code long} key (an {@code int8}, {@code int4} or
+ * {@code int2} column), e.g. a reference table loaded once and looked up by
+ * id. Keys live in a {@code long[]} open addressing table with linear
+ * probing, so neither keys nor entries are boxed; the table is presized from
+ * the expected number of rows.
+ * <p>
+ * Values are never {@code null}; putting an existing key replaces its value.
+ * Not thread-safe while written, safe to share once loaded.
+ *
+ * @param <V> The entity type
+ */
+public final class LongIndex<V> {
+
+  /** Callback of {@link #forEach}. */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+    void accept(long key, V value);
+  }
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  /** Values by bucket, {@code null} marks an empty bucket. */
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+
+  /**
+   * @param expectedSize The number of keys expected, to size the table once
+   */
+  public LongIndex(int expectedSize) {
+    allocate(IndexTables.capacity(expectedSize, MIN_CAPACITY));
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeAt = IndexTables.resizeAt(capacity);
+  }
+
+  /**
+   * @param key   The key
+   * @param value The value, not {@code null}
+   * @return The previous value of the key, or {@code null}
+   */
+  public V put(long key, V value) {
+    Objects.requireNonNull(value, "value");
+    int bucket = IndexTables.bucket(key, mask);
+    while (values[bucket] != null) {
+      if (keys[bucket] == key) {
+        @SuppressWarnings("unchecked")
+        V previous = (V) values[bucket];
+        values[bucket] = value;
+        return previous;
+      }
+      bucket = (bucket + 1) & mask;
+    }
+    keys[bucket] = key;
+    values[bucket] = value;
+    if (++size > resizeAt) {
+      grow();
+    }
+    return null;
+  }
+
+  /**
+   * @param key The key
+   * @return Its value, or {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int bucket = IndexTables.bucket(key, mask);
+    Object value;
+    while ((value = values[bucket]) != null) {
+      if (keys[bucket] == key) {
+        return (V) value;
+      }
+      bucket = (bucket + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @param key          The key
+   * @param defaultValue Returned when the key is absent
+   * @return Its value, or the default value
+   */
+  public V getOrDefault(long key, V defaultValue) {
+    V value = get(key);
+    return value != null ? value : defaultValue;
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Calls the consumer for every entry, in no particular order
+   *
+   * @param consumer The callback
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(EntryConsumer<? super V> consumer) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        consumer.accept(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  /**
+   * @return A new list of the values, in no particular order
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> values() {
+    Object[] compact = new Object[size];
+    int count = 0;
+    for (Object value : values) {
+      if (value != null) {
+        compact[count++] = value;
+      }
+    }
+    return (List<V>) (List<?>) Arrays.asList(compact);
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(oldValues.length * 2);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int bucket = IndexTables.bucket(oldKeys[i], mask);
+        while (values[bucket] != null) {
+          bucket = (bucket + 1) & mask;
+        }
+        keys[bucket] = oldKeys[i];
+        values[bucket] = oldValues[i];
+      }
+    }
+  }
+}
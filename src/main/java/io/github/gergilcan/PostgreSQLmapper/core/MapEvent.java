@@ -0,0 +1,33 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event of one {@link PostgresEntityMapper#map} call,
+ * telling direct mappings from JSON round trip fallbacks. Disabled events are
+ * not timed nor committed. The stack trace points at the caller of a fallback.
+ */
+@Name("io.github.gergilcan.PostgreSQLmapper.Map")
+@Label("Map")
+@Category({ "PostgreSQL Mapper" })
+@Description("A value mapped to a target type by PostgresEntityMapper")
+final class MapEvent extends Event {
+
+  @Label("Target Type")
+  Class<?> targetType;
+
+  @Label("Source Type")
+  Class<?> sourceType;
+
+  @Label("Fallback")
+  @Description("Whether a ResultSet went through the JSON round trip instead of direct mapping")
+  boolean fallback;
+
+  @Label("Fallback Cause")
+  @Description("The exception that kept the direct mapping plan from compiling, if any")
+  String fallbackCause;
+}
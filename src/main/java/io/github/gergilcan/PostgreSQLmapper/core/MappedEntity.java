@@ -0,0 +1,26 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity for which the optional {@code PostgreSQL-mapper-processor}
+ * annotation processor generates an {@link EntityRowMapper} at compile time.
+ * The generated mapper is registered as a service and picked up by
+ * {@link DirectResultSetMapper} (and so {@link PostgresEntityMapper#map}) in
+ * place of the reflective mapping plan, so the entity is mapped without runtime
+ * introspection.
+ * <p>
+ * Records, classes with a no-args constructor and setters (or non-private
+ * fields), and Lombok {@code @Data} / {@code @Value} classes are supported;
+ * {@code @JsonProperty}, {@code @JsonAlias} and {@code @JsonIgnore} are
+ * honoured as on the reflective path.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface MappedEntity {
+}
@@ -0,0 +1,95 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+/**
+ * Receives measurements of the mapping work, see
+ * {@link PostgresEntityMapper#metrics(MappingMetrics)}. Measurements are taken
+ * and reported once per ResultSet, never per row, and only when
+ * {@link #enabled()} returns {@code true}; the default {@link #NONE} keeps the
+ * uninstrumented paths.
+ * <p>
+ * {@link MicrometerMappingMetrics} publishes them to a Micrometer
+ * {@code MeterRegistry}.
+ */
+public interface MappingMetrics {
+
+  /** Disabled metrics, nothing is measured. */
+  MappingMetrics NONE = new MappingMetrics() {
+    @Override
+    public boolean enabled() {
+      return false;
+    }
+
+    @Override
+    public void recordMapping(Class<?> targetType, long rows, long nanos) {
+    }
+
+    @Override
+    public void recordPhase(Class<?> targetType, MappingPhase phase, long nanos) {
+    }
+
+    @Override
+    public void recordFallback(Class<?> targetType, Throwable cause) {
+    }
+
+    @Override
+    public void recordSerialization(long rows, long nanos) {
+    }
+
+    @Override
+    public void recordSerializedBytes(long bytes) {
+    }
+  };
+
+  /**
+   * @return {@code true} to measure the mapping work
+   */
+  boolean enabled();
+
+  /**
+   * Records one mapped ResultSet
+   *
+   * @param targetType The row type (the component type for arrays, {@code Map}
+   *                   for row maps)
+   * @param rows       The number of rows mapped
+   * @param nanos      The time spent mapping them, fetching included
+   */
+  void recordMapping(Class<?> targetType, long rows, long nanos);
+
+  /**
+   * Records the time one mapped ResultSet spent in a phase; called once per
+   * phase after {@link #recordMapping}
+   *
+   * @param targetType The row type
+   * @param phase      The phase
+   * @param nanos      The time spent in the phase for the whole ResultSet
+   */
+  void recordPhase(Class<?> targetType, MappingPhase phase, long nanos);
+
+  /**
+   * Records a ResultSet that {@link PostgresEntityMapper#map} sent through the
+   * JSON string round trip because no direct mapping plan could be compiled for
+   * it; other values always take the round trip and are not recorded
+   *
+   * @param targetType The requested type
+   * @param cause      The error that kept the plan from compiling
+   */
+  void recordFallback(Class<?> targetType, Throwable cause);
+
+  /**
+   * Records one ResultSet written by {@link ResultSetSerializer} or exported
+   * (e.g. {@link PostgresEntityMapper#writeArrow})
+   *
+   * @param rows  The number of rows written
+   * @param nanos The time spent writing them
+   */
+  void recordSerialization(long rows, long nanos);
+
+  /**
+   * Records the size of a serialized ResultSet, when the output is owned by the
+   * mapper ({@link PostgresEntityMapper#writeValueAsString}) or counted while
+   * written
+   *
+   * @param bytes The UTF-8 encoded size
+   */
+  void recordSerializedBytes(long bytes);
+}
@@ -0,0 +1,47 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the metrics of every {@link PostgresEntityMapper} bean to the
+ * application's {@link MeterRegistry}. Active when Micrometer is on the
+ * classpath and a registry bean exists (e.g. with Spring Boot Actuator);
+ * disabled with {@code postgresql-mapper.metrics.enabled=false}. Mappers
+ * configured with their own {@link MappingMetrics} keep them.
+ */
+@AutoConfiguration(afterName = {
+    "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+    "org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration" })
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "postgresql-mapper.metrics", name = "enabled", matchIfMissing = true)
+public class MappingMetricsAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean(MappingMetrics.class)
+  public MicrometerMappingMetrics postgresMappingMetrics(MeterRegistry registry) {
+    return new MicrometerMappingMetrics(registry);
+  }
+
+  @Bean
+  public static BeanPostProcessor postgresEntityMapperMetricsPostProcessor(ObjectProvider<MappingMetrics> metrics) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof PostgresEntityMapper mapper && !mapper.metrics().enabled()) {
+          mapper.metrics(metrics.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,19 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+/**
+ * The phases the time spent mapping a ResultSet is split into, see
+ * {@link MappingMetrics#recordPhase}.
+ */
+public enum MappingPhase {
+  /** {@code ResultSet.next()}, i.e. the driver fetching and decoding rows. */
+  FETCH,
+  /** Reading the column values of the current row from the driver. */
+  EXTRACT,
+  /** Parsing json / jsonb documents. */
+  JSON_DECODE,
+  /**
+   * Converting values and binding them into the target (setters, constructors,
+   * {@code convertValue}).
+   */
+  BIND
+}
@@ -0,0 +1,77 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet into a target type. Plans are compiled
+ * once per (column shape, target type) by {@link DirectResultSetMapper} and
+ * reused for every row and every ResultSet with the same shape.
+ * <p>
+ * A row can also be mapped in two steps, {@link #extract(ResultSet)} on the
+ * thread reading the ResultSet and {@link #map(Object[])} on any other thread,
+ * which is how {@link ParallelRowMapper} spreads the conversion work. Rows that
+ * do not come from a ResultSet (e.g. a binary COPY stream) are mapped with
+ * {@link #decode(Object[])}.
+ *
+ * @param <T> The target type
+ */
+interface MappingPlan<T> {
+
+  /**
+   * Maps the row the ResultSet is currently positioned on
+   *
+   * @param resultSet The ResultSet, already moved to a row with {@code next()}
+   * @return The mapped object
+   * @throws SQLException If there is an error accessing the ResultSet or
+   *                      building the object
+   */
+  T mapRow(ResultSet resultSet) throws SQLException;
+
+  /**
+   * Reads the raw values of the current row, leaving json parsing and type
+   * conversion to {@link #map(Object[])}
+   *
+   * @param resultSet The ResultSet, already moved to a row with {@code next()}
+   * @return The raw values indexed by 0-based column, only the columns the plan
+   *         uses are filled
+   * @throws SQLException If there is an error accessing the ResultSet
+   */
+  Object[] extract(ResultSet resultSet) throws SQLException;
+
+  /**
+   * Maps raw values returned by {@link #extract(ResultSet)}. Does not touch the
+   * ResultSet, so it can run on any thread.
+   *
+   * @param values The raw values of one row
+   * @return The mapped object
+   * @throws SQLException If the object cannot be built
+   */
+  T map(Object[] values) throws SQLException;
+
+  /**
+   * {@link #map(Object[])} adding the time spent parsing json / jsonb to the
+   * {@link MappingPhase#JSON_DECODE} phase of the scan, used when metrics are
+   * enabled
+   *
+   * @param values The raw values of one row
+   * @param scan   The metrics of the current scan
+   * @return The mapped object
+   * @throws SQLException If the object cannot be built
+   */
+  default T map(Object[] values, ScanMetrics scan) throws SQLException {
+    return map(values);
+  }
+
+  /**
+   * Maps a row of driver values, i.e. the values {@code getObject} returns for
+   * each column (or their binary COPY equivalent), decoding them with the
+   * codec of their column
+   *
+   * @param values The driver values of one row, indexed by 0-based column
+   * @return The mapped object
+   * @throws SQLException If a value cannot be decoded or the object cannot be
+   *                      built
+   */
+  T decode(Object[] values) throws SQLException;
+}
@@ -0,0 +1,131 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+/**
+ * Publishes {@link MappingMetrics} to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ * <li>{@code postgresql.mapper.rows}: rows mapped, by {@code target}</li>
+ * <li>{@code postgresql.mapper.mapping}: time per mapped ResultSet, by
+ * {@code target}, with a percentile histogram</li>
+ * <li>{@code postgresql.mapper.phase}: time per ResultSet spent in each
+ * {@link MappingPhase}, by {@code target} and {@code phase}</li>
+ * <li>{@code postgresql.mapper.fallbacks}: ResultSets {@code map} sent through
+ * the JSON round trip, by {@code target} and {@code cause}</li>
+ * <li>{@code postgresql.mapper.serialized.rows},
+ * {@code postgresql.mapper.serialization} and
+ * {@code postgresql.mapper.serialized.bytes}: ResultSets written as JSON</li>
+ * </ul>
+ * Meters are resolved once per target type (and fallback cause).
+ */
+public class MicrometerMappingMetrics implements MappingMetrics {
+
+  private final MeterRegistry registry;
+  private final Counter serializedRows;
+  private final Timer serialization;
+  private final Counter serializedBytes;
+  private final ClassValue<TargetMeters> targets = new ClassValue<>() {
+    @Override
+    protected TargetMeters computeValue(Class<?> type) {
+      return new TargetMeters(type);
+    }
+  };
+
+  private final class TargetMeters {
+    private final String target;
+    private final Counter rows;
+    private final Timer mapping;
+    private final Map<MappingPhase, Timer> phases = new EnumMap<>(MappingPhase.class);
+    /** Fallback counters, by cause. */
+    private final Map<String, Counter> fallbacks = new ConcurrentHashMap<>();
+
+    TargetMeters(Class<?> type) {
+      this.target = type.getName();
+      this.rows = Counter.builder("postgresql.mapper.rows")
+          .description("Rows mapped from ResultSets")
+          .baseUnit("rows")
+          .tag("target", target)
+          .register(registry);
+      this.mapping = Timer.builder("postgresql.mapper.mapping")
+          .description("Time spent mapping a ResultSet")
+          .tag("target", target)
+          .publishPercentileHistogram()
+          .register(registry);
+      for (MappingPhase phase : MappingPhase.values()) {
+        phases.put(phase, Timer.builder("postgresql.mapper.phase")
+            .description("Time a mapped ResultSet spent in one phase")
+            .tag("target", target)
+            .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+            .register(registry));
+      }
+    }
+
+    Counter fallback(String cause) {
+      return fallbacks.computeIfAbsent(cause, missing -> Counter.builder("postgresql.mapper.fallbacks")
+          .description("ResultSets mapped through the JSON string round trip")
+          .tag("target", target)
+          .tag("cause", missing)
+          .register(registry));
+    }
+  }
+
+  /**
+   * @param registry The registry the meters are registered in
+   */
+  public MicrometerMappingMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.serializedRows = Counter.builder("postgresql.mapper.serialized.rows")
+        .description("Rows written as JSON by the ResultSet serializer")
+        .baseUnit("rows")
+        .register(registry);
+    this.serialization = Timer.builder("postgresql.mapper.serialization")
+        .description("Time spent writing a ResultSet as JSON")
+        .register(registry);
+    this.serializedBytes = Counter.builder("postgresql.mapper.serialized.bytes")
+        .description("Size of the ResultSets serialized to JSON strings")
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+  }
+
+  @Override
+  public boolean enabled() {
+    return true;
+  }
+
+  @Override
+  public void recordMapping(Class<?> targetType, long rows, long nanos) {
+    TargetMeters meters = targets.get(targetType);
+    meters.rows.increment(rows);
+    meters.mapping.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordPhase(Class<?> targetType, MappingPhase phase, long nanos) {
+    targets.get(targetType).phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordFallback(Class<?> targetType, Throwable cause) {
+    targets.get(targetType).fallback(cause == null ? "none" : cause.getClass().getSimpleName()).increment();
+  }
+
+  @Override
+  public void recordSerialization(long rows, long nanos) {
+    serializedRows.increment(rows);
+    serialization.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordSerializedBytes(long bytes) {
+    serializedBytes.increment(bytes);
+  }
+}
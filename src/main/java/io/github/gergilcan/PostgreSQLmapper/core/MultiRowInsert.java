@@ -0,0 +1,144 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Executes INSERT / UPSERT of many entities as multi-row
+ * {@code INSERT ... VALUES (...), (...)} statements, so N entities cost
+ * {@code N / rowsPerStatement} round trips instead of N. The full size
+ * statement is prepared once and reused for every full batch (PgJDBC turns it
+ * into a server side prepared statement after a few executions); only the last,
+ * partial batch gets its own statement.
+ */
+final class MultiRowInsert<T> {
+
+  /** Bind parameters per statement; the protocol counts them in 16 bits. */
+  static final int MAX_PARAMETERS = 32_767;
+
+  private final String table;
+  private final StatementBinder<T> binder;
+  private final String onConflict;
+  private final int rowsPerStatement;
+
+  /**
+   * @param table      The target table, as written in SQL
+   * @param binder     The binder of the inserted columns
+   * @param onConflict The {@code ON CONFLICT ...} clause, or an empty string
+   * @param batchSize  The maximum number of rows per statement; lowered to fit
+   *                   {@link #MAX_PARAMETERS}
+   */
+  MultiRowInsert(String table, StatementBinder<T> binder, String onConflict, int batchSize) {
+    this.table = table;
+    this.binder = binder;
+    this.onConflict = onConflict;
+    this.rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / binder.parameterCount()));
+  }
+
+  /**
+   * Builds the {@code ON CONFLICT (keys) DO UPDATE} clause updating every other
+   * bound column from {@code EXCLUDED}, or {@code DO NOTHING} when all bound
+   * columns are keys
+   *
+   * @param columns         The bound columns
+   * @param conflictColumns The columns of the unique constraint
+   * @return The clause, starting with a space
+   * @throws SQLException If a conflict column is not bound
+   */
+  static String upsertClause(List<String> columns, String[] conflictColumns) throws SQLException {
+    StringBuilder clause = new StringBuilder(" ON CONFLICT (");
+    for (int i = 0; i < conflictColumns.length; i++) {
+      if (!columns.contains(conflictColumns[i])) {
+        throw new SQLException("Conflict column " + conflictColumns[i] + " is not one of the bound columns "
+            + columns);
+      }
+      appendIdentifier(clause.append(i == 0 ? "" : ", "), conflictColumns[i]);
+    }
+    clause.append(")");
+    boolean first = true;
+    for (String column : columns) {
+      if (List.of(conflictColumns).contains(column)) {
+        continue;
+      }
+      clause.append(first ? " DO UPDATE SET " : ", ");
+      appendIdentifier(clause, column).append(" = EXCLUDED.");
+      appendIdentifier(clause, column);
+      first = false;
+    }
+    return first ? clause.append(" DO NOTHING").toString() : clause.toString();
+  }
+
+  /**
+   * @param rows The number of rows in the VALUES list
+   * @return The statement inserting that many rows
+   */
+  String sql(int rows) {
+    List<String> columns = binder.columnNames();
+    StringBuilder sql = new StringBuilder(64 + rows * columns.size() * 3).append("INSERT INTO ").append(table)
+        .append(" (");
+    for (int i = 0; i < columns.size(); i++) {
+      appendIdentifier(sql.append(i == 0 ? "" : ", "), columns.get(i));
+    }
+    sql.append(") VALUES ");
+    for (int row = 0; row < rows; row++) {
+      sql.append(row == 0 ? "(" : ", (");
+      for (int i = 0; i < columns.size(); i++) {
+        sql.append(i == 0 ? "?" : ", ?");
+      }
+      sql.append(')');
+    }
+    return sql.append(onConflict).toString();
+  }
+
+  /**
+   * Inserts every entity of the iterator
+   *
+   * @param connection The connection
+   * @param rows       The entities, none {@code null}
+   * @return The sum of the update counts, the inserted or updated rows
+   * @throws SQLException If a statement fails
+   */
+  long execute(Connection connection, Iterator<? extends T> rows) throws SQLException {
+    List<T> batch = new ArrayList<>(rowsPerStatement);
+    long count = 0;
+    PreparedStatement full = null;
+    try {
+      while (rows.hasNext()) {
+        batch.add(rows.next());
+        if (batch.size() == rowsPerStatement) {
+          if (full == null) {
+            full = connection.prepareStatement(sql(rowsPerStatement));
+          }
+          count += executeBatch(full, batch);
+        }
+      }
+      if (!batch.isEmpty()) {
+        try (PreparedStatement partial = connection.prepareStatement(sql(batch.size()))) {
+          count += executeBatch(partial, batch);
+        }
+      }
+    } finally {
+      if (full != null) {
+        full.close();
+      }
+    }
+    return count;
+  }
+
+  private long executeBatch(PreparedStatement statement, List<T> batch) throws SQLException {
+    int index = 1;
+    for (T entity : batch) {
+      index = binder.bind(statement, index, entity);
+    }
+    batch.clear();
+    return statement.executeUpdate();
+  }
+
+  private static StringBuilder appendIdentifier(StringBuilder sql, String identifier) {
+    return sql.append('"').append(identifier.replace("\"", "\"\"")).append('"');
+  }
+}
@@ -0,0 +1,142 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settings of the parallel mapping mode: the ResultSet is still read by the
+ * calling thread, which hands batches of raw rows over to the executor where
+ * they are converted into entities (json parsing, type conversion, entity
+ * instantiation). Results keep the order of the rows.
+ * <p>
+ * Instances are immutable; use {@link #platformThreads(int)},
+ * {@link #virtualThreads()} or {@link #using(Executor, int)} and the
+ * {@code with*} methods.
+ * <p>
+ * The options of {@link #platformThreads(int)} and {@link #virtualThreads()}
+ * own their executor: create them once (e.g. as a bean) and {@link #close()}
+ * them when the mapper is no longer used. Copies made by the {@code with*}
+ * methods share the executor, so closing any of them shuts it down. Closing
+ * the options of {@link #using(Executor, int)} leaves the caller's executor
+ * running.
+ */
+public final class ParallelMappingOptions implements AutoCloseable {
+
+  public static final int DEFAULT_BATCH_SIZE = 256;
+  /** Idle time after which the threads of {@link #platformThreads} end. */
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final Executor executor;
+  /** The executor created for these options, {@code null} if the caller owns it. */
+  private final ExecutorService ownedExecutor;
+  private final int batchSize;
+  private final int maxBatchesInFlight;
+
+  private ParallelMappingOptions(Executor executor, ExecutorService ownedExecutor, int batchSize,
+      int maxBatchesInFlight) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    if (maxBatchesInFlight < 1) {
+      throw new IllegalArgumentException("maxBatchesInFlight must be positive");
+    }
+    this.executor = executor;
+    this.ownedExecutor = ownedExecutor;
+    this.batchSize = batchSize;
+    this.maxBatchesInFlight = maxBatchesInFlight;
+  }
+
+  /**
+   * Converts batches on a dedicated pool of daemon platform threads, shut
+   * down by {@link #close()}; idle threads end after a minute
+   *
+   * @param threads The number of worker threads
+   * @return The options
+   */
+  public static ParallelMappingOptions platformThreads(int threads) {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadFactory factory = runnable -> {
+      Thread thread = new Thread(runnable, "pg-mapper-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), factory);
+    executor.allowCoreThreadTimeOut(true);
+    return new ParallelMappingOptions(executor, executor, DEFAULT_BATCH_SIZE, 2 * threads);
+  }
+
+  /**
+   * Converts each batch on its own virtual thread; the work is CPU bound, so the
+   * actual parallelism is the number of carrier threads (one per core by
+   * default). The executor is shut down by {@link #close()}.
+   *
+   * @return The options
+   */
+  public static ParallelMappingOptions virtualThreads() {
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    return new ParallelMappingOptions(executor, executor, DEFAULT_BATCH_SIZE,
+        2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Converts batches on an executor owned by the caller
+   *
+   * @param executor    The executor running the conversions; it is not shut
+   *                    down by {@link #close()}
+   * @param parallelism The number of batches the executor can convert at the same
+   *                    time
+   * @return The options
+   */
+  public static ParallelMappingOptions using(Executor executor, int parallelism) {
+    return new ParallelMappingOptions(executor, null, DEFAULT_BATCH_SIZE, 2 * parallelism);
+  }
+
+  /**
+   * @param batchSize The number of rows handed to a worker at once
+   * @return A copy of these options with the given batch size
+   */
+  public ParallelMappingOptions withBatchSize(int batchSize) {
+    return new ParallelMappingOptions(executor, ownedExecutor, batchSize, maxBatchesInFlight);
+  }
+
+  /**
+   * @param maxBatchesInFlight The number of batches read ahead of the oldest
+   *                           unfinished one; bounds the memory used by raw
+   *                           rows when workers fall behind
+   * @return A copy of these options with the given limit
+   */
+  public ParallelMappingOptions withMaxBatchesInFlight(int maxBatchesInFlight) {
+    return new ParallelMappingOptions(executor, ownedExecutor, batchSize, maxBatchesInFlight);
+  }
+
+  public Executor executor() {
+    return executor;
+  }
+
+  public int batchSize() {
+    return batchSize;
+  }
+
+  public int maxBatchesInFlight() {
+    return maxBatchesInFlight;
+  }
+
+  /**
+   * Shuts down the executor created by {@link #platformThreads(int)} or
+   * {@link #virtualThreads()}; batches already submitted are still converted.
+   * Does nothing for the executor of {@link #using(Executor, int)}.
+   */
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Order preserving reader / worker pipeline. The calling thread drains raw row
+ * values ({@link MappingPlan#extract(ResultSet)}) into batches, each batch is
+ * converted ({@link MappingPlan#map(Object[])}) on the executor of the
+ * {@link ParallelMappingOptions}, and the converted batches are appended to the
+ * result in submission order. Results that fit in a single batch are converted
+ * inline.
+ */
+final class ParallelRowMapper {
+
+  private ParallelRowMapper() {
+  }
+
+  /**
+   * Maps every remaining row of the ResultSet
+   *
+   * @param <T>       The row type
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param plan      The plan of the ResultSet shape, shared by the workers
+   * @param options   The parallel settings
+   * @return The mapped rows, in ResultSet order
+   * @throws SQLException If the ResultSet cannot be read or a row cannot be
+   *                      converted
+   */
+  static <T> List<T> mapAll(ResultSet resultSet, MappingPlan<T> plan, ParallelMappingOptions options)
+      throws SQLException {
+    int batchSize = options.batchSize();
+    List<T> results = new ArrayList<>();
+    ArrayDeque<CompletableFuture<List<T>>> inFlight = new ArrayDeque<>();
+    try {
+      Object[][] batch = new Object[batchSize][];
+      int size = 0;
+      while (resultSet.next()) {
+        batch[size++] = plan.extract(resultSet);
+        if (size == batchSize) {
+          if (inFlight.size() >= options.maxBatchesInFlight()) {
+            // Back pressure: wait for the oldest batch before reading further
+            results.addAll(join(inFlight.poll()));
+          }
+          inFlight.add(submit(plan, batch, size, options));
+          batch = new Object[batchSize][];
+          size = 0;
+        }
+      }
+      if (inFlight.isEmpty()) {
+        return convert(plan, batch, size);
+      }
+      if (size > 0) {
+        inFlight.add(submit(plan, batch, size, options));
+      }
+      while (!inFlight.isEmpty()) {
+        results.addAll(join(inFlight.poll()));
+      }
+      return results;
+    } finally {
+      // Only non-empty after a failure: stop the batches nobody will collect
+      for (CompletableFuture<List<T>> future : inFlight) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  private static <T> CompletableFuture<List<T>> submit(MappingPlan<T> plan, Object[][] batch, int size,
+      ParallelMappingOptions options) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return convert(plan, batch, size);
+      } catch (SQLException e) {
+        throw new CompletionException(e);
+      }
+    }, options.executor());
+  }
+
+  private static <T> List<T> convert(MappingPlan<T> plan, Object[][] batch, int size) throws SQLException {
+    List<T> rows = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      rows.add(plan.map(batch[i]));
+    }
+    return rows;
+  }
+
+  private static <T> List<T> join(CompletableFuture<List<T>> future) throws SQLException {
+    try {
+      return future.join();
+    } catch (CompletionException | CancellationException e) {
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      throw new SQLException("Failed to convert rows in parallel", cause);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.Map;
+
+/**
+ * Constants of the PostgreSQL binary COPY format shared by
+ * {@link BinaryCopyDecoder} and {@link BinaryCopyEncoder}.
+ */
+final class PgBinaryFormat {
+
+  /** The 11 byte signature starting every binary COPY stream. */
+  static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+  /** Seconds between 1970-01-01 and the PostgreSQL epoch, 2000-01-01. */
+  static final long PG_EPOCH_SECONDS = 946_684_800L;
+  /** Days between 1970-01-01 and the PostgreSQL epoch. */
+  static final int PG_EPOCH_DAYS = 10_957;
+
+  /** {@code numeric} sign words. */
+  static final int NUMERIC_POSITIVE = 0x0000;
+  static final int NUMERIC_NEGATIVE = 0x4000;
+  static final int NUMERIC_NAN = 0xC000;
+  static final int NUMERIC_PINF = 0xD000;
+  static final int NUMERIC_NINF = 0xF000;
+
+  /** OIDs of the built-in types with a binary representation handled here. */
+  private static final Map<String, Integer> OIDS = Map.ofEntries(
+      Map.entry("bool", 16),
+      Map.entry("bytea", 17),
+      Map.entry("name", 19),
+      Map.entry("int8", 20),
+      Map.entry("int2", 21),
+      Map.entry("int4", 23),
+      Map.entry("text", 25),
+      Map.entry("oid", 26),
+      Map.entry("json", 114),
+      Map.entry("float4", 700),
+      Map.entry("float8", 701),
+      Map.entry("bpchar", 1042),
+      Map.entry("varchar", 1043),
+      Map.entry("date", 1082),
+      Map.entry("timestamp", 1114),
+      Map.entry("timestamptz", 1184),
+      Map.entry("numeric", 1700),
+      Map.entry("uuid", 2950),
+      Map.entry("jsonb", 3802));
+
+  private PgBinaryFormat() {
+  }
+
+  /**
+   * @param typeName A PostgreSQL type name
+   * @return The OID of the type, or {@code 0} if it has no binary handling
+   */
+  static int oid(String typeName) {
+    return typeName == null ? 0 : OIDS.getOrDefault(typeName, 0);
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Decodes the values of one PostgreSQL type into Java values.
+ * <p>
+ * A codec is resolved once per column from the column's type OID / type name
+ * when a ResultSet is scanned, so reading a cell is a single array lookup and
+ * a call to {@link #read(ResultSet, int)}. Custom codecs (e.g. for enums,
+ * composite or extension types) are registered with
+ * {@link PostgresEntityMapper#registerCodec(String, PgCodec)}; the built-in
+ * ones are available from {@link PgCodecs}.
+ */
+@FunctionalInterface
+public interface PgCodec {
+
+  /**
+   * Converts a value as returned by {@link ResultSet#getObject(int)} for this
+   * type into its Java representation
+   *
+   * @param value The driver value, never {@code null}
+   * @return The decoded value
+   * @throws SQLException If the value cannot be decoded
+   */
+  Object decode(Object value) throws SQLException;
+
+  /**
+   * Reads and decodes a column of the current row. Codecs override this to use a
+   * cheaper typed getter than {@code getObject}.
+   *
+   * @param resultSet The ResultSet positioned on a row
+   * @param column    The 1-based column index
+   * @return The decoded value, {@code null} for SQL NULL
+   * @throws SQLException If there is an error accessing the ResultSet
+   */
+  default Object read(ResultSet resultSet, int column) throws SQLException {
+    Object value = resultSet.getObject(column);
+    return value == null ? null : decode(value);
+  }
+}
@@ -0,0 +1,135 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Resolves the {@link PgCodec} of a column, in order: codecs registered for the
+ * column type OID, codecs registered for the type name, built-in codecs for the
+ * type name, codecs for the JDBC type and finally the generic
+ * {@link PgValueReader} for anything else (including drivers or mocks that
+ * report no type information).
+ */
+final class PgCodecRegistry {
+
+  private final Map<Integer, PgCodec> byOid = new ConcurrentHashMap<>();
+  private final Map<String, PgCodec> byName = new ConcurrentHashMap<>();
+  private final Map<String, PgCodec> builtIns = new HashMap<>();
+  private final Map<JavaType, ObjectReader> jsonReaders = new ConcurrentHashMap<>();
+  private final ObjectMapper mapper;
+  private final PgValueReader generic;
+
+  PgCodecRegistry(ObjectMapper mapper) {
+    this.mapper = mapper;
+    this.generic = new PgValueReader(mapper);
+    PgCodec json = PgCodecs.json(mapper);
+    builtIns.put("int2", PgCodecs.INT);
+    builtIns.put("int4", PgCodecs.INT);
+    builtIns.put("int8", PgCodecs.LONG);
+    builtIns.put("float4", PgCodecs.FLOAT);
+    builtIns.put("float8", PgCodecs.DOUBLE);
+    builtIns.put("bool", PgCodecs.BOOLEAN);
+    builtIns.put("text", PgCodecs.STRING);
+    builtIns.put("varchar", PgCodecs.STRING);
+    builtIns.put("bpchar", PgCodecs.STRING);
+    builtIns.put("name", PgCodecs.STRING);
+    builtIns.put("uuid", PgCodecs.UUID);
+    builtIns.put("numeric", PgCodecs.PASSTHROUGH);
+    builtIns.put("bytea", PgCodecs.PASSTHROUGH);
+    builtIns.put("date", PgCodecs.DATE);
+    builtIns.put("timestamp", PgCodecs.TIMESTAMP);
+    builtIns.put("timestamptz", PgCodecs.TIMESTAMPTZ);
+    builtIns.put("json", json);
+    builtIns.put("jsonb", json);
+  }
+
+  void register(String typeName, PgCodec codec) {
+    byName.put(typeName, codec);
+  }
+
+  void register(int oid, PgCodec codec) {
+    byOid.put(oid, codec);
+  }
+
+  PgValueReader generic() {
+    return generic;
+  }
+
+  /**
+   * @return A reader parsing JSON documents straight into the given type, shared
+   *         by every plan binding a property of that type
+   */
+  ObjectReader jsonReader(JavaType type) {
+    return jsonReaders.computeIfAbsent(type, mapper::readerFor);
+  }
+
+  /**
+   * @return {@code true} if the column is a json / jsonb column read by the
+   *         built-in codec
+   */
+  boolean isJson(ColumnShape shape, int index) {
+    String typeName = shape.typeName(index);
+    return ("json".equals(typeName) || "jsonb".equals(typeName)) && findRegistered(shape, index) == null;
+  }
+
+  /**
+   * @return The user registered codec for the column, or {@code null}
+   */
+  PgCodec findRegistered(ColumnShape shape, int index) {
+    PgCodec codec = byOid.isEmpty() ? null : byOid.get(shape.oid(index));
+    if (codec == null && !byName.isEmpty() && shape.typeName(index) != null) {
+      codec = byName.get(shape.typeName(index));
+    }
+    return codec;
+  }
+
+  /**
+   * Resolves the codec used to read a column
+   *
+   * @param shape The shape of the scanned ResultSet
+   * @param index The 0-based column index
+   * @return The codec, never {@code null}
+   */
+  PgCodec resolve(ColumnShape shape, int index) {
+    PgCodec codec = findRegistered(shape, index);
+    if (codec != null) {
+      return codec;
+    }
+    String typeName = shape.typeName(index);
+    if (typeName != null) {
+      codec = builtIns.get(typeName);
+      if (codec != null) {
+        return codec;
+      }
+      if (typeName.startsWith("_")) {
+        return PgCodecs.ARRAY;
+      }
+    }
+    switch (shape.type(index)) {
+      case Types.INTEGER:
+      case Types.SMALLINT:
+        return PgCodecs.INT;
+      case Types.BIGINT:
+        return PgCodecs.LONG;
+      case Types.DOUBLE:
+        return PgCodecs.DOUBLE;
+      case Types.REAL:
+        return PgCodecs.FLOAT;
+      case Types.BOOLEAN:
+        return PgCodecs.BOOLEAN;
+      case Types.VARCHAR:
+        // Also covers enum types, which PgJDBC reports as VARCHAR under their own name
+        return PgCodecs.STRING;
+      case Types.ARRAY:
+        return PgCodecs.ARRAY;
+      default:
+        return generic;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Built-in {@link PgCodec}s. The values they produce are the same ones the
+ * mapper has always exposed: numbers and booleans as their wrapper types,
+ * {@code date} as {@link LocalDate}, {@code timestamp(tz)} as
+ * {@link LocalDateTime}, arrays as Java arrays and json / jsonb parsed with
+ * Jackson. Date and timestamp text is parsed by {@link PgDateTimeParser}.
+ */
+public final class PgCodecs {
+
+  /** {@code int2} / {@code int4} as {@link Integer}. */
+  public static final PgCodec INT = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return ((Number) value).intValue();
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      int value = rs.getInt(column);
+      return rs.wasNull() ? null : value;
+    }
+  };
+
+  /** {@code int8} as {@link Long}. */
+  public static final PgCodec LONG = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return ((Number) value).longValue();
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      long value = rs.getLong(column);
+      return rs.wasNull() ? null : value;
+    }
+  };
+
+  /** {@code float8} as {@link Double}. */
+  public static final PgCodec DOUBLE = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return ((Number) value).doubleValue();
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      double value = rs.getDouble(column);
+      return rs.wasNull() ? null : value;
+    }
+  };
+
+  /** {@code float4} as {@link Float}. */
+  public static final PgCodec FLOAT = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return ((Number) value).floatValue();
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      float value = rs.getFloat(column);
+      return rs.wasNull() ? null : value;
+    }
+  };
+
+  /** {@code bool} as {@link Boolean}. */
+  public static final PgCodec BOOLEAN = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return value instanceof Boolean ? value : Boolean.valueOf(value.toString());
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      boolean value = rs.getBoolean(column);
+      return rs.wasNull() ? null : value;
+    }
+  };
+
+  /** Text-like types ({@code text}, {@code varchar}, {@code bpchar}, enums, ...) as {@link String}. */
+  public static final PgCodec STRING = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return value instanceof PGobject ? ((PGobject) value).getValue() : value.toString();
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      return rs.getString(column);
+    }
+  };
+
+  /** {@code uuid} as {@link UUID}. */
+  public static final PgCodec UUID = value -> value instanceof java.util.UUID
+      ? value
+      : java.util.UUID.fromString(value.toString());
+
+  /** Values the driver already returns in their final form (e.g. {@code numeric}, {@code bytea}). */
+  public static final PgCodec PASSTHROUGH = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return value;
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column);
+    }
+  };
+
+  /** {@code date} as {@link LocalDate}. */
+  public static final PgCodec DATE = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      if (value instanceof Date) {
+        return ((Date) value).toLocalDate();
+      }
+      return value instanceof LocalDate ? value : PgDateTimeParser.parseLocalDate(text(value));
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column, LocalDate.class);
+    }
+  };
+
+  /** {@code timestamp} as {@link LocalDateTime}. */
+  public static final PgCodec TIMESTAMP = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return PgValueReader.toLocalDateTime(value);
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column, LocalDateTime.class);
+    }
+  };
+
+  /**
+   * {@code timestamptz} as the {@link LocalDateTime} of the instant in the JVM
+   * time zone, as {@link Timestamp#toLocalDateTime()} does.
+   */
+  public static final PgCodec TIMESTAMPTZ = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      return PgValueReader.toLocalDateTime(value);
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      Timestamp value = rs.getTimestamp(column);
+      return value == null ? null : value.toLocalDateTime();
+    }
+  };
+
+  /**
+   * {@code timestamptz} as {@link OffsetDateTime}, keeping the offset sent by
+   * the server; {@code timestamp} values are taken as UTC. Not registered by
+   * default, properties of this type use it automatically.
+   */
+  public static final PgCodec OFFSET_DATE_TIME = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      if (value instanceof OffsetDateTime) {
+        return value;
+      } else if (value instanceof Timestamp) {
+        return ((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC);
+      }
+      String text = text(value);
+      return text == null ? null : PgDateTimeParser.parseOffsetDateTime(text);
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      String text = rs.getString(column);
+      return text == null ? null : PgDateTimeParser.parseOffsetDateTime(text);
+    }
+  };
+
+  /**
+   * {@code timestamptz} as {@link Instant}; {@code timestamp} values are taken
+   * as UTC. Not registered by default, properties of this type use it
+   * automatically.
+   */
+  public static final PgCodec INSTANT = new PgCodec() {
+    @Override
+    public Object decode(Object value) {
+      if (value instanceof Instant) {
+        return value;
+      } else if (value instanceof OffsetDateTime) {
+        return ((OffsetDateTime) value).toInstant();
+      } else if (value instanceof Timestamp) {
+        return ((Timestamp) value).toInstant();
+      }
+      String text = text(value);
+      return text == null ? null : PgDateTimeParser.parseInstant(text);
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      String text = rs.getString(column);
+      return text == null ? null : PgDateTimeParser.parseInstant(text);
+    }
+  };
+
+  /** Array types as Java arrays. */
+  public static final PgCodec ARRAY = new PgCodec() {
+    @Override
+    public Object decode(Object value) throws SQLException {
+      return value instanceof Array ? ((Array) value).getArray() : value;
+    }
+
+    @Override
+    public Object read(ResultSet rs, int column) throws SQLException {
+      Array value = rs.getArray(column);
+      return value == null ? null : value.getArray();
+    }
+  };
+
+  private PgCodecs() {
+  }
+
+  /**
+   * {@code json} / {@code jsonb} parsed into Maps, Lists and scalars. Invalid
+   * documents are returned as their text.
+   *
+   * @param mapper The ObjectMapper used to parse the documents
+   * @return The codec
+   */
+  public static PgCodec json(ObjectMapper mapper) {
+    return new PgCodec() {
+      @Override
+      public Object decode(Object value) {
+        if (value instanceof byte[]) {
+          // UTF-8 text, as decoded from a binary COPY stream
+          try {
+            return mapper.readValue((byte[]) value, Object.class);
+          } catch (IOException e) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+          }
+        }
+        String text = text(value);
+        if (text == null) {
+          return value;
+        }
+        try {
+          return mapper.readValue(text, Object.class);
+        } catch (IOException e) {
+          // If we can't parse the JSON, use the original string value
+          return text;
+        }
+      }
+
+      @Override
+      public Object read(ResultSet rs, int column) throws SQLException {
+        String text = rs.getString(column);
+        return text == null ? null : decode(text);
+      }
+    };
+  }
+
+  private static String text(Object value) {
+    return value instanceof PGobject ? ((PGobject) value).getValue() : value.toString();
+  }
+}
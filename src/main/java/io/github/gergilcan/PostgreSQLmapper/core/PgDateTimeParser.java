@@ -0,0 +1,264 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Single pass parser for the text output of PostgreSQL {@code date},
+ * {@code timestamp} and {@code timestamptz} values (ISO DateStyle), e.g.
+ * {@code 2024-03-01 13:45:00.123456+05:30}, {@code 0044-03-15 BC} or
+ * {@code infinity}. Unlike the {@code java.time} parsers it tolerates the space
+ * separator, short offsets ({@code +02}), offsets with seconds, years beyond
+ * 9999 and the {@code BC} suffix, and it does not build intermediate strings
+ * or use exceptions to try alternative formats: malformed text is the only
+ * case that throws.
+ * <p>
+ * {@code infinity} / {@code -infinity} map to the {@code MAX} / {@code MIN}
+ * constant of the target type, as PgJDBC does.
+ */
+public final class PgDateTimeParser {
+
+  private final CharSequence text;
+  private int position;
+  private final int end;
+
+  private int year;
+  private int month;
+  private int day;
+  private int hour;
+  private int minute;
+  private int second;
+  private int nano;
+  private int offsetSeconds;
+  /** {@code 1} for infinity, {@code -1} for -infinity, {@code 0} otherwise. */
+  private int infinity;
+
+  private PgDateTimeParser(CharSequence text) {
+    this.text = text;
+    int start = 0;
+    int length = text.length();
+    while (start < length && text.charAt(start) == ' ') {
+      start++;
+    }
+    while (length > start && text.charAt(length - 1) == ' ') {
+      length--;
+    }
+    this.position = start;
+    this.end = length;
+  }
+
+  /**
+   * Parses {@code date} text
+   *
+   * @param text The text, e.g. {@code 2024-03-01} or {@code 0044-03-15 BC}
+   * @return The date
+   * @throws DateTimeParseException If the text is not a PostgreSQL date
+   */
+  public static LocalDate parseLocalDate(CharSequence text) {
+    PgDateTimeParser parser = new PgDateTimeParser(text).parse();
+    if (parser.infinity != 0) {
+      return parser.infinity > 0 ? LocalDate.MAX : LocalDate.MIN;
+    }
+    return LocalDate.of(parser.year, parser.month, parser.day);
+  }
+
+  /**
+   * Parses {@code timestamp} or {@code timestamptz} text; the offset of a
+   * timestamptz value is dropped, keeping its local date-time
+   *
+   * @param text The text, e.g. {@code 2024-03-01 13:45:00.5+02}
+   * @return The local date-time
+   * @throws DateTimeParseException If the text is not a PostgreSQL timestamp
+   */
+  public static LocalDateTime parseLocalDateTime(CharSequence text) {
+    PgDateTimeParser parser = new PgDateTimeParser(text).parse();
+    if (parser.infinity != 0) {
+      return parser.infinity > 0 ? LocalDateTime.MAX : LocalDateTime.MIN;
+    }
+    return parser.localDateTime();
+  }
+
+  /**
+   * Parses {@code timestamptz} (or {@code timestamp}, taken as UTC) text
+   *
+   * @param text The text, e.g. {@code 2024-03-01 13:45:00+05:30}
+   * @return The date-time with its offset
+   * @throws DateTimeParseException If the text is not a PostgreSQL timestamp
+   */
+  public static OffsetDateTime parseOffsetDateTime(CharSequence text) {
+    PgDateTimeParser parser = new PgDateTimeParser(text).parse();
+    if (parser.infinity != 0) {
+      return parser.infinity > 0 ? OffsetDateTime.MAX : OffsetDateTime.MIN;
+    }
+    return OffsetDateTime.of(parser.localDateTime(), ZoneOffset.ofTotalSeconds(parser.offsetSeconds));
+  }
+
+  /**
+   * Parses {@code timestamptz} (or {@code timestamp}, taken as UTC) text
+   *
+   * @param text The text, e.g. {@code 2024-03-01 13:45:00+00}
+   * @return The instant
+   * @throws DateTimeParseException If the text is not a PostgreSQL timestamp
+   */
+  public static Instant parseInstant(CharSequence text) {
+    PgDateTimeParser parser = new PgDateTimeParser(text).parse();
+    if (parser.infinity != 0) {
+      return parser.infinity > 0 ? Instant.MAX : Instant.MIN;
+    }
+    long epochSecond = LocalDate.of(parser.year, parser.month, parser.day).toEpochDay() * 86_400L
+        + parser.hour * 3_600L + parser.minute * 60L + parser.second - parser.offsetSeconds;
+    return Instant.ofEpochSecond(epochSecond, parser.nano);
+  }
+
+  private LocalDateTime localDateTime() {
+    return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+  }
+
+  private PgDateTimeParser parse() {
+    if (matches("infinity")) {
+      infinity = 1;
+      return this;
+    }
+    if (matches("-infinity")) {
+      infinity = -1;
+      return this;
+    }
+    year = digits();
+    expect('-');
+    month = digits();
+    expect('-');
+    day = digits();
+
+    if (position + 1 < end && (text.charAt(position) == ' ' || text.charAt(position) == 'T')
+        && isDigit(text.charAt(position + 1))) {
+      position++;
+      hour = digits();
+      expect(':');
+      minute = digits();
+      if (position < end && text.charAt(position) == ':') {
+        position++;
+        second = digits();
+        if (position < end && text.charAt(position) == '.') {
+          position++;
+          nano = fraction();
+        }
+      }
+      offset();
+    }
+
+    if (position < end) {
+      while (position < end && text.charAt(position) == ' ') {
+        position++;
+      }
+      if (matches("BC")) {
+        // There is no year 0: 1 BC is year 0 of the proleptic calendar
+        year = 1 - year;
+      } else if (!matches("AD")) {
+        throw error();
+      }
+    }
+    return this;
+  }
+
+  private void offset() {
+    if (position >= end) {
+      return;
+    }
+    char sign = text.charAt(position);
+    if (sign == 'Z') {
+      position++;
+      return;
+    }
+    if (sign != '+' && sign != '-') {
+      return;
+    }
+    position++;
+    int start = position;
+    int hours = digits();
+    int minutes = 0;
+    int seconds = 0;
+    if (position - start == 4) {
+      // +hhmm
+      minutes = hours % 100;
+      hours /= 100;
+    } else if (position < end && text.charAt(position) == ':') {
+      position++;
+      minutes = digits();
+      if (position < end && text.charAt(position) == ':') {
+        position++;
+        seconds = digits();
+      }
+    }
+    int total = hours * 3_600 + minutes * 60 + seconds;
+    offsetSeconds = sign == '-' ? -total : total;
+  }
+
+  private int digits() {
+    int start = position;
+    int value = 0;
+    while (position < end && isDigit(text.charAt(position))) {
+      if (position - start == 9) {
+        throw error();
+      }
+      value = value * 10 + (text.charAt(position) - '0');
+      position++;
+    }
+    if (position == start) {
+      throw error();
+    }
+    return value;
+  }
+
+  /** Reads fractional seconds as nanoseconds; digits past the ninth are ignored. */
+  private int fraction() {
+    int start = position;
+    int value = 0;
+    while (position < end && isDigit(text.charAt(position))) {
+      if (position - start < 9) {
+        value = value * 10 + (text.charAt(position) - '0');
+      }
+      position++;
+    }
+    int count = position - start;
+    if (count == 0) {
+      throw error();
+    }
+    for (int i = count; i < 9; i++) {
+      value *= 10;
+    }
+    return value;
+  }
+
+  private void expect(char expected) {
+    if (position >= end || text.charAt(position) != expected) {
+      throw error();
+    }
+    position++;
+  }
+
+  /** Consumes the given token if the rest of the text is exactly that token. */
+  private boolean matches(String token) {
+    if (end - position != token.length()) {
+      return false;
+    }
+    for (int i = 0; i < token.length(); i++) {
+      if (text.charAt(position + i) != token.charAt(i)) {
+        return false;
+      }
+    }
+    position = end;
+    return true;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private DateTimeParseException error() {
+    return new DateTimeParseException("Invalid PostgreSQL date/time text", text, position);
+  }
+}
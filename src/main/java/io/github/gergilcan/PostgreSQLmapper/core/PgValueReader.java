@@ -0,0 +1,109 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+import org.postgresql.jdbc.PgArray;
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Generic codec for columns whose type is not known up front (no codec matches
+ * the column type): reads the cell with {@code getObject} and normalizes
+ * PostgreSQL specific values (arrays, json/jsonb, dates and timestamps) into
+ * plain Java values based on the runtime class of the value.
+ */
+final class PgValueReader implements PgCodec {
+
+  private final ObjectMapper mapper;
+
+  PgValueReader(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  /**
+   * Reads and normalizes the value of a column in the current row
+   *
+   * @param resultSet The ResultSet positioned on a row
+   * @param column    The 1-based column index
+   * @return The normalized value, possibly {@code null}
+   * @throws SQLException If there is an error accessing the ResultSet
+   */
+  @Override
+  public Object read(ResultSet resultSet, int column) throws SQLException {
+    return normalize(resultSet.getObject(column));
+  }
+
+  @Override
+  public Object decode(Object value) {
+    return normalize(value);
+  }
+
+  /**
+   * Normalizes a value as returned by {@link ResultSet#getObject(int)}
+   *
+   * @param value The driver value
+   * @return The normalized value, possibly {@code null}
+   */
+  Object normalize(Object value) {
+    // Handle PostgreSQL specific types if needed
+    if (value instanceof PgArray) {
+      try {
+        return ((PgArray) value).getArray();
+      } catch (SQLException e) {
+        // If we can't get the array, use the original value
+        return value;
+      }
+    } else if (value instanceof PGobject) {
+      PGobject pgObject = (PGobject) value;
+      String pgValue = pgObject.getValue();
+
+      if (pgValue == null) {
+        return value;
+      }
+      if ("json".equals(pgObject.getType()) || "jsonb".equals(pgObject.getType())) {
+        try {
+          // Parse JSON string to Java object
+          return mapper.readValue(pgValue, Object.class);
+        } catch (IOException e) {
+          // If we can't parse the JSON, use the original string value
+          return pgValue;
+        }
+      } else if ("date".equals(pgObject.getType())) {
+        return PgDateTimeParser.parseLocalDate(pgValue);
+      } else if ("timestamp".equals(pgObject.getType()) || "timestamptz".equals(pgObject.getType())) {
+        return PgDateTimeParser.parseLocalDateTime(pgValue);
+      }
+      return pgValue;
+    } else if (value instanceof Timestamp) {
+      return ((Timestamp) value).toLocalDateTime();
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toLocalDateTime();
+    } else if (value instanceof Date) {
+      return ((Date) value).toLocalDate();
+    }
+    return value;
+  }
+
+  /**
+   * Converts a driver timestamp value ({@link Timestamp}, {@link OffsetDateTime},
+   * {@link PGobject} or text) into a {@link LocalDateTime}
+   */
+  static Object toLocalDateTime(Object value) {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).toLocalDateTime();
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toLocalDateTime();
+    } else if (value instanceof LocalDateTime) {
+      return value;
+    }
+    String text = value instanceof PGobject ? ((PGobject) value).getValue() : value.toString();
+    return text == null ? null : PgDateTimeParser.parseLocalDateTime(text);
+  }
+}
@@ -0,0 +1,41 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.SQLException;
+import java.util.StringJoiner;
+
+/**
+ * A {@link MappingPlan} could not be compiled for a target type and column
+ * shape. It is raised before the first row is read, so the ResultSet is still
+ * whole.
+ */
+final class PlanCompilationException extends SQLException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient ColumnShape shape;
+
+  /**
+   * @param targetType The target type of the plan
+   * @param shape      The column shape of the plan
+   * @param cause      The compilation error
+   */
+  PlanCompilationException(Class<?> targetType, ColumnShape shape, Throwable cause) {
+    super("Cannot compile a mapping plan of " + targetType.getName() + " for columns " + names(shape), cause);
+    this.shape = shape;
+  }
+
+  /**
+   * @return The column shape of the plan
+   */
+  ColumnShape shape() {
+    return shape;
+  }
+
+  private static String names(ColumnShape shape) {
+    StringJoiner names = new StringJoiner(", ", "(", ")");
+    for (int i = 0; i < shape.columnCount(); i++) {
+      names.add(shape.name(i));
+    }
+    return names.toString();
+  }
+}
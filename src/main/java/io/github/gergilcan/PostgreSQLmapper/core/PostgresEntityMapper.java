@@ -1,10 +1,32 @@
 package io.github.gergilcan.PostgreSQLmapper.core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.postgresql.jdbc.PgArray;
 import org.postgresql.util.PGobject;
+import org.springframework.jdbc.core.JdbcOperations;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -17,8 +39,23 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  * functionality for JSON objects.
  */
 public class PostgresEntityMapper {
+  private static final Log LOG = LogFactory.getLog(PostgresEntityMapper.class);
+
+  /** Most target type and column shape pairs remembered to need the JSON round trip. */
+  private static final int MAX_FALLBACKS = 256;
+
+  /** A target type mapped from the columns of a ResultSet. */
+  private record Fallback(Class<?> targetType, ColumnShape shape) {
+  }
+
   private ObjectMapper mapper;
   private DirectResultSetMapper directMapper;
+  private EntityWriter entityWriter;
+  private final ResultSetSerializer resultSetSerializer = new ResultSetSerializer();
+  private volatile MappingMetrics metrics = MappingMetrics.NONE;
+  private volatile boolean strict;
+  /** Targets whose plan failed to compile, with the error that told so. */
+  private final Map<Fallback, PlanCompilationException> fallbacks = new ConcurrentHashMap<>();
 
   public PostgresEntityMapper() {
     this.mapper = new JsonMapper();
@@ -27,49 +64,773 @@ public class PostgresEntityMapper {
     SimpleModule module = new SimpleModule();
     module.addSerializer(PgArray.class, new PgArraySerializer());
     module.addSerializer(PGobject.class, new PgObjectSerializer());
-    module.addSerializer(ResultSet.class, new ResultSetSerializer());
+    module.addSerializer(ResultSet.class, resultSetSerializer);
     mapper.registerModule(module);
 
     // Initialize the direct mapper with our configured ObjectMapper
     this.directMapper = new DirectResultSetMapper(mapper);
+    this.entityWriter = new EntityWriter(mapper);
   }
 
   /**
+   * Maps a value to the target type. ResultSets are mapped directly; when no
+   * mapping plan can be compiled for the target type and columns, the pair is
+   * remembered and, unless the mapper is {@link #strict(boolean) strict},
+   * mapped through a JSON string round trip from then on. Any other value
+   * always goes through the round trip.
+   *
    * @param <T>
    * @param fromValue   The object to map from(this can be a result set, a string,
    *                    etc.)
    * @param toValueType The class to map the result
    * @return The mapped object
+   * @throws ResultSetMappingException If reading or mapping the rows of a
+   *                                   ResultSet fails, or in strict mode if no
+   *                                   plan can be compiled for it
    */
   public <T> T map(Object fromValue, Class<T> toValueType) {
-    // If the fromValue is a ResultSet and direct mapping is possible, use it
-    if (fromValue instanceof ResultSet) {
-      try {
-        return directMapper.mapResultSet((ResultSet) fromValue, toValueType);
-      } catch (SQLException e) {
-        // Fall back to the traditional approach if direct mapping fails
-        e.printStackTrace();
-      }
+    MapEvent event = new MapEvent();
+    if (!event.isEnabled()) {
+      return map(fromValue, toValueType, null);
+    }
+    event.begin();
+    event.targetType = toValueType;
+    event.sourceType = fromValue == null ? null : fromValue.getClass();
+    try {
+      return map(fromValue, toValueType, event);
+    } finally {
+      event.commit();
     }
+  }
 
+  @SuppressWarnings("unchecked")
+  private <T> T map(Object fromValue, Class<T> toValueType, MapEvent event) {
+    if (fromValue instanceof ResultSet resultSet) {
+      return mapResultSet(resultSet, toValueType, event);
+    }
     // Use the traditional approach for all other cases
     var stringValue = this.writeValueAsString(fromValue);
     return (T) this.readValue(stringValue, toValueType);
   }
 
+  @SuppressWarnings("unchecked")
+  private <T> T mapResultSet(ResultSet resultSet, Class<T> toValueType, MapEvent event) {
+    PlanCompilationException failure = null;
+    boolean decided = false;
+    try {
+      if (!fallbacks.isEmpty()) {
+        failure = fallbacks.get(new Fallback(toValueType, ColumnShape.from(resultSet)));
+        decided = failure != null;
+      }
+      if (!decided) {
+        return directMapper.mapResultSet(resultSet, toValueType);
+      }
+    } catch (PlanCompilationException e) {
+      // Raised before the first row was read, the round trip still sees every row
+      failure = e;
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map ResultSet as " + toValueType.getName(), e);
+    }
+    if (strict) {
+      throw new ResultSetMappingException("Failed to map ResultSet as " + toValueType.getName(), failure);
+    }
+    metrics.recordFallback(toValueType, failure.getCause());
+    if (event != null) {
+      event.fallback = true;
+      event.fallbackCause = failure.toString();
+    }
+
+    var stringValue = this.writeValueAsString(resultSet);
+    T value = (T) this.readValue(stringValue, toValueType);
+    if (!decided && value != null && fallbacks.size() < MAX_FALLBACKS
+        && fallbacks.putIfAbsent(new Fallback(toValueType, failure.shape()), failure) == null) {
+      LOG.warn("Mapping " + toValueType.getName() + " directly failed, it is mapped through JSON from now on"
+          + " for these columns", failure);
+    }
+    return value;
+  }
+
+  /**
+   * Makes {@link #map(Object, Class)} throw a {@link ResultSetMappingException}
+   * when no mapping plan can be compiled for a ResultSet instead of serializing
+   * it to JSON and reading it back
+   *
+   * @param strict Whether to fail instead of falling back
+   * @return This mapper
+   */
+  public PostgresEntityMapper strict(boolean strict) {
+    this.strict = strict;
+    return this;
+  }
+
+  /**
+   * @return The target types mapped from ResultSets of some columns through the
+   *         JSON round trip because no direct mapping plan could be compiled for
+   *         them; cleared when codecs, row mappers or bytecode mappers change
+   */
+  public Set<Class<?>> fallbackTypes() {
+    return fallbacks.keySet().stream().map(Fallback::targetType).collect(Collectors.toUnmodifiableSet());
+  }
+
+  /**
+   * Lazily maps the rows of a ResultSet, one row per element pulled from the
+   * returned Stream, so heap usage stays flat regardless of the row count.
+   * For large results use a PgJDBC cursor (auto commit disabled and a fetch size
+   * set on the statement). Closing the Stream closes the ResultSet.
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param resultSet   The ResultSet to map, positioned before its first row
+   * @param toValueType The class of each row
+   * @return A lazy, closeable Stream of mapped rows
+   */
+  public <T> Stream<T> stream(ResultSet resultSet, Class<T> toValueType) {
+    try {
+      return directMapper.stream(resultSet, toValueType);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to stream ResultSet as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * Maps the rows of a ResultSet one at a time into a single instance reused
+   * for every row, for consumers that aggregate or forward each row without
+   * keeping it: only the column values themselves (strings, json documents,
+   * ...) are allocated per row. The instance must not be retained past the
+   * consumer call. Records and other
+   * constructor-built types get a new instance per row.
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param resultSet   The ResultSet to map, positioned before its first row
+   * @param toValueType The class of each row
+   * @param consumer    Called once per row
+   * @return The number of rows
+   */
+  public <T> long forEach(ResultSet resultSet, Class<T> toValueType, Consumer<? super T> consumer) {
+    try {
+      return directMapper.forEach(resultSet, toValueType, consumer);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map ResultSet as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * Loads rows indexed by an integer column, e.g. a reference table by id, in
+   * one pass: entities go straight into a primitive keyed table sized from the
+   * ResultSet, with no intermediate array, boxed keys or map entries
+   *
+   * @param <T>         The entity type
+   * @param resultSet   The ResultSet, positioned before its first row
+   * @param toValueType The class of each row
+   * @param keyColumn   The name of an integer key column without NULLs
+   * @return The index, last row wins for repeated keys
+   */
+  public <T> LongIndex<T> indexByLong(ResultSet resultSet, Class<T> toValueType, String keyColumn) {
+    try {
+      return directMapper.indexByLong(resultSet, toValueType, keyColumn);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to index ResultSet as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * {@link #indexByLong} for a {@code uuid} key column
+   *
+   * @param <T>         The entity type
+   * @param resultSet   The ResultSet, positioned before its first row
+   * @param toValueType The class of each row
+   * @param keyColumn   The name of a uuid key column without NULLs
+   * @return The index, last row wins for repeated keys
+   */
+  public <T> UuidIndex<T> indexByUuid(ResultSet resultSet, Class<T> toValueType, String keyColumn) {
+    try {
+      return directMapper.indexByUuid(resultSet, toValueType, keyColumn);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to index ResultSet as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * Reads the rows column by column into primitive arrays and dictionary
+   * encoded text columns, for scans and aggregations that need no entity per
+   * row, see {@link ColumnarBatch}
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @return The batch of every row
+   */
+  public ColumnarBatch mapColumnar(ResultSet resultSet) {
+    try {
+      return directMapper.mapColumnar(resultSet);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to read ResultSet into columns", e);
+    }
+  }
+
+  /**
+   * {@link #mapColumnar(ResultSet)} reading at most {@code maxRows} rows per
+   * call; an empty batch means the ResultSet is exhausted
+   *
+   * @param resultSet The ResultSet
+   * @param maxRows   The maximum number of rows of the batch
+   * @return The batch of the next rows
+   */
+  public ColumnarBatch mapColumnar(ResultSet resultSet, int maxRows) {
+    try {
+      return directMapper.mapColumnar(resultSet, maxRows);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to read ResultSet into columns", e);
+    }
+  }
+
+  /**
+   * Exports the rows as an Apache Arrow IPC stream for columnar consumers
+   * (pyarrow, DuckDB, Polars), in record batches of
+   * {@link DirectResultSetMapper#DEFAULT_ARROW_BATCH_SIZE} rows; see
+   * {@link DirectResultSetMapper#writeArrow}
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param out       The stream to write to; it is flushed, not closed
+   * @return The number of rows written
+   */
+  public long writeArrow(ResultSet resultSet, OutputStream out) {
+    return writeArrow(resultSet, out, DirectResultSetMapper.DEFAULT_ARROW_BATCH_SIZE);
+  }
+
+  /**
+   * {@link #writeArrow(ResultSet, OutputStream)} with the given number of rows
+   * per record batch
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param out       The stream to write to; it is flushed, not closed
+   * @param batchSize The maximum number of rows per record batch
+   * @return The number of rows written
+   */
+  public long writeArrow(ResultSet resultSet, OutputStream out, int batchSize) {
+    try {
+      return directMapper.writeArrow(resultSet, out, batchSize);
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write ResultSet as Arrow", e);
+    }
+  }
+
+  /**
+   * Streams the rows as newline-delimited JSON, one object per line written
+   * like the elements of {@link #writeValueAsString} for a ResultSet, without
+   * building the document in memory. The output is flushed after the first
+   * row and then once per {@link #exportFlushInterval}.
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param out       The stream to write to; it is flushed, not closed
+   * @return The number of rows written
+   */
+  public long writeNdjson(ResultSet resultSet, OutputStream out) {
+    try (ExportOutput output = ExportOutput.of(out, directMapper.exportFlushNanos())) {
+      return resultSetSerializer.writeLines(resultSet, output, mapper);
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write ResultSet as NDJSON", e);
+    }
+  }
+
+  /**
+   * {@link #writeNdjson(ResultSet, OutputStream)} to a channel
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param channel   The channel to write to; it is not closed
+   * @return The number of rows written
+   */
+  public long writeNdjson(ResultSet resultSet, WritableByteChannel channel) {
+    try (ExportOutput output = ExportOutput.of(channel, directMapper.exportFlushNanos())) {
+      return resultSetSerializer.writeLines(resultSet, output, mapper);
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write ResultSet as NDJSON", e);
+    }
+  }
+
+  /**
+   * Streams the rows as RFC 4180 CSV with a header row; see
+   * {@link DirectResultSetMapper#writeCsv(ResultSet, OutputStream)}
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param out       The stream to write to; it is flushed, not closed
+   * @return The number of rows written
+   */
+  public long writeCsv(ResultSet resultSet, OutputStream out) {
+    try {
+      return directMapper.writeCsv(resultSet, out);
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write ResultSet as CSV", e);
+    }
+  }
+
+  /**
+   * {@link #writeCsv(ResultSet, OutputStream)} to a channel
+   *
+   * @param resultSet The ResultSet, positioned before its first row
+   * @param channel   The channel to write to; it is not closed
+   * @return The number of rows written
+   */
+  public long writeCsv(ResultSet resultSet, WritableByteChannel channel) {
+    try {
+      return directMapper.writeCsv(resultSet, channel);
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write ResultSet as CSV", e);
+    }
+  }
+
+  /**
+   * Spring MVC response body running the query when the response is written
+   * and streaming its rows with {@link #writeNdjson}
+   *
+   * @param jdbc The JdbcTemplate running the query
+   * @param sql  The query
+   * @param args The query arguments
+   * @return The response body
+   */
+  public ResultSetStreamingBody streamingNdjson(JdbcOperations jdbc, String sql, Object... args) {
+    return new ResultSetStreamingBody(jdbc, sql, args, ResultSetStreamingBody.NDJSON, this::writeNdjson);
+  }
+
+  /**
+   * Spring MVC response body running the query when the response is written
+   * and streaming its rows with {@link #writeCsv}
+   *
+   * @param jdbc The JdbcTemplate running the query
+   * @param sql  The query
+   * @param args The query arguments
+   * @return The response body
+   */
+  public ResultSetStreamingBody streamingCsv(JdbcOperations jdbc, String sql, Object... args) {
+    return new ResultSetStreamingBody(jdbc, sql, args, ResultSetStreamingBody.CSV, this::writeCsv);
+  }
+
+  /**
+   * Maps a join of parents and children (e.g. orders left joined with their
+   * items) into one parent per key with its children in collection
+   * properties, see {@link JoinMapping}. Order the query by the parent key:
+   * rows are grouped while consecutive, one parent graph at a time.
+   *
+   * @param <T>       The root entity type
+   * @param resultSet The joined ResultSet, positioned before its first row; it
+   *                  is not closed
+   * @param mapping   The levels of the graph
+   * @return The root entities
+   */
+  public <T> List<T> mapJoined(ResultSet resultSet, JoinMapping<T> mapping) {
+    List<T> roots = new ArrayList<>();
+    try {
+      directMapper.iterateJoined(resultSet, mapping).forEachRemaining(roots::add);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map joined ResultSet as " + mapping.type().getName(), e);
+    }
+    return roots;
+  }
+
+  /**
+   * Lazy flavour of {@link #mapJoined(ResultSet, JoinMapping)}, holding a
+   * single parent graph at a time. Closing the Stream closes the ResultSet.
+   *
+   * @param <T>       The root entity type
+   * @param resultSet The joined ResultSet, positioned before its first row
+   * @param mapping   The levels of the graph
+   * @return A lazy, closeable Stream of root entities
+   */
+  public <T> Stream<T> streamJoined(ResultSet resultSet, JoinMapping<T> mapping) {
+    try {
+      return directMapper.streamJoined(resultSet, mapping);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to stream joined ResultSet as " + mapping.type().getName(), e);
+    }
+  }
+
+  /**
+   * Iterator flavour of {@link #stream(ResultSet, Class)}
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param resultSet   The ResultSet to map, positioned before its first row
+   * @param toValueType The class of each row
+   * @return A lazy iterator; closing it closes the ResultSet
+   */
+  public <T> ResultSetIterator<T> iterator(ResultSet resultSet, Class<T> toValueType) {
+    try {
+      return directMapper.iterate(resultSet, toValueType);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to iterate ResultSet as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * Returns a Spring {@code RowMapper} mapping rows directly, for
+   * {@code JdbcTemplate.query(sql, rowMapper)} and the like. Keep the returned
+   * mapper: it remembers the mapping plan of the query being read.
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param toValueType The class of each row
+   * @return A thread-safe row mapper
+   */
+  public <T> PostgresRowMapper<T> rowMapper(Class<T> toValueType) {
+    return new PostgresRowMapper<>(directMapper, toValueType);
+  }
+
+  /**
+   * Returns a Spring {@code ResultSetExtractor} mapping all rows of a query
+   * to a List, see {@link DirectResultSetMapper#mapAll}
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param toValueType The class of each row
+   * @return A thread-safe extractor
+   */
+  public <T> PostgresResultSetExtractor<T> resultSetExtractor(Class<T> toValueType) {
+    return new PostgresResultSetExtractor<>(directMapper, toValueType);
+  }
+
+  /**
+   * Returns a Spring {@code RowCallbackHandler} mapping each row as the query
+   * reads it and passing it to the consumer
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param toValueType The class of each row
+   * @param consumer    Called once per row
+   * @return The callback handler
+   */
+  public <T> PostgresRowCallbackHandler<T> rowCallbackHandler(Class<T> toValueType, Consumer<? super T> consumer) {
+    return new PostgresRowCallbackHandler<>(rowMapper(toValueType), consumer);
+  }
+
+  /**
+   * Bulk reads the result of a query through {@code COPY (query) TO STDOUT
+   * (FORMAT binary)}, decoding the binary tuples straight into entities with the
+   * same column to property resolution as {@link #map(Object, Class)}. Close the
+   * Stream (or consume it fully) before using the connection again.
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param connection  A PgJDBC connection
+   * @param query       The query to copy, without parameters
+   * @param toValueType The class of each row
+   * @return A lazy, closeable Stream of mapped rows
+   */
+  public <T> Stream<T> copyOut(Connection connection, String query, Class<T> toValueType) {
+    try {
+      return stream(directMapper.copyOut(connection, query, toValueType));
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to copy out " + query, e);
+    }
+  }
+
+  /**
+   * Maps a recorded binary COPY stream (e.g. a file written by
+   * {@code COPY ... TO 'file' (FORMAT binary)}), see {@link #copyOut}
+   *
+   * @param <T>         The type of each row (an entity class or {@code Map})
+   * @param in          The binary COPY stream
+   * @param columnNames The column names, in order
+   * @param typeNames   The PostgreSQL type name of each column
+   * @param toValueType The class of each row
+   * @return A lazy, closeable Stream of mapped rows
+   */
+  public <T> Stream<T> readBinaryCopy(InputStream in, String[] columnNames, String[] typeNames,
+      Class<T> toValueType) {
+    try {
+      return stream(directMapper.readBinaryCopy(in, columnNames, typeNames, toValueType));
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to read binary COPY stream as " + toValueType.getName(), e);
+    }
+  }
+
+  /**
+   * Writes entities into a table with binary {@code COPY ... FROM STDIN},
+   * resolving the table columns to properties the same way {@link #map} does;
+   * see {@link EntityWriter#copyIn}
+   *
+   * @param <T>        The entity type
+   * @param connection A PgJDBC connection
+   * @param table      The target table, as written in SQL
+   * @param rows       The entities to write
+   * @param entityType The entity class
+   * @return The number of rows copied
+   */
+  public <T> long copyIn(Connection connection, String table, Collection<? extends T> rows, Class<T> entityType) {
+    return copyIn(connection, table, rows.iterator(), entityType);
+  }
+
+  /**
+   * Writes a stream of entities into a table with binary {@code COPY ... FROM
+   * STDIN}, consuming the stream lazily; see {@link #copyIn(Connection, String,
+   * Collection, Class)}
+   *
+   * @param <T>        The entity type
+   * @param connection A PgJDBC connection
+   * @param table      The target table, as written in SQL
+   * @param rows       The entities to write
+   * @param entityType The entity class
+   * @return The number of rows copied
+   */
+  public <T> long copyIn(Connection connection, String table, Stream<? extends T> rows, Class<T> entityType) {
+    return copyIn(connection, table, rows.iterator(), entityType);
+  }
+
+  private <T> long copyIn(Connection connection, String table, Iterator<? extends T> rows, Class<T> entityType) {
+    try {
+      return entityWriter.copyIn(connection, table, entityType, rows);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to copy " + entityType.getName() + " rows into " + table, e);
+    }
+  }
+
+  /**
+   * Writes entities as a binary COPY stream, e.g. to a file; see
+   * {@link EntityWriter#writeBinaryCopy}
+   *
+   * @param <T>         The entity type
+   * @param out         The stream to write to; it is flushed, not closed
+   * @param columnNames The column names, in order
+   * @param typeNames   The PostgreSQL type name of each column
+   * @param rows        The entities to write
+   * @param entityType  The entity class
+   * @return The number of rows written
+   */
+  public <T> long writeBinaryCopy(OutputStream out, String[] columnNames, String[] typeNames,
+      Collection<? extends T> rows, Class<T> entityType) {
+    try {
+      return entityWriter.writeBinaryCopy(out, columnNames, typeNames, entityType, rows.iterator());
+    } catch (SQLException | IOException e) {
+      throw new ResultSetMappingException("Failed to write " + entityType.getName() + " rows as binary COPY", e);
+    }
+  }
+
+  /**
+   * Inserts entities with multi-row {@code INSERT ... VALUES} statements; see
+   * {@link EntityWriter#insert} and {@link #writeBatchSize(int)}
+   *
+   * @param <T>        The entity type
+   * @param connection The connection
+   * @param table      The target table, as written in SQL
+   * @param rows       The entities to insert
+   * @param entityType The entity class
+   * @return The number of inserted rows
+   */
+  public <T> long insert(Connection connection, String table, Collection<? extends T> rows, Class<T> entityType) {
+    return insert(connection, table, rows.iterator(), entityType);
+  }
+
+  /**
+   * Inserts a stream of entities, consuming it lazily; see
+   * {@link #insert(Connection, String, Collection, Class)}
+   *
+   * @param <T>        The entity type
+   * @param connection The connection
+   * @param table      The target table, as written in SQL
+   * @param rows       The entities to insert
+   * @param entityType The entity class
+   * @return The number of inserted rows
+   */
+  public <T> long insert(Connection connection, String table, Stream<? extends T> rows, Class<T> entityType) {
+    return insert(connection, table, rows.iterator(), entityType);
+  }
+
+  private <T> long insert(Connection connection, String table, Iterator<? extends T> rows, Class<T> entityType) {
+    try {
+      return entityWriter.insert(connection, table, entityType, rows);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to insert " + entityType.getName() + " rows into " + table, e);
+    }
+  }
+
+  /**
+   * Inserts or updates entities with multi-row {@code INSERT ... ON CONFLICT
+   * DO UPDATE} statements; see {@link EntityWriter#upsert}
+   *
+   * @param <T>             The entity type
+   * @param connection      The connection
+   * @param table           The target table, as written in SQL
+   * @param rows            The entities to write
+   * @param entityType      The entity class
+   * @param conflictColumns The columns of the primary key or unique constraint
+   * @return The number of inserted or updated rows
+   */
+  public <T> long upsert(Connection connection, String table, Collection<? extends T> rows, Class<T> entityType,
+      String... conflictColumns) {
+    try {
+      return entityWriter.upsert(connection, table, entityType, rows.iterator(), conflictColumns);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to upsert " + entityType.getName() + " rows into " + table, e);
+    }
+  }
+
+  /**
+   * Returns the compiled binder of an entity for the columns of a table, to
+   * bind entities in hand written statements; see
+   * {@link EntityWriter#binder(Connection, String, Class)}
+   *
+   * @param <T>        The entity type
+   * @param connection A connection to describe the table with
+   * @param table      The table, as written in SQL
+   * @param entityType The entity class
+   * @return The binder
+   */
+  public <T> StatementBinder<T> binder(Connection connection, String table, Class<T> entityType) {
+    try {
+      return entityWriter.binder(connection, table, entityType);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to bind " + entityType.getName() + " to " + table, e);
+    }
+  }
+
+  private static <T> Stream<T> stream(BinaryCopyReader<T> reader) {
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(reader::close);
+  }
+
+  /**
+   * Reports rows mapped, mapping time per target type and phase, JSON round
+   * trip fallbacks and serialized ResultSets, see {@link MappingMetrics}. In a
+   * Spring Boot application with a {@code MeterRegistry}, mapper beans get
+   * {@link MicrometerMappingMetrics} automatically.
+   *
+   * @param metrics The metrics, {@link MappingMetrics#NONE} to disable
+   * @return This mapper
+   */
+  public PostgresEntityMapper metrics(MappingMetrics metrics) {
+    this.metrics = metrics == null ? MappingMetrics.NONE : metrics;
+    directMapper.setMetrics(this.metrics);
+    resultSetSerializer.setMetrics(this.metrics);
+    return this;
+  }
+
+  /**
+   * @return The metrics the mapping work is reported to
+   */
+  public MappingMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Registers a codec used to read every column of the given PostgreSQL type,
+   * taking precedence over the built-in ones (see {@link PgCodecs})
+   *
+   * @param typeName The PostgreSQL type name (e.g. {@code citext} or an enum type)
+   * @param codec    The codec
+   * @return This mapper
+   */
+  public PostgresEntityMapper registerCodec(String typeName, PgCodec codec) {
+    directMapper.registerCodec(typeName, codec);
+    fallbacks.clear();
+    return this;
+  }
+
+  /**
+   * Registers a codec used to read every column of the given PostgreSQL type OID
+   *
+   * @param oid   The type OID
+   * @param codec The codec
+   * @return This mapper
+   */
+  public PostgresEntityMapper registerCodec(int oid, PgCodec codec) {
+    directMapper.registerCodec(oid, codec);
+    fallbacks.clear();
+    return this;
+  }
+
+  /**
+   * Registers a row mapper for its entity type; mappers generated for
+   * {@link MappedEntity} classes are found automatically
+   *
+   * @param rowMapper The row mapper
+   * @return This mapper
+   */
+  public PostgresEntityMapper registerRowMapper(EntityRowMapper<?> rowMapper) {
+    directMapper.registerRowMapper(rowMapper);
+    fallbacks.clear();
+    return this;
+  }
+
+  /**
+   * Emits a specialized row mapper class per column shape for entities without
+   * a generated {@link EntityRowMapper}, see
+   * {@link DirectResultSetMapper#setBytecodeMappers(boolean)}
+   *
+   * @param enabled Whether to generate row mappers at runtime
+   * @return This mapper
+   */
+  public PostgresEntityMapper bytecodeMappers(boolean enabled) {
+    directMapper.setBytecodeMappers(enabled);
+    fallbacks.clear();
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of rows per multi-row statement of
+   * {@link #insert} and {@link #upsert}
+   *
+   * @param rows The rows per statement, by default
+   *             {@value EntityWriter#DEFAULT_WRITE_BATCH_SIZE}
+   * @return This mapper
+   */
+  public PostgresEntityMapper writeBatchSize(int rows) {
+    entityWriter.setWriteBatchSize(rows);
+    return this;
+  }
+
+  /**
+   * Sets the longest time between flushes of {@link #writeNdjson} and
+   * {@link #writeCsv}
+   *
+   * @param interval The interval, by default
+   *                 {@link DirectResultSetMapper#DEFAULT_EXPORT_FLUSH_INTERVAL}
+   * @return This mapper
+   */
+  public PostgresEntityMapper exportFlushInterval(Duration interval) {
+    directMapper.setExportFlushInterval(interval);
+    return this;
+  }
+
+  /**
+   * Converts the rows of array and {@code List} targets on a pool of workers
+   * while the calling thread keeps reading the ResultSet; rows keep their
+   * order. Worth it when conversion (e.g. wide jsonb documents) dominates the
+   * time spent in {@code next()}.
+   *
+   * @param options The parallel settings, e.g.
+   *                {@link ParallelMappingOptions#virtualThreads()}, or
+   *                {@code null} to disable the parallel mode
+   * @return This mapper
+   */
+  public PostgresEntityMapper parallelMapping(ParallelMappingOptions options) {
+    directMapper.setParallelMapping(options);
+    return this;
+  }
+
   /**
    * @param value The object to serialize
    * @return The serialized object as a string
    */
   public String writeValueAsString(Object value) {
     try {
-      return mapper.writeValueAsString(value);
+      String json = mapper.writeValueAsString(value);
+      MappingMetrics metrics = this.metrics;
+      if (value instanceof ResultSet && json != null && metrics.enabled()) {
+        metrics.recordSerializedBytes(utf8Length(json));
+      }
+      return json;
     } catch (Exception e) {
       e.printStackTrace();
       return null;
     }
   }
 
+  private static long utf8Length(String text) {
+    long length = text.length();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= 0x800) {
+        // Surrogate pairs take 4 bytes for 2 chars
+        length += Character.isSurrogate(c) ? 1 : 2;
+      } else if (c >= 0x80) {
+        length++;
+      }
+    }
+    return length;
+  }
+
   /**
    * @param <T>       The type of the object to deserialize
    * @param content   The content to deserialize
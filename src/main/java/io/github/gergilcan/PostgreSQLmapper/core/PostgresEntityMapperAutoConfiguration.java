@@ -0,0 +1,23 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registers a singleton {@link PostgresEntityMapper}, so its mapping plans
+ * are compiled once per application and shared by every repository, unless
+ * the application defines its own. {@code postgresql-mapper.strict=true}
+ * makes it {@link PostgresEntityMapper#strict(boolean) strict}.
+ */
+@AutoConfiguration
+public class PostgresEntityMapperAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public PostgresEntityMapper postgresEntityMapper(Environment environment) {
+    return new PostgresEntityMapper()
+        .strict(environment.getProperty("postgresql-mapper.strict", Boolean.class, false));
+  }
+}
@@ -0,0 +1,31 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+/**
+ * Spring {@link ResultSetExtractor} mapping every row of a query in one call
+ * to {@link DirectResultSetMapper#mapAll}, so it benefits from the parallel
+ * mode and the metrics of the mapper. Thread-safe; see
+ * {@link PostgresEntityMapper#resultSetExtractor(Class)}.
+ *
+ * @param <T> The row type (an entity class or {@code Map})
+ */
+public final class PostgresResultSetExtractor<T> implements ResultSetExtractor<List<T>> {
+
+  private final DirectResultSetMapper mapper;
+  private final Class<T> rowType;
+
+  PostgresResultSetExtractor(DirectResultSetMapper mapper, Class<T> rowType) {
+    this.mapper = mapper;
+    this.rowType = rowType;
+  }
+
+  @Override
+  public List<T> extractData(ResultSet rs) throws SQLException {
+    return mapper.mapAll(rs, rowType);
+  }
+}
@@ -0,0 +1,32 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Spring {@link RowCallbackHandler} mapping each row as the query streams it
+ * and handing it to a consumer, so results of any size are processed without
+ * being collected. Rows are mapped like {@link PostgresRowMapper}; see
+ * {@link PostgresEntityMapper#rowCallbackHandler(Class, Consumer)}.
+ *
+ * @param <T> The row type (an entity class or {@code Map})
+ */
+public final class PostgresRowCallbackHandler<T> implements RowCallbackHandler {
+
+  private final PostgresRowMapper<T> rowMapper;
+  private final Consumer<? super T> consumer;
+
+  PostgresRowCallbackHandler(PostgresRowMapper<T> rowMapper, Consumer<? super T> consumer) {
+    this.rowMapper = rowMapper;
+    this.consumer = consumer;
+  }
+
+  @Override
+  public void processRow(ResultSet rs) throws SQLException {
+    // The row number is not used by the mapper
+    consumer.accept(rowMapper.mapRow(rs, 0));
+  }
+}
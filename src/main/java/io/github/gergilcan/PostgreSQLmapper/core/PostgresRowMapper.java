@@ -0,0 +1,48 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Spring {@link RowMapper} backed by the direct mapper: the mapping plan of a
+ * ResultSet is looked up on its first row and kept by the reading thread for
+ * the following ones, so metadata is read once per query and plans are shared
+ * by every query with the same column shape. The plan is held weakly, so an
+ * evicted plan (and its generated class) can still be unloaded. Handles
+ * beans, records and constructor-built types alike, where Spring needs
+ * {@code BeanPropertyRowMapper} or {@code DataClassRowMapper}. Thread-safe;
+ * create one per target type with
+ * {@link PostgresEntityMapper#rowMapper(Class)} and keep it.
+ *
+ * @param <T> The row type (an entity class or {@code Map})
+ */
+public final class PostgresRowMapper<T> implements RowMapper<T> {
+
+  private final DirectResultSetMapper mapper;
+  private final Class<T> rowType;
+  /** Per thread, the plan of the ResultSet it mapped last. */
+  private final ThreadLocal<Scan<T>> scans = new ThreadLocal<>();
+
+  /** A plan and the ResultSet it was looked up for, neither kept alive. */
+  private record Scan<T>(WeakReference<ResultSet> resultSet, WeakReference<MappingPlan<T>> plan) {
+  }
+
+  PostgresRowMapper(DirectResultSetMapper mapper, Class<T> rowType) {
+    this.mapper = mapper;
+    this.rowType = rowType;
+  }
+
+  @Override
+  public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+    Scan<T> current = scans.get();
+    MappingPlan<T> plan = current == null || current.resultSet().get() != rs ? null : current.plan().get();
+    if (plan == null) {
+      plan = mapper.planFor(rs, rowType);
+      scans.set(new Scan<>(new WeakReference<>(rs), new WeakReference<>(plan)));
+    }
+    return plan.mapRow(rs);
+  }
+}
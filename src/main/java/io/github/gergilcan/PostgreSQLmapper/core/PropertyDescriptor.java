@@ -0,0 +1,189 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A writable property of an entity, resolved once by {@link EntityDescriptor}.
+ * A property is either written through a setter / field handle after the entity
+ * has been instantiated, or passed as a constructor argument. When the entity
+ * exposes it (getter, record accessor or field), the property can also be read
+ * back for the write paths.
+ */
+final class PropertyDescriptor {
+
+  private final String name;
+  private final List<String> aliases;
+  private final JavaType type;
+  private final Class<?> boxedType;
+  private final boolean assignableWithoutConversion;
+  private final MethodHandle setter;
+  private final MethodHandle writer;
+  private final MethodHandle getter;
+  private final MethodHandle reader;
+  private final int creatorIndex;
+
+  /**
+   * @param name         The logical property name
+   * @param aliases      Extra names accepted for the property ({@code @JsonProperty},
+   *                     {@code @JsonAlias})
+   * @param type         The full generic type of the property
+   * @param setter       A setter or field setter handle writing the property, or
+   *                     {@code null} for constructor arguments
+   * @param getter       A getter, accessor or field getter handle reading the
+   *                     property, or {@code null} if it cannot be read
+   * @param creatorIndex The constructor argument index, or {@code -1} when the
+   *                     property is written through {@code setter}
+   */
+  PropertyDescriptor(String name, List<String> aliases, JavaType type, MethodHandle setter, MethodHandle getter,
+      int creatorIndex) {
+    this.name = name;
+    this.aliases = aliases;
+    this.type = type;
+    this.boxedType = boxed(type.getRawClass());
+    this.assignableWithoutConversion = !type.isContainerType()
+        || (isUntyped(type.getContentType()) && (type.getKeyType() == null || isUntyped(type.getKeyType())
+            || type.getKeyType().hasRawClass(String.class)));
+    this.setter = setter;
+    this.writer = setter == null ? null : writer(Object.class);
+    this.getter = getter;
+    this.reader = getter == null ? null : getter.asType(MethodType.methodType(Object.class, Object.class));
+    this.creatorIndex = creatorIndex;
+  }
+
+  String name() {
+    return name;
+  }
+
+  List<String> aliases() {
+    return aliases;
+  }
+
+  JavaType type() {
+    return type;
+  }
+
+  Class<?> rawType() {
+    return type.getRawClass();
+  }
+
+  int creatorIndex() {
+    return creatorIndex;
+  }
+
+  /**
+   * @return The raw setter or field setter handle,
+   *         {@code (EntityType, PropertyType)}, or {@code null} for constructor
+   *         arguments
+   */
+  MethodHandle setter() {
+    return setter;
+  }
+
+  /**
+   * Adapts the setter so it can be invoked exactly with a value of the given
+   * type, e.g. {@code int} to bind a primitive without boxing
+   *
+   * @param valueType The static type of the value passed to the setter
+   * @return A {@code (Object, valueType)void} handle
+   */
+  MethodHandle writer(Class<?> valueType) {
+    return setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+  }
+
+  /**
+   * Writes an already converted value into the target entity
+   *
+   * @param target The entity instance
+   * @param value  The value, matching the property type
+   * @throws Throwable If the setter throws
+   */
+  void write(Object target, Object value) throws Throwable {
+    writer.invokeExact(target, value);
+  }
+
+  /**
+   * @return {@code true} if the property can be read back from an entity
+   */
+  boolean readable() {
+    return reader != null;
+  }
+
+  /**
+   * @return The raw getter handle, {@code (EntityType)PropertyType}, or
+   *         {@code null}
+   */
+  MethodHandle getter() {
+    return getter;
+  }
+
+  /**
+   * Adapts the getter so it can be invoked exactly returning the given type,
+   * e.g. {@code int} to read a primitive without boxing
+   *
+   * @param valueType The static type the value is read as
+   * @return A {@code (Object)valueType} handle
+   */
+  MethodHandle reader(Class<?> valueType) {
+    return getter.asType(MethodType.methodType(valueType, Object.class));
+  }
+
+  /**
+   * Reads the property of an entity, boxing primitives
+   *
+   * @param target The entity instance
+   * @return The property value, possibly {@code null}
+   * @throws Throwable If the getter throws
+   */
+  Object read(Object target) throws Throwable {
+    return reader.invokeExact(target);
+  }
+
+  /**
+   * Converts a normalized column value into the property type. Values that are
+   * already instances of the property type are passed through untouched, the
+   * rest go through Jackson's {@code convertValue}.
+   *
+   * @param value  The normalized column value
+   * @param mapper The ObjectMapper used for conversions
+   * @return The converted value, possibly {@code null}
+   */
+  Object convert(Object value, ObjectMapper mapper) {
+    if (value == null || (assignableWithoutConversion && boxedType.isInstance(value))) {
+      return value;
+    }
+    return mapper.convertValue(value, type);
+  }
+
+  private static boolean isUntyped(JavaType type) {
+    return type == null || type.hasRawClass(Object.class);
+  }
+
+  static Class<?> boxed(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    }
+    if (type == int.class) {
+      return Integer.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    } else if (type == char.class) {
+      return Character.class;
+    }
+    return Void.class;
+  }
+}
@@ -0,0 +1,158 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.reflect.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Plan binding each column straight into the property it resolves to, without
+ * building an intermediate row Map. Columns without a matching property are
+ * skipped; each mapped column gets the {@link ColumnBinding} suited to its
+ * type.
+ *
+ * @param <T> The target type
+ */
+final class PropertyMappingPlan<T> implements MappingPlan<T> {
+
+  private final EntityDescriptor<T> entity;
+  /** One binding per mapped column, in column order. */
+  private final ColumnBinding[] bindings;
+  private final int columnCount;
+  /** Constructor arguments used when no column provides a value. */
+  private final Object[] defaultArguments;
+
+  PropertyMappingPlan(EntityDescriptor<T> entity, ColumnShape shape, PgCodecRegistry codecs, ObjectMapper mapper) {
+    this.entity = entity;
+
+    this.columnCount = shape.columnCount();
+    this.bindings = bindings(entity, shape, codecs, mapper);
+
+    if (entity.usesCreator()) {
+      defaultArguments = new Object[entity.creatorArity()];
+      for (PropertyDescriptor property : entity.properties()) {
+        Class<?> rawType = property.rawType();
+        if (rawType.isPrimitive()) {
+          defaultArguments[property.creatorIndex()] = Array.get(Array.newInstance(rawType, 1), 0);
+        }
+      }
+    } else {
+      defaultArguments = null;
+    }
+  }
+
+  /**
+   * Resolves the columns of a shape to the properties of an entity
+   *
+   * @return One binding per mapped column, in column order
+   */
+  static ColumnBinding[] bindings(EntityDescriptor<?> entity, ColumnShape shape, PgCodecRegistry codecs,
+      ObjectMapper mapper) {
+    int columnCount = shape.columnCount();
+    PropertyDescriptor[] properties = new PropertyDescriptor[columnCount];
+    // The last column resolving to a property wins, as with the puts of a row map
+    int[] lastColumn = new int[entity.properties().size()];
+    for (int i = 0; i < columnCount; i++) {
+      properties[i] = entity.find(shape.name(i));
+      if (properties[i] != null) {
+        lastColumn[entity.properties().indexOf(properties[i])] = i + 1;
+      }
+    }
+    ColumnBinding[] mappedBindings = new ColumnBinding[columnCount];
+    int mapped = 0;
+    for (int i = 0; i < columnCount; i++) {
+      PropertyDescriptor property = properties[i];
+      if (property != null && lastColumn[entity.properties().indexOf(property)] == i + 1) {
+        mappedBindings[mapped++] = ColumnBinding.of(i + 1, shape, property, codecs, mapper);
+      }
+    }
+    return Arrays.copyOf(mappedBindings, mapped);
+  }
+
+  @Override
+  public T mapRow(ResultSet resultSet) throws SQLException {
+    try {
+      if (defaultArguments != null) {
+        Object[] arguments = defaultArguments.clone();
+        for (ColumnBinding binding : bindings) {
+          Object value = binding.read(resultSet);
+          if (value != null) {
+            arguments[binding.property().creatorIndex()] = value;
+          }
+        }
+        return entity.type().cast(entity.create(arguments));
+      }
+
+      Object target = entity.newInstance();
+      for (ColumnBinding binding : bindings) {
+        binding.bind(resultSet, target);
+      }
+      return entity.type().cast(target);
+    } catch (SQLException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new SQLException("Failed to convert ResultSet to " + entity.type().getName(), e);
+    }
+  }
+
+  @Override
+  public Object[] extract(ResultSet resultSet) throws SQLException {
+    Object[] values = new Object[columnCount];
+    for (ColumnBinding binding : bindings) {
+      values[binding.column() - 1] = binding.extract(resultSet);
+    }
+    return values;
+  }
+
+  @Override
+  public T map(Object[] values) throws SQLException {
+    return build(values, false, null);
+  }
+
+  @Override
+  public T map(Object[] values, ScanMetrics scan) throws SQLException {
+    return build(values, false, scan);
+  }
+
+  @Override
+  public T decode(Object[] values) throws SQLException {
+    return build(values, true, null);
+  }
+
+  /**
+   * Builds the entity from a row of raw values ({@link #extract}) or of driver
+   * values, timing json parsing when {@code scan} is set
+   */
+  private T build(Object[] values, boolean driverValues, ScanMetrics scan) throws SQLException {
+    try {
+      Object[] arguments = defaultArguments == null ? null : defaultArguments.clone();
+      Object target = arguments == null ? entity.newInstance() : null;
+      for (ColumnBinding binding : bindings) {
+        Object raw = values[binding.column() - 1];
+        Object value;
+        if (scan != null && binding instanceof ColumnBinding.JsonBinding) {
+          long start = System.nanoTime();
+          value = binding.convert(raw);
+          scan.add(MappingPhase.JSON_DECODE, System.nanoTime() - start);
+        } else {
+          value = driverValues ? binding.decode(raw) : binding.convert(raw);
+        }
+        if (value == null) {
+          continue;
+        }
+        if (arguments != null) {
+          arguments[binding.property().creatorIndex()] = value;
+        } else {
+          binding.property().write(target, value);
+        }
+      }
+      return entity.type().cast(arguments != null ? entity.create(arguments) : target);
+    } catch (SQLException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new SQLException("Failed to convert ResultSet to " + entity.type().getName(), e);
+    }
+  }
+}
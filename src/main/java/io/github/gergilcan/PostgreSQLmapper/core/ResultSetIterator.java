@@ -0,0 +1,69 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily maps a ResultSet one row per {@link #next()}, so memory usage stays
+ * flat regardless of the number of rows. Combined with a PgJDBC cursor (auto
+ * commit disabled and a positive fetch size on the statement) only one fetch
+ * window is ever held on the heap.
+ * <p>
+ * Closing the iterator closes the underlying ResultSet.
+ *
+ * @param <T> The type of the mapped rows
+ */
+public final class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+
+  private final ResultSet resultSet;
+  private final MappingPlan<T> plan;
+  private boolean hasRow;
+  private boolean done;
+
+  ResultSetIterator(ResultSet resultSet, MappingPlan<T> plan) {
+    this.resultSet = resultSet;
+    this.plan = plan;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!hasRow && !done) {
+      try {
+        hasRow = resultSet.next();
+      } catch (SQLException e) {
+        throw new ResultSetMappingException("Failed to advance ResultSet", e);
+      }
+      done = !hasRow;
+    }
+    return hasRow;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    hasRow = false;
+    try {
+      return plan.mapRow(resultSet);
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to map ResultSet row", e);
+    }
+  }
+
+  /**
+   * Closes the underlying ResultSet
+   */
+  @Override
+  public void close() {
+    done = true;
+    hasRow = false;
+    try {
+      resultSet.close();
+    } catch (SQLException e) {
+      throw new ResultSetMappingException("Failed to close ResultSet", e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event of one ResultSet mapped by
+ * {@link DirectResultSetMapper}, from the metadata read to the last row.
+ * Disabled events are not timed nor committed.
+ */
+@Name("io.github.gergilcan.PostgreSQLmapper.ResultSetMapping")
+@Label("ResultSet Mapping")
+@Category({ "PostgreSQL Mapper" })
+@Description("Rows of a ResultSet mapped to a target type")
+@StackTrace(false)
+final class ResultSetMappingEvent extends Event {
+
+  @Label("Target Type")
+  @Description("The row type; List and Map targets report java.util.Map, columnar batches ColumnarBatch")
+  Class<?> targetType;
+
+  @Label("Operation")
+  @Description("map, forEach, index or columnar")
+  String operation;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Columns")
+  int columns;
+
+  @Label("Plan Compiled")
+  @Description("Whether the mapping plan was missing from the plan cache and compiled for this mapping")
+  boolean planCompiled;
+}
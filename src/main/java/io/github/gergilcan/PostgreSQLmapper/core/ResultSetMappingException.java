@@ -0,0 +1,22 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.SQLException;
+
+/**
+ * Unchecked wrapper for errors raised while mapping a ResultSet from APIs that
+ * cannot throw {@link SQLException}, such as {@link java.util.Iterator} and
+ * {@link java.util.stream.Stream}, and by a strict
+ * {@link PostgresEntityMapper#map(Object, Class)}.
+ */
+public class ResultSetMappingException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param message The detail message
+   * @param cause   The underlying error
+   */
+  public ResultSetMappingException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -1,19 +1,140 @@
 package io.github.gergilcan.PostgreSQLmapper.core;
 
 import java.io.IOException;
+import java.sql.Array;
+import java.sql.Date;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import org.postgresql.util.PGobject;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
 /**
  * Serializes a ResultSet object into a JSON array.
  * Optimized for performance by streaming directly to JSON output.
+ * <p>
+ * A writer is chosen once per column from its type before the first row:
+ * numbers and booleans use the typed getters, text is written as is, json /
+ * jsonb documents are copied raw with {@code writeRawValue} instead of being
+ * escaped as strings, arrays are written as JSON arrays and timestamps use the
+ * serializer Jackson resolves once for the column. Field names are encoded
+ * once per column. Columns without type information go through
+ * {@code getObject} and the serializer of the value class.
+ * <p>
+ * The same writers produce newline-delimited JSON for streamed exports, see
+ * {@link PostgresEntityMapper#writeNdjson}.
  */
 public class ResultSetSerializer extends JsonSerializer<ResultSet> {
+
+  private volatile MappingMetrics metrics = MappingMetrics.NONE;
+
+  /**
+   * Writes the value of one column of the current row
+   */
+  @FunctionalInterface
+  private interface ColumnWriter {
+    void write(ResultSet rs, int column, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException, SQLException;
+  }
+
+  @FunctionalInterface
+  private interface Getter<V> {
+    V get(ResultSet rs, int column) throws SQLException;
+  }
+
+  private static final ColumnWriter INT = (rs, column, gen, serializers) -> {
+    int value = rs.getInt(column);
+    if (rs.wasNull()) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value);
+    }
+  };
+
+  private static final ColumnWriter LONG = (rs, column, gen, serializers) -> {
+    long value = rs.getLong(column);
+    if (rs.wasNull()) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value);
+    }
+  };
+
+  private static final ColumnWriter DOUBLE = (rs, column, gen, serializers) -> {
+    double value = rs.getDouble(column);
+    if (rs.wasNull()) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value);
+    }
+  };
+
+  private static final ColumnWriter FLOAT = (rs, column, gen, serializers) -> {
+    float value = rs.getFloat(column);
+    if (rs.wasNull()) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value);
+    }
+  };
+
+  private static final ColumnWriter BOOLEAN = (rs, column, gen, serializers) -> {
+    boolean value = rs.getBoolean(column);
+    if (rs.wasNull()) {
+      gen.writeNull();
+    } else {
+      gen.writeBoolean(value);
+    }
+  };
+
+  /** {@code numeric} text is already a JSON number, except NaN and the infinities. */
+  private static final ColumnWriter NUMERIC = (rs, column, gen, serializers) -> {
+    String value = rs.getString(column);
+    if (value == null) {
+      gen.writeNull();
+    } else if (value.isEmpty() || Character.isLetter(value.charAt(value.length() - 1))) {
+      gen.writeString(value);
+    } else {
+      gen.writeNumber(value);
+    }
+  };
+
+  private static final ColumnWriter STRING = (rs, column, gen, serializers) -> {
+    String value = rs.getString(column);
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(value);
+    }
+  };
+
+  private static final ColumnWriter JSON = (rs, column, gen, serializers) -> writeJson(rs.getString(column), gen);
+
+  private static final ColumnWriter ARRAY = (rs, column, gen, serializers) -> {
+    Array value = rs.getArray(column);
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      serializers.defaultSerializeValue(value.getArray(), gen);
+    }
+  };
+
+  /**
+   * Sets where the rows written and the time spent writing them are reported
+   *
+   * @param metrics The metrics, {@link MappingMetrics#NONE} to disable
+   */
+  public void setMetrics(MappingMetrics metrics) {
+    this.metrics = metrics == null ? MappingMetrics.NONE : metrics;
+  }
+
   /**
    * Serializes the ResultSet object into a JSON array.
    *
@@ -24,32 +145,227 @@ public class ResultSetSerializer extends JsonSerializer<ResultSet> {
    */
   @Override
   public void serialize(ResultSet rs, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    SerializationEvent event = new SerializationEvent();
+    event.begin();
+    long rows = 0;
     try {
-      ResultSetMetaData metaData = rs.getMetaData();
-      int columnCount = metaData.getColumnCount();
-
-      // Pre-fetch column names to avoid repeated metadata access
-      String[] columnNames = new String[columnCount + 1]; // +1 because JDBC columns are 1-based
-      for (int i = 1; i <= columnCount; i++) {
-        columnNames[i] = metaData.getColumnName(i);
-      }
+      ColumnShape shape = ColumnShape.from(rs);
+      int columnCount = shape.columnCount();
+      SerializedString[] columnNames = columnNames(shape);
+      ColumnWriter[] writers = writers(shape, serializers);
 
       gen.writeStartArray();
 
       // Stream rows directly to JSON output without creating intermediate collections
       while (rs.next()) {
-        gen.writeStartObject();
-        for (int i = 1; i <= columnCount; i++) {
-          Object value = rs.getObject(i);
-          gen.writeObjectField(columnNames[i], value);
-        }
-        gen.writeEndObject();
+        writeRow(rs, gen, serializers, columnNames, writers);
+        rows++;
       }
 
       gen.writeEndArray();
+      if (start != 0) {
+        metrics.recordSerialization(rows, System.nanoTime() - start);
+      }
+      commit(event, "json", rows, columnCount);
     } catch (SQLException e) {
       // Wrap SQL exceptions in a more specific exception without stack trace overhead
       throw new IOException("Error serializing ResultSet: " + e.getMessage(), e);
     }
   }
+
+  /**
+   * Writes the remaining rows as newline-delimited JSON, one object per line,
+   * with the same column writers as {@link #serialize}. The output is flushed
+   * after the first row and then once per flush interval of {@code out}.
+   *
+   * @param rs     The ResultSet, positioned before its first row
+   * @param out    The export output; it is flushed, not closed
+   * @param mapper The mapper whose configuration the values follow
+   * @return The number of rows written
+   */
+  long writeLines(ResultSet rs, ExportOutput out, ObjectMapper mapper) throws IOException, SQLException {
+    MappingMetrics metrics = this.metrics;
+    long start = metrics.enabled() ? System.nanoTime() : 0;
+    SerializationEvent event = new SerializationEvent();
+    event.begin();
+    SerializerProvider serializers = mapper.getSerializerProviderInstance();
+    ColumnShape shape = ColumnShape.from(rs);
+    SerializedString[] columnNames = columnNames(shape);
+    ColumnWriter[] writers = writers(shape, serializers);
+
+    long rows = 0;
+    JsonGenerator gen = mapper.createGenerator(out);
+    // One line per row even if the mapper indents, separated by the newline alone
+    gen.setPrettyPrinter(null);
+    gen.setRootValueSeparator(null);
+    while (rs.next()) {
+      writeRow(rs, gen, serializers, columnNames, writers);
+      gen.writeRaw('\n');
+      rows++;
+      if (out.flushDue()) {
+        gen.flush();
+      }
+    }
+    gen.flush();
+    if (start != 0) {
+      metrics.recordSerialization(rows, System.nanoTime() - start);
+      metrics.recordSerializedBytes(out.bytesWritten());
+    }
+    commit(event, "ndjson", rows, shape.columnCount());
+    return rows;
+  }
+
+  /** Field names encoded once, +1 because JDBC columns are 1-based */
+  private static SerializedString[] columnNames(ColumnShape shape) {
+    SerializedString[] columnNames = new SerializedString[shape.columnCount() + 1];
+    for (int i = 1; i < columnNames.length; i++) {
+      columnNames[i] = new SerializedString(shape.name(i - 1));
+    }
+    return columnNames;
+  }
+
+  private static ColumnWriter[] writers(ColumnShape shape, SerializerProvider serializers) throws IOException {
+    ColumnWriter[] writers = new ColumnWriter[shape.columnCount() + 1];
+    for (int i = 1; i < writers.length; i++) {
+      writers[i] = writerFor(shape, i - 1, serializers);
+    }
+    return writers;
+  }
+
+  private static void writeRow(ResultSet rs, JsonGenerator gen, SerializerProvider serializers,
+      SerializedString[] columnNames, ColumnWriter[] writers) throws IOException, SQLException {
+    gen.writeStartObject();
+    for (int i = 1; i < writers.length; i++) {
+      gen.writeFieldName(columnNames[i]);
+      writers[i].write(rs, i, gen, serializers);
+    }
+    gen.writeEndObject();
+  }
+
+  private static void commit(SerializationEvent event, String format, long rows, int columns) {
+    if (event.shouldCommit()) {
+      event.format = format;
+      event.rows = rows;
+      event.columns = columns;
+      event.commit();
+    }
+  }
+
+  private static ColumnWriter writerFor(ColumnShape shape, int index, SerializerProvider serializers)
+      throws IOException {
+    String typeName = shape.typeName(index);
+    if (typeName != null) {
+      switch (typeName) {
+        case "json":
+        case "jsonb":
+          return JSON;
+        case "numeric":
+          return NUMERIC;
+        case "text":
+        case "varchar":
+        case "bpchar":
+        case "name":
+          return STRING;
+        case "timestamp":
+        case "timestamptz":
+          return typed(Timestamp.class, ResultSet::getTimestamp, serializers);
+        case "date":
+          return typed(Date.class, ResultSet::getDate, serializers);
+        default:
+          if (typeName.startsWith("_")) {
+            return ARRAY;
+          }
+      }
+    }
+    switch (shape.type(index)) {
+      case Types.INTEGER:
+      case Types.SMALLINT:
+        return INT;
+      case Types.BIGINT:
+        return LONG;
+      case Types.DOUBLE:
+        return DOUBLE;
+      case Types.REAL:
+        return FLOAT;
+      case Types.BOOLEAN:
+        return BOOLEAN;
+      case Types.BIT:
+        return "bool".equals(typeName) ? BOOLEAN : generic();
+      case Types.VARCHAR:
+      case Types.CHAR:
+        return STRING;
+      case Types.ARRAY:
+        return ARRAY;
+      default:
+        return generic();
+    }
+  }
+
+  /**
+   * Writer using the serializer Jackson resolves for the value type, looked up
+   * once for the column so the output follows the mapper configuration (e.g.
+   * {@code WRITE_DATES_AS_TIMESTAMPS})
+   */
+  private static <V> ColumnWriter typed(Class<V> type, Getter<V> getter, SerializerProvider serializers)
+      throws IOException {
+    JsonSerializer<Object> serializer = serializers.findValueSerializer(type);
+    return (rs, column, gen, provider) -> {
+      V value = getter.get(rs, column);
+      if (value == null) {
+        gen.writeNull();
+      } else {
+        serializer.serialize(value, gen, provider);
+      }
+    };
+  }
+
+  /**
+   * Writer for columns without type information; remembers the serializer of
+   * the last value class, which is the same for every row in practice
+   */
+  private static ColumnWriter generic() {
+    return new ColumnWriter() {
+      private Class<?> lastType;
+      private JsonSerializer<Object> lastSerializer;
+
+      @Override
+      public void write(ResultSet rs, int column, JsonGenerator gen, SerializerProvider serializers)
+          throws IOException, SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+          gen.writeNull();
+        } else if (value instanceof PGobject) {
+          PGobject pgObject = (PGobject) value;
+          if ("json".equals(pgObject.getType()) || "jsonb".equals(pgObject.getType())) {
+            writeJson(pgObject.getValue(), gen);
+          } else if (pgObject.getValue() == null) {
+            gen.writeNull();
+          } else {
+            gen.writeString(pgObject.getValue());
+          }
+        } else if (value instanceof Array) {
+          serializers.defaultSerializeValue(((Array) value).getArray(), gen);
+        } else {
+          if (value.getClass() != lastType) {
+            lastSerializer = serializers.findValueSerializer(value.getClass());
+            lastType = value.getClass();
+          }
+          lastSerializer.serialize(value, gen, serializers);
+        }
+      }
+    };
+  }
+
+  private static void writeJson(String value, JsonGenerator gen) throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else if (value.isBlank()) {
+      // Safely handle empty JSON strings, as PgObjectSerializer does
+      gen.writeRawValue("{}");
+    } else {
+      gen.writeRawValue(value);
+    }
+  }
 }
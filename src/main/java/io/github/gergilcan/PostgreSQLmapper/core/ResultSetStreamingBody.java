@@ -0,0 +1,67 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.OutputStream;
+import java.sql.ResultSet;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Spring MVC {@link StreamingResponseBody} running a query when the response
+ * is written and streaming its rows as NDJSON or CSV straight to the response,
+ * see {@link PostgresEntityMapper#streamingNdjson} and
+ * {@link PostgresEntityMapper#streamingCsv}. Return it from a controller with
+ * {@link #contentType()} as the content type:
+ *
+ * <pre>{@code
+ * ResultSetStreamingBody body = mapper.streamingNdjson(jdbcTemplate, "SELECT * FROM orders");
+ * return ResponseEntity.ok().contentType(MediaType.parseMediaType(body.contentType())).body(body);
+ * }</pre>
+ *
+ * The PostgreSQL driver only fetches in chunks inside a transaction with a
+ * fetch size set on the {@code JdbcTemplate}; without one the whole result is
+ * read into memory before the first row is written. Needs
+ * {@code org.springframework:spring-webmvc} on the classpath.
+ */
+public final class ResultSetStreamingBody implements StreamingResponseBody {
+
+  /** Content type of newline-delimited JSON */
+  public static final String NDJSON = "application/x-ndjson";
+  /** Content type of CSV with a header row */
+  public static final String CSV = "text/csv;charset=UTF-8;header=present";
+
+  /**
+   * Writes the rows of the ResultSet to the response
+   */
+  @FunctionalInterface
+  interface RowWriter {
+    long write(ResultSet rs, OutputStream out);
+  }
+
+  private final JdbcOperations jdbc;
+  private final String sql;
+  private final Object[] args;
+  private final String contentType;
+  private final RowWriter writer;
+
+  ResultSetStreamingBody(JdbcOperations jdbc, String sql, Object[] args, String contentType, RowWriter writer) {
+    this.jdbc = jdbc;
+    this.sql = sql;
+    this.args = args;
+    this.contentType = contentType;
+    this.writer = writer;
+  }
+
+  /**
+   * @return The content type of the body, {@link #NDJSON} or {@link #CSV}
+   */
+  public String contentType() {
+    return contentType;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) {
+    jdbc.query(sql, (ResultSetExtractor<Long>) rs -> writer.write(rs, out), args);
+  }
+}
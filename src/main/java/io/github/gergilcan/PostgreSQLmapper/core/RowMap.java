@@ -0,0 +1,315 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A row of a {@code Map} / {@code List} target: one array of values indexed
+ * through a column name table shared by every row of the scan, instead of a
+ * {@code HashMap} with its own table and one entry object per column. Looking
+ * a column up is a probe in the shared table and an array read.
+ * <p>
+ * Rows iterate in column order and stay fully mutable: values of existing
+ * columns are replaced in place, removed columns are marked absent and keys
+ * that are not columns go to a small map allocated on first use.
+ */
+final class RowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Marks a column removed from the row. */
+  private static final Object ABSENT = new Object();
+
+  /**
+   * The distinct column names of a scan and an open addressing table from name
+   * to index, built once and shared by all its rows. When names repeat, the
+   * last column with a name wins, as with successive {@code put}s.
+   */
+  static final class Keys {
+
+    private final String[] names;
+    /** For every column, the index of its value in the row. */
+    private final int[] slots;
+    /** Open addressing table of value index + 1, 0 marks an empty bucket. */
+    private final int[] table;
+    private final int mask;
+
+    Keys(String[] columnNames) {
+      int capacity = Integer.highestOneBit(Math.max(columnNames.length, 1) * 2 - 1) << 1;
+      this.table = new int[capacity];
+      this.mask = capacity - 1;
+      this.slots = new int[columnNames.length];
+      String[] distinct = new String[columnNames.length];
+      int count = 0;
+      for (int i = 0; i < columnNames.length; i++) {
+        int index = indexOf(columnNames[i], distinct);
+        if (index < 0) {
+          index = count++;
+          distinct[index] = columnNames[i];
+          int bucket = hash(columnNames[i]) & mask;
+          while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+          }
+          table[bucket] = index + 1;
+        }
+        slots[i] = index;
+      }
+      this.names = count == distinct.length ? distinct : Arrays.copyOf(distinct, count);
+    }
+
+    /**
+     * @return The number of distinct names, i.e. the length of a row's values
+     */
+    int size() {
+      return names.length;
+    }
+
+    /**
+     * @param column The 0-based column index
+     * @return The index of the column's value in a row
+     */
+    int slot(int column) {
+      return slots[column];
+    }
+
+    /**
+     * @param key The column name
+     * @return The index of its value in a row, or -1
+     */
+    int indexOf(Object key) {
+      return indexOf(key, names);
+    }
+
+    private int indexOf(Object key, String[] keys) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      int bucket = hash((String) key) & mask;
+      int entry;
+      while ((entry = table[bucket]) != 0) {
+        String name = keys[entry - 1];
+        if (name == key || name.equals(key)) {
+          return entry - 1;
+        }
+        bucket = (bucket + 1) & mask;
+      }
+      return -1;
+    }
+
+    private static int hash(String name) {
+      int h = name.hashCode();
+      return h ^ (h >>> 16);
+    }
+  }
+
+  private final Keys keys;
+  private final Object[] values;
+  /** The number of columns removed from the row. */
+  private int removed;
+  /** Keys put that are not columns, allocated on first use. */
+  private Map<String, Object> extra;
+
+  /**
+   * @param keys   The shared column name table
+   * @param values The values, indexed like {@link Keys#indexOf}; owned by the
+   *               row from now on
+   */
+  RowMap(Keys keys, Object[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  @Override
+  public int size() {
+    return values.length - removed + (extra == null ? 0 : extra.size());
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int index = keys.indexOf(key);
+    if (index >= 0) {
+      return values[index] != ABSENT;
+    }
+    return extra != null && extra.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = keys.indexOf(key);
+    if (index >= 0) {
+      Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+    return extra == null ? null : extra.get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int index = keys.indexOf(key);
+    if (index >= 0) {
+      Object previous = values[index];
+      values[index] = value;
+      if (previous == ABSENT) {
+        removed--;
+        return null;
+      }
+      return previous;
+    }
+    if (extra == null) {
+      extra = new LinkedHashMap<>();
+    }
+    return extra.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    int index = keys.indexOf(key);
+    if (index >= 0) {
+      Object previous = values[index];
+      if (previous == ABSENT) {
+        return null;
+      }
+      values[index] = ABSENT;
+      removed++;
+      return previous;
+    }
+    return extra == null ? null : extra.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, ABSENT);
+    removed = values.length;
+    extra = null;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return RowMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * Serialized as a plain {@code LinkedHashMap}, so readers need no knowledge of
+   * this class or of the shared name table.
+   */
+  private Object writeReplace() {
+    return new LinkedHashMap<>(this);
+  }
+
+  private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+    private int next = advance(0);
+    private int last = -1;
+    private Iterator<Entry<String, Object>> extraEntries;
+
+    private int advance(int from) {
+      while (from < values.length && values[from] == ABSENT) {
+        from++;
+      }
+      return from;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next < values.length) {
+        return true;
+      }
+      if (extraEntries == null) {
+        if (extra == null) {
+          return false;
+        }
+        extraEntries = extra.entrySet().iterator();
+      }
+      return extraEntries.hasNext();
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (next < values.length) {
+        last = next;
+        next = advance(next + 1);
+        return new ColumnEntry(last);
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = -1;
+      return extraEntries.next();
+    }
+
+    @Override
+    public void remove() {
+      if (last >= 0) {
+        values[last] = ABSENT;
+        removed++;
+        last = -1;
+      } else if (extraEntries != null) {
+        extraEntries.remove();
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+  }
+
+  private final class ColumnEntry implements Entry<String, Object> {
+
+    private final int index;
+
+    ColumnEntry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return keys.names[index];
+    }
+
+    @Override
+    public Object getValue() {
+      Object value = values[index];
+      return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = getValue();
+      values[index] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Entry<?, ?> e && getKey().equals(e.getKey())
+          && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
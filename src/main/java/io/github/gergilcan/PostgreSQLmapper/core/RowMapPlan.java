@@ -0,0 +1,107 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Plan extracting the current row into a column name to value Map, used for
+ * {@code Map} / {@code List} targets and as input of {@code convertValue}.
+ * The codec of every column is resolved once from the column type, so reading
+ * a cell is an array lookup and a single call. Rows are {@link RowMap}s sharing
+ * the plan's column name table.
+ */
+final class RowMapPlan implements MappingPlan<Map<String, Object>> {
+
+  private final RowMap.Keys keys;
+  /** Whether value indexes are column indexes, i.e. no column name repeats. */
+  private final boolean distinct;
+  private final PgCodec[] codecs;
+  /**
+   * Columns whose decoding is worth deferring out of {@link #extract}: json /
+   * jsonb (read as text, parsed later) and columns read by the generic codec.
+   */
+  private final boolean[] deferred;
+  private final boolean[] json;
+
+  RowMapPlan(ColumnShape shape, PgCodecRegistry registry) {
+    int columnCount = shape.columnCount();
+    this.keys = new RowMap.Keys(shape.names());
+    this.distinct = keys.size() == columnCount;
+    this.codecs = new PgCodec[columnCount];
+    this.deferred = new boolean[columnCount];
+    this.json = new boolean[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      codecs[i] = registry.resolve(shape, i);
+      json[i] = registry.isJson(shape, i);
+      deferred[i] = json[i] || codecs[i] == registry.generic();
+    }
+  }
+
+  @Override
+  public Map<String, Object> mapRow(ResultSet resultSet) throws SQLException {
+    int columnCount = codecs.length;
+    Object[] row = new Object[keys.size()];
+    for (int i = 0; i < columnCount; i++) {
+      row[keys.slot(i)] = codecs[i].read(resultSet, i + 1);
+    }
+    return new RowMap(keys, row);
+  }
+
+  @Override
+  public Object[] extract(ResultSet resultSet) throws SQLException {
+    int columnCount = codecs.length;
+    Object[] values = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      if (!deferred[i]) {
+        values[i] = codecs[i].read(resultSet, i + 1);
+      } else {
+        values[i] = json[i] ? resultSet.getString(i + 1) : resultSet.getObject(i + 1);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Decodes the deferred columns in place; the extracted array becomes the row
+   */
+  @Override
+  public Map<String, Object> map(Object[] values) throws SQLException {
+    int columnCount = codecs.length;
+    Object[] row = distinct ? values : new Object[keys.size()];
+    for (int i = 0; i < columnCount; i++) {
+      Object value = values[i];
+      row[keys.slot(i)] = deferred[i] && value != null ? codecs[i].decode(value) : value;
+    }
+    return new RowMap(keys, row);
+  }
+
+  @Override
+  public Map<String, Object> map(Object[] values, ScanMetrics scan) throws SQLException {
+    int columnCount = codecs.length;
+    Object[] row = distinct ? values : new Object[keys.size()];
+    for (int i = 0; i < columnCount; i++) {
+      Object value = values[i];
+      if (json[i] && value != null) {
+        long start = System.nanoTime();
+        value = codecs[i].decode(value);
+        scan.add(MappingPhase.JSON_DECODE, System.nanoTime() - start);
+      } else if (deferred[i] && value != null) {
+        value = codecs[i].decode(value);
+      }
+      row[keys.slot(i)] = value;
+    }
+    return new RowMap(keys, row);
+  }
+
+  @Override
+  public Map<String, Object> decode(Object[] values) throws SQLException {
+    int columnCount = codecs.length;
+    Object[] row = distinct ? values : new Object[keys.size()];
+    for (int i = 0; i < columnCount; i++) {
+      Object value = values[i];
+      row[keys.slot(i)] = value == null ? null : codecs[i].decode(value);
+    }
+    return new RowMap(keys, row);
+  }
+}
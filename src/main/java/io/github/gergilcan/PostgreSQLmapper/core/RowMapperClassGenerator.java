@@ -0,0 +1,430 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.ConstantDynamic;
+import org.springframework.asm.Handle;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Emits an {@link EntityRowMapper} for one entity and column shape as a hidden
+ * class, for entities that cannot be annotated with {@link MappedEntity}. The
+ * generated {@code mapRow} is straight-line code: the columns resolved by the
+ * plan are baked in, typed getters feed the setters, fields or constructor
+ * directly, and absent columns cost nothing.
+ * <p>
+ * The class is defined in the entity's package as a nestmate of the entity,
+ * so it can call private setters and write private fields the way the
+ * reflective handles do. It is not strongly bound to its class loader: once
+ * the plan holding it is evicted from the plan cache the class can be
+ * unloaded. Entities whose members cannot be reached that way (e.g. a
+ * class loader that does not see the library, or inherited private members)
+ * get no generated class and keep the reflective plan.
+ */
+final class RowMapperClassGenerator implements Opcodes {
+
+  private static final String OBJECT = Type.getInternalName(Object.class);
+  private static final String RESULT_SET = Type.getInternalName(ResultSet.class);
+  private static final String MAP_ROW = Type.getMethodDescriptor(Type.getType(Object.class),
+      Type.getType(ResultSet.class), Type.getType(int[].class), Type.getType(EntityRowMapper.Values.class));
+  private static final String READ = Type.getMethodDescriptor(Type.getType(Object.class),
+      Type.getType(ResultSet.class), Type.INT_TYPE);
+  private static final ConstantDynamic CLASS_DATA = new ConstantDynamic("_", Type.getDescriptor(List.class),
+      new Handle(H_INVOKESTATIC, Type.getInternalName(MethodHandles.class), "classData",
+          MethodType.methodType(Object.class, MethodHandles.Lookup.class, String.class, Class.class)
+              .toMethodDescriptorString(),
+          false));
+
+  private final EntityDescriptor<?> entity;
+  private final String owner;
+  private final int[] columns;
+  /** Per property: the setter or field to write, {@code null} for constructor arguments. */
+  private final MethodHandleInfo[] writers;
+  /** Per property: the type of the value written. */
+  private final Class<?>[] valueTypes;
+  private final MethodType constructorType;
+
+  private RowMapperClassGenerator(EntityDescriptor<?> entity, int[] columns, MethodHandleInfo[] writers,
+      Class<?>[] valueTypes, MethodType constructorType) {
+    this.entity = entity;
+    this.owner = Type.getInternalName(entity.type());
+    this.columns = columns;
+    this.writers = writers;
+    this.valueTypes = valueTypes;
+    this.constructorType = constructorType;
+  }
+
+  /**
+   * @param <T>     The entity type
+   * @param entity  The reflective description of the entity
+   * @param columns Per property, as passed to {@link EntityRowMapper#mapRow}
+   * @return A new instance of the generated class, or {@code null} if none can
+   *         be generated for the entity
+   */
+  @SuppressWarnings("unchecked")
+  static <T> EntityRowMapper<T> generate(EntityDescriptor<T> entity, int[] columns) {
+    Class<T> type = entity.type();
+    if (entity.constructor() == null || type.isHidden() || !sees(type.getClassLoader())) {
+      return null;
+    }
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      if (!lookup.hasFullPrivilegeAccess()) {
+        // Entity in another module or class loader
+        return null;
+      }
+      MethodHandleInfo constructor = lookup.revealDirect(entity.constructor());
+      if (!accessible(constructor, type)) {
+        return null;
+      }
+      List<PropertyDescriptor> properties = entity.properties();
+      MethodHandleInfo[] writers = new MethodHandleInfo[properties.size()];
+      Class<?>[] valueTypes = new Class<?>[properties.size()];
+      for (int i = 0; i < properties.size(); i++) {
+        PropertyDescriptor property = properties.get(i);
+        if (entity.usesCreator()) {
+          valueTypes[i] = constructor.getMethodType().parameterType(property.creatorIndex());
+        } else if (columns[i] != 0) {
+          MethodHandle setter = property.setter();
+          if (setter == null) {
+            return null;
+          }
+          writers[i] = lookup.revealDirect(setter);
+          if (!accessible(writers[i], type)) {
+            return null;
+          }
+          valueTypes[i] = writers[i].getMethodType().parameterType(0);
+        }
+        if (valueTypes[i] != null && !accessible(valueTypes[i], type)) {
+          return null;
+        }
+      }
+      byte[] bytes = new RowMapperClassGenerator(entity, columns, writers, valueTypes,
+          constructor.getMethodType()).emit();
+      Class<?> generated = lookup.defineHiddenClassWithClassData(bytes, properties(entity), true,
+          MethodHandles.Lookup.ClassOption.NESTMATE).lookupClass();
+      return (EntityRowMapper<T>) generated.getConstructor().newInstance();
+    } catch (ReflectiveOperationException | IllegalArgumentException | LinkageError e) {
+      // Not reachable from a hidden class or rejected by the verifier: the reflective plan does the job
+      return null;
+    }
+  }
+
+  /**
+   * Checks that the generated class, resolved through the entity's class
+   * loader, implements this library's interface
+   */
+  private static boolean sees(ClassLoader loader) {
+    try {
+      return Class.forName(EntityRowMapper.class.getName(), false, loader) == EntityRowMapper.class;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static boolean accessible(MethodHandleInfo member, Class<?> type) {
+    int kind = member.getReferenceKind();
+    if (kind != MethodHandleInfo.REF_invokeVirtual && kind != MethodHandleInfo.REF_invokeSpecial
+        && kind != MethodHandleInfo.REF_putField && kind != MethodHandleInfo.REF_newInvokeSpecial) {
+      return false;
+    }
+    Class<?> declaringClass = member.getDeclaringClass();
+    int modifiers = member.getModifiers();
+    if (Modifier.isPrivate(modifiers)) {
+      return declaringClass.getNestHost() == type.getNestHost();
+    }
+    if (samePackage(declaringClass, type)) {
+      return true;
+    }
+    return Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers());
+  }
+
+  private static boolean accessible(Class<?> valueType, Class<?> type) {
+    while (valueType.isArray()) {
+      valueType = valueType.getComponentType();
+    }
+    return valueType.isPrimitive() || Modifier.isPublic(valueType.getModifiers()) || samePackage(valueType, type);
+  }
+
+  private static boolean samePackage(Class<?> a, Class<?> b) {
+    return a.getClassLoader() == b.getClassLoader() && a.getPackageName().equals(b.getPackageName());
+  }
+
+  private static List<EntityRowMapper.Property> properties(EntityDescriptor<?> entity) {
+    List<EntityRowMapper.Property> properties = new ArrayList<>(entity.properties().size());
+    for (PropertyDescriptor property : entity.properties()) {
+      properties.add(new EntityRowMapper.Property(property.name(), property.aliases(), property.type()));
+    }
+    return List.copyOf(properties);
+  }
+
+  private byte[] emit() {
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+      @Override
+      protected String getCommonSuperClass(String type1, String type2) {
+        // Only dead temporaries are merged, no need to load the classes
+        return OBJECT;
+      }
+    };
+    writer.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, owner + "$$RowMapper", null, OBJECT,
+        new String[] { Type.getInternalName(EntityRowMapper.class) });
+
+    MethodVisitor init = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(ALOAD, 0);
+    init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+    init.visitInsn(RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    MethodVisitor type = writer.visitMethod(ACC_PUBLIC, "type", "()Ljava/lang/Class;", null, null);
+    type.visitCode();
+    type.visitLdcInsn(Type.getObjectType(owner));
+    type.visitInsn(ARETURN);
+    type.visitMaxs(0, 0);
+    type.visitEnd();
+
+    MethodVisitor properties = writer.visitMethod(ACC_PUBLIC, "properties", "()Ljava/util/List;", null, null);
+    properties.visitCode();
+    properties.visitLdcInsn(CLASS_DATA);
+    properties.visitInsn(ARETURN);
+    properties.visitMaxs(0, 0);
+    properties.visitEnd();
+
+    emitMapRow(writer.visitMethod(ACC_PUBLIC, "mapRow", MAP_ROW, null, new String[] { "java/sql/SQLException" }));
+    emitCreate(writer.visitMethod(ACC_PUBLIC, "create", "([Ljava/lang/Object;)Ljava/lang/Object;", null, null));
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /** {@code mapRow(ResultSet resultSet, int[] columns, Values values)} */
+  private void emitMapRow(MethodVisitor method) {
+    method.visitCode();
+    Locals locals = begin(method, 4);
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] == 0) {
+        continue;
+      }
+      Label skip = new Label();
+      Class<?> valueType = valueTypes[i];
+      Class<?> primitive = valueType.isPrimitive() ? valueType : ColumnBinding.unboxed(valueType);
+      if (columns[i] > 0 && valueType == String.class) {
+        method.visitVarInsn(ALOAD, 1);
+        push(method, columns[i]);
+        method.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, "getString", "(I)Ljava/lang/String;", true);
+        method.visitVarInsn(ASTORE, locals.object);
+        method.visitVarInsn(ALOAD, locals.object);
+        method.visitJumpInsn(IFNULL, skip);
+        assign(method, locals, i, () -> method.visitVarInsn(ALOAD, locals.object));
+      } else if (columns[i] > 0 && primitive != null) {
+        Type primitiveType = Type.getType(primitive);
+        method.visitVarInsn(ALOAD, 1);
+        push(method, columns[i]);
+        method.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, getter(primitive),
+            Type.getMethodDescriptor(primitiveType, Type.INT_TYPE), true);
+        method.visitVarInsn(primitiveType.getOpcode(ISTORE), locals.primitive);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, "wasNull", "()Z", true);
+        method.visitJumpInsn(IFNE, skip);
+        assign(method, locals, i, () -> {
+          method.visitVarInsn(primitiveType.getOpcode(ILOAD), locals.primitive);
+          if (!valueType.isPrimitive()) {
+            Type boxed = Type.getType(valueType);
+            method.visitMethodInsn(INVOKESTATIC, boxed.getInternalName(), "valueOf",
+                Type.getMethodDescriptor(boxed, primitiveType), false);
+          }
+        });
+      } else {
+        method.visitVarInsn(ALOAD, 3);
+        method.visitVarInsn(ALOAD, 1);
+        push(method, i);
+        method.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(EntityRowMapper.Values.class), "read", READ,
+            true);
+        assignObject(method, locals, i, skip);
+      }
+      method.visitLabel(skip);
+    }
+    end(method, locals);
+  }
+
+  /** {@code create(Object[] values)} */
+  private void emitCreate(MethodVisitor method) {
+    method.visitCode();
+    Locals locals = begin(method, 2);
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] == 0) {
+        continue;
+      }
+      Label skip = new Label();
+      method.visitVarInsn(ALOAD, 1);
+      push(method, i);
+      method.visitInsn(AALOAD);
+      assignObject(method, locals, i, skip);
+      method.visitLabel(skip);
+    }
+    end(method, locals);
+  }
+
+  /**
+   * Assigns the boxed value on the stack unless it is {@code null}
+   */
+  private void assignObject(MethodVisitor method, Locals locals, int property, Label skip) {
+    Class<?> valueType = valueTypes[property];
+    method.visitVarInsn(ASTORE, locals.object);
+    method.visitVarInsn(ALOAD, locals.object);
+    method.visitJumpInsn(IFNULL, skip);
+    assign(method, locals, property, () -> {
+      method.visitVarInsn(ALOAD, locals.object);
+      Type boxed = Type.getType(PropertyDescriptor.boxed(valueType));
+      method.visitTypeInsn(CHECKCAST, boxed.getInternalName());
+      if (valueType.isPrimitive()) {
+        Type primitive = Type.getType(valueType);
+        method.visitMethodInsn(INVOKEVIRTUAL, boxed.getInternalName(), primitive.getClassName() + "Value",
+            Type.getMethodDescriptor(primitive), false);
+      }
+    });
+  }
+
+  /**
+   * Instantiates the entity, or initializes the constructor arguments to their
+   * defaults
+   */
+  private Locals begin(MethodVisitor method, int firstLocal) {
+    Locals locals = new Locals();
+    int next = firstLocal;
+    if (entity.usesCreator()) {
+      locals.arguments = new int[constructorType.parameterCount()];
+      for (int i = 0; i < locals.arguments.length; i++) {
+        Type argument = Type.getType(constructorType.parameterType(i));
+        locals.arguments[i] = next;
+        next += argument.getSize();
+        pushDefault(method, argument);
+        method.visitVarInsn(argument.getOpcode(ISTORE), locals.arguments[i]);
+      }
+    } else {
+      method.visitTypeInsn(NEW, owner);
+      method.visitInsn(DUP);
+      method.visitMethodInsn(INVOKESPECIAL, owner, "<init>", "()V", false);
+      locals.entity = next++;
+      method.visitVarInsn(ASTORE, locals.entity);
+    }
+    locals.object = next++;
+    locals.primitive = next;
+    return locals;
+  }
+
+  private void assign(MethodVisitor method, Locals locals, int property, Runnable value) {
+    if (entity.usesCreator()) {
+      int index = entity.properties().get(property).creatorIndex();
+      value.run();
+      method.visitVarInsn(Type.getType(valueTypes[property]).getOpcode(ISTORE), locals.arguments[index]);
+      return;
+    }
+    MethodHandleInfo writer = writers[property];
+    String declaringClass = Type.getInternalName(writer.getDeclaringClass());
+    method.visitVarInsn(ALOAD, locals.entity);
+    value.run();
+    if (writer.getReferenceKind() == MethodHandleInfo.REF_putField) {
+      method.visitFieldInsn(PUTFIELD, declaringClass, writer.getName(), Type.getDescriptor(valueTypes[property]));
+      return;
+    }
+    MethodType setterType = writer.getMethodType();
+    // Private nestmate methods are invoked with invokevirtual as well
+    method.visitMethodInsn(INVOKEVIRTUAL, declaringClass, writer.getName(), setterType.toMethodDescriptorString(),
+        false);
+    Type returned = Type.getType(setterType.returnType());
+    if (returned.getSize() == 1) {
+      method.visitInsn(POP);
+    } else if (returned.getSize() == 2) {
+      method.visitInsn(POP2);
+    }
+  }
+
+  private void end(MethodVisitor method, Locals locals) {
+    if (entity.usesCreator()) {
+      method.visitTypeInsn(NEW, owner);
+      method.visitInsn(DUP);
+      for (int i = 0; i < locals.arguments.length; i++) {
+        method.visitVarInsn(Type.getType(constructorType.parameterType(i)).getOpcode(ILOAD), locals.arguments[i]);
+      }
+      method.visitMethodInsn(INVOKESPECIAL, owner, "<init>",
+          constructorType.changeReturnType(void.class).toMethodDescriptorString(), false);
+    } else {
+      method.visitVarInsn(ALOAD, locals.entity);
+    }
+    method.visitInsn(ARETURN);
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+  }
+
+  private static void pushDefault(MethodVisitor method, Type type) {
+    switch (type.getSort()) {
+      case Type.LONG:
+        method.visitInsn(LCONST_0);
+        break;
+      case Type.FLOAT:
+        method.visitInsn(FCONST_0);
+        break;
+      case Type.DOUBLE:
+        method.visitInsn(DCONST_0);
+        break;
+      case Type.OBJECT:
+      case Type.ARRAY:
+        method.visitInsn(ACONST_NULL);
+        break;
+      default:
+        method.visitInsn(ICONST_0);
+    }
+  }
+
+  private static void push(MethodVisitor method, int value) {
+    if (value >= -1 && value <= 5) {
+      method.visitInsn(ICONST_0 + value);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      method.visitIntInsn(BIPUSH, value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      method.visitIntInsn(SIPUSH, value);
+    } else {
+      method.visitLdcInsn(value);
+    }
+  }
+
+  /**
+   * @return The ResultSet getter of a primitive the plan reads directly
+   */
+  private static String getter(Class<?> primitive) {
+    if (primitive == int.class) {
+      return "getInt";
+    } else if (primitive == long.class) {
+      return "getLong";
+    } else if (primitive == double.class) {
+      return "getDouble";
+    } else if (primitive == float.class) {
+      return "getFloat";
+    } else if (primitive == short.class) {
+      return "getShort";
+    } else if (primitive == boolean.class) {
+      return "getBoolean";
+    }
+    throw new IllegalArgumentException("No typed getter for " + primitive);
+  }
+
+  /** Local variable slots of a generated method. */
+  private static final class Locals {
+    private int entity;
+    private int[] arguments;
+    private int object;
+    private int primitive;
+  }
+}
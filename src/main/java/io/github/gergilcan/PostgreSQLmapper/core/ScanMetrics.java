@@ -0,0 +1,34 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+/**
+ * Time and rows accumulated while mapping one ResultSet, reported to
+ * {@link MappingMetrics} when the scan ends. Only created when metrics are
+ * enabled; not thread-safe.
+ */
+final class ScanMetrics {
+
+  private final long start = System.nanoTime();
+  private final long[] phases = new long[MappingPhase.values().length];
+  private long rows;
+
+  void add(MappingPhase phase, long nanos) {
+    phases[phase.ordinal()] += nanos;
+  }
+
+  void row() {
+    rows++;
+  }
+
+  /**
+   * Reports the scan; {@link MappingPhase#BIND} time is recorded net of the
+   * json decoding done while binding
+   */
+  void finish(MappingMetrics metrics, Class<?> targetType) {
+    long nanos = System.nanoTime() - start;
+    phases[MappingPhase.BIND.ordinal()] -= phases[MappingPhase.JSON_DECODE.ordinal()];
+    metrics.recordMapping(targetType, rows, nanos);
+    for (MappingPhase phase : MappingPhase.values()) {
+      metrics.recordPhase(targetType, phase, Math.max(phases[phase.ordinal()], 0));
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event of one ResultSet written as JSON by
+ * {@link ResultSetSerializer} or exported in another format. Disabled events
+ * are not timed nor committed.
+ */
+@Name("io.github.gergilcan.PostgreSQLmapper.Serialization")
+@Label("ResultSet Serialization")
+@Category({ "PostgreSQL Mapper" })
+@Description("Rows of a ResultSet written as a JSON array or exported")
+@StackTrace(false)
+final class SerializationEvent extends Event {
+
+  @Label("Format")
+  @Description("json, ndjson, csv or arrow")
+  String format;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Columns")
+  int columns;
+}
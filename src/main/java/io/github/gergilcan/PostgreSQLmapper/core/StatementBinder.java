@@ -0,0 +1,368 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Binds the properties of an entity as PreparedStatement parameters, the write
+ * side of a {@link MappingPlan}. A binding is chosen once per column from the
+ * column type (or, without table metadata, from the property type): primitive
+ * properties are read through exactly typed getter handles and bound with the
+ * typed setters, json / jsonb columns get a {@link PGobject} written by the
+ * mapper, arrays go through {@code createArrayOf}, java.time values are passed
+ * to PgJDBC natively and enums are bound by name as untyped parameters, so
+ * they also fit PostgreSQL enum columns.
+ * <p>
+ * Binders are immutable and thread safe. They are obtained from
+ * {@link EntityWriter#binder(java.sql.Connection, String, Class)} or
+ * {@link EntityWriter#binder(Class, String...)}.
+ *
+ * @param <T> The entity type
+ */
+public final class StatementBinder<T> {
+
+  /**
+   * Binds one property of an entity
+   */
+  @FunctionalInterface
+  private interface ParameterBinding {
+    void bind(PreparedStatement statement, int index, Object entity) throws Throwable;
+  }
+
+  private final List<String> columnNames;
+  private final PropertyDescriptor[] properties;
+  private final ParameterBinding[] bindings;
+  private final ObjectMapper mapper;
+
+  /**
+   * @param entity The descriptor of the entity type
+   * @param shape  The bound columns, in parameter order
+   * @param mapper The ObjectMapper used for json / jsonb columns
+   * @throws SQLException If a column has no readable property
+   */
+  StatementBinder(EntityDescriptor<T> entity, ColumnShape shape, ObjectMapper mapper) throws SQLException {
+    this.mapper = mapper;
+    this.columnNames = List.of(shape.names());
+    this.properties = new PropertyDescriptor[shape.columnCount()];
+    this.bindings = new ParameterBinding[shape.columnCount()];
+    for (int i = 0; i < properties.length; i++) {
+      PropertyDescriptor property = entity.find(shape.name(i));
+      if (property == null || !property.readable()) {
+        throw new SQLException("Column " + shape.name(i) + " matches no readable property of "
+            + entity.type().getName());
+      }
+      properties[i] = property;
+      bindings[i] = bindingFor(property, shape.typeName(i), shape.type(i));
+    }
+  }
+
+  /**
+   * @return The bound column names, in parameter order
+   */
+  public List<String> columnNames() {
+    return columnNames;
+  }
+
+  /**
+   * @return The number of parameters bound per entity
+   */
+  public int parameterCount() {
+    return bindings.length;
+  }
+
+  /**
+   * Binds the properties of an entity to consecutive parameters
+   *
+   * @param statement      The statement
+   * @param firstParameter The 1-based index of the first parameter to bind
+   * @param entity         The entity, not {@code null}
+   * @return The index of the parameter following the bound ones
+   * @throws SQLException If a property cannot be read or bound
+   */
+  public int bind(PreparedStatement statement, int firstParameter, T entity) throws SQLException {
+    int index = firstParameter;
+    for (int i = 0; i < bindings.length; i++, index++) {
+      try {
+        bindings[i].bind(statement, index, entity);
+      } catch (SQLException e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new SQLException("Failed to bind property " + properties[i].name() + " to column "
+            + columnNames.get(i), e);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Infers the PostgreSQL type a property is bound as when there is no table
+   * metadata
+   *
+   * @param type The property type
+   * @return The type name, {@code unknown} for untyped parameters
+   */
+  static String typeNameOf(JavaType type) {
+    Class<?> raw = type.getRawClass();
+    if (raw == int.class || raw == Integer.class) {
+      return "int4";
+    } else if (raw == long.class || raw == Long.class) {
+      return "int8";
+    } else if (raw == short.class || raw == Short.class) {
+      return "int2";
+    } else if (raw == double.class || raw == Double.class) {
+      return "float8";
+    } else if (raw == float.class || raw == Float.class) {
+      return "float4";
+    } else if (raw == boolean.class || raw == Boolean.class) {
+      return "bool";
+    } else if (raw == String.class || raw == Character.class || raw == char.class) {
+      return "text";
+    } else if (raw == BigDecimal.class || raw == BigInteger.class) {
+      return "numeric";
+    } else if (raw == UUID.class) {
+      return "uuid";
+    } else if (raw == LocalDate.class || raw == java.sql.Date.class) {
+      return "date";
+    } else if (raw == LocalDateTime.class || raw == Timestamp.class) {
+      return "timestamp";
+    } else if (raw == Instant.class || raw == OffsetDateTime.class || raw == ZonedDateTime.class) {
+      return "timestamptz";
+    } else if (raw == byte[].class) {
+      return "bytea";
+    } else if (raw.isEnum()) {
+      return "unknown";
+    } else if (type.isArrayType() || type.isCollectionLikeType()) {
+      String elementType = typeNameOf(type.getContentType());
+      return "jsonb".equals(elementType) || "unknown".equals(elementType) ? "jsonb" : "_" + elementType;
+    }
+    return "jsonb";
+  }
+
+  private ParameterBinding bindingFor(PropertyDescriptor property, String typeName, int jdbcType) {
+    Class<?> raw = property.rawType();
+    boolean structured = "json".equals(typeName) || "jsonb".equals(typeName)
+        || (typeName != null && typeName.startsWith("_"));
+    if (raw.isPrimitive() && !structured) {
+      return primitiveBinding(property, raw);
+    }
+    MethodHandle reader = property.reader(Object.class);
+    ValueBinder binder = valueBinder(typeName);
+    int nullType = structured || typeName == null ? Types.OTHER : jdbcType;
+    return (statement, index, entity) -> {
+      Object value = reader.invokeExact(entity);
+      if (value == null) {
+        statement.setNull(index, nullType);
+      } else {
+        binder.bind(statement, index, value);
+      }
+    };
+  }
+
+  private static ParameterBinding primitiveBinding(PropertyDescriptor property, Class<?> raw) {
+    MethodHandle reader = property.reader(raw);
+    if (raw == int.class) {
+      return (statement, index, entity) -> statement.setInt(index, (int) reader.invokeExact(entity));
+    } else if (raw == long.class) {
+      return (statement, index, entity) -> statement.setLong(index, (long) reader.invokeExact(entity));
+    } else if (raw == double.class) {
+      return (statement, index, entity) -> statement.setDouble(index, (double) reader.invokeExact(entity));
+    } else if (raw == float.class) {
+      return (statement, index, entity) -> statement.setFloat(index, (float) reader.invokeExact(entity));
+    } else if (raw == short.class) {
+      return (statement, index, entity) -> statement.setShort(index, (short) reader.invokeExact(entity));
+    } else if (raw == boolean.class) {
+      return (statement, index, entity) -> statement.setBoolean(index, (boolean) reader.invokeExact(entity));
+    } else if (raw == byte.class) {
+      return (statement, index, entity) -> statement.setShort(index, (byte) reader.invokeExact(entity));
+    }
+    MethodHandle boxed = property.reader(Object.class);
+    return (statement, index, entity) -> statement.setString(index, String.valueOf(boxed.invokeExact(entity)));
+  }
+
+  /**
+   * Binds one non-null value
+   */
+  @FunctionalInterface
+  private interface ValueBinder {
+    void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+  }
+
+  private ValueBinder valueBinder(String typeName) {
+    switch (typeName == null ? "unknown" : typeName) {
+      case "int2":
+        return (statement, index, value) -> {
+          if (value instanceof Number) {
+            statement.setShort(index, ((Number) value).shortValue());
+          } else {
+            statement.setObject(index, value, Types.SMALLINT);
+          }
+        };
+      case "int4":
+        return (statement, index, value) -> {
+          if (value instanceof Number) {
+            statement.setInt(index, ((Number) value).intValue());
+          } else {
+            statement.setObject(index, value, Types.INTEGER);
+          }
+        };
+      case "int8":
+        return (statement, index, value) -> {
+          if (value instanceof Number) {
+            statement.setLong(index, ((Number) value).longValue());
+          } else {
+            statement.setObject(index, value, Types.BIGINT);
+          }
+        };
+      case "float4":
+        return (statement, index, value) -> {
+          if (value instanceof Number) {
+            statement.setFloat(index, ((Number) value).floatValue());
+          } else {
+            statement.setObject(index, value, Types.REAL);
+          }
+        };
+      case "float8":
+        return (statement, index, value) -> {
+          if (value instanceof Number) {
+            statement.setDouble(index, ((Number) value).doubleValue());
+          } else {
+            statement.setObject(index, value, Types.DOUBLE);
+          }
+        };
+      case "numeric":
+        return (statement, index, value) -> {
+          if (value instanceof BigDecimal) {
+            statement.setBigDecimal(index, (BigDecimal) value);
+          } else if (value instanceof BigInteger) {
+            statement.setBigDecimal(index, new BigDecimal((BigInteger) value));
+          } else {
+            statement.setObject(index, value, Types.NUMERIC);
+          }
+        };
+      case "bool":
+        return (statement, index, value) -> {
+          if (value instanceof Boolean) {
+            statement.setBoolean(index, (Boolean) value);
+          } else {
+            statement.setObject(index, value, Types.BOOLEAN);
+          }
+        };
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+        return (statement, index, value) -> statement.setString(index, text(value));
+      case "uuid":
+        return (statement, index, value) -> statement.setObject(index,
+            value instanceof UUID ? value : UUID.fromString(value.toString()));
+      case "bytea":
+        return (statement, index, value) -> statement.setBytes(index, (byte[]) value);
+      case "date":
+      case "timestamp":
+        // LocalDate / LocalDateTime and the java.sql types are bound natively
+        return PreparedStatement::setObject;
+      case "timestamptz":
+        return (statement, index, value) -> {
+          if (value instanceof Instant) {
+            statement.setObject(index, OffsetDateTime.ofInstant((Instant) value, ZoneOffset.UTC));
+          } else if (value instanceof ZonedDateTime) {
+            statement.setObject(index, ((ZonedDateTime) value).toOffsetDateTime());
+          } else {
+            statement.setObject(index, value);
+          }
+        };
+      case "json":
+      case "jsonb":
+        return (statement, index, value) -> {
+          PGobject json = new PGobject();
+          json.setType(typeName);
+          json.setValue(json(value));
+          statement.setObject(index, json);
+        };
+      default:
+        if (typeName != null && typeName.startsWith("_")) {
+          String elementType = typeName.substring(1);
+          boolean jsonElements = "json".equals(elementType) || "jsonb".equals(elementType);
+          return (statement, index, value) -> statement.setArray(index,
+              statement.getConnection().createArrayOf(elementType, elements(value, jsonElements)));
+        }
+        // Enums and other types the server infers from the column
+        return (statement, index, value) -> {
+          if (value instanceof Enum || value instanceof String) {
+            statement.setObject(index, text(value), Types.OTHER);
+          } else {
+            statement.setObject(index, value);
+          }
+        };
+    }
+  }
+
+  private Object[] elements(Object value, boolean jsonElements) throws SQLException {
+    Object[] elements;
+    if (value instanceof Collection) {
+      elements = ((Collection<?>) value).toArray();
+    } else if (value instanceof Object[] && !jsonElements) {
+      elements = ((Object[]) value).clone();
+    } else if (value.getClass().isArray()) {
+      elements = new Object[Array.getLength(value)];
+      for (int i = 0; i < elements.length; i++) {
+        elements[i] = Array.get(value, i);
+      }
+    } else {
+      throw new SQLException("Expected an array or Collection but got " + value.getClass().getName());
+    }
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] instanceof Enum) {
+        elements[i] = ((Enum<?>) elements[i]).name();
+      } else if (jsonElements && elements[i] != null) {
+        elements[i] = json(elements[i]);
+      }
+    }
+    return elements;
+  }
+
+  private String text(Object value) {
+    if (value instanceof String) {
+      return (String) value;
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+        || value instanceof UUID || value instanceof Character) {
+      return value.toString();
+    }
+    return mapper.convertValue(value, String.class);
+  }
+
+  /** A String is taken as JSON text, as the read side hands out json as text. */
+  private String json(Object value) throws SQLException {
+    if (value instanceof String) {
+      return (String) value;
+    }
+    try {
+      return mapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new SQLException("Failed to write " + value.getClass().getName() + " as JSON", e);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entities indexed by a {@code uuid} key, the {@link UUID} counterpart of
+ * {@link LongIndex}: both halves of each key are kept in {@code long[]}
+ * tables, so no {@code UUID} nor entry object is retained per row.
+ * <p>
+ * Values are never {@code null}; putting an existing key replaces its value.
+ * Not thread-safe while written, safe to share once loaded.
+ *
+ * @param <V> The entity type
+ */
+public final class UuidIndex<V> {
+
+  /** Callback of {@link #forEach}. */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+    void accept(UUID key, V value);
+  }
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] mostBits;
+  private long[] leastBits;
+  /** Values by bucket, {@code null} marks an empty bucket. */
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+
+  /**
+   * @param expectedSize The number of keys expected, to size the table once
+   */
+  public UuidIndex(int expectedSize) {
+    allocate(IndexTables.capacity(expectedSize, MIN_CAPACITY));
+  }
+
+  private void allocate(int capacity) {
+    mostBits = new long[capacity];
+    leastBits = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeAt = IndexTables.resizeAt(capacity);
+  }
+
+  /**
+   * @param key   The key
+   * @param value The value, not {@code null}
+   * @return The previous value of the key, or {@code null}
+   */
+  public V put(UUID key, V value) {
+    return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+  }
+
+  /**
+   * {@link #put(UUID, Object)} with the key given by its two halves
+   */
+  public V put(long most, long least, V value) {
+    Objects.requireNonNull(value, "value");
+    int bucket = bucket(most, least);
+    while (values[bucket] != null) {
+      if (mostBits[bucket] == most && leastBits[bucket] == least) {
+        @SuppressWarnings("unchecked")
+        V previous = (V) values[bucket];
+        values[bucket] = value;
+        return previous;
+      }
+      bucket = (bucket + 1) & mask;
+    }
+    mostBits[bucket] = most;
+    leastBits[bucket] = least;
+    values[bucket] = value;
+    if (++size > resizeAt) {
+      grow();
+    }
+    return null;
+  }
+
+  /**
+   * @param key The key
+   * @return Its value, or {@code null}
+   */
+  public V get(UUID key) {
+    return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+  }
+
+  /**
+   * {@link #get(UUID)} with the key given by its two halves
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long most, long least) {
+    int bucket = bucket(most, least);
+    Object value;
+    while ((value = values[bucket]) != null) {
+      if (mostBits[bucket] == most && leastBits[bucket] == least) {
+        return (V) value;
+      }
+      bucket = (bucket + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @param key          The key
+   * @param defaultValue Returned when the key is absent
+   * @return Its value, or the default value
+   */
+  public V getOrDefault(UUID key, V defaultValue) {
+    V value = get(key);
+    return value != null ? value : defaultValue;
+  }
+
+  public boolean containsKey(UUID key) {
+    return get(key) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Calls the consumer for every entry, in no particular order
+   *
+   * @param consumer The callback
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(EntryConsumer<? super V> consumer) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        consumer.accept(new UUID(mostBits[i], leastBits[i]), (V) values[i]);
+      }
+    }
+  }
+
+  /**
+   * @return A new list of the values, in no particular order
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> values() {
+    Object[] compact = new Object[size];
+    int count = 0;
+    for (Object value : values) {
+      if (value != null) {
+        compact[count++] = value;
+      }
+    }
+    return (List<V>) (List<?>) Arrays.asList(compact);
+  }
+
+  private int bucket(long most, long least) {
+    return IndexTables.bucket(most ^ least, mask);
+  }
+
+  private void grow() {
+    long[] oldMost = mostBits;
+    long[] oldLeast = leastBits;
+    Object[] oldValues = values;
+    allocate(oldValues.length * 2);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int bucket = bucket(oldMost[i], oldLeast[i]);
+        while (values[bucket] != null) {
+          bucket = (bucket + 1) & mask;
+        }
+        mostBits[bucket] = oldMost[i];
+        leastBits[bucket] = oldLeast[i];
+        values[bucket] = oldValues[i];
+      }
+    }
+  }
+}
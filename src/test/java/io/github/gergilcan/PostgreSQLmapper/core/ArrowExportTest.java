@@ -0,0 +1,139 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("Arrow IPC export")
+class ArrowExportTest {
+
+  private static final UUID REFERENCE = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+  /**
+   * Rows 1..rowCount; row 2 is NULL in every column but id
+   */
+  private static ResultSet createEventResultSet(int rowCount) throws SQLException {
+    String[] names = { "id", "priority", "payload", "reference", "amount", "created_at", "tags" };
+    int[] types = { Types.BIGINT, Types.SMALLINT, Types.OTHER, Types.OTHER, Types.NUMERIC, Types.TIMESTAMP,
+        Types.ARRAY };
+    String[] typeNames = { "int8", "int2", "jsonb", "uuid", "numeric", "timestamptz", "_int4" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+    ResultSetMetaData meta = rs.getMetaData();
+    when(meta.getPrecision(5)).thenReturn(10);
+    when(meta.getScale(5)).thenReturn(2);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getShort(2)).thenAnswer(inv -> row.get() == 2 ? (short) 0 : (short) (row.get() * 10));
+    when(rs.wasNull()).thenAnswer(inv -> row.get() == 2);
+    when(rs.getString(3)).thenAnswer(inv -> row.get() == 2 ? null : "{\"row\":" + row.get() + "}");
+    when(rs.getObject(4)).thenAnswer(inv -> row.get() == 2 ? null : REFERENCE);
+    when(rs.getBigDecimal(5)).thenAnswer(inv -> row.get() == 2 ? null : new BigDecimal(row.get() + ".5"));
+    when(rs.getString(6)).thenAnswer(inv -> row.get() == 2 ? null : "2024-01-02 03:04:05.123456+01");
+    when(rs.getArray(7)).thenAnswer(inv -> {
+      if (row.get() == 2) {
+        return null;
+      }
+      Array array = mock(Array.class);
+      when(array.getArray()).thenReturn(new Integer[] { row.get(), null, -row.get() });
+      return array;
+    });
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Writes typed record batches readable by Arrow")
+  void writesRecordBatches() throws SQLException, IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long rows = new PostgresEntityMapper().writeArrow(createEventResultSet(5), out, 3);
+
+    assertEquals(5, rows);
+    try (BufferAllocator allocator = new RootAllocator();
+        ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      Schema schema = root.getSchema();
+      assertEquals(new ArrowType.Int(64, true), schema.findField("id").getType());
+      assertEquals("arrow.json", schema.findField("payload").getMetadata().get("ARROW:extension:name"));
+      assertEquals("arrow.uuid", schema.findField("reference").getMetadata().get("ARROW:extension:name"));
+      assertEquals(new ArrowType.Decimal(10, 2, 128), schema.findField("amount").getType());
+      assertInstanceOf(ArrowType.List.class, schema.findField("tags").getType());
+
+      assertTrue(reader.loadNextBatch());
+      assertEquals(3, root.getRowCount());
+      assertEquals(3L, ((BigIntVector) root.getVector("id")).get(2));
+      assertEquals(10, ((SmallIntVector) root.getVector("priority")).get(0));
+      assertTrue(root.getVector("priority").isNull(1));
+      assertEquals("{\"row\":1}", ((VarCharVector) root.getVector("payload")).getObject(0).toString());
+      assertNull(root.getVector("payload").getObject(1));
+      byte[] reference = ((FixedSizeBinaryVector) root.getVector("reference")).get(0);
+      assertEquals(0x12, reference[0]);
+      assertEquals(new BigDecimal("3.50"), ((DecimalVector) root.getVector("amount")).getObject(2));
+      long micros = ((TimeStampMicroTZVector) root.getVector("created_at")).get(0);
+      assertEquals(Instant.parse("2024-01-02T02:04:05.123456Z"),
+          Instant.ofEpochSecond(micros / 1_000_000, micros % 1_000_000 * 1_000));
+      ListVector tags = (ListVector) root.getVector("tags");
+      assertEquals(Arrays.asList(1, null, -1), tags.getObject(0));
+      assertTrue(tags.isNull(1));
+      assertEquals(Arrays.asList(3, null, -3), tags.getObject(2));
+
+      assertTrue(reader.loadNextBatch());
+      assertEquals(2, root.getRowCount());
+      assertEquals(5L, ((BigIntVector) root.getVector("id")).get(1));
+      assertFalse(root.getVector("priority").isNull(1));
+      assertFalse(reader.loadNextBatch());
+    }
+  }
+
+  @Test
+  @DisplayName("Writes the schema alone for an empty ResultSet")
+  void writesEmptyStream() throws SQLException, IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(0, new PostgresEntityMapper().writeArrow(createEventResultSet(0), out));
+
+    try (BufferAllocator allocator = new RootAllocator();
+        ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+      assertEquals(List.of("id", "priority", "payload", "reference", "amount", "created_at", "tags"),
+          reader.getVectorSchemaRoot().getSchema().getFields().stream().map(Field::getName).toList());
+      assertFalse(reader.loadNextBatch());
+    }
+  }
+}
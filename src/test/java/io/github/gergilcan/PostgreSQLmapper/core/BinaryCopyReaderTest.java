@@ -0,0 +1,121 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.BinaryCopyHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.RecordEntity;
+
+@DisplayName("Binary COPY stream mapping")
+class BinaryCopyReaderTest {
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  @Test
+  @DisplayName("Decodes tuples into entities with the ResultSet property resolution")
+  void mapsEntities() throws IOException {
+    UUID id = UUID.randomUUID();
+    InputStream in = new BinaryCopyHelper()
+        .tuple(4).uuid(id).text("Ada").int4(36).bool(true)
+        .tuple(4).nullValue().text("Bob").nullValue().bool(false)
+        .end();
+
+    try (Stream<RecordEntity> rows = mapper.readBinaryCopy(in, new String[] { "id", "full_name", "age", "is_active" },
+        new String[] { "uuid", "text", "int4", "bool" }, RecordEntity.class)) {
+      assertEquals(List.of(new RecordEntity(id, "Ada", 36, true), new RecordEntity(null, "Bob", 0, false)),
+          rows.toList());
+    }
+  }
+
+  @Test
+  @DisplayName("Decodes numeric, jsonb, timestamps, dates and arrays into Map rows")
+  void mapsRows() throws IOException {
+    InputStream in = new BinaryCopyHelper()
+        .tuple(7)
+        .numeric(0, 0, 2, 12, 5000)
+        .numeric(1, 0x4000, 0, 1)
+        .jsonb("{\"tags\":[\"a\",\"b\"]}")
+        .timestamp(762_608_700_000_000L)
+        .date(8826)
+        .int4Array(1, 2, 3)
+        .int8(Long.MAX_VALUE)
+        .end();
+
+    @SuppressWarnings("rawtypes")
+    List<Map> rows = mapper.readBinaryCopy(in,
+        new String[] { "price", "delta", "document", "created_at", "day", "ids", "counter" },
+        new String[] { "numeric", "numeric", "jsonb", "timestamptz", "date", "_int4", "int8" }, Map.class).toList();
+
+    Map<?, ?> row = rows.get(0);
+    assertEquals(new BigDecimal("12.50"), row.get("price"));
+    assertEquals(new BigDecimal("-10000"), row.get("delta"));
+    assertEquals(Map.of("tags", List.of("a", "b")), row.get("document"));
+    assertEquals(Timestamp.from(Instant.parse("2024-03-01T11:45:00Z")).toLocalDateTime(), row.get("created_at"));
+    assertEquals(LocalDate.of(2024, 3, 1), row.get("day"));
+    assertArrayEquals(new Integer[] { 1, 2, 3 }, (Object[]) row.get("ids"));
+    assertEquals(Long.MAX_VALUE, row.get("counter"));
+  }
+
+  @Test
+  @DisplayName("Rejects streams that are not binary COPY output")
+  void rejectsInvalidStreams() {
+    InputStream in = new ByteArrayInputStream("id\n1\n".getBytes(StandardCharsets.UTF_8));
+
+    Stream<RecordEntity> rows = mapper.readBinaryCopy(in, new String[] { "id" }, new String[] { "uuid" },
+        RecordEntity.class);
+    assertThrows(ResultSetMappingException.class, rows::toList);
+  }
+
+  @Test
+  @DisplayName("Hands registered codecs the decoded value of binary types and the text of text-like ones")
+  @SuppressWarnings("rawtypes")
+  void decodesRegisteredCodecs() throws IOException {
+    mapper.registerCodec("int4", value -> "#" + value)
+        .registerCodec("citext", value -> ((String) value).toUpperCase())
+        .registerCodec("jsonb", value -> ((PGobject) value).getValue().length());
+    InputStream in = new BinaryCopyHelper()
+        .tuple(3).int4(42).text("ada").jsonb("{\"a\":1}")
+        .end();
+
+    List<Map> rows = mapper.readBinaryCopy(in, new String[] { "id", "name", "document" },
+        new String[] { "int4", "citext", "jsonb" }, Map.class).toList();
+
+    assertEquals(Map.of("id", "#42", "name", "ADA", "document", 7), rows.get(0));
+  }
+
+  @Test
+  @DisplayName("Rejects a registered codec on a type without a binary decoder")
+  void rejectsCodecsWithoutBinaryDecoder() {
+    mapper.registerCodec("point", value -> value);
+    InputStream in = new ByteArrayInputStream(new byte[0]);
+
+    ResultSetMappingException e = assertThrows(ResultSetMappingException.class,
+        () -> mapper.readBinaryCopy(in, new String[] { "location" }, new String[] { "point" }, Map.class));
+    assertTrue(e.getCause().getMessage().contains("location"));
+  }
+}
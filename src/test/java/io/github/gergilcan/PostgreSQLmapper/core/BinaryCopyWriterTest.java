@@ -0,0 +1,117 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.model.RecordEntity;
+import lombok.Data;
+
+@DisplayName("Binary COPY stream writing")
+class BinaryCopyWriterTest {
+
+  public enum Status {
+    OPEN, CLOSED
+  }
+
+  @Data
+  public static class Order {
+    private UUID id;
+    private String name;
+    private BigDecimal price;
+    private Status status;
+    private List<String> tags;
+    private Map<String, Object> document;
+    private Instant createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDate day;
+    private long[] lines;
+  }
+
+  private static final String[] COLUMNS = { "id", "name", "price", "status", "tags", "document", "created_at",
+      "updated_at", "day", "lines" };
+  private static final String[] TYPES = { "uuid", "text", "numeric", "varchar", "_text", "jsonb", "timestamptz",
+      "timestamp", "date", "_int8" };
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  @Test
+  @DisplayName("Encodes entities that read back equal through the binary COPY reader")
+  void roundTripsEntities() {
+    Order order = new Order();
+    order.setId(UUID.randomUUID());
+    order.setName("Łódź café");
+    order.setPrice(new BigDecimal("12345678.0050"));
+    order.setStatus(Status.CLOSED);
+    order.setTags(List.of("a", "b"));
+    order.setDocument(Map.of("nested", Map.of("n", 1)));
+    order.setCreatedAt(Instant.parse("2024-03-01T11:45:00.123456Z"));
+    order.setUpdatedAt(LocalDateTime.of(1999, 12, 31, 23, 59, 59));
+    order.setDay(LocalDate.of(1970, 1, 1));
+    order.setLines(new long[] { 1, Long.MAX_VALUE });
+    Order empty = new Order();
+    empty.setTags(List.of());
+    empty.setDay(LocalDate.MAX);
+
+    assertEquals(List.of(order, empty), roundTrip(List.of(order, empty), COLUMNS, TYPES, Order.class));
+  }
+
+  @Test
+  @DisplayName("Encodes numeric values of any scale and sign")
+  void roundTripsNumerics() {
+    List<String> values = List.of("0", "0.0001", "-0.5", "10000", "1E+20", "-98765432109876543210.123456789",
+        "3.14159265358979323846");
+    for (String value : values) {
+      Order order = new Order();
+      order.setPrice(new BigDecimal(value));
+      Order copy = roundTrip(List.of(order), new String[] { "price" }, new String[] { "numeric" }, Order.class)
+          .get(0);
+      assertEquals(0, new BigDecimal(value).compareTo(copy.getPrice()), value);
+    }
+  }
+
+  @Test
+  @DisplayName("Reads record components through their accessors")
+  void writesRecords() {
+    RecordEntity entity = new RecordEntity(UUID.randomUUID(), "Ada", 36, true);
+
+    assertEquals(List.of(entity), roundTrip(List.of(entity), new String[] { "id", "full_name", "age", "is_active" },
+        new String[] { "uuid", "text", "int4", "bool" }, RecordEntity.class));
+  }
+
+  @Test
+  @DisplayName("Rejects columns without a binary encoder or a matching property")
+  void rejectsUnsupportedColumns() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<Order> rows = List.of(new Order());
+
+    assertThrows(ResultSetMappingException.class, () -> mapper.writeBinaryCopy(out, new String[] { "name" },
+        new String[] { "tsvector" }, rows, Order.class));
+    assertThrows(ResultSetMappingException.class, () -> mapper.writeBinaryCopy(out, new String[] { "unknown" },
+        new String[] { "text" }, rows, Order.class));
+  }
+
+  private <T> List<T> roundTrip(List<T> rows, String[] columns, String[] types, Class<T> type) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(rows.size(), mapper.writeBinaryCopy(out, columns, types, rows, type));
+    return mapper.readBinaryCopy(new ByteArrayInputStream(out.toByteArray()), columns, types, type).toList();
+  }
+}
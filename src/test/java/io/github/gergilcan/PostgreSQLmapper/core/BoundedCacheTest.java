@@ -0,0 +1,57 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Bounded per-shape caches")
+class BoundedCacheTest {
+
+  @Test
+  @DisplayName("Loads each key once and keeps at most the bound")
+  void boundsEntries() throws SQLException {
+    BoundedCache<Integer, String> cache = new BoundedCache<>(2);
+    AtomicInteger loads = new AtomicInteger();
+
+    String first = cache.get(1, key -> "value " + key + " #" + loads.incrementAndGet());
+    assertSame(first, cache.get(1, key -> "value " + key + " #" + loads.incrementAndGet()));
+    for (int key = 2; key <= 10; key++) {
+      cache.get(key, missing -> "value " + missing);
+    }
+
+    assertEquals(1, loads.get());
+    assertTrue(cache.size() <= 2);
+  }
+
+  @Test
+  @DisplayName("Loads outside of the map, so a loader may use the cache")
+  void loadsOutsideOfTheMap() throws SQLException {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+
+    String table = cache.get("orders", key -> "table " + cache.get(key + ".columns", columns -> "id, total"));
+
+    assertEquals("table id, total", table);
+    assertEquals("id, total", cache.get("orders.columns", key -> "reloaded"));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  @DisplayName("Reports loader failures without caching them")
+  void propagatesFailures() throws SQLException {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+    SQLException failure = new SQLException("no such table");
+
+    assertSame(failure, assertThrows(SQLException.class, () -> cache.get("orders", key -> {
+      throw failure;
+    })));
+    assertEquals(0, cache.size());
+    assertEquals("loaded", cache.get("orders", key -> "loaded"));
+  }
+}
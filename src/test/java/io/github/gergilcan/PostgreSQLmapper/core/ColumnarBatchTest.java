@@ -0,0 +1,166 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("Columnar batches")
+class ColumnarBatchTest {
+
+  private static final String[] STATUSES = { "open", "paid", "shipped" };
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  /**
+   * Rows 1..rowCount; every 7th row is NULL in every column but id
+   */
+  private static ResultSet createOrderResultSet(int rowCount) throws SQLException {
+    String[] names = { "id", "quantity", "price", "paid", "status", "total" };
+    int[] types = { Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.BIT, Types.VARCHAR, Types.NUMERIC };
+    String[] typeNames = { "int8", "int4", "float8", "bool", "text", "numeric" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    AtomicInteger lastColumn = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.wasNull()).thenAnswer(inv -> lastColumn.get() > 1 && row.get() % 7 == 0);
+    when(rs.getLong(1)).thenAnswer(inv -> {
+      lastColumn.set(1);
+      return (long) row.get();
+    });
+    when(rs.getInt(2)).thenAnswer(inv -> {
+      lastColumn.set(2);
+      return row.get() % 7 == 0 ? 0 : row.get() % 5;
+    });
+    when(rs.getDouble(3)).thenAnswer(inv -> {
+      lastColumn.set(3);
+      return row.get() % 7 == 0 ? 0 : row.get() * 1.5;
+    });
+    when(rs.getBoolean(4)).thenAnswer(inv -> {
+      lastColumn.set(4);
+      return row.get() % 7 != 0 && row.get() % 2 == 0;
+    });
+    when(rs.getString(5)).thenAnswer(inv -> row.get() % 7 == 0 ? null : STATUSES[row.get() % 3]);
+    when(rs.getObject(6)).thenAnswer(inv -> row.get() % 7 == 0 ? null : BigDecimal.valueOf(row.get(), 2));
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Reads every column into primitive arrays, a dictionary or values, with NULLs")
+  void readsColumns() throws SQLException {
+    ColumnarBatch batch = mapper.mapColumnar(createOrderResultSet(100));
+
+    assertEquals(100, batch.rowCount());
+    assertEquals(6, batch.columnCount());
+    ColumnarBatch.LongColumn ids = assertInstanceOf(ColumnarBatch.LongColumn.class, batch.column("id"));
+    ColumnarBatch.IntColumn quantities = assertInstanceOf(ColumnarBatch.IntColumn.class, batch.column(1));
+    ColumnarBatch.DoubleColumn prices = assertInstanceOf(ColumnarBatch.DoubleColumn.class, batch.column("price"));
+    ColumnarBatch.BooleanColumn paid = assertInstanceOf(ColumnarBatch.BooleanColumn.class, batch.column("paid"));
+    ColumnarBatch.StringColumn statuses = assertInstanceOf(ColumnarBatch.StringColumn.class,
+        batch.column("status"));
+    ColumnarBatch.ObjectColumn totals = assertInstanceOf(ColumnarBatch.ObjectColumn.class, batch.column("total"));
+
+    // Storage is trimmed to the rows read
+    assertEquals(100, ids.values().length);
+    assertEquals(5050, Arrays.stream(ids.values()).sum());
+    assertEquals(0, ids.nullCount());
+    assertEquals(14, quantities.nullCount());
+    assertTrue(quantities.isNull(69));
+    assertNull(quantities.getObject(69));
+    assertEquals(0, quantities.get(69));
+    assertFalse(quantities.isNull(70));
+    assertEquals(1, quantities.get(70));
+    assertEquals(99 * 1.5, prices.get(98));
+    assertTrue(paid.get(1));
+    assertFalse(paid.isNull(2));
+    assertTrue(paid.isNull(13));
+
+    // Three distinct values in order of first appearance, NULLs as code -1
+    assertEquals(List.of("paid", "shipped", "open"), statuses.dictionary());
+    assertEquals(100, statuses.codes().length);
+    assertEquals(-1, statuses.code(6));
+    assertNull(statuses.get(6));
+    assertEquals("open", statuses.get(8));
+    assertEquals(new BigDecimal("0.09"), totals.get(8));
+    assertNull(totals.get(6));
+    assertEquals(14, totals.nullCount());
+  }
+
+  @Test
+  @DisplayName("Reads a large ResultSet in batches of bounded size")
+  void readsInBatches() throws SQLException {
+    ResultSet rs = createOrderResultSet(10);
+
+    ColumnarBatch first = mapper.mapColumnar(rs, 4);
+    ColumnarBatch second = mapper.mapColumnar(rs, 4);
+    ColumnarBatch third = mapper.mapColumnar(rs, 4);
+    ColumnarBatch last = mapper.mapColumnar(rs, 4);
+
+    assertArrayEquals(new long[] { 1, 2, 3, 4 }, ((ColumnarBatch.LongColumn) first.column(0)).values());
+    assertArrayEquals(new long[] { 5, 6, 7, 8 }, ((ColumnarBatch.LongColumn) second.column(0)).values());
+    assertTrue(second.column("price").isNull(2));
+    assertEquals(2, third.rowCount());
+    assertEquals(0, last.rowCount());
+    assertEquals(0, ((ColumnarBatch.StringColumn) last.column("status")).dictionary().size());
+  }
+
+  @Test
+  @DisplayName("Tells NULLs apart past the storage capacity of the first NULL")
+  void readsEarlyNullsOfLongScans() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "quantity" }, new int[] { Types.INTEGER },
+        new String[] { "int4" });
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= 1000);
+    // NULL in the first three rows only
+    when(rs.getInt(1)).thenAnswer(inv -> row.get() <= 3 ? 0 : row.get());
+    when(rs.wasNull()).thenAnswer(inv -> row.get() <= 3);
+
+    ColumnarBatch.IntColumn quantities = (ColumnarBatch.IntColumn) mapper.mapColumnar(rs).column(0);
+
+    assertEquals(3, quantities.nullCount());
+    assertTrue(quantities.isNull(2));
+    assertFalse(quantities.isNull(999));
+    assertEquals(1000, quantities.getObject(999));
+  }
+
+  @Test
+  @DisplayName("Stops looking up mostly distinct text values")
+  void storesDistinctTextPlainly() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "email" }, new int[] { Types.VARCHAR },
+        new String[] { "varchar" });
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= 2000);
+    // Unique values, then one value repeated
+    when(rs.getString(1)).thenAnswer(inv -> row.get() <= 1000 ? "user" + row.get() + "@example.com" : "shared");
+
+    ColumnarBatch.StringColumn emails = (ColumnarBatch.StringColumn) mapper.mapColumnar(rs).column(0);
+
+    assertEquals("user1000@example.com", emails.get(999));
+    assertEquals("shared", emails.get(1999));
+    assertEquals(emails.code(1999) - 1, emails.code(1998));
+    assertEquals(2000, emails.dictionary().size());
+  }
+}
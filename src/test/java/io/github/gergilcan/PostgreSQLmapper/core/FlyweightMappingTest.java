@@ -0,0 +1,147 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Flyweight row callbacks")
+class FlyweightMappingTest {
+
+  @Data
+  public static class Shipment {
+    private long id;
+    private int priority = 5;
+    private String status = "new";
+    private Address address;
+    private List<String> tags;
+  }
+
+  @Data
+  public static class Address {
+    private String street;
+    private String city;
+  }
+
+  @Data
+  public static class Crate {
+    private long id;
+    private List<String> tags = new ArrayList<>();
+  }
+
+  public record ShipmentRecord(long id, int priority, String status) {
+  }
+
+  private static final Object[][] ROWS = {
+      { 1L, 1, "sent", "{\"street\":\"Main St\",\"city\":\"Porto\"}", "[\"fragile\",\"express\"]" },
+      { 2L, null, null, "{\"street\":\"Side St\"}", "[\"bulk\"]" },
+      { 3L, 3, "lost", null, null } };
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static ResultSet createShipmentResultSet() throws SQLException {
+    String[] names = { "id", "priority", "status", "address", "tags" };
+    int[] types = { Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.OTHER, Types.OTHER };
+    String[] typeNames = { "int8", "int4", "text", "jsonb", "jsonb" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger(-1);
+    AtomicInteger lastColumn = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() < ROWS.length);
+    when(rs.getLong(1)).thenAnswer(inv -> {
+      lastColumn.set(1);
+      return ROWS[row.get()][0];
+    });
+    when(rs.getInt(2)).thenAnswer(inv -> {
+      lastColumn.set(2);
+      Object value = ROWS[row.get()][1];
+      return value == null ? 0 : value;
+    });
+    when(rs.wasNull()).thenAnswer(inv -> ROWS[row.get()][lastColumn.get() - 1] == null);
+    for (int column = 3; column <= 5; column++) {
+      int index = column - 1;
+      when(rs.getString(column)).thenAnswer(inv -> ROWS[row.get()][index]);
+    }
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Rebinds one instance per row, resetting NULL columns to the initial values")
+  void reusesOneInstance() throws SQLException {
+    List<Shipment> seen = new ArrayList<>();
+    List<String> snapshots = new ArrayList<>();
+    List<Address> addresses = new ArrayList<>();
+
+    long count = mapper.forEach(createShipmentResultSet(), Shipment.class, shipment -> {
+      seen.add(shipment);
+      snapshots.add(shipment.toString());
+      addresses.add(shipment.getAddress());
+    });
+
+    assertEquals(3, count);
+    assertSame(seen.get(0), seen.get(2));
+    assertEquals("FlyweightMappingTest.Shipment(id=1, priority=1, status=sent, "
+        + "address=FlyweightMappingTest.Address(street=Main St, city=Porto), tags=[fragile, express])",
+        snapshots.get(0));
+    assertEquals("FlyweightMappingTest.Shipment(id=2, priority=5, status=new, "
+        + "address=FlyweightMappingTest.Address(street=Side St, city=null), tags=[bulk])", snapshots.get(1));
+    assertEquals("FlyweightMappingTest.Shipment(id=3, priority=3, status=lost, address=null, tags=null)",
+        snapshots.get(2));
+    // The nested bean of the first row was updated in place
+    assertSame(addresses.get(0), addresses.get(1));
+    assertNull(addresses.get(2));
+  }
+
+  @Test
+  @DisplayName("Resets NULL columns to a new mutable default every time")
+  void freshMutableDefaults() throws SQLException {
+    List<List<String>> resets = new ArrayList<>();
+    Consumer<Crate> open = crate -> {
+      if (crate.getId() == 3) {
+        assertEquals(List.of(), crate.getTags());
+        resets.add(crate.getTags());
+        crate.getTags().add("opened");
+      }
+    };
+
+    mapper.forEach(createShipmentResultSet(), Crate.class, open);
+    mapper.forEach(createShipmentResultSet(), Crate.class, open);
+
+    assertEquals(2, resets.size());
+    assertNotSame(resets.get(0), resets.get(1));
+  }
+
+  @Test
+  @DisplayName("Constructor-built types get a new instance per row")
+  void recordsGetNewInstances() throws SQLException {
+    List<ShipmentRecord> seen = new ArrayList<>();
+
+    mapper.forEach(createShipmentResultSet(), ShipmentRecord.class, seen::add);
+
+    assertEquals(3, seen.size());
+    assertNotSame(seen.get(0), seen.get(1));
+    assertEquals(new ShipmentRecord(2, 0, null), seen.get(1));
+    assertEquals(new ShipmentRecord(3, 3, "lost"), seen.get(2));
+  }
+}
@@ -0,0 +1,189 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Compile-time generated row mappers")
+class GeneratedMappingPlanTest {
+
+  @Data
+  public static class Reading {
+    private long id;
+    private String label;
+    private Map<String, Object> data;
+  }
+
+  /** Written the way the annotation processor generates it. */
+  static class ReadingRowMapper implements EntityRowMapper<Reading> {
+
+    private static final List<Property> PROPERTIES = List.of(
+        new Property("id", List.of("id"), long.class),
+        new Property("label", List.of("label", "name"), String.class),
+        new Property("data", List.of("data"), new TypeReference<Map<String, Object>>() {
+        }.getType()));
+
+    private final AtomicInteger rows = new AtomicInteger();
+
+    @Override
+    public Class<Reading> type() {
+      return Reading.class;
+    }
+
+    @Override
+    public List<Property> properties() {
+      return PROPERTIES;
+    }
+
+    @Override
+    public Reading mapRow(ResultSet resultSet, int[] columns, Values values) throws SQLException {
+      rows.incrementAndGet();
+      Reading entity = new Reading();
+      int column = columns[0];
+      if (column > 0) {
+        long value = resultSet.getLong(column);
+        if (!resultSet.wasNull()) {
+          entity.setId(value);
+        }
+      } else if (column < 0) {
+        Object value = values.read(resultSet, 0);
+        if (value != null) {
+          entity.setId((Long) value);
+        }
+      }
+      column = columns[1];
+      if (column > 0) {
+        String value = resultSet.getString(column);
+        if (value != null) {
+          entity.setLabel(value);
+        }
+      } else if (column < 0) {
+        Object value = values.read(resultSet, 1);
+        if (value != null) {
+          entity.setLabel((String) value);
+        }
+      }
+      column = columns[2];
+      if (column != 0) {
+        Object value = values.read(resultSet, 2);
+        if (value != null) {
+          entity.setData((Map<String, Object>) value);
+        }
+      }
+      return entity;
+    }
+
+    @Override
+    public Reading create(Object[] values) {
+      Reading entity = new Reading();
+      if (values[0] != null) {
+        entity.setId((Long) values[0]);
+      }
+      if (values[1] != null) {
+        entity.setLabel((String) values[1]);
+      }
+      if (values[2] != null) {
+        entity.setData((Map<String, Object>) values[2]);
+      }
+      return entity;
+    }
+  }
+
+  private PostgresEntityMapper mapper;
+  private ReadingRowMapper rowMapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+    rowMapper = new ReadingRowMapper();
+  }
+
+  private static ResultSet createReadingResultSet(int rowCount) throws SQLException {
+    String[] names = { "id", "name", "data" };
+    int[] types = { Types.BIGINT, Types.VARCHAR, Types.OTHER };
+    String[] typeNames = { "int8", "text", "jsonb" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getString(2)).thenReturn("sensor");
+    when(rs.getString(3)).thenReturn("{\"celsius\":21.5}");
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Maps rows through the registered mapper with the library's column resolution")
+  void mapsThroughRegisteredMapper() throws SQLException {
+    mapper.registerRowMapper(rowMapper);
+    ResultSet rs = createReadingResultSet(2);
+
+    Reading[] readings = mapper.map(rs, Reading[].class);
+
+    assertEquals(2, rowMapper.rows.get());
+    assertEquals(2, readings[1].getId());
+    // Matched through the alias, read with getString
+    assertEquals("sensor", readings[1].getLabel());
+    // jsonb still goes through the json binding
+    assertEquals(21.5, readings[1].getData().get("celsius"));
+    verify(rs, never()).getObject(anyInt());
+  }
+
+  @Test
+  @DisplayName("Replaces plans cached before the mapper was registered")
+  void replacesCachedPlans() throws SQLException {
+    Reading reflective = mapper.map(createReadingResultSet(1), Reading.class);
+    // The reflective descriptor does not know the "name" alias
+    assertNull(reflective.getLabel());
+
+    mapper.registerRowMapper(rowMapper);
+    Reading generated = mapper.map(createReadingResultSet(1), Reading.class);
+
+    assertEquals(1, rowMapper.rows.get());
+    assertEquals("sensor", generated.getLabel());
+  }
+
+  @Test
+  @DisplayName("Skips listed row mappers that cannot be loaded")
+  void skipsStaleServiceEntries(@TempDir Path classes) throws Exception {
+    Path services = classes.resolve("META-INF/services/" + EntityRowMapper.class.getName());
+    Files.createDirectories(services.getParent());
+    // Left behind by a renamed entity
+    Files.writeString(services, "sample.Gone_EntityRowMapper\n");
+    Thread thread = Thread.currentThread();
+    ClassLoader loader = thread.getContextClassLoader();
+    PostgresEntityMapper withStaleEntry;
+    try (URLClassLoader stale = new URLClassLoader(new URL[] { classes.toUri().toURL() }, loader)) {
+      thread.setContextClassLoader(stale);
+      withStaleEntry = new PostgresEntityMapper();
+    } finally {
+      thread.setContextClassLoader(loader);
+    }
+
+    assertEquals(1, withStaleEntry.map(createReadingResultSet(1), Reading.class).getId());
+  }
+}
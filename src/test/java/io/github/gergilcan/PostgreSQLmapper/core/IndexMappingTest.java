@@ -0,0 +1,117 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Keyed index results")
+class IndexMappingTest {
+
+  @Data
+  public static class Country {
+    private long id;
+    private UUID reference;
+    private String name;
+  }
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static UUID reference(int row) {
+    return new UUID(row * 31L, -row);
+  }
+
+  /**
+   * Rows 1..rowCount with id = row, except the last one repeating id 1
+   */
+  private static ResultSet createCountryResultSet(int rowCount, Long nullAt) throws SQLException {
+    String[] names = { "id", "reference", "name" };
+    int[] types = { Types.BIGINT, Types.OTHER, Types.VARCHAR };
+    String[] typeNames = { "int8", "uuid", "text" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> {
+      long id = row.get() == rowCount ? 1 : row.get();
+      return nullAt != null && nullAt == id ? 0L : id;
+    });
+    when(rs.wasNull()).thenAnswer(inv -> nullAt != null && nullAt == row.get());
+    when(rs.getObject(2)).thenAnswer(inv -> reference(row.get()));
+    when(rs.getString(3)).thenAnswer(inv -> "country " + row.get());
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Indexes rows by an integer column, the last row winning")
+  void indexesByLong() throws SQLException {
+    LongIndex<Country> index = mapper.indexByLong(createCountryResultSet(1000, null), Country.class, "id");
+
+    assertEquals(999, index.size());
+    assertEquals("country 1000", index.get(1).getName());
+    assertEquals("country 500", index.get(500).getName());
+    assertNull(index.get(1000));
+    assertFalse(index.containsKey(-1));
+    Map<Long, String> names = new HashMap<>();
+    index.forEach((id, country) -> names.put(id, country.getName()));
+    assertEquals(999, names.size());
+    assertEquals(999, index.values().size());
+  }
+
+  @Test
+  @DisplayName("Indexes rows by a uuid column")
+  void indexesByUuid() throws SQLException {
+    UuidIndex<Country> index = mapper.indexByUuid(createCountryResultSet(300, null), Country.class, "reference");
+
+    assertEquals(300, index.size());
+    assertEquals("country 42", index.get(reference(42)).getName());
+    assertNull(index.get(reference(301)));
+  }
+
+  @Test
+  @DisplayName("Rejects NULL keys and non-integer key columns")
+  void rejectsInvalidKeys() throws SQLException {
+    ResultSet withNull = createCountryResultSet(10, 4L);
+    ResultSet rs = createCountryResultSet(10, null);
+
+    assertThrows(ResultSetMappingException.class, () -> mapper.indexByLong(withNull, Country.class, "id"));
+    assertThrows(ResultSetMappingException.class, () -> mapper.indexByLong(rs, Country.class, "name"));
+    assertThrows(ResultSetMappingException.class, () -> mapper.indexByLong(rs, Country.class, "missing"));
+  }
+
+  @Test
+  @DisplayName("Grows past its expected size and handles colliding keys")
+  void growsAndProbes() {
+    LongIndex<String> index = new LongIndex<>(0);
+    for (long key = -5000; key < 5000; key += 7) {
+      index.put(key << 20, "v" + key);
+    }
+    assertEquals("v-5000", index.put(-5000L << 20, "replaced"));
+
+    assertEquals(1429, index.size());
+    assertEquals("replaced", index.get(-5000L << 20));
+    assertEquals("v4996", index.get(4996L << 20));
+    assertNull(index.get(4995L << 20));
+  }
+}
@@ -0,0 +1,143 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Join aggregation")
+class JoinMappingTest {
+
+  @Data
+  public static class Order {
+    private long id;
+    private String customer;
+    private List<Item> items;
+    private Set<Payment> payments;
+  }
+
+  public record Item(long id, String sku, List<Option> options) {
+  }
+
+  public record Option(long id, String label) {
+  }
+
+  public record Payment(long id, String method) {
+  }
+
+  private static final String[] COLUMNS = { "id", "customer", "item_id", "item_sku", "option_id", "option_label",
+      "payment_id", "payment_method" };
+  private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BIGINT,
+      Types.VARCHAR, Types.BIGINT, Types.VARCHAR };
+  private static final Object[][] ROWS = {
+      // Order 1: two items (the first with two options) times two payments
+      { 1L, "ada", 10L, "A-10", 100L, "red", 1000L, "card" },
+      { 1L, "ada", 10L, "A-10", 100L, "red", 1001L, "cash" },
+      { 1L, "ada", 10L, "A-10", 101L, "blue", 1000L, "card" },
+      { 1L, "ada", 10L, "A-10", 101L, "blue", 1001L, "cash" },
+      { 1L, "ada", 11L, "A-11", null, null, 1000L, "card" },
+      { 1L, "ada", 11L, "A-11", null, null, 1001L, "cash" },
+      // Order 2: no items nor payments (outer join)
+      { 2L, "bob", null, null, null, null, null, null },
+      // Order 3: one item
+      { 3L, "cy", 30L, "C-30", null, null, null, null } };
+
+  private static final JoinMapping<Order> ORDERS = JoinMapping.of(Order.class, "id")
+      .withCollection("items", JoinMapping.of(Item.class, "item_id").withPrefix("item_")
+          .withCollection("options", JoinMapping.of(Option.class, "option_id").withPrefix("option_")))
+      .withCollection("payments", JoinMapping.of(Payment.class, "payment_id").withPrefix("payment_"));
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static ResultSet createJoinedResultSet(AtomicInteger rowsRead) throws SQLException {
+    String[] typeNames = Arrays.stream(TYPES).mapToObj(type -> type == Types.BIGINT ? "int8" : "text")
+        .toArray(String[]::new);
+    ResultSet rs = ResultSetHelper.createResultSet(COLUMNS, TYPES, typeNames);
+
+    AtomicInteger lastColumn = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> rowsRead.incrementAndGet() <= ROWS.length);
+    when(rs.getObject(anyInt())).thenAnswer(inv -> value(rowsRead, inv.getArgument(0)));
+    when(rs.getString(anyInt())).thenAnswer(inv -> value(rowsRead, inv.getArgument(0)));
+    when(rs.getLong(anyInt())).thenAnswer(inv -> {
+      lastColumn.set(inv.getArgument(0));
+      Object value = value(rowsRead, lastColumn.get());
+      return value == null ? 0L : value;
+    });
+    when(rs.wasNull()).thenAnswer(inv -> value(rowsRead, lastColumn.get()) == null);
+    return rs;
+  }
+
+  private static Object value(AtomicInteger rowsRead, int column) {
+    return ROWS[rowsRead.get() - 1][column - 1];
+  }
+
+  @Test
+  @DisplayName("Folds consecutive rows into multi-level graphs without duplicates")
+  void foldsRowsIntoGraphs() throws SQLException {
+    List<Order> orders = mapper.mapJoined(createJoinedResultSet(new AtomicInteger()), ORDERS);
+
+    assertEquals(3, orders.size());
+    Order first = orders.get(0);
+    assertEquals("ada", first.getCustomer());
+    assertEquals(List.of(new Item(10, "A-10", List.of(new Option(100, "red"), new Option(101, "blue"))),
+        new Item(11, "A-11", List.of())), first.getItems());
+    assertEquals(Set.of(new Payment(1000, "card"), new Payment(1001, "cash")), first.getPayments());
+    assertTrue(orders.get(1).getItems().isEmpty());
+    assertTrue(orders.get(1).getPayments().isEmpty());
+    assertEquals(List.of(new Item(30, "C-30", List.of())), orders.get(2).getItems());
+  }
+
+  @Test
+  @DisplayName("Streams one root at a time")
+  void streamsRoots() throws SQLException {
+    AtomicInteger rowsRead = new AtomicInteger();
+    List<Long> ids = new ArrayList<>();
+    try (Stream<Order> stream = mapper.streamJoined(createJoinedResultSet(rowsRead), ORDERS)) {
+      Iterator<Order> iterator = stream.iterator();
+      ids.add(iterator.next().getId());
+      // The first order is complete once the first row of the second is read
+      assertEquals(7, rowsRead.get());
+      iterator.forEachRemaining(order -> ids.add(order.getId()));
+    }
+    assertEquals(List.of(1L, 2L, 3L), ids);
+  }
+
+  @Test
+  @DisplayName("Rejects unknown collection properties and missing key columns")
+  void rejectsInvalidMappings() throws SQLException {
+    JoinMapping<Order> unknownProperty = JoinMapping.of(Order.class, "id")
+        .withCollection("lines", JoinMapping.of(Item.class, "item_id").withPrefix("item_"));
+    JoinMapping<Order> missingKey = JoinMapping.of(Order.class, "order_id");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> mapper.mapJoined(createJoinedResultSet(new AtomicInteger()), unknownProperty));
+    assertThrows(ResultSetMappingException.class,
+        () -> mapper.mapJoined(createJoinedResultSet(new AtomicInteger()), missingKey));
+    assertThrows(IllegalArgumentException.class,
+        () -> JoinMapping.of(Order.class, "id").withCollection("items", JoinMapping.of(Item.class, "item_id")));
+  }
+}
@@ -0,0 +1,77 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ComplexEntityHelper;
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.ComplexEntity;
+import io.github.gergilcan.PostgreSQLmapper.model.ComplexEntity.ContactInfo;
+import io.github.gergilcan.PostgreSQLmapper.model.ComplexEntity.ProjectStatus;
+import lombok.Data;
+
+@DisplayName("json / jsonb columns decoded into nested types")
+class JsonbMappingTest {
+
+  @Data
+  public static class Document {
+    private ComplexEntity.Address address;
+    private String raw;
+  }
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  @Test
+  @DisplayName("Parses jsonb PGobjects straight into nested entity properties")
+  void parsesPgObjectsIntoNestedTypes() throws SQLException {
+    ResultSet rs = ComplexEntityHelper.createComplexEntityResultSet(1);
+
+    ComplexEntity entity = mapper.map(rs, ComplexEntity.class);
+
+    assertEquals(List.of("java", "postgresql", "testing"), entity.getTags());
+    assertEquals("high", entity.getMetadata().get("priority"));
+    assertEquals("Test City", entity.getAddress().getCity());
+    assertEquals(-74.0060, entity.getAddress().getLocation().getLongitude());
+    assertInstanceOf(ContactInfo.class, entity.getContactInfo().get(0));
+    assertEquals("test@example.com", entity.getContactInfo().get(0).getValue());
+    assertEquals(ProjectStatus.IN_PROGRESS, entity.getEmploymentDetails().getProjects().get(0).getStatus());
+    assertEquals("expert", entity.getEmploymentDetails().getSkills().get("java"));
+  }
+
+  @Test
+  @DisplayName("Reads typed jsonb columns as text and parses them once")
+  void parsesTypedJsonbColumns() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "address", "raw" },
+        new int[] { Types.OTHER, Types.OTHER }, new String[] { "jsonb", "json" });
+    AtomicBoolean done = new AtomicBoolean(false);
+    when(rs.next()).thenAnswer(inv -> !done.getAndSet(true));
+    when(rs.getString(1)).thenReturn("{\"street\":\"Main\",\"location\":{\"latitude\":1.5}}");
+    when(rs.getString(2)).thenReturn("{\"kept\": \"as text\"}");
+
+    Document document = mapper.map(rs, Document.class);
+
+    assertEquals("Main", document.getAddress().getStreet());
+    assertEquals(1.5, document.getAddress().getLocation().getLatitude());
+    assertEquals("{\"kept\": \"as text\"}", document.getRaw());
+    verify(rs, never()).getObject(anyInt());
+  }
+}
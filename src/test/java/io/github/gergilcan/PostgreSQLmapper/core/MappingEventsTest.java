@@ -0,0 +1,167 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Data;
+
+@DisplayName("Flight Recorder events")
+class MappingEventsTest {
+
+  @Data
+  public static class Sensor {
+    private long id;
+    private String name;
+  }
+
+  @TempDir
+  Path tempDir;
+
+  private static ResultSet createSensorResultSet(int rowCount) throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "id", "name" },
+        new int[] { Types.BIGINT, Types.VARCHAR }, new String[] { "int8", "text" });
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getString(2)).thenReturn("probe");
+    return rs;
+  }
+
+  private List<RecordedEvent> record(Runnable work) throws IOException {
+    Path file = tempDir.resolve("mapping.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(ResultSetMappingEvent.class);
+      recording.enable(MapEvent.class);
+      recording.enable(SerializationEvent.class);
+      recording.start();
+      work.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+    return events;
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    String eventName = "io.github.gergilcan.PostgreSQLmapper." + name;
+    return events.stream().filter(e -> e.getEventType().getName().equals(eventName)).toList();
+  }
+
+  @Test
+  @DisplayName("Records mappings with rows, columns and plan cache misses")
+  void recordsMappings() throws IOException {
+    PostgresEntityMapper mapper = new PostgresEntityMapper();
+
+    List<RecordedEvent> events = record(() -> {
+      try {
+        mapper.map(createSensorResultSet(3), Sensor[].class);
+        mapper.map(createSensorResultSet(2), Sensor[].class);
+        mapper.forEach(createSensorResultSet(4), Sensor.class, sensor -> {
+        });
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    List<RecordedEvent> mappings = named(events, "ResultSetMapping");
+    assertEquals(3, mappings.size());
+    assertEquals(Sensor.class.getName(), mappings.get(0).getClass("targetType").getName());
+    assertEquals("map", mappings.get(0).getString("operation"));
+    assertEquals(3, mappings.get(0).getLong("rows"));
+    assertEquals(2, mappings.get(0).getInt("columns"));
+    assertTrue(mappings.get(0).getBoolean("planCompiled"));
+    assertFalse(mappings.get(1).getBoolean("planCompiled"));
+    assertEquals("forEach", mappings.get(2).getString("operation"));
+    assertEquals(4, mappings.get(2).getLong("rows"));
+
+    List<RecordedEvent> maps = named(events, "Map");
+    assertEquals(2, maps.size());
+    assertFalse(maps.get(0).getBoolean("fallback"));
+  }
+
+  @Test
+  @DisplayName("Records index and columnar scans with plan cache misses")
+  void recordsIndexAndColumnarScans() throws IOException {
+    PostgresEntityMapper mapper = new PostgresEntityMapper();
+
+    List<RecordedEvent> events = record(() -> {
+      try {
+        mapper.indexByLong(createSensorResultSet(3), Sensor.class, "id");
+        mapper.indexByLong(createSensorResultSet(2), Sensor.class, "id");
+        mapper.mapColumnar(createSensorResultSet(4));
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    List<RecordedEvent> mappings = named(events, "ResultSetMapping");
+    assertEquals(3, mappings.size());
+    assertEquals("index", mappings.get(0).getString("operation"));
+    assertEquals(Sensor.class.getName(), mappings.get(0).getClass("targetType").getName());
+    assertEquals(3, mappings.get(0).getLong("rows"));
+    assertEquals(2, mappings.get(0).getInt("columns"));
+    assertTrue(mappings.get(0).getBoolean("planCompiled"));
+    assertFalse(mappings.get(1).getBoolean("planCompiled"));
+    assertEquals("columnar", mappings.get(2).getString("operation"));
+    assertEquals(ColumnarBatch.class.getName(), mappings.get(2).getClass("targetType").getName());
+    assertEquals(4, mappings.get(2).getLong("rows"));
+  }
+
+  @Test
+  @DisplayName("Records fallbacks and serialized ResultSets")
+  @SuppressWarnings("unchecked")
+  void recordsFallbacksAndSerialization() throws IOException {
+    EntityRowMapper<Sensor> stale = mock(EntityRowMapper.class);
+    when(stale.type()).thenReturn(Sensor.class);
+    when(stale.properties()).thenThrow(new IllegalStateException("Stale row mapper"));
+    PostgresEntityMapper mapper = new PostgresEntityMapper().registerRowMapper(stale);
+
+    List<RecordedEvent> events = record(() -> {
+      try {
+        mapper.map(createSensorResultSet(3), Sensor[].class);
+        mapper.map(Map.of("id", 1), Sensor.class);
+        mapper.writeValueAsString(createSensorResultSet(5));
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    List<RecordedEvent> maps = named(events, "Map");
+    assertEquals(2, maps.size());
+    assertTrue(maps.get(0).getBoolean("fallback"));
+    assertTrue(maps.get(0).getString("fallbackCause").startsWith(PlanCompilationException.class.getName()));
+    // Values that are not ResultSets always take the round trip and are not fallbacks
+    assertFalse(maps.get(1).getBoolean("fallback"));
+    assertNull(maps.get(1).getString("fallbackCause"));
+
+    List<RecordedEvent> serializations = named(events, "Serialization");
+    // The fallback serialized every row of its ResultSet too
+    assertEquals(2, serializations.size());
+    assertEquals(List.of(3L, 5L), serializations.stream().map(e -> e.getLong("rows")).sorted().toList());
+    assertEquals(2, serializations.get(0).getInt("columns"));
+  }
+}
@@ -0,0 +1,142 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Data;
+
+@DisplayName("Mapping metrics")
+class MappingMetricsTest {
+
+  @Data
+  public static class Device {
+    private long id;
+    private String name;
+    private Map<String, Object> settings;
+  }
+
+  private SimpleMeterRegistry registry;
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    mapper = new PostgresEntityMapper().metrics(new MicrometerMappingMetrics(registry));
+  }
+
+  private static ResultSet createDeviceResultSet(int rowCount) throws SQLException {
+    String[] names = { "id", "name", "settings" };
+    int[] types = { Types.BIGINT, Types.VARCHAR, Types.OTHER };
+    String[] typeNames = { "int8", "text", "jsonb" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getString(2)).thenReturn("sensor");
+    when(rs.getString(3)).thenReturn("{\"interval\":30}");
+    return rs;
+  }
+
+  private double phaseNanos(String phase) {
+    return registry.get("postgresql.mapper.phase").tag("target", Device.class.getName()).tag("phase", phase)
+        .timer().totalTime(TimeUnit.NANOSECONDS);
+  }
+
+  @Test
+  @DisplayName("Records rows, duration and time per phase by target type")
+  void recordsRowsAndPhases() throws SQLException {
+    Device[] devices = mapper.map(createDeviceResultSet(3), Device[].class);
+    mapper.forEach(createDeviceResultSet(2), Device.class, device -> {
+    });
+
+    assertEquals(30, devices[2].getSettings().get("interval"));
+    assertEquals(5, registry.get("postgresql.mapper.rows").tag("target", Device.class.getName()).counter().count());
+    assertEquals(2, registry.get("postgresql.mapper.mapping").tag("target", Device.class.getName()).timer().count());
+    assertTrue(phaseNanos("fetch") > 0);
+    assertTrue(phaseNanos("extract") > 0);
+    assertTrue(phaseNanos("json_decode") > 0);
+    assertTrue(phaseNanos("bind") > 0);
+  }
+
+  @Test
+  @DisplayName("Tags phases independently of the default locale")
+  void tagsPhasesInAnyLocale() throws SQLException {
+    Locale locale = Locale.getDefault();
+    try {
+      // Lower-cases BIND to a dotless i
+      Locale.setDefault(Locale.forLanguageTag("tr"));
+      mapper.map(createDeviceResultSet(1), Device[].class);
+    } finally {
+      Locale.setDefault(locale);
+    }
+
+    assertTrue(phaseNanos("bind") > 0);
+  }
+
+  @Test
+  @DisplayName("Counts JSON round trip fallbacks and serialized ResultSets")
+  @SuppressWarnings("unchecked")
+  void countsFallbacksAndSerialization() throws SQLException {
+    EntityRowMapper<Device> stale = mock(EntityRowMapper.class);
+    when(stale.type()).thenReturn(Device.class);
+    when(stale.properties()).thenThrow(new IllegalStateException("Stale row mapper"));
+    mapper.registerRowMapper(stale);
+    mapper.map(createDeviceResultSet(2), Device[].class);
+    mapper.map(createDeviceResultSet(2), Device[].class);
+    mapper.map(Map.of("id", 1), Map.class);
+
+    String json = mapper.writeValueAsString(createDeviceResultSet(2));
+
+    assertEquals(2, registry.get("postgresql.mapper.fallbacks").tag("target", Device[].class.getName())
+        .tag("cause", "IllegalStateException").counter().count());
+    // Values that are not ResultSets always take the round trip and are not fallbacks
+    assertNull(registry.find("postgresql.mapper.fallbacks").tag("target", Map.class.getName()).counter());
+    // Both fallbacks serialized the same rows as the explicit call
+    assertEquals(6, registry.get("postgresql.mapper.serialized.rows").counter().count());
+    assertEquals(3 * json.length(), registry.get("postgresql.mapper.serialized.bytes").counter().count());
+  }
+
+  @Test
+  @DisplayName("Is auto-configured for mapper beans when a MeterRegistry exists")
+  void autoConfiguresMapperBeans() {
+    ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(MappingMetricsAutoConfiguration.class))
+        .withBean(PostgresEntityMapper.class);
+
+    runner.withBean(MeterRegistry.class, SimpleMeterRegistry::new).run(context -> {
+      assertThat(context).hasSingleBean(MicrometerMappingMetrics.class);
+      assertSame(context.getBean(MicrometerMappingMetrics.class),
+          context.getBean(PostgresEntityMapper.class).metrics());
+    });
+    runner.run(context -> {
+      assertThat(context).doesNotHaveBean(MappingMetrics.class);
+      assertSame(MappingMetrics.NONE, context.getBean(PostgresEntityMapper.class).metrics());
+    });
+    runner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .withPropertyValues("postgresql-mapper.metrics.enabled=false")
+        .run(context -> assertThat(context).doesNotHaveBean(MappingMetrics.class));
+  }
+}
@@ -0,0 +1,136 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.ComplexEntity;
+import io.github.gergilcan.PostgreSQLmapper.model.ImmutableEntity;
+import io.github.gergilcan.PostgreSQLmapper.model.RecordEntity;
+
+@DisplayName("Compiled mapping plans")
+class MappingPlanTest {
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  @Test
+  @DisplayName("Binds snake_case and @JsonAlias columns into setters and ignores unknown columns")
+  void bindsBeanProperties() throws SQLException {
+    UUID id = UUID.randomUUID();
+    PGobject address = new PGobject();
+    address.setType("jsonb");
+    address.setValue("{\"city\":\"Girona\",\"location\":{\"latitude\":41.98}}");
+    ResultSet rs = ResultSetHelper.createResultSet(
+        new String[] { "id", "name", "account_balance", "contact_info", "address", "not_a_property" },
+        new Object[] { id, "Ada", new BigDecimal("10.5"), null, address, "ignored" });
+
+    ComplexEntity entity = mapper.map(rs, ComplexEntity.class);
+
+    assertEquals(id, entity.getId());
+    assertEquals("Ada", entity.getName());
+    assertEquals(new BigDecimal("10.5"), entity.getAccountBalance());
+    assertNull(entity.getContactInfo());
+    assertEquals("Girona", entity.getAddress().getCity());
+    assertEquals(41.98, entity.getAddress().getLocation().getLatitude());
+  }
+
+  @Test
+  @DisplayName("Builds records through their canonical constructor")
+  void bindsRecords() throws SQLException {
+    UUID id = UUID.randomUUID();
+    ResultSet rs = ResultSetHelper.createResultSet(
+        new String[] { "id", "full_name", "age", "is_active" },
+        new Object[] { id, "Grace", 36, true },
+        new Object[] { null, "Linus", null, false });
+
+    RecordEntity[] entities = mapper.map(rs, RecordEntity[].class);
+
+    assertEquals(2, entities.length);
+    assertEquals(new RecordEntity(id, "Grace", 36, true), entities[0]);
+    // Missing primitives keep their default value
+    assertEquals(new RecordEntity(null, "Linus", 0, false), entities[1]);
+  }
+
+  @Test
+  @DisplayName("Builds Lombok @Value classes through their all-args constructor")
+  void bindsAllArgsConstructors() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(
+        new String[] { "NAME", "score", "ratio" },
+        new Object[] { "Ada", 42, 0.5 });
+
+    ImmutableEntity entity = mapper.map(rs, ImmutableEntity.class);
+
+    assertEquals(new ImmutableEntity("Ada", 42L, 0.5), entity);
+  }
+
+  @Test
+  @DisplayName("Reuses the compiled plan for result sets with the same shape")
+  void cachesPlansPerShape() throws SQLException {
+    DirectResultSetMapper direct = new DirectResultSetMapper(new ObjectMapper(), 2);
+    String[] columns = { "id", "full_name", "age", "is_active" };
+    for (int i = 0; i < 3; i++) {
+      RecordEntity entity = direct.mapResultSet(
+          ResultSetHelper.createResultSet(columns, new Object[] { null, "n" + i, i, true }), RecordEntity.class);
+      assertEquals(i, entity.age());
+      assertTrue(entity.active());
+    }
+    MappingPlan<RecordEntity> plan = direct.planFor(ResultSetHelper.createResultSet(columns), RecordEntity.class);
+    assertSame(plan, direct.planFor(ResultSetHelper.createResultSet(columns), RecordEntity.class));
+    assertEquals(1, direct.planCache.size());
+
+    RecordEntity renamed = direct.mapResultSet(
+        ResultSetHelper.createResultSet(new String[] { "fullName" }, new Object[] { "x" }), RecordEntity.class);
+    assertEquals("x", renamed.fullName());
+    assertFalse(renamed.active());
+    assertNotSame(plan, direct.planFor(ResultSetHelper.createResultSet(new String[] { "fullName" }),
+        RecordEntity.class));
+    assertEquals(2, direct.planCache.size());
+
+    // A third shape evicts one of the two cached plans
+    direct.planFor(ResultSetHelper.createResultSet(new String[] { "age" }), RecordEntity.class);
+    assertEquals(2, direct.planCache.size());
+
+    List<?> rows = mapper.map(ResultSetHelper.createResultSet(columns, new Object[] { null, "a", 1, true }),
+        List.class);
+    assertEquals(1, rows.size());
+  }
+
+  @Test
+  @DisplayName("Binds the last of repeated columns, as Map rows keep it")
+  void bindsLastRepeatedColumn() throws SQLException {
+    String[] columns = { "name", "age", "name" };
+    Object[] row = { "first", 36, "last" };
+
+    ComplexEntity entity = mapper.map(ResultSetHelper.createResultSet(columns, row), ComplexEntity.class);
+    ComplexEntity generated = new PostgresEntityMapper().bytecodeMappers(true)
+        .map(ResultSetHelper.createResultSet(columns, row), ComplexEntity.class);
+    Map<?, ?> map = mapper.map(ResultSetHelper.createResultSet(columns, row), Map.class);
+
+    assertEquals("last", entity.getName());
+    assertEquals("last", generated.getName());
+    assertEquals("last", map.get("name"));
+  }
+}
@@ -0,0 +1,121 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.RecordEntity;
+
+@DisplayName("Parallel ResultSet mapping")
+class ParallelMappingTest {
+
+  private static final String[] COLUMNS = { "full_name", "age", "is_active" };
+  private static final int ROWS = 1000;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Keeps the row order across batches")
+  void keepsRowOrder() throws SQLException {
+    PostgresEntityMapper sequential = new PostgresEntityMapper();
+    PostgresEntityMapper parallel = new PostgresEntityMapper()
+        .parallelMapping(ParallelMappingOptions.using(executor, 4).withBatchSize(16).withMaxBatchesInFlight(3));
+
+    RecordEntity[] expected = sequential.map(createResultSet(), RecordEntity[].class);
+    RecordEntity[] actual = parallel.map(createResultSet(), RecordEntity[].class);
+
+    assertEquals(ROWS, actual.length);
+    assertArrayEquals(expected, actual);
+    assertEquals("name-999", actual[ROWS - 1].fullName());
+  }
+
+  @Test
+  @DisplayName("Parses json columns of List rows on the workers")
+  @SuppressWarnings("unchecked")
+  void mapsListRows() throws SQLException {
+    Object[][] rows = new Object[100][];
+    for (int i = 0; i < rows.length; i++) {
+      PGobject document = new PGobject();
+      document.setType("jsonb");
+      document.setValue("{\"index\":" + i + "}");
+      rows[i] = new Object[] { i, document };
+    }
+
+    try (ParallelMappingOptions options = ParallelMappingOptions.virtualThreads().withBatchSize(8)) {
+      PostgresEntityMapper mapper = new PostgresEntityMapper().parallelMapping(options);
+      List<Map<String, Object>> result = mapper.map(
+          ResultSetHelper.createResultSet(new String[] { "id", "document" }, rows), List.class);
+
+      assertEquals(100, result.size());
+      for (int i = 0; i < rows.length; i++) {
+        assertEquals(Map.of("index", i), result.get(i).get("document"));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Shuts down the executors it creates and only those")
+  void closesOwnedExecutors() throws SQLException {
+    ParallelMappingOptions platform = ParallelMappingOptions.platformThreads(2);
+    RecordEntity[] rows = new PostgresEntityMapper().parallelMapping(platform.withBatchSize(16))
+        .map(createResultSet(), RecordEntity[].class);
+    assertEquals(ROWS, rows.length);
+    ParallelMappingOptions copy = platform.withBatchSize(32);
+
+    copy.close();
+    ParallelMappingOptions.using(executor, 4).close();
+
+    assertTrue(((ExecutorService) platform.executor()).isShutdown());
+    assertFalse(executor.isShutdown());
+  }
+
+  @Test
+  @DisplayName("Reports conversion failures of a worker")
+  void propagatesFailures() throws SQLException {
+    DirectResultSetMapper mapper = new DirectResultSetMapper(new ObjectMapper());
+    mapper.setParallelMapping(ParallelMappingOptions.using(executor, 4).withBatchSize(4));
+    Object[][] rows = new Object[20][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] { "name-" + i, i == 13 ? "not a number" : i, true };
+    }
+
+    ResultSet rs = ResultSetHelper.createResultSet(COLUMNS, rows);
+    assertThrows(SQLException.class, () -> mapper.mapResultSet(rs, RecordEntity[].class));
+  }
+
+  private static ResultSet createResultSet() throws SQLException {
+    Object[][] rows = new Object[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = new Object[] { "name-" + i, i, i % 2 == 0 };
+    }
+    return ResultSetHelper.createResultSet(COLUMNS, rows);
+  }
+}
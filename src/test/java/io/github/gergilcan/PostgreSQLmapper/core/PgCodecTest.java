@@ -0,0 +1,95 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("PostgreSQL type codecs")
+class PgCodecTest {
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static ResultSet createTypedResultSet(String[] names, String[] typeNames, int[] types)
+      throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+    AtomicBoolean done = new AtomicBoolean(false);
+    when(rs.next()).thenAnswer(inv -> !done.getAndSet(true));
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Resolves built-in codecs from the column type name")
+  void resolvesBuiltInCodecs() throws SQLException {
+    ResultSet rs = createTypedResultSet(
+        new String[] { "doc", "day", "id", "tags", "mood" },
+        new String[] { "jsonb", "date", "uuid", "_text", "mood_enum" },
+        new int[] { Types.OTHER, Types.DATE, Types.OTHER, Types.ARRAY, Types.VARCHAR });
+    UUID id = UUID.randomUUID();
+    Array tags = mock(Array.class);
+    when(tags.getArray()).thenReturn(new String[] { "a", "b" });
+    when(rs.getString(1)).thenReturn("{\"a\":[1,2]}");
+    when(rs.getObject(2, LocalDate.class)).thenReturn(LocalDate.of(2024, 2, 29));
+    when(rs.getObject(3)).thenReturn(id);
+    when(rs.getArray(4)).thenReturn(tags);
+    when(rs.getString(5)).thenReturn("happy");
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> row = mapper.map(rs, Map.class);
+
+    assertEquals(Map.of("a", List.of(1, 2)), row.get("doc"));
+    assertEquals(LocalDate.of(2024, 2, 29), row.get("day"));
+    assertEquals(id, row.get("id"));
+    assertArrayEquals(new String[] { "a", "b" }, (Object[]) row.get("tags"));
+    assertEquals("happy", row.get("mood"));
+    verify(rs, never()).getObject(1);
+  }
+
+  @Test
+  @DisplayName("User registered codecs take precedence over built-in ones")
+  void usesRegisteredCodecs() throws SQLException {
+    mapper.registerCodec("int4", new PgCodec() {
+      @Override
+      public Object decode(Object value) {
+        return "#" + value;
+      }
+
+      @Override
+      public Object read(ResultSet resultSet, int column) throws SQLException {
+        return decode(resultSet.getInt(column));
+      }
+    });
+    ResultSet rs = createTypedResultSet(new String[] { "n" }, new String[] { "int4" }, new int[] { Types.INTEGER });
+    when(rs.getInt(1)).thenReturn(7);
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> row = mapper.map(rs, Map.class);
+
+    assertEquals("#7", row.get("n"));
+    verify(rs, never()).getObject(anyInt());
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("PostgreSQL date / timestamp text parsing")
+class PgDateTimeParserTest {
+
+  @Data
+  public static class Event {
+    private Instant createdAt;
+    private OffsetDateTime updatedAt;
+    private LocalDateTime seenAt;
+  }
+
+  @Test
+  @DisplayName("Parses timestamps with fractions and offsets of any precision")
+  void parsesTimestamps() {
+    assertEquals(LocalDateTime.of(2024, 3, 1, 13, 45, 0),
+        PgDateTimeParser.parseLocalDateTime("2024-03-01 13:45:00"));
+    assertEquals(LocalDateTime.of(2024, 3, 1, 13, 45, 0, 123_456_000),
+        PgDateTimeParser.parseLocalDateTime("2024-03-01T13:45:00.123456"));
+    assertEquals(LocalDateTime.of(2024, 3, 1, 13, 45, 0, 500_000_000),
+        PgDateTimeParser.parseLocalDateTime(" 2024-03-01 13:45:00.5+02 "));
+    assertEquals(OffsetDateTime.of(2024, 3, 1, 13, 45, 0, 0, ZoneOffset.ofHoursMinutes(5, 30)),
+        PgDateTimeParser.parseOffsetDateTime("2024-03-01 13:45:00+05:30"));
+    assertEquals(OffsetDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHoursMinutesSeconds(-4, -56, -2)),
+        PgDateTimeParser.parseOffsetDateTime("1900-01-01 00:00:00-04:56:02"));
+    assertEquals(Instant.parse("2024-03-01T11:45:00Z"), PgDateTimeParser.parseInstant("2024-03-01 13:45:00+02"));
+    assertEquals(Instant.parse("2024-03-01T13:45:00Z"), PgDateTimeParser.parseInstant("2024-03-01 13:45:00"));
+  }
+
+  @Test
+  @DisplayName("Parses BC dates, large years and infinity")
+  void parsesSpecialValues() {
+    assertEquals(LocalDate.of(-43, 3, 15), PgDateTimeParser.parseLocalDate("0044-03-15 BC"));
+    assertEquals(LocalDateTime.of(0, 1, 1, 12, 0), PgDateTimeParser.parseLocalDateTime("0001-01-01 12:00:00+00 BC"));
+    assertEquals(LocalDate.of(12345, 6, 7), PgDateTimeParser.parseLocalDate("12345-06-07"));
+    assertEquals(LocalDate.MAX, PgDateTimeParser.parseLocalDate("infinity"));
+    assertEquals(LocalDateTime.MIN, PgDateTimeParser.parseLocalDateTime("-infinity"));
+    assertEquals(Instant.MAX, PgDateTimeParser.parseInstant("infinity"));
+  }
+
+  @Test
+  @DisplayName("Rejects malformed text")
+  void rejectsMalformedText() {
+    assertThrows(DateTimeParseException.class, () -> PgDateTimeParser.parseLocalDate("2024/03/01"));
+    assertThrows(DateTimeParseException.class, () -> PgDateTimeParser.parseLocalDateTime("2024-03-01 13:45:00 XY"));
+    assertThrows(DateTimeParseException.class, () -> PgDateTimeParser.parseLocalDateTime(""));
+  }
+
+  @Test
+  @DisplayName("Keeps the offset of timestamptz values bound to Instant and OffsetDateTime")
+  void mapsZoneAwareProperties() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "created_at", "updated_at", "seen_at" },
+        new Object[] { timestamptz("2024-03-01 13:45:00+02"), timestamptz("2024-03-01 13:45:00.25-03:30"),
+            timestamptz("2024-03-01 13:45:00+02") });
+
+    Event event = new PostgresEntityMapper().map(rs, Event.class);
+
+    assertEquals(Instant.parse("2024-03-01T11:45:00Z"), event.getCreatedAt());
+    assertEquals(OffsetDateTime.of(2024, 3, 1, 13, 45, 0, 250_000_000, ZoneOffset.ofHoursMinutes(-3, -30)),
+        event.getUpdatedAt());
+    assertEquals(LocalDateTime.of(2024, 3, 1, 13, 45), event.getSeenAt());
+  }
+
+  private static PGobject timestamptz(String value) throws SQLException {
+    PGobject object = new PGobject();
+    object.setType("timestamptz");
+    object.setValue(value);
+    return object;
+  }
+}
@@ -0,0 +1,97 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.Measurement;
+
+@DisplayName("Typed primitive column extraction")
+class PrimitiveColumnMappingTest {
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static ResultSet createMeasurementResultSet(int rowCount) throws SQLException {
+    String[] names = { "count", "total", "average", "valid", "bucket", "ratio", "boxed_count", "label" };
+    int[] types = { Types.INTEGER, Types.BIGINT, Types.DOUBLE, Types.BIT, Types.SMALLINT, Types.REAL,
+        Types.INTEGER, Types.VARCHAR };
+    String[] typeNames = { "int4", "int8", "float8", "bool", "int2", "float4", "int4", "text" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(2)).thenReturn(10_000_000_000L);
+    when(rs.getDouble(3)).thenReturn(2.5);
+    when(rs.getBoolean(4)).thenReturn(true);
+    when(rs.getShort(5)).thenReturn((short) 7);
+    when(rs.getFloat(6)).thenReturn(0.25f);
+    when(rs.getString(8)).thenReturn("m");
+    // Only the boxed column is NULL: wasNull() is consulted right after getInt(7)
+    AtomicInteger lastColumn = new AtomicInteger();
+    when(rs.getInt(anyInt())).thenAnswer(inv -> {
+      int column = inv.getArgument(0);
+      lastColumn.set(column);
+      return column == 1 ? row.get() : 0;
+    });
+    when(rs.wasNull()).thenAnswer(inv -> lastColumn.getAndSet(0) == 7);
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Binds numeric and boolean columns through typed getters without getObject")
+  void bindsPrimitivesWithTypedGetters() throws SQLException {
+    ResultSet rs = createMeasurementResultSet(2);
+
+    Measurement[] measurements = mapper.map(rs, Measurement[].class);
+
+    assertEquals(2, measurements.length);
+    Measurement second = measurements[1];
+    assertEquals(2, second.getCount());
+    assertEquals(10_000_000_000L, second.getTotal());
+    assertEquals(2.5, second.getAverage());
+    assertTrue(second.isValid());
+    assertEquals((short) 7, second.getBucket());
+    assertEquals(0.25f, second.getRatio());
+    // SQL NULL leaves the property initializer untouched
+    assertEquals(-1, second.getBoxedCount());
+    assertEquals("m", second.getLabel());
+    verify(rs, never()).getObject(anyInt());
+  }
+
+  @Test
+  @DisplayName("Map rows use typed getters with the same value types as getObject")
+  void mapsRowsWithTypedGetters() throws SQLException {
+    ResultSet rs = createMeasurementResultSet(1);
+
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> rows = mapper.map(rs, List.class);
+
+    Map<String, Object> row = rows.get(0);
+    assertEquals(1, row.get("count"));
+    assertEquals(10_000_000_000L, row.get("total"));
+    assertEquals(Boolean.TRUE, row.get("valid"));
+    assertEquals(0.25f, row.get("ratio"));
+    assertEquals(null, row.get("boxed_count"));
+    verify(rs, never()).getObject(anyInt());
+  }
+}
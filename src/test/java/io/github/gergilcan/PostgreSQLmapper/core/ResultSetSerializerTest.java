@@ -0,0 +1,65 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("ResultSet serialization with per-column writers")
+class ResultSetSerializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .registerModule(new SimpleModule().addSerializer(ResultSet.class, new ResultSetSerializer()));
+
+  @Test
+  @DisplayName("Writes typed columns with typed getters and jsonb as raw JSON")
+  void writesTypedColumns() throws SQLException, IOException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "id", "active", "price", "ratio", "document" },
+        new int[] { Types.INTEGER, Types.BIT, Types.NUMERIC, Types.NUMERIC, Types.OTHER },
+        new String[] { "int4", "bool", "numeric", "numeric", "jsonb" });
+    AtomicBoolean done = new AtomicBoolean(false);
+    when(rs.next()).thenAnswer(inv -> !done.getAndSet(true));
+    when(rs.getInt(1)).thenReturn(7);
+    when(rs.getBoolean(2)).thenReturn(true);
+    when(rs.getString(3)).thenReturn("12.50");
+    when(rs.getString(4)).thenReturn("NaN");
+    when(rs.getString(5)).thenReturn("{\"tags\": [\"a\", \"b\"]}");
+
+    String json = objectMapper.writeValueAsString(rs);
+
+    assertEquals("[{\"id\":7,\"active\":true,\"price\":12.50,\"ratio\":\"NaN\",\"document\":{\"tags\": [\"a\", \"b\"]}}]",
+        json);
+    verify(rs, never()).getObject(anyInt());
+  }
+
+  @Test
+  @DisplayName("Falls back to getObject for columns without type information")
+  void writesUntypedColumns() throws SQLException, IOException {
+    PGobject document = new PGobject();
+    document.setType("jsonb");
+    document.setValue("{\"a\":1}");
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "name", "document", "missing" },
+        new Object[] { "x", document, null }, new Object[] { "y", document, 3 });
+
+    String json = objectMapper.writeValueAsString(rs);
+
+    assertEquals("[{\"name\":\"x\",\"document\":{\"a\":1},\"missing\":null},"
+        + "{\"name\":\"y\",\"document\":{\"a\":1},\"missing\":3}]", json);
+  }
+}
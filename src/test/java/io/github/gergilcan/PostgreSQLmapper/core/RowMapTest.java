@@ -0,0 +1,120 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("Shared-key row maps")
+class RowMapTest {
+
+  private static ResultSet createResultSet(String[] names, int rowCount) throws SQLException {
+    int[] types = new int[names.length];
+    String[] typeNames = new String[names.length];
+    Arrays.fill(types, Types.VARCHAR);
+    Arrays.fill(typeNames, "text");
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    for (int i = 0; i < names.length; i++) {
+      int column = i + 1;
+      when(rs.getString(column)).thenAnswer(inv -> "r" + row.get() + "c" + column);
+    }
+    return rs;
+  }
+
+  @Test
+  @DisplayName("List rows share one key table and behave like HashMaps")
+  @SuppressWarnings("unchecked")
+  void listRowsBehaveLikeHashMaps() throws SQLException {
+    List<Map<String, Object>> rows = new PostgresEntityMapper()
+        .map(createResultSet(new String[] { "id", "name", "city" }, 2), List.class);
+
+    Map<String, Object> row = rows.get(1);
+    assertInstanceOf(RowMap.class, row);
+    assertEquals(Map.of("id", "r2c1", "name", "r2c2", "city", "r2c3"), row);
+    assertEquals(new HashMap<>(row).hashCode(), row.hashCode());
+    // Column order is kept
+    assertEquals(List.of("id", "name", "city"), List.copyOf(row.keySet()));
+    assertNull(row.get("missing"));
+    assertNull(row.get(1));
+  }
+
+  @Test
+  @DisplayName("Rows stay mutable")
+  void rowsAreMutable() throws SQLException {
+    ResultSet rs = createResultSet(new String[] { "id", "name", "city" }, 1);
+    Map<String, Object> row = new PostgresEntityMapper().map(rs, Map.class);
+
+    assertEquals("r1c2", row.put("name", null));
+    assertTrue(row.containsKey("name"));
+    assertEquals("r1c3", row.remove("city"));
+    assertFalse(row.containsKey("city"));
+    assertNull(row.remove("city"));
+    assertNull(row.put("extra", 42));
+    assertEquals(3, row.size());
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("id", "r1c1");
+    expected.put("name", null);
+    expected.put("extra", 42);
+    assertEquals(expected, row);
+
+    row.entrySet().removeIf(entry -> entry.getKey().equals("id") || entry.getKey().equals("extra"));
+    assertEquals(1, row.size());
+    assertNull(row.put("city", "Lisbon"));
+    assertEquals(List.of("name", "city"), List.copyOf(row.keySet()));
+    row.clear();
+    assertTrue(row.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Repeated column names keep the last value")
+  void repeatedNamesKeepLastValue() throws SQLException {
+    Map<String, Object> row = new PostgresEntityMapper()
+        .map(createResultSet(new String[] { "id", "name", "id" }, 1), Map.class);
+
+    assertEquals(2, row.size());
+    assertEquals("r1c3", row.get("id"));
+    assertEquals("r1c2", row.get("name"));
+  }
+
+  @Test
+  @DisplayName("Serializes as a LinkedHashMap")
+  void serializesAsLinkedHashMap() throws SQLException, IOException, ClassNotFoundException {
+    Map<String, Object> row = new PostgresEntityMapper()
+        .map(createResultSet(new String[] { "id", "name" }, 1), Map.class);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(row);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertInstanceOf(LinkedHashMap.class, copy);
+      assertEquals(row, copy);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Runtime generated row mapper classes")
+class RowMapperClassGeneratorTest {
+
+  @Data
+  public static class Sensor {
+    private long id;
+    private Integer reading;
+    private String label;
+    private Map<String, Object> data;
+  }
+
+  /** Private fields without setters are written directly by the nestmate class. */
+  public static class FieldSensor {
+    private long id;
+    private String label;
+
+    long id() {
+      return id;
+    }
+
+    String label() {
+      return label;
+    }
+  }
+
+  public record SensorRecord(long id, Integer reading, String label, Map<String, Object> data) {
+  }
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper().bytecodeMappers(true);
+  }
+
+  private static ResultSet createSensorResultSet(int rowCount) throws SQLException {
+    String[] names = { "id", "reading", "label", "data" };
+    int[] types = { Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.OTHER };
+    String[] typeNames = { "int8", "int4", "text", "jsonb" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    // Only the reading column is NULL
+    AtomicInteger lastColumn = new AtomicInteger();
+    when(rs.getInt(anyInt())).thenAnswer(inv -> {
+      lastColumn.set(inv.getArgument(0));
+      return 0;
+    });
+    when(rs.wasNull()).thenAnswer(inv -> lastColumn.getAndSet(0) == 2);
+    when(rs.getString(3)).thenReturn("probe");
+    when(rs.getString(4)).thenReturn("{\"celsius\":21.5}");
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Maps beans through setters of a hidden class")
+  void mapsBeans() throws SQLException {
+    Sensor[] sensors = mapper.map(createSensorResultSet(2), Sensor[].class);
+
+    assertEquals(2, sensors[1].getId());
+    assertNull(sensors[1].getReading());
+    assertEquals("probe", sensors[1].getLabel());
+    assertEquals(21.5, sensors[1].getData().get("celsius"));
+  }
+
+  @Test
+  @DisplayName("Maps records through their canonical constructor")
+  void mapsRecords() throws SQLException {
+    ResultSet rs = createSensorResultSet(1);
+
+    SensorRecord sensor = mapper.map(rs, SensorRecord.class);
+
+    assertEquals(new SensorRecord(1, null, "probe", Map.of("celsius", 21.5)), sensor);
+    verify(rs, never()).getObject(anyInt());
+    EntityDescriptor<SensorRecord> entity = EntityDescriptor.introspect(SensorRecord.class,
+        new ObjectMapper().getTypeFactory());
+    assertNotNull(RowMapperClassGenerator.generate(entity, new int[] { 1, 2, 3, -4 }));
+  }
+
+  @Test
+  @DisplayName("Writes private fields of entities without setters")
+  void writesPrivateFields() throws SQLException {
+    FieldSensor sensor = mapper.map(createSensorResultSet(1), FieldSensor.class);
+
+    assertEquals(1, sensor.id());
+    assertEquals("probe", sensor.label());
+    EntityDescriptor<FieldSensor> entity = EntityDescriptor.introspect(FieldSensor.class,
+        new ObjectMapper().getTypeFactory());
+    assertNotNull(RowMapperClassGenerator.generate(entity, new int[] { 1, 3 }));
+  }
+
+  @Test
+  @DisplayName("Generated classes are hidden and unloaded once unreachable")
+  void unloadsGeneratedClasses() throws InterruptedException {
+    EntityDescriptor<Sensor> entity = EntityDescriptor.introspect(Sensor.class, new ObjectMapper().getTypeFactory());
+    EntityRowMapper<Sensor> rowMapper = RowMapperClassGenerator.generate(entity, new int[] { 1, 0, -2, 0 });
+    assertTrue(rowMapper.getClass().isHidden());
+    assertEquals(Sensor.class, rowMapper.type());
+    assertEquals("label", rowMapper.properties().get(2).name());
+    Sensor sensor = rowMapper.create(new Object[] { 5L, null, "probe", null });
+    assertEquals(5, sensor.getId());
+    assertEquals("probe", sensor.getLabel());
+
+    WeakReference<Class<?>> generated = new WeakReference<>(rowMapper.getClass());
+    rowMapper = null;
+    for (int i = 0; i < 20 && generated.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(generated.get());
+  }
+}
@@ -0,0 +1,167 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Spring JDBC adapters")
+class SpringJdbcAdaptersTest {
+
+  @Data
+  public static class Account {
+    private long id;
+    private String owner;
+  }
+
+  public record AccountRecord(long id, String owner) {
+  }
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  private static ResultSet createAccountResultSet(int rowCount) throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "id", "owner" },
+        new int[] { Types.BIGINT, Types.VARCHAR }, new String[] { "int8", "text" });
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getString(2)).thenAnswer(inv -> "owner " + row.get());
+    return rs;
+  }
+
+  @Test
+  @DisplayName("RowMapper reads the metadata once per ResultSet")
+  void rowMapperReusesPlan() throws SQLException {
+    PostgresRowMapper<Account> rowMapper = mapper.rowMapper(Account.class);
+    ResultSet first = createAccountResultSet(3);
+    ResultSet second = createAccountResultSet(2);
+
+    List<Account> accounts = new RowMapperResultSetExtractor<>(rowMapper).extractData(first);
+    List<AccountRecord> records = new RowMapperResultSetExtractor<>(mapper.rowMapper(AccountRecord.class))
+        .extractData(second);
+
+    assertEquals(3, accounts.size());
+    assertEquals("owner 3", accounts.get(2).getOwner());
+    assertEquals(new AccountRecord(2, "owner 2"), records.get(1));
+    verify(first, times(1)).getMetaData();
+    verify(second, times(1)).getMetaData();
+  }
+
+  @Test
+  @DisplayName("RowMapper does not keep an evicted plan alive")
+  void rowMapperHoldsPlanWeakly() throws Exception {
+    DirectResultSetMapper direct = new DirectResultSetMapper(new ObjectMapper());
+    PostgresRowMapper<Account> rowMapper = new PostgresRowMapper<>(direct, Account.class);
+    ResultSet rs = createAccountResultSet(2);
+
+    rs.next();
+    assertEquals(1, rowMapper.mapRow(rs, 0).getId());
+    WeakReference<MappingPlan<Account>> plan = new WeakReference<>(direct.planFor(rs, Account.class));
+    direct.planCache.clear();
+    for (int i = 0; i < 20 && plan.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(plan.get());
+    rs.next();
+    assertEquals("owner 2", rowMapper.mapRow(rs, 1).getOwner());
+  }
+
+  @Test
+  @DisplayName("RowMapper keeps the plan of each thread's ResultSet")
+  void rowMapperKeepsPlanPerThread() throws Exception {
+    PostgresRowMapper<Account> rowMapper = mapper.rowMapper(Account.class);
+    ResultSet first = createAccountResultSet(3);
+    ResultSet second = createAccountResultSet(2);
+    List<Account> accounts = new ArrayList<>();
+
+    first.next();
+    accounts.add(rowMapper.mapRow(first, 0));
+    // Another thread maps a whole query while the first one is being read
+    Thread other = new Thread(() -> {
+      try {
+        new RowMapperResultSetExtractor<>(rowMapper).extractData(second);
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    other.start();
+    other.join();
+    for (int rowNum = 1; first.next(); rowNum++) {
+      accounts.add(rowMapper.mapRow(first, rowNum));
+    }
+
+    assertEquals(3, accounts.size());
+    assertEquals("owner 3", accounts.get(2).getOwner());
+    verify(first, times(1)).getMetaData();
+    verify(second, times(1)).getMetaData();
+  }
+
+  @Test
+  @DisplayName("ResultSetExtractor and RowCallbackHandler map every row")
+  void extractorAndCallbackHandler() throws SQLException {
+    List<Account> extracted = mapper.resultSetExtractor(Account.class).extractData(createAccountResultSet(4));
+
+    List<Long> ids = new ArrayList<>();
+    PostgresRowCallbackHandler<Account> handler = mapper.rowCallbackHandler(Account.class,
+        account -> ids.add(account.getId()));
+    ResultSet rs = createAccountResultSet(3);
+    while (rs.next()) {
+      handler.processRow(rs);
+    }
+
+    assertEquals(4, extracted.size());
+    assertEquals(4, extracted.get(3).getId());
+    assertEquals(List.of(1L, 2L, 3L), ids);
+  }
+
+  @Test
+  @DisplayName("Is auto-configured as a singleton unless the application defines one")
+  void autoConfiguresMapper() {
+    ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(PostgresEntityMapperAutoConfiguration.class));
+
+    runner.run(context -> assertThat(context).hasSingleBean(PostgresEntityMapper.class));
+    runner.withPropertyValues("postgresql-mapper.strict=true").run(context -> {
+      ResultSet broken = mock(ResultSet.class);
+      when(broken.getMetaData()).thenThrow(new SQLException("closed"));
+      PostgresEntityMapper bean = context.getBean(PostgresEntityMapper.class);
+      assertInstanceOf(SQLException.class,
+          assertThrows(ResultSetMappingException.class, () -> bean.map(broken, List.class)).getCause());
+    });
+    PostgresEntityMapper own = new PostgresEntityMapper();
+    runner.withBean(PostgresEntityMapper.class, () -> own)
+        .run(context -> assertThat(context.getBean(PostgresEntityMapper.class)).isSameAs(own));
+  }
+}
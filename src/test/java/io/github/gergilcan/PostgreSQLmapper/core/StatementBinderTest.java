@@ -0,0 +1,171 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PGobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@DisplayName("Entity parameter binding and multi-row writes")
+class StatementBinderTest {
+
+  public enum Status {
+    OPEN, CLOSED
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Order {
+    private long id;
+    private String name;
+    private Status status;
+    private List<String> tags;
+    private Map<String, Object> document;
+    private Instant createdAt;
+  }
+
+  private PostgresEntityMapper mapper;
+  private Connection connection;
+  private List<String> statements;
+  private PreparedStatement statement;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    mapper = new PostgresEntityMapper().writeBatchSize(2);
+    connection = mock(Connection.class);
+    statement = mock(PreparedStatement.class);
+    statements = new ArrayList<>();
+    when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+      statements.add(invocation.getArgument(0));
+      return statement;
+    });
+    when(statement.getConnection()).thenReturn(connection);
+    when(statement.executeUpdate()).thenReturn(2, 2, 1);
+
+    String[] names = { "id", "name", "status", "tags", "document", "created_at", "updated_by" };
+    int[] types = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.ARRAY, Types.OTHER, Types.TIMESTAMP,
+        Types.VARCHAR };
+    String[] typeNames = { "int8", "text", "order_status", "_text", "jsonb", "timestamptz", "text" };
+    ResultSetMetaData metaData = ResultSetHelper.createMetaData(names, types, typeNames);
+    when(metaData.isAutoIncrement(1)).thenReturn(true);
+    when(statement.getMetaData()).thenReturn(metaData);
+  }
+
+  @Test
+  @DisplayName("Binds each column with the setter chosen from its type")
+  void bindsTypedParameters() throws SQLException {
+    Array tags = mock(Array.class);
+    when(connection.createArrayOf(eq("text"), any())).thenReturn(tags);
+    Instant createdAt = Instant.parse("2024-03-01T11:45:00Z");
+    Order order = new Order(7, "Ada", Status.CLOSED, List.of("a", "b"), Map.of("n", 1), createdAt);
+
+    StatementBinder<Order> binder = mapper.binder(connection, "orders", Order.class);
+    assertEquals(List.of("name", "status", "tags", "document", "created_at"), binder.columnNames());
+    assertEquals(6, binder.bind(statement, 1, order));
+
+    verify(statement).setString(1, "Ada");
+    verify(statement).setObject(2, "CLOSED", Types.OTHER);
+    verify(connection).createArrayOf(eq("text"), argThat(array -> List.of("a", "b").equals(List.of(array))));
+    verify(statement).setArray(3, tags);
+    verify(statement).setObject(eq(4), argThat(json -> json instanceof PGobject
+        && "jsonb".equals(((PGobject) json).getType()) && "{\"n\":1}".equals(((PGobject) json).getValue())));
+    verify(statement).setObject(5, OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC));
+  }
+
+  @Test
+  @DisplayName("Infers parameter types from the properties without table metadata")
+  void bindsWithoutMetadata() throws SQLException {
+    Order order = new Order(7, null, Status.OPEN, null, null, null);
+
+    StatementBinder<Order> binder = new EntityWriter(new ObjectMapper())
+        .binder(Order.class, "id", "name", "status", "document");
+    binder.bind(statement, 1, order);
+
+    verify(statement).setLong(1, 7L);
+    verify(statement).setNull(2, Types.VARCHAR);
+    verify(statement).setObject(3, "OPEN", Types.OTHER);
+    verify(statement).setNull(4, Types.OTHER);
+  }
+
+  @Test
+  @DisplayName("Writes rows as multi-row INSERT statements of the batch size")
+  void insertsInBatches() throws SQLException {
+    List<Order> orders = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      orders.add(new Order(i, "order " + i, Status.OPEN, null, null, null));
+    }
+
+    assertEquals(5, mapper.insert(connection, "sales.orders", orders, Order.class));
+
+    String twoRows = "INSERT INTO sales.orders (\"name\", \"status\", \"tags\", \"document\", \"created_at\") VALUES "
+        + "(?, ?, ?, ?, ?), (?, ?, ?, ?, ?)";
+    assertEquals(List.of("SELECT * FROM sales.orders", twoRows, twoRows.substring(0, twoRows.indexOf("), (") + 1)),
+        statements);
+    verify(statement).setString(6, "order 1");
+    verify(statement, times(3)).executeUpdate();
+  }
+
+  @Test
+  @DisplayName("Upserts update every column but the conflict key")
+  void upserts() throws SQLException {
+    mapper.upsert(connection, "orders", List.of(new Order()), Order.class, "id");
+
+    assertEquals("INSERT INTO orders (\"id\", \"name\", \"status\", \"tags\", \"document\", \"created_at\") "
+        + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (\"id\") DO UPDATE SET \"name\" = EXCLUDED.\"name\", "
+        + "\"status\" = EXCLUDED.\"status\", \"tags\" = EXCLUDED.\"tags\", \"document\" = EXCLUDED.\"document\", "
+        + "\"created_at\" = EXCLUDED.\"created_at\"", statements.get(1));
+    assertThrows(ResultSetMappingException.class,
+        () -> mapper.upsert(connection, "orders", List.of(new Order()), Order.class, "updated_by"));
+  }
+
+  @Test
+  @DisplayName("Copies every matching column but serial and identity ones")
+  void copiesWithoutGeneratedColumns() throws SQLException {
+    PGConnection pgConnection = mock(PGConnection.class);
+    CopyManager copyManager = mock(CopyManager.class);
+    CopyIn copyIn = mock(CopyIn.class);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+    when(copyIn.endCopy()).thenReturn(1L);
+
+    assertEquals(1, mapper.copyIn(connection, "sales.orders", List.of(new Order()), Order.class));
+
+    verify(copyManager).copyIn("COPY sales.orders (\"name\", \"status\", \"tags\", \"document\", \"created_at\") "
+        + "FROM STDIN (FORMAT binary)");
+  }
+}
@@ -0,0 +1,118 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+
+@DisplayName("Streaming NDJSON and CSV export")
+class StreamingExportTest {
+
+  private static final String[] NOTES = { "plain", "with, comma", null, "say \"hi\"\nbye", "", "café" };
+
+  /**
+   * Rows 1..rowCount; row 3 is NULL in every column
+   */
+  private static ResultSet createNoteResultSet(int rowCount, AtomicInteger row) throws SQLException {
+    String[] names = { "id", "note", "done", "payload" };
+    int[] types = { Types.BIGINT, Types.VARCHAR, Types.BIT, Types.OTHER };
+    String[] typeNames = { "int8", "text", "bool", "jsonb" };
+    ResultSet rs = ResultSetHelper.createResultSet(names, types, typeNames);
+
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= rowCount);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) -row.get());
+    when(rs.getString(2)).thenAnswer(inv -> NOTES[(row.get() - 1) % NOTES.length]);
+    when(rs.getBoolean(3)).thenAnswer(inv -> row.get() % 2 == 0);
+    when(rs.wasNull()).thenAnswer(inv -> row.get() == 3);
+    when(rs.getString(4)).thenAnswer(inv -> row.get() == 3 ? null : "{\"n\": " + row.get() + "}");
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Writes one JSON object per line")
+  void writesNdjson() throws SQLException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long rows = new PostgresEntityMapper().writeNdjson(createNoteResultSet(3, new AtomicInteger()), out);
+
+    assertEquals(3, rows);
+    assertEquals("{\"id\":-1,\"note\":\"plain\",\"done\":false,\"payload\":{\"n\": 1}}\n"
+        + "{\"id\":-2,\"note\":\"with, comma\",\"done\":true,\"payload\":{\"n\": 2}}\n"
+        + "{\"id\":null,\"note\":null,\"done\":null,\"payload\":null}\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Writes RFC 4180 CSV with quoted fields and empty NULLs")
+  void writesCsv() throws SQLException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long rows = new PostgresEntityMapper().writeCsv(createNoteResultSet(6, new AtomicInteger()),
+        Channels.newChannel(out));
+
+    assertEquals(6, rows);
+    assertEquals("id,note,done,payload\r\n"
+        + "-1,plain,false,\"{\"\"n\"\": 1}\"\r\n"
+        + "-2,\"with, comma\",true,\"{\"\"n\"\": 2}\"\r\n"
+        + ",,,\r\n"
+        + "-4,\"say \"\"hi\"\"\nbye\",true,\"{\"\"n\"\": 4}\"\r\n"
+        + "-5,\"\",false,\"{\"\"n\"\": 5}\"\r\n"
+        + "-6,café,true,\"{\"\"n\"\": 6}\"\r\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Flushes the first row before reading the next one")
+  void flushesFirstRow() throws SQLException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AtomicInteger row = new AtomicInteger();
+    ResultSet rs = createNoteResultSet(2, row);
+    AtomicInteger writtenBeforeSecondRow = new AtomicInteger(-1);
+    doAnswer(inv -> {
+      if (row.get() == 1) {
+        writtenBeforeSecondRow.set(out.size());
+      }
+      return row.incrementAndGet() <= 2;
+    }).when(rs).next();
+
+    new PostgresEntityMapper().exportFlushInterval(Duration.ofHours(1)).writeNdjson(rs, out);
+
+    assertTrue(writtenBeforeSecondRow.get() > 0);
+    assertEquals(2, out.toString(StandardCharsets.UTF_8).lines().count());
+  }
+
+  @Test
+  @DisplayName("Runs the query when a streaming response body is written")
+  @SuppressWarnings("unchecked")
+  void writesStreamingBody() throws SQLException {
+    JdbcOperations jdbc = mock(JdbcOperations.class);
+    ResultSet rs = createNoteResultSet(2, new AtomicInteger());
+    when(jdbc.query(eq("SELECT * FROM notes WHERE owner = ?"), any(ResultSetExtractor.class), any(Object[].class)))
+        .thenAnswer(inv -> ((ResultSetExtractor<Long>) inv.getArgument(1)).extractData(rs));
+
+    ResultSetStreamingBody body = new PostgresEntityMapper().streamingCsv(jdbc,
+        "SELECT * FROM notes WHERE owner = ?", 42);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    body.writeTo(out);
+
+    assertEquals(ResultSetStreamingBody.CSV, body.contentType());
+    assertEquals(3, out.toString(StandardCharsets.UTF_8).split("\r\n").length);
+  }
+}
@@ -0,0 +1,65 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import io.github.gergilcan.PostgreSQLmapper.model.RecordEntity;
+
+@DisplayName("Streaming ResultSet mapping")
+class StreamingMappingTest {
+
+  private static final String[] COLUMNS = { "full_name", "age" };
+
+  private PostgresEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    mapper = new PostgresEntityMapper();
+  }
+
+  @Test
+  @DisplayName("Pulls rows lazily and closes the ResultSet with the stream")
+  void streamsLazily() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(COLUMNS,
+        new Object[] { "a", 1 }, new Object[] { "b", 2 }, new Object[] { "c", 3 });
+
+    try (Stream<RecordEntity> stream = mapper.stream(rs, RecordEntity.class)) {
+      List<String> firstTwo = stream.limit(2).map(RecordEntity::fullName).toList();
+      assertEquals(List.of("a", "b"), firstTwo);
+      verify(rs, times(2)).next();
+    }
+    verify(rs).close();
+  }
+
+  @Test
+  @DisplayName("Iterates Map rows and stops at the end of the ResultSet")
+  void iteratesMaps() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(COLUMNS, new Object[] { "a", 1 });
+
+    @SuppressWarnings("rawtypes")
+    ResultSetIterator<Map> iterator = mapper.iterator(rs, Map.class);
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.hasNext());
+    assertEquals(Map.of("full_name", "a", "age", 1), iterator.next());
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+    iterator.close();
+    verify(rs).close();
+  }
+}
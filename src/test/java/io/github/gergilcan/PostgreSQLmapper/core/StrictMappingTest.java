@@ -0,0 +1,116 @@
+package io.github.gergilcan.PostgreSQLmapper.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.gergilcan.PostgreSQLmapper.helpers.ResultSetHelper;
+import lombok.Data;
+
+@DisplayName("Strict mapping and fallback decisions")
+class StrictMappingTest {
+
+  @Data
+  public static class Label {
+    private long id;
+    private String name;
+  }
+
+  private PostgresEntityMapper mapper;
+  private EntityRowMapper<Label> rowMapper;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    // A stale row mapper no plan can be compiled with; the JSON round trip does not use it
+    rowMapper = mock(EntityRowMapper.class);
+    when(rowMapper.type()).thenReturn(Label.class);
+    when(rowMapper.properties()).thenThrow(new IllegalStateException("Stale row mapper"));
+    mapper = new PostgresEntityMapper().registerRowMapper(rowMapper);
+  }
+
+  private static ResultSet createLabelResultSet() throws SQLException {
+    ResultSet rs = ResultSetHelper.createResultSet(new String[] { "id", "name" },
+        new int[] { Types.BIGINT, Types.VARCHAR }, new String[] { "int8", "text" });
+
+    AtomicInteger row = new AtomicInteger();
+    when(rs.next()).thenAnswer(inv -> row.incrementAndGet() <= 2);
+    when(rs.getLong(1)).thenAnswer(inv -> (long) row.get());
+    when(rs.getObject(2)).thenReturn("urgent");
+    when(rs.getString(2)).thenReturn("urgent");
+    return rs;
+  }
+
+  @Test
+  @DisplayName("Strict mode surfaces the plan compilation error instead of falling back")
+  void strictModeThrows() throws SQLException {
+    mapper.strict(true);
+
+    ResultSetMappingException e = assertThrows(ResultSetMappingException.class,
+        () -> mapper.map(createLabelResultSet(), Label[].class));
+
+    assertInstanceOf(PlanCompilationException.class, e.getCause());
+    assertTrue(mapper.fallbackTypes().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Errors after the first row is read are thrown, not mapped from the rows left")
+  void throwsReadErrors() throws SQLException {
+    AtomicInteger decoded = new AtomicInteger();
+    PostgresEntityMapper mapper = new PostgresEntityMapper().registerCodec("text", value -> {
+      decoded.incrementAndGet();
+      throw new SQLException("Unsupported label " + value);
+    });
+
+    ResultSetMappingException e = assertThrows(ResultSetMappingException.class,
+        () -> mapper.map(createLabelResultSet(), Label[].class));
+
+    assertInstanceOf(SQLException.class, e.getCause());
+    assertEquals(1, decoded.get());
+    assertTrue(mapper.fallbackTypes().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Types and columns without a plan go straight to the JSON round trip")
+  void remembersFallbackTypes() throws SQLException {
+    Label[] first = mapper.map(createLabelResultSet(), Label[].class);
+    // The plan failed before the first row was read, so the round trip saw every row
+    assertEquals(2, first.length);
+    assertEquals(Set.of(Label[].class), mapper.fallbackTypes());
+    verify(rowMapper, times(1)).properties();
+
+    Label[] labels = mapper.map(createLabelResultSet(), Label[].class);
+
+    // The direct path was skipped for the same columns
+    verify(rowMapper, times(1)).properties();
+    assertEquals(2, labels.length);
+    assertEquals("urgent", labels[1].getName());
+
+    // Other columns get their own direct attempt
+    ResultSet idsOnly = createLabelResultSet();
+    when(idsOnly.getMetaData().getColumnCount()).thenReturn(1);
+    assertEquals(2, mapper.map(idsOnly, Label[].class).length);
+    verify(rowMapper, times(2)).properties();
+
+    mapper.strict(true);
+    assertThrows(ResultSetMappingException.class, () -> mapper.map(createLabelResultSet(), Label[].class));
+
+    mapper.bytecodeMappers(false);
+    assertTrue(mapper.fallbackTypes().isEmpty());
+  }
+}
@@ -0,0 +1,118 @@
+package io.github.gergilcan.PostgreSQLmapper.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Builds binary COPY streams field by field, the way PostgreSQL writes them
+ * for {@code COPY ... TO STDOUT (FORMAT binary)}
+ */
+public class BinaryCopyHelper {
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final DataOutputStream out = new DataOutputStream(bytes);
+
+  public BinaryCopyHelper() throws IOException {
+    out.write(new byte[] { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 });
+    out.writeInt(0);
+    out.writeInt(0);
+  }
+
+  public BinaryCopyHelper tuple(int fieldCount) throws IOException {
+    out.writeShort(fieldCount);
+    return this;
+  }
+
+  public BinaryCopyHelper int4(int value) throws IOException {
+    out.writeInt(4);
+    out.writeInt(value);
+    return this;
+  }
+
+  public BinaryCopyHelper int8(long value) throws IOException {
+    out.writeInt(8);
+    out.writeLong(value);
+    return this;
+  }
+
+  public BinaryCopyHelper bool(boolean value) throws IOException {
+    out.writeInt(1);
+    out.writeByte(value ? 1 : 0);
+    return this;
+  }
+
+  public BinaryCopyHelper text(String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+    return this;
+  }
+
+  public BinaryCopyHelper jsonb(String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length + 1);
+    out.writeByte(1);
+    out.write(utf8);
+    return this;
+  }
+
+  public BinaryCopyHelper uuid(UUID value) throws IOException {
+    out.writeInt(16);
+    out.writeLong(value.getMostSignificantBits());
+    out.writeLong(value.getLeastSignificantBits());
+    return this;
+  }
+
+  /** Microseconds since 2000-01-01 00:00:00 UTC, as timestamp / timestamptz. */
+  public BinaryCopyHelper timestamp(long micros) throws IOException {
+    return int8(micros);
+  }
+
+  /** Days since 2000-01-01. */
+  public BinaryCopyHelper date(int days) throws IOException {
+    return int4(days);
+  }
+
+  /** A numeric from its base 10000 digits. */
+  public BinaryCopyHelper numeric(int weight, int sign, int scale, int... digits) throws IOException {
+    out.writeInt(8 + 2 * digits.length);
+    out.writeShort(digits.length);
+    out.writeShort(weight);
+    out.writeShort(sign);
+    out.writeShort(scale);
+    for (int digit : digits) {
+      out.writeShort(digit);
+    }
+    return this;
+  }
+
+  /** A one dimensional int4[] without nulls. */
+  public BinaryCopyHelper int4Array(int... values) throws IOException {
+    out.writeInt(20 + 8 * values.length);
+    out.writeInt(1);
+    out.writeInt(0);
+    out.writeInt(23);
+    out.writeInt(values.length);
+    out.writeInt(1);
+    for (int value : values) {
+      out.writeInt(4);
+      out.writeInt(value);
+    }
+    return this;
+  }
+
+  public BinaryCopyHelper nullValue() throws IOException {
+    out.writeInt(-1);
+    return this;
+  }
+
+  public InputStream end() throws IOException {
+    out.writeShort(-1);
+    return new ByteArrayInputStream(bytes.toByteArray());
+  }
+}
@@ -8,6 +8,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,6 +41,13 @@ public class ComplexEntityHelper {
     when(metaData.getColumnName(12)).thenReturn("contact_info");
     when(metaData.getColumnName(13)).thenReturn("employment_details");
 
+    // Column types as reported by PgJDBC, so typed readers are used where available
+    when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(metaData.getColumnType(3)).thenReturn(Types.INTEGER);
+    when(metaData.getColumnType(4)).thenReturn(Types.DOUBLE);
+    when(metaData.getColumnType(6)).thenReturn(Types.BIT);
+    when(metaData.getColumnTypeName(6)).thenReturn("bool");
+
     when(resultSet.getMetaData()).thenReturn(metaData);
 
     // Set up row counter
@@ -0,0 +1,72 @@
+package io.github.gergilcan.PostgreSQLmapper.helpers;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResultSetHelper {
+
+  /**
+   * Creates a mock ResultSet returning the given rows through getObject
+   *
+   * @param columns The column names
+   * @param rows    The cell values, one array per row
+   */
+  public static ResultSet createResultSet(String[] columns, Object[]... rows) throws SQLException {
+    ResultSet resultSet = mock(ResultSet.class);
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnCount()).thenReturn(columns.length);
+    for (int i = 0; i < columns.length; i++) {
+      when(metaData.getColumnName(i + 1)).thenReturn(columns[i]);
+    }
+    when(resultSet.getMetaData()).thenReturn(metaData);
+
+    AtomicInteger current = new AtomicInteger(-1);
+    when(resultSet.next()).thenAnswer(invocation -> current.incrementAndGet() < rows.length);
+    when(resultSet.getObject(anyInt())).thenAnswer(invocation -> {
+      int column = invocation.getArgument(0);
+      return rows[current.get()][column - 1];
+    });
+    return resultSet;
+  }
+
+  /**
+   * Creates a mock ResultSet with typed column metadata; the test stubs
+   * {@code next()} and the getters
+   *
+   * @param names     The column names
+   * @param types     The JDBC types of the columns, see {@link java.sql.Types}
+   * @param typeNames The PostgreSQL type names of the columns
+   */
+  public static ResultSet createResultSet(String[] names, int[] types, String[] typeNames) throws SQLException {
+    ResultSet resultSet = mock(ResultSet.class);
+    ResultSetMetaData metaData = createMetaData(names, types, typeNames);
+    when(resultSet.getMetaData()).thenReturn(metaData);
+    return resultSet;
+  }
+
+  /**
+   * Creates mock column metadata, as returned by a ResultSet or a prepared
+   * statement
+   *
+   * @param names     The column names
+   * @param types     The JDBC types of the columns, see {@link java.sql.Types}
+   * @param typeNames The PostgreSQL type names of the columns
+   */
+  public static ResultSetMetaData createMetaData(String[] names, int[] types, String[] typeNames)
+      throws SQLException {
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnCount()).thenReturn(names.length);
+    for (int i = 0; i < names.length; i++) {
+      when(metaData.getColumnName(i + 1)).thenReturn(names[i]);
+      when(metaData.getColumnType(i + 1)).thenReturn(types[i]);
+      when(metaData.getColumnTypeName(i + 1)).thenReturn(typeNames[i]);
+    }
+    return metaData;
+  }
+}
@@ -0,0 +1,10 @@
+package io.github.gergilcan.PostgreSQLmapper.model;
+
+import lombok.Value;
+
+@Value
+public class ImmutableEntity {
+  String name;
+  long score;
+  Double ratio;
+}
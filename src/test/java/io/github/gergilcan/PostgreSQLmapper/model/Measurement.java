@@ -0,0 +1,17 @@
+package io.github.gergilcan.PostgreSQLmapper.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class Measurement {
+  private int count;
+  private long total;
+  private double average;
+  private boolean valid;
+  private short bucket;
+  private float ratio;
+  private Integer boxedCount = -1;
+  private String label;
+}
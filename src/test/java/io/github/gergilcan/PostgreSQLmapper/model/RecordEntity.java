@@ -0,0 +1,8 @@
+package io.github.gergilcan.PostgreSQLmapper.model;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+public record RecordEntity(UUID id, String fullName, int age, @JsonAlias("is_active") boolean active) {
+}